@@ -0,0 +1,177 @@
+package pe.edu.vallegrande.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenFueraDeHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+import pe.edu.vallegrande.repository.jdbc.AlmacenJdbc;
+import pe.edu.vallegrande.repository.persistencia.AlmacenConWal;
+import pe.edu.vallegrande.repository.persistencia.UsuarioWal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Las operaciones de {@link AlmacenUsuarios} contra cada motor, sin el repositorio encima:
+ * lectura puntual y por lotes, recorrido por rango, compara y reemplaza, alta y alta por
+ * lotes. Las escrituras esperan a {@code confirmar()}, que en el motor con log incluye el
+ * {@code fsync}; el motor {@code jdbc} es H2 en archivo con su caché cercana, frente al mapa
+ * concurrente de {@code heap}. Todo motor nuevo se agrega a {@code motor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlmacenesBenchmark {
+
+    private static final int LOTE_CARGA = 1_000;
+
+    @Param({"100000"})
+    public int usuarios;
+
+    @Param({"heap", "fuera-de-heap", "wal", "jdbc"})
+    public String motor;
+
+    private AlmacenUsuarios almacen;
+    private UsuarioWal wal;
+    private HikariDataSource dataSource;
+    private Path directorio;
+    private final AtomicLong siguiente = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        almacen = switch (motor) {
+            case "heap" -> new AlmacenEnHeap();
+            case "fuera-de-heap" -> new AlmacenFueraDeHeap();
+            case "wal" -> {
+                directorio = Files.createTempDirectory("almacen-benchmark");
+                wal = new UsuarioWal(directorio);
+                yield new AlmacenConWal(new AlmacenEnHeap(), wal);
+            }
+            case "jdbc" -> {
+                directorio = Files.createTempDirectory("almacen-benchmark");
+                HikariConfig config = new HikariConfig();
+                config.setJdbcUrl("jdbc:h2:file:" + directorio.resolve("usuarios") + ";QUERY_CACHE_SIZE=64");
+                config.setMaximumPoolSize(8);
+                config.setAutoCommit(false);
+                dataSource = new HikariDataSource(config);
+                yield new AlmacenJdbc(dataSource, usuarios, new SimpleMeterRegistry());
+            }
+            default -> throw new IllegalArgumentException("Motor desconocido: " + motor);
+        };
+        List<UsuarioRefactorizado> lote = new ArrayList<>(LOTE_CARGA);
+        for (long id = 1; id <= usuarios; id++) {
+            lote.add(registro(id));
+            if (lote.size() == LOTE_CARGA || id == usuarios) {
+                almacen.ponerVarios(lote);
+                lote.clear();
+            }
+        }
+        almacen.confirmar();
+        siguiente.set(usuarios + 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (wal != null) {
+            wal.close();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        if (directorio == null) {
+            return;
+        }
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : (Iterable<Path>) archivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(archivo);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UsuarioRefactorizado obtener() {
+        return almacen.obtener(ThreadLocalRandom.current().nextLong(1, usuarios + 1));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UsuarioRefactorizado[] obtenerVarios() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        long[] ids = new long[16];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = aleatorio.nextLong(1, usuarios + 1);
+        }
+        return almacen.obtenerVarios(ids);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int recorrerRango() {
+        long desde = ThreadLocalRandom.current().nextLong(usuarios - 100);
+        Iterator<UsuarioRefactorizado> rango = almacen.recorrerRango(desde, desde + 100);
+        int cantidad = 0;
+        while (rango.hasNext()) {
+            rango.next();
+            cantidad++;
+        }
+        return cantidad;
+    }
+
+    // Lo que hace una actualización del repositorio: leer la versión vigente y escribir la siguiente en el cálculo del ID
+    @Benchmark
+    @Threads(4)
+    public UsuarioRefactorizado calcularSiPresente() {
+        long id = ThreadLocalRandom.current().nextLong(1, usuarios + 1);
+        UsuarioRefactorizado nuevo = almacen.calcularSiPresente(id, (clave, actual) -> new UsuarioRefactorizado(clave,
+                actual.getNombre(), actual.getEmail(), actual.getEdad() % 120 + 1, actual.getTelefono(),
+                actual.getVersion() + 1));
+        almacen.confirmar();
+        return nuevo;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void poner() {
+        long id = siguiente.getAndIncrement();
+        almacen.poner(id, registro(id));
+        almacen.confirmar();
+    }
+
+    // Un lote de altas en una sola llamada: en el motor jdbc, un executeBatch en una transacción
+    @Benchmark
+    @Threads(4)
+    public List<UsuarioRefactorizado> ponerVarios() {
+        long primero = siguiente.getAndAdd(16);
+        List<UsuarioRefactorizado> lote = new ArrayList<>(16);
+        for (long id = primero; id < primero + 16; id++) {
+            lote.add(registro(id));
+        }
+        List<UsuarioRefactorizado> escritos = almacen.ponerVarios(lote);
+        almacen.confirmar();
+        return escritos;
+    }
+
+    private static UsuarioRefactorizado registro(long id) {
+        UsuarioRefactorizado usuario = DatosBenchmark.usuario(id);
+        usuario.setId(id);
+        usuario.setVersion(1L);
+        return usuario;
+    }
+}
@@ -0,0 +1,53 @@
+package pe.edu.vallegrande.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.CoincidenciaUsuario;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de la búsqueda aproximada por trigramas con consultas mal escritas. Se mide en
+ * modo muestreo para obtener percentiles (p99 incluido) en lugar de un promedio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BusquedaAproximadaBenchmark {
+
+    private static final String[] CONSULTAS = {
+            "jaun perez", "maria qispe", "carlso rodrigues", "lusia flroes", "jose mamani condori",
+            "veronika gutierres", "ricardo palomno", "sofia castiyo", "mgarcia", "huaman ramos"};
+
+    @Param({"100000", "1000000"})
+    public int usuarios;
+
+    private UsuarioRepositoryRefactorizado repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new UsuarioRepositoryRefactorizado();
+        List<UsuarioRefactorizado> lote = new ArrayList<>(10_000);
+        for (int i = 0; i < usuarios; i++) {
+            lote.add(DatosBenchmark.usuarioConNombreReal(i));
+            if (lote.size() == 10_000) {
+                repository.guardarLote(lote);
+                lote = new ArrayList<>(10_000);
+            }
+        }
+        repository.guardarLote(lote);
+    }
+
+    @Benchmark
+    public List<CoincidenciaUsuario> buscarAproximado() {
+        String consulta = CONSULTAS[ThreadLocalRandom.current().nextInt(CONSULTAS.length)];
+        return repository.buscarAproximado(consulta, 0.3, 20);
+    }
+}
@@ -0,0 +1,55 @@
+package pe.edu.vallegrande.benchmark;
+
+import pe.edu.vallegrande.model.Usuario;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.quality.model.User;
+
+/**
+ * Generación determinista de usuarios para los benchmarks.
+ */
+final class DatosBenchmark {
+
+    private static final String[] NOMBRES = {
+            "JUAN", "MARIA", "JOSE", "ROSA", "LUIS", "CARMEN", "CARLOS", "ANA", "JORGE", "LUCIA",
+            "MIGUEL", "ELENA", "PEDRO", "SOFIA", "MANUEL", "ISABEL", "RAUL", "PATRICIA", "CESAR", "VERONICA",
+            "JAVIER", "GLORIA", "VICTOR", "TERESA", "HUGO", "DIANA", "OSCAR", "BEATRIZ", "RICARDO", "MONICA"};
+
+    private static final String[] APELLIDOS = {
+            "QUISPE", "FLORES", "SANCHEZ", "RODRIGUEZ", "GARCIA", "HUAMAN", "RAMOS", "MAMANI", "TORRES", "MENDOZA",
+            "CHAVEZ", "DIAZ", "CASTILLO", "ROJAS", "VASQUEZ", "GONZALES", "PEREZ", "LOPEZ", "VARGAS", "GUTIERREZ",
+            "ESPINOZA", "CONDORI", "RIVERA", "SALAZAR", "ROMERO", "MORALES", "CRUZ", "JIMENEZ", "HERRERA", "PAREDES",
+            "AGUILAR", "CORDOVA", "MEDINA", "CASTRO", "VEGA", "CAMPOS", "SILVA", "SOTO", "PALOMINO", "CARDENAS"};
+
+    private DatosBenchmark() {
+    }
+
+    static UsuarioRefactorizado usuario(long indice) {
+        return UsuarioRefactorizado.builder()
+                .nombre("USUARIO " + indice)
+                .email("usuario" + indice + "@vallegrande.edu.pe")
+                .edad((int) (indice % 120) + 1)
+                .telefono("+51" + (900000000L + indice % 100000000L))
+                .build();
+    }
+
+    // Nombre con dos apellidos y email derivado, para que los trigramas se repitan como en datos reales
+    static UsuarioRefactorizado usuarioConNombreReal(long indice) {
+        String nombre = NOMBRES[(int) (indice % NOMBRES.length)];
+        String paterno = APELLIDOS[(int) (indice / NOMBRES.length % APELLIDOS.length)];
+        String materno = APELLIDOS[(int) (indice / NOMBRES.length / APELLIDOS.length % APELLIDOS.length)];
+        return UsuarioRefactorizado.builder()
+                .nombre(nombre + " " + paterno + " " + materno)
+                .email((nombre.charAt(0) + paterno + indice + "@vallegrande.edu.pe").toLowerCase())
+                .edad((int) (indice % 120) + 1)
+                .telefono("+51" + (900000000L + indice % 100000000L))
+                .build();
+    }
+
+    static Usuario usuarioLegacy(long indice) {
+        return new Usuario("USUARIO " + indice, "usuario" + indice + "@vallegrande.edu.pe", (int) (indice % 120) + 1);
+    }
+
+    static User userQuality(long indice) {
+        return new User("id-" + indice, "user " + indice, "user" + indice + "@vallegrande.edu.pe", (int) (indice % 120) + 1);
+    }
+}
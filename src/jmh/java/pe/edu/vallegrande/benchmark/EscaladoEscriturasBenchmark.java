@@ -0,0 +1,132 @@
+package pe.edu.vallegrande.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.cambios.BufferCambios;
+import pe.edu.vallegrande.repository.cambios.CambiosProperties;
+import pe.edu.vallegrande.repository.persistencia.WalFragmentado;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Escalado de {@code guardar} con la cantidad de hilos, con el repositorio de un solo
+ * fragmento frente al fragmentado. El repositorio se arma como en producción con la
+ * persistencia habilitada: flujo de cambios ({@link BufferCambios}) y un log por fragmento
+ * ({@link WalFragmentado}), así que cada alta espera su group commit y reclama un número en
+ * la secuencia única de eventos. Cada hilo hace un número fijo de altas por iteración sobre
+ * un repositorio nuevo, así que la memoria no crece con el rendimiento; el {@code main}
+ * repite el benchmark de 1 a 64 hilos e imprime el rendimiento total, la aceleración frente a
+ * un hilo y la eficiencia (aceleración / hilos, 1.0 es escalado lineal).
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@escalado
+ * mvn -Pbenchmarks test-compile exec:exec@escalado -Descalado.args="hilos=1,8,64 fragmentos=1,64,128"
+ * </pre>
+ *
+ * Los hilos por encima de los núcleos disponibles solo miden contención, no escalado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = EscaladoEscriturasBenchmark.ALTAS_POR_HILO)
+@Measurement(iterations = 5, batchSize = EscaladoEscriturasBenchmark.ALTAS_POR_HILO)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class EscaladoEscriturasBenchmark {
+
+    // Cada alta espera un fsync: con más, una iteración de un hilo tarda decenas de segundos
+    static final int ALTAS_POR_HILO = 5_000;
+
+    @Param({"1", "64"})
+    public int fragmentos;
+
+    private Path directorio;
+    private WalFragmentado wal;
+    private UsuarioRepositoryRefactorizado repository;
+
+    // Un repositorio y un log vacíos por iteración: con 64 hilos cada una deja más de 300 mil usuarios
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directorio = Files.createTempDirectory("escalado-benchmark");
+        wal = new WalFragmentado(directorio, fragmentos, AlmacenEnHeap::new);
+        repository = new UsuarioRepositoryRefactorizado(wal.almacen(), new BufferCambios(new CambiosProperties().getCapacidad()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        wal.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : (Iterable<Path>) archivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(archivo);
+            }
+        }
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado guardar(Hilo hilo) {
+        return repository.guardar(DatosBenchmark.usuario(hilo.siguiente++));
+    }
+
+    // Emails propios de cada hilo sin un contador compartido en el propio benchmark
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        private long siguiente;
+
+        @Setup(Level.Iteration)
+        public void setUp(ThreadParams parametros) {
+            siguiente = (long) parametros.getThreadIndex() << 32;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Map<String, String> opciones = new HashMap<>();
+        for (String argumento : args) {
+            String[] partes = argumento.split("=", 2);
+            opciones.put(partes[0], partes[1]);
+        }
+        String[] hilos = opciones.getOrDefault("hilos", "1,2,4,8,16,32,64").split(",");
+        String[] fragmentos = opciones.getOrDefault("fragmentos", "1,64").split(",");
+
+        // fragmentos -> hilos -> altas por milisegundo
+        Map<Integer, Map<Integer, Double>> rendimientos = new TreeMap<>();
+        for (String cantidad : hilos) {
+            int h = Integer.parseInt(cantidad);
+            for (RunResult resultado : new Runner(new OptionsBuilder()
+                    .include(EscaladoEscriturasBenchmark.class.getSimpleName())
+                    .threads(h)
+                    .param("fragmentos", fragmentos)
+                    .build()).run()) {
+                int f = Integer.parseInt(resultado.getParams().getParam("fragmentos"));
+                // SingleShotTime da los milisegundos que tarda cada hilo en su lote de altas
+                double porMilisegundo = h * (double) ALTAS_POR_HILO / resultado.getPrimaryResult().getScore();
+                rendimientos.computeIfAbsent(f, clave -> new TreeMap<>()).put(h, porMilisegundo);
+            }
+        }
+
+        List<String> filas = new ArrayList<>();
+        rendimientos.forEach((f, porHilos) -> {
+            double base = porHilos.values().iterator().next() / porHilos.keySet().iterator().next();
+            porHilos.forEach((h, porMilisegundo) -> filas.add(String.format("%10d %6d %14.0f %12.2f %11.2f",
+                    f, h, porMilisegundo, porMilisegundo / base, porMilisegundo / base / h)));
+        });
+        System.out.printf("%n%10s %6s %14s %12s %11s%n", "fragmentos", "hilos", "altas/ms", "aceleracion", "eficiencia");
+        filas.forEach(System.out::println);
+    }
+}
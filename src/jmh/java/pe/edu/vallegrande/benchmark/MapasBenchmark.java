@@ -0,0 +1,83 @@
+package pe.edu.vallegrande.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.mapa.MapaCadenaLongConcurrente;
+import pe.edu.vallegrande.repository.mapa.MapaLongConcurrente;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índices por ID y por email: mapas con claves o valores primitivos frente a
+ * {@link ConcurrentHashMap}. Conviene ejecutarlo con {@code -prof gc} para ver los
+ * bytes asignados por operación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class MapasBenchmark {
+
+    @Param({"1000000"})
+    public int usuarios;
+
+    private final Map<Long, UsuarioRefactorizado> porIdHash = new ConcurrentHashMap<>();
+    private final MapaLongConcurrente<UsuarioRefactorizado> porIdPrimitivo = new MapaLongConcurrente<>();
+    private final Map<String, Long> porEmailHash = new ConcurrentHashMap<>();
+    private final MapaCadenaLongConcurrente porEmailPrimitivo = new MapaCadenaLongConcurrente();
+
+    // Emails creados de antemano para medir solo el índice y no la construcción de la cadena
+    private String[] emails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emails = new String[usuarios];
+        for (int i = 0; i < usuarios; i++) {
+            UsuarioRefactorizado usuario = DatosBenchmark.usuario(i);
+            long id = i + 1L;
+            emails[i] = usuario.getEmail();
+            porIdHash.put(id, usuario);
+            porIdPrimitivo.poner(id, usuario);
+            porEmailHash.put(usuario.getEmail(), id);
+            porEmailPrimitivo.poner(usuario.getEmail(), id);
+        }
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado obtenerPorIdConcurrentHashMap() {
+        return porIdHash.get(ThreadLocalRandom.current().nextLong(1, usuarios + 1));
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado obtenerPorIdPrimitivo() {
+        return porIdPrimitivo.obtener(ThreadLocalRandom.current().nextLong(1, usuarios + 1));
+    }
+
+    @Benchmark
+    public Long idPorEmailConcurrentHashMap() {
+        return porEmailHash.get(emails[ThreadLocalRandom.current().nextInt(usuarios)]);
+    }
+
+    @Benchmark
+    public long idPorEmailPrimitivo() {
+        return porEmailPrimitivo.obtener(emails[ThreadLocalRandom.current().nextInt(usuarios)]);
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado ponerPorIdConcurrentHashMap() {
+        long id = ThreadLocalRandom.current().nextLong(1, usuarios + 1);
+        return porIdHash.put(id, porIdHash.get(id));
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado ponerPorIdPrimitivo() {
+        long id = ThreadLocalRandom.current().nextLong(1, usuarios + 1);
+        return porIdPrimitivo.poner(id, porIdPrimitivo.obtener(id));
+    }
+}
@@ -0,0 +1,67 @@
+package pe.edu.vallegrande.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.service.UsuarioValidationService;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sobrecoste de la instrumentación por llamada: las mismas operaciones con el registro de
+ * Prometheus de producción (timers con histograma) y con un registro que descarta todos
+ * los medidores, donde cada timer es un no-op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricasBenchmark {
+
+    private static final int USUARIOS = 10_000;
+
+    @Param({"sinMetricas", "prometheus"})
+    public String registro;
+
+    private UsuarioRepositoryRefactorizado repository;
+    private UsuarioValidationService validationService;
+    private UsuarioRefactorizado usuario;
+    private long siguiente;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        if (registro.equals("sinMetricas")) {
+            meterRegistry.config().meterFilter(MeterFilter.deny());
+        }
+        repository = new UsuarioRepositoryRefactorizado(new AlmacenEnHeap(), null, meterRegistry);
+        validationService = new UsuarioValidationService(repository, meterRegistry);
+        for (int i = 0; i < USUARIOS; i++) {
+            repository.guardar(DatosBenchmark.usuario(i));
+        }
+        usuario = DatosBenchmark.usuario(USUARIOS);
+    }
+
+    @Benchmark
+    public Optional<UsuarioRefactorizado> obtenerPorId() {
+        return repository.obtenerPorId(siguiente++ % USUARIOS + 1);
+    }
+
+    @Benchmark
+    public boolean existeEmail() {
+        return repository.existeEmail("usuario" + (siguiente++ % USUARIOS) + "@vallegrande.edu.pe");
+    }
+
+    @Benchmark
+    public Optional<String> validarUsuario() {
+        return validationService.buscarErrorDatosBasicos(usuario);
+    }
+}
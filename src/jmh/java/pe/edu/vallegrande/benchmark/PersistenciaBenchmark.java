@@ -0,0 +1,118 @@
+package pe.edu.vallegrande.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.persistencia.AlmacenConWal;
+import pe.edu.vallegrande.repository.persistencia.UsuarioWal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Escritura con log de escritura anticipada (group commit) frente al repositorio
+ * solo en memoria, y tiempo de recuperación al arrancar desde el log o desde un snapshot.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenciaBenchmark {
+
+    @Param({"1000000"})
+    public int registrosRecuperacion;
+
+    private Path directorio;
+    private UsuarioWal wal;
+    private UsuarioRepositoryRefactorizado conWal;
+    private UsuarioRepositoryRefactorizado enMemoria;
+    private Path directorioRecuperacion;
+    private Path directorioSnapshot;
+    private final AtomicLong siguiente = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directorio = Files.createTempDirectory("wal-benchmark");
+        wal = new UsuarioWal(directorio.resolve("escritura"));
+        conWal = new UsuarioRepositoryRefactorizado(new AlmacenConWal(new AlmacenEnHeap(), wal));
+        enMemoria = new UsuarioRepositoryRefactorizado();
+
+        directorioRecuperacion = directorio.resolve("recuperacion");
+        directorioSnapshot = directorio.resolve("snapshot");
+        poblar(directorioRecuperacion, false);
+        poblar(directorioSnapshot, true);
+    }
+
+    private void poblar(Path destino, boolean conSnapshot) throws IOException {
+        try (UsuarioWal walPoblado = new UsuarioWal(destino)) {
+            AlmacenConWal almacen = new AlmacenConWal(new AlmacenEnHeap(), walPoblado);
+            UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado(almacen);
+            for (int i = 0; i < registrosRecuperacion; i += 1000) {
+                List<UsuarioRefactorizado> lote = new ArrayList<>(1000);
+                for (int j = i; j < Math.min(i + 1000, registrosRecuperacion); j++) {
+                    lote.add(DatosBenchmark.usuario(j));
+                }
+                repository.guardarLote(lote);
+            }
+            if (conSnapshot) {
+                almacen.tomarSnapshot();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wal.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : (Iterable<Path>) archivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(archivo);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public UsuarioRefactorizado guardarConWal() {
+        return conWal.guardar(DatosBenchmark.usuario(siguiente.getAndIncrement()));
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public UsuarioRefactorizado guardarEnMemoria() {
+        return enMemoria.guardar(DatosBenchmark.usuario(siguiente.getAndIncrement()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int recuperarDesdeLog() throws IOException {
+        try (UsuarioWal walRecuperacion = new UsuarioWal(directorioRecuperacion)) {
+            return new UsuarioRepositoryRefactorizado(new AlmacenConWal(new AlmacenEnHeap(), walRecuperacion)).obtenerPagina(null, 1).size();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int recuperarDesdeSnapshot() throws IOException {
+        try (UsuarioWal walSnapshot = new UsuarioWal(directorioSnapshot)) {
+            return new UsuarioRepositoryRefactorizado(new AlmacenConWal(new AlmacenEnHeap(), walSnapshot)).obtenerPagina(null, 1).size();
+        }
+    }
+}
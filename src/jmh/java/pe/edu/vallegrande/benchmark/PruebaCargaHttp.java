@@ -0,0 +1,265 @@
+package pe.edu.vallegrande.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import pe.edu.vallegrande.Application;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.service.UsuarioServiceRefactorizado;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga de {@code /api/v2/usuarios} con la aplicación completa levantada en este
+ * mismo proceso, atendiendo con el pool de hilos de plataforma de Tomcat ({@code plataforma}),
+ * con el perfil {@code virtual} y con la variante WebFlux sobre Netty del perfil
+ * {@code reactive} ({@code reactivo}). Cada conexión es un cliente en lazo cerrado sobre
+ * {@link HttpClient} asíncrono: envía, espera la respuesta y vuelve a enviar, así que las
+ * conexiones concurrentes se mantienen sin un hilo por cliente.
+ *
+ * <p>Escenarios: {@code lectura} ({@code GET /{id}}, CPU y caché), {@code escritura}
+ * ({@code PATCH /{id}} con el WAL activo, que espera el fsync del group commit) y
+ * {@code listado} ({@code GET ?after=&limit=100}, serialización de páginas). Los modos servlet
+ * usan los mismos límites de conexiones de Tomcat; solo cambia quién atiende el pedido.</p>
+ *
+ * <p>Con {@code logs} se mide además el coste de registrar cada pedido: {@code ninguno} (por
+ * defecto, solo WARN), {@code sincronos} (la configuración anterior, perfil
+ * {@code logs-sincronos}: consola en texto síncrona con DEBUG en cada pedido) y
+ * {@code asincronos} (la configuración por defecto: loggers asíncronos, JSON y DEBUG
+ * muestreado). Conviene redirigir la salida a un archivo, como haría el recolector de logs.</p>
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@carga -Dcarga.args="conexiones=10000 duracion=30"
+ * mvn -Pbenchmarks test-compile exec:exec@carga -Dcarga.args="modos=plataforma logs=sincronos,asincronos" > carga.log
+ * </pre>
+ *
+ * El modo {@code virtual} requiere ejecutar con Java 21. Cliente y servidor comparten CPU:
+ * los números sirven para comparar modos en la misma máquina, no como capacidad absoluta.
+ */
+public final class PruebaCargaHttp {
+
+    private static final int CAPACIDAD_MUESTRAS = 10_000_000;
+    private static final int CONEXIONES_POR_TANDA = 500;
+    private static final int SEGUNDOS_KEEP_ALIVE_CLIENTE = 3;
+
+    private PruebaCargaHttp() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Las conexiones de un escenario deben cerrarse antes del siguiente: cada una ocupa dos descriptores
+        System.setProperty("jdk.httpclient.keepalive.timeout", Integer.toString(SEGUNDOS_KEEP_ALIVE_CLIENTE));
+        Map<String, String> opciones = opciones(args);
+        int conexiones = Integer.parseInt(opciones.getOrDefault("conexiones", "10000"));
+        int usuarios = Integer.parseInt(opciones.getOrDefault("usuarios", "10000"));
+        Duration calentamiento = Duration.ofSeconds(Long.parseLong(opciones.getOrDefault("calentamiento", "30")));
+        Duration duracion = Duration.ofSeconds(Long.parseLong(opciones.getOrDefault("duracion", "20")));
+        List<String> modos = List.of(opciones.getOrDefault("modos", "plataforma,virtual").split(","));
+        List<String> escenarios = List.of(opciones.getOrDefault("escenarios", "lectura,escritura").split(","));
+        List<String> variantesLogs = List.of(opciones.getOrDefault("logs", "ninguno").split(","));
+
+        List<String> filas = new ArrayList<>();
+        for (String modo : modos) {
+            if (modo.equals("virtual") && Runtime.version().feature() < 21) {
+                System.err.println("Se omite el modo virtual: requiere Java 21");
+                continue;
+            }
+            for (String logs : variantesLogs) {
+                try (ConfigurableApplicationContext contexto = iniciar(modo, logs)) {
+                    poblar(contexto.getBean(UsuarioServiceRefactorizado.class), usuarios);
+                    int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+                    for (String escenario : escenarios) {
+                        Resultado resultado = medir(puerto, escenario, usuarios, conexiones, calentamiento, duracion);
+                        filas.add(String.format("%-11s %-10s %-10s %10d %12.0f %9.2f %9.2f %9.2f %9d",
+                                modo, logs, escenario, conexiones, resultado.porSegundo(), resultado.percentil(0.50),
+                                resultado.percentil(0.99), resultado.percentil(0.999), resultado.errores()));
+                        Thread.sleep(Duration.ofSeconds(SEGUNDOS_KEEP_ALIVE_CLIENTE * 2L).toMillis());
+                    }
+                }
+            }
+        }
+
+        System.out.printf("%n%-11s %-10s %-10s %10s %12s %9s %9s %9s %9s%n",
+                "modo", "logs", "escenario", "conexiones", "pedidos/s", "p50 ms", "p99 ms", "p99.9 ms", "errores");
+        filas.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext iniciar(String modo, String logs) throws IOException {
+        Path datos = Files.createTempDirectory("carga-" + modo);
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Application.class);
+        List<String> perfiles = new ArrayList<>();
+        if (modo.equals("virtual")) {
+            perfiles.add("virtual");
+        } else if (modo.equals("reactivo")) {
+            perfiles.add("reactive");
+        }
+        if (logs.equals("sincronos")) {
+            perfiles.add("logs-sincronos");
+        }
+        builder.profiles(perfiles.toArray(String[]::new));
+        // Como argumentos de línea de comandos, para que prevalezcan sobre application.yml
+        List<String> argumentos = new ArrayList<>(List.of(
+                // Explícito: log4j2-test.xml de los benchmarks está en el classpath y Spring lo preferiría
+                "--logging.config=classpath:log4j2-spring.xml",
+                "--server.port=0",
+                // Los mismos límites del perfil virtual, para que solo cambie el modelo de hilos
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=1000",
+                "--usuarios.persistencia.directorio=" + datos,
+                "--usuarios.persistencia.snapshot.habilitado=false"));
+        if (logs.equals("ninguno")) {
+            // Sin el log de cada pedido, para medir solo el modelo de hilos
+            argumentos.add("--logging.level.pe.edu.vallegrande=WARN");
+        }
+        return builder.run(argumentos.toArray(String[]::new));
+    }
+
+    private static void poblar(UsuarioServiceRefactorizado service, int usuarios) {
+        for (int inicio = 0; inicio < usuarios; inicio += 10_000) {
+            List<UsuarioRefactorizado> lote = new ArrayList<>();
+            for (int i = inicio; i < Math.min(inicio + 10_000, usuarios); i++) {
+                lote.add(DatosBenchmark.usuario(i));
+            }
+            service.crearLote(lote);
+        }
+    }
+
+    private static Resultado medir(int puerto, String escenario, int usuarios, int conexiones,
+                                   Duration calentamiento, Duration duracion) throws InterruptedException {
+        String base = "http://localhost:" + puerto + "/api/v2/usuarios/";
+        ExecutorService ejecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(ejecutor)
+                .build();
+        try {
+            long ahora = System.nanoTime();
+            Registro registro = new Registro(ahora + calentamiento.toNanos(),
+                    ahora + calentamiento.toNanos() + duracion.toNanos());
+            CountDownLatch terminados = new CountDownLatch(conexiones);
+            // Se abren por tandas durante el calentamiento para no desbordar la cola de aceptación
+            for (int i = 0; i < conexiones; i++) {
+                new Conexion(cliente, ejecutor, base, escenario, usuarios, registro, terminados).enviar();
+                if ((i + 1) % CONEXIONES_POR_TANDA == 0) {
+                    Thread.sleep(50);
+                }
+            }
+            terminados.await();
+            return registro.resultado(duracion);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> opciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+        }
+        return opciones;
+    }
+
+    // Cliente en lazo cerrado: el siguiente pedido sale cuando llega la respuesta del anterior
+    private record Conexion(HttpClient cliente, ExecutorService ejecutor, String base, String escenario,
+                            int usuarios, Registro registro, CountDownLatch terminados) {
+
+        void enviar() {
+            long inicio = System.nanoTime();
+            if (inicio >= registro.fin) {
+                terminados.countDown();
+                return;
+            }
+            cliente.sendAsync(pedido(), HttpResponse.BodyHandlers.discarding())
+                    .whenCompleteAsync((respuesta, error) -> {
+                        registro.anotar(inicio, System.nanoTime(), error == null && respuesta.statusCode() < 400);
+                        enviar();
+                    }, ejecutor);
+        }
+
+        private HttpRequest pedido() {
+            long id = ThreadLocalRandom.current().nextLong(1, usuarios + 1);
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + id)).timeout(Duration.ofSeconds(60));
+            if (escenario.equals("escritura")) {
+                String telefono = Long.toString(900_000_000L + ThreadLocalRandom.current().nextLong(100_000_000L));
+                return builder.header("Content-Type", "application/merge-patch+json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"telefono\":\"" + telefono + "\"}"))
+                        .build();
+            }
+            if (escenario.equals("listado")) {
+                // Sin la barra final: Spring no empareja /api/v2/usuarios/ con /api/v2/usuarios
+                String coleccion = base.substring(0, base.length() - 1);
+                return HttpRequest.newBuilder(URI.create(coleccion + "?after=" + Math.max(0, id - 100) + "&limit=100"))
+                        .timeout(Duration.ofSeconds(60)).GET().build();
+            }
+            return builder.GET().build();
+        }
+    }
+
+    // Solo cuentan los pedidos que salieron dentro de la ventana de medición
+    private static final class Registro {
+
+        private final long inicio;
+        private final long fin;
+        private final long[] latencias = new long[CAPACIDAD_MUESTRAS];
+        private final AtomicInteger cantidad = new AtomicInteger();
+        private final AtomicLong errores = new AtomicLong();
+
+        Registro(long inicio, long fin) {
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        void anotar(long enviado, long recibido, boolean exitoso) {
+            if (enviado < inicio) {
+                return;
+            }
+            if (!exitoso) {
+                errores.incrementAndGet();
+                return;
+            }
+            int posicion = cantidad.getAndIncrement();
+            if (posicion < latencias.length) {
+                latencias[posicion] = recibido - enviado;
+            }
+        }
+
+        Resultado resultado(Duration duracion) {
+            int total = cantidad.get();
+            long[] ordenadas = Arrays.copyOf(latencias, Math.min(total, latencias.length));
+            Arrays.sort(ordenadas);
+            return new Resultado(total / (double) duracion.toSeconds(), ordenadas, errores.get());
+        }
+    }
+
+    private record Resultado(double porSegundo, long[] latencias, long errores) {
+
+        double percentil(double p) {
+            if (latencias.length == 0) {
+                return Double.NaN;
+            }
+            int indice = (int) Math.min(latencias.length - 1, Math.ceil(p * latencias.length) - 1);
+            return latencias[Math.max(0, indice)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package pe.edu.vallegrande.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.Usuario;
+import pe.edu.vallegrande.quality.model.User;
+import pe.edu.vallegrande.quality.repository.UserRepository;
+import pe.edu.vallegrande.repository.UsuarioRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Línea base con los repositorios originales para comparar contra
+ * {@link UsuarioRepositoryRefactorizadoBenchmark}. {@code UsuarioRepository} no es seguro
+ * para hilos, por eso se mide con un solo hilo; {@code UserRepository} ya usa índices
+ * concurrentes y se mide igual para compararlo con la medición anterior.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class RepositorioLegacyBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int usuarios;
+
+    private UsuarioRepository usuarioRepository;
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        usuarioRepository = new UsuarioRepository();
+        userRepository = new UserRepository();
+        for (int i = 0; i < usuarios; i++) {
+            usuarioRepository.guardar(DatosBenchmark.usuarioLegacy(i));
+            userRepository.save(DatosBenchmark.userQuality(i));
+        }
+    }
+
+    @Benchmark
+    public Usuario usuarioObtenerPorId() {
+        return usuarioRepository.obtenerPorId(ThreadLocalRandom.current().nextLong(1, usuarios + 1));
+    }
+
+    @Benchmark
+    public boolean usuarioExisteEmail() {
+        int indice = ThreadLocalRandom.current().nextInt(usuarios);
+        return usuarioRepository.existeEmail("usuario" + indice + "@vallegrande.edu.pe");
+    }
+
+    @Benchmark
+    public Optional<User> userFindById() {
+        return userRepository.findById("id-" + ThreadLocalRandom.current().nextInt(usuarios));
+    }
+}
@@ -0,0 +1,93 @@
+package pe.edu.vallegrande.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import pe.edu.vallegrande.controller.UsuarioControllerRefactorizado;
+import pe.edu.vallegrande.exception.GlobalExceptionHandler;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.service.UsuarioServiceRefactorizado;
+import pe.edu.vallegrande.service.UsuarioValidationService;
+import pe.edu.vallegrande.service.cache.CacheRespuestasUsuario;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Pedidos que terminan en error frente a los que terminan bien, a través de Spring MVC
+ * completo (despacho, controlador, resolución de la excepción y escritura del cuerpo) con
+ * {@link MockMvc}: un {@code GET} de un ID que no existe frente a uno que sí, y un alta con
+ * email repetido frente a una con email nuevo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// La pila de Spring MVC tarda en compilarse: con menos calentamiento domina el intérprete
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RespuestasErrorBenchmark {
+
+    private static final int USUARIOS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong siguiente = new AtomicLong(USUARIOS);
+    private MockMvc mockMvc;
+    private String cuerpoDuplicado;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        CacheRespuestasUsuario cache = new CacheRespuestasUsuario(objectMapper, 64L << 20, new SimpleMeterRegistry());
+        UsuarioServiceRefactorizado service =
+                new UsuarioServiceRefactorizado(repository, new UsuarioValidationService(repository), cache, null);
+        for (int i = 0; i < USUARIOS; i++) {
+            service.crear(DatosBenchmark.usuario(i));
+        }
+        // Sin MeterRegistry en el contexto: el manejador cuenta los errores en uno propio
+        GlobalExceptionHandler manejador =
+                new GlobalExceptionHandler(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(new UsuarioControllerRefactorizado(service, objectMapper))
+                .setControllerAdvice(manejador)
+                .build();
+        cuerpoDuplicado = objectMapper.writeValueAsString(DatosBenchmark.usuario(0));
+    }
+
+    @Benchmark
+    public MvcResult obtenerExistente() throws Exception {
+        return mockMvc.perform(get("/api/v2/usuarios/{id}", ThreadLocalRandom.current().nextLong(1, USUARIOS + 1)))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult obtenerInexistente() throws Exception {
+        return mockMvc.perform(get("/api/v2/usuarios/{id}", ThreadLocalRandom.current().nextLong(USUARIOS + 1, Long.MAX_VALUE)))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult crearNuevo() throws Exception {
+        return mockMvc.perform(post("/api/v2/usuarios")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(DatosBenchmark.usuario(siguiente.getAndIncrement()))))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult crearDuplicado() throws Exception {
+        return mockMvc.perform(post("/api/v2/usuarios")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoDuplicado))
+                .andReturn();
+    }
+}
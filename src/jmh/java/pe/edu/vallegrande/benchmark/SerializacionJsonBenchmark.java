@@ -0,0 +1,40 @@
+package pe.edu.vallegrande.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionJsonBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int usuarios;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<UsuarioRefactorizado> lista;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lista = new ArrayList<>(usuarios);
+        for (int i = 0; i < usuarios; i++) {
+            UsuarioRefactorizado usuario = DatosBenchmark.usuario(i);
+            usuario.setId((long) i + 1);
+            lista.add(usuario);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(lista);
+    }
+}
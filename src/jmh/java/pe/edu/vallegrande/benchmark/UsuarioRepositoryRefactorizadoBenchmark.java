@@ -0,0 +1,70 @@
+package pe.edu.vallegrande.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenFueraDeHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsuarioRepositoryRefactorizadoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int usuarios;
+
+    @Param({"heap", "fuera-de-heap"})
+    public String almacen;
+
+    private UsuarioRepositoryRefactorizado repository;
+    private final AtomicLong siguiente = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AlmacenUsuarios datos = almacen.equals("heap") ? new AlmacenEnHeap() : new AlmacenFueraDeHeap();
+        repository = new UsuarioRepositoryRefactorizado(datos);
+        for (int i = 0; i < usuarios; i++) {
+            repository.guardar(DatosBenchmark.usuario(i));
+        }
+        siguiente.set(usuarios);
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado guardar() {
+        return repository.guardar(DatosBenchmark.usuario(siguiente.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Optional<UsuarioRefactorizado> obtenerPorId() {
+        return repository.obtenerPorId(ThreadLocalRandom.current().nextLong(1, usuarios + 1));
+    }
+
+    @Benchmark
+    public boolean existeEmail() {
+        int indice = ThreadLocalRandom.current().nextInt(usuarios);
+        return repository.existeEmail("usuario" + indice + "@vallegrande.edu.pe");
+    }
+
+    @Benchmark
+    public List<UsuarioRefactorizado> obtenerPagina() {
+        return repository.obtenerPagina(ThreadLocalRandom.current().nextLong(usuarios), 100);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<UsuarioRefactorizado> obtenerTodos() {
+        return repository.obtenerTodos();
+    }
+}
@@ -0,0 +1,95 @@
+package pe.edu.vallegrande.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.service.UsuarioServiceRefactorizado;
+import pe.edu.vallegrande.service.UsuarioValidationService;
+import pe.edu.vallegrande.service.cache.CacheRespuestasUsuario;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creación de usuarios de punta a punta (validación, normalización y guardado), lectura por
+ * ID de un conjunto caliente, serializando en cada pedido frente a la respuesta cacheada, y
+ * cambio del teléfono con el cuerpo completo de un PUT frente al de un PATCH, incluyendo la
+ * lectura del JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsuarioServiceRefactorizadoBenchmark {
+
+    private static final int USUARIOS_CALIENTES = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UsuarioServiceRefactorizado service;
+    private final AtomicLong siguiente = new AtomicLong();
+    private final AtomicLong telefonos = new AtomicLong();
+    private String[] cuerposSinTelefono;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        CacheRespuestasUsuario cache = new CacheRespuestasUsuario(objectMapper, 64L << 20, new SimpleMeterRegistry());
+        // Sin difusor: los benchmarks no se suscriben a los cambios
+        service = new UsuarioServiceRefactorizado(repository, new UsuarioValidationService(repository), cache, null);
+        for (int i = 0; i < USUARIOS_CALIENTES; i++) {
+            service.crear(DatosBenchmark.usuario(i));
+        }
+        siguiente.set(USUARIOS_CALIENTES);
+        
+        // El cuerpo del PUT repite todos los campos; solo el teléfono cambia entre pedidos
+        cuerposSinTelefono = new String[USUARIOS_CALIENTES];
+        for (int i = 0; i < USUARIOS_CALIENTES; i++) {
+            UsuarioRefactorizado usuario = DatosBenchmark.usuario(i);
+            cuerposSinTelefono[i] = "{\"nombre\":\"" + usuario.getNombre() + "\",\"email\":\"" + usuario.getEmail()
+                    + "\",\"edad\":" + usuario.getEdad() + ",\"telefono\":\"";
+        }
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado crear() {
+        return service.crear(DatosBenchmark.usuario(siguiente.getAndIncrement()));
+    }
+
+    @Benchmark
+    public byte[] obtenerPorIdSerializando() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(service.obtenerPorId(idCaliente()));
+    }
+
+    @Benchmark
+    public CacheRespuestasUsuario.Respuesta obtenerPorIdCacheado() {
+        return service.obtenerRespuestaPorId(idCaliente());
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado actualizarTelefonoConPut() throws JsonProcessingException {
+        long id = idCaliente();
+        String cuerpo = cuerposSinTelefono[(int) id - 1] + telefonoNuevo() + "\"}";
+        return service.actualizar(id, objectMapper.readValue(cuerpo, UsuarioRefactorizado.class));
+    }
+
+    @Benchmark
+    public UsuarioRefactorizado actualizarTelefonoConPatch() throws JsonProcessingException {
+        String cuerpo = "{\"telefono\":\"" + telefonoNuevo() + "\"}";
+        return service.aplicarCambios(idCaliente(), objectMapper.readValue(cuerpo, CambiosUsuario.class), null);
+    }
+
+    private String telefonoNuevo() {
+        return Long.toString(900_000_000L + telefonos.incrementAndGet() % 100_000_000L);
+    }
+
+    private static long idCaliente() {
+        return ThreadLocalRandom.current().nextLong(1, USUARIOS_CALIENTES + 1);
+    }
+}
@@ -0,0 +1,67 @@
+package pe.edu.vallegrande.benchmark;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.validation.ReglasUsuario;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de validación por solicitud: expresión regular recompilada (implementación
+ * anterior) frente al motor de una sola pasada, y Bean Validation completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
+    private static final String TELEFONO_REGEX = "^\\+?[0-9]{9,15}$";
+
+    private UsuarioRefactorizado usuario;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        usuario = UsuarioRefactorizado.builder()
+                .nombre("Juan Perez")
+                .email("juan.perez@vallegrande.edu.pe")
+                .edad(25)
+                .telefono("+51987654321")
+                .build();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean emailRegexRecompilada() {
+        return usuario.getEmail().matches(EMAIL_REGEX) && usuario.getTelefono().matches(TELEFONO_REGEX);
+    }
+
+    @Benchmark
+    public boolean emailMotorUnaPasada() {
+        return ReglasUsuario.esEmailValido(usuario.getEmail()) && ReglasUsuario.esTelefonoValido(usuario.getTelefono());
+    }
+
+    @Benchmark
+    public String reglasCompletas() {
+        return ReglasUsuario.buscarError(usuario);
+    }
+
+    @Benchmark
+    public int beanValidation() {
+        return validator.validate(usuario).size();
+    }
+}
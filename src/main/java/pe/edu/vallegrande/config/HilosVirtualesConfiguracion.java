@@ -0,0 +1,35 @@
+package pe.edu.vallegrande.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Perfil {@code virtual}: Tomcat, el ejecutor de tareas de Spring y el programador atienden
+ * cada pedido en un hilo virtual, y el servicio y el repositorio corren en ese mismo hilo.
+ * Las esperas bloqueantes del repositorio (la confirmación del WAL) usan
+ * {@code ReentrantLock} y {@code Condition}, así que desmontan el hilo virtual en lugar de
+ * fijarlo a su portador.
+ *
+ * <p>Spring Boot ignora {@code spring.threads.virtual.enabled} en silencio con Java anterior
+ * a 21; aquí se detiene el arranque para que el perfil no quede activo sin efecto.</p>
+ */
+@Slf4j
+@Configuration
+@Profile("virtual")
+public class HilosVirtualesConfiguracion {
+
+    private static final int VERSION_MINIMA_JAVA = 21;
+
+    @PostConstruct
+    void verificarVersionJava() {
+        int version = Runtime.version().feature();
+        if (version < VERSION_MINIMA_JAVA) {
+            throw new IllegalStateException(String.format(
+                "El perfil 'virtual' requiere Java %d o superior y se está ejecutando con Java %d",
+                VERSION_MINIMA_JAVA, version));
+        }
+        log.info("Pedidos atendidos en hilos virtuales");
+    }
+}
@@ -0,0 +1,25 @@
+package pe.edu.vallegrande.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Perfil {@code reactive}: la API v2 se atiende con {@code UsuarioControllerReactivo} sobre
+ * WebFlux. Con Tomcat en el classpath (lo trae el starter web) Spring Boot lo elegiría también
+ * como servidor reactivo, detrás del adaptador de Servlet; aquí se fija Netty para que los
+ * pedidos corran en su event loop y el backpressure llegue hasta el socket.
+ */
+@Slf4j
+@Configuration
+@Profile("reactive")
+public class ReactivoConfiguracion {
+
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        log.info("Pedidos atendidos por WebFlux sobre Netty");
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,34 @@
+package pe.edu.vallegrande.controller;
+
+import pe.edu.vallegrande.exception.VersionConflictoException;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+/**
+ * ETags fuertes de la API v2, compartidos por el controlador servlet y el reactivo: el
+ * ETag de un usuario es su versión entre comillas, el mismo que sirve la caché de respuestas.
+ */
+final class EtagsUsuario {
+
+    private EtagsUsuario() {
+    }
+
+    static String etag(UsuarioRefactorizado usuario) {
+        return "\"" + usuario.getVersion() + "\"";
+    }
+
+    // "*" equivale a no condicionar; los ETag débiles no sirven para If-Match (RFC 9110, 13.1.1)
+    static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.length() > 2 && etag.charAt(0) == '"' && etag.charAt(etag.length() - 1) == '"') {
+            try {
+                return Long.valueOf(etag.substring(1, etag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Cae al conflicto: ninguna versión vigente tiene esa forma
+            }
+        }
+        throw new VersionConflictoException("El ETag de If-Match no corresponde a la versión vigente: " + etag);
+    }
+}
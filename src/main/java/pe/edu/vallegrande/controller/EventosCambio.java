@@ -0,0 +1,34 @@
+package pe.edu.vallegrande.controller;
+
+import org.springframework.http.codec.ServerSentEvent;
+import pe.edu.vallegrande.exception.SecuenciaVencidaException;
+import pe.edu.vallegrande.model.EventoCambio;
+import reactor.core.publisher.Flux;
+
+import java.util.Locale;
+
+/**
+ * Formato SSE de {@code /changes}, común al controlador servlet y al reactivo. El id de cada
+ * evento es su cursor (época del arranque y secuencia), así que un {@code EventSource} que se
+ * reconecta envía el último en {@code Last-Event-ID} y retoma sin huecos; tras un reinicio del
+ * servidor recibe 410 en lugar de saltarse eventos.
+ */
+final class EventosCambio {
+
+    static final String ULTIMO_EVENTO = "Last-Event-ID";
+
+    private EventosCambio() {
+    }
+
+    // Una suscripción que se rezaga recibe un último evento "vencido" en lugar de un corte sin explicación
+    static Flux<ServerSentEvent<Object>> comoSse(Flux<EventoCambio> cambios) {
+        return cambios
+                .map(evento -> ServerSentEvent.<Object>builder(evento)
+                        .id(evento.cursor())
+                        .event(evento.tipo().name().toLowerCase(Locale.ROOT))
+                        .build())
+                .onErrorResume(SecuenciaVencidaException.class, e -> Flux.just(ServerSentEvent.<Object>builder(e.getMessage())
+                        .event("vencido")
+                        .build()));
+    }
+}
@@ -0,0 +1,171 @@
+package pe.edu.vallegrande.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.CoincidenciaUsuario;
+import pe.edu.vallegrande.model.PaginaUsuarios;
+import pe.edu.vallegrande.model.ResultadoLote;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.service.UsuarioServiceReactivo;
+import pe.edu.vallegrande.service.UsuarioServiceRefactorizado;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Variante WebFlux de {@link UsuarioControllerRefactorizado}: mismas rutas, mismos códigos
+ * y mismos ETags, activa solo con el perfil {@code reactive}. Los listados en streaming
+ * ({@code /export} y {@code /stream}) se escriben elemento a elemento con la demanda del
+ * cliente: Netty deja de pedir usuarios mientras el socket no admite más bytes.
+ */
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v2/usuarios")
+@RequiredArgsConstructor
+public class UsuarioControllerReactivo {
+
+    private static final String MEDIA_TYPE_MERGE_PATCH = "application/merge-patch+json";
+
+    private final UsuarioServiceReactivo usuarioService;
+
+    @PostMapping
+    public Mono<ResponseEntity<UsuarioRefactorizado>> crear(@Valid @RequestBody UsuarioRefactorizado usuario) {
+        log.debug("Solicitud para crear usuario con email: {}", usuario.getEmail());
+
+        return usuarioService.crear(usuario)
+                .map(usuarioCreado -> new ResponseEntity<>(usuarioCreado, HttpStatus.CREATED));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResultadoLote> crearLote(@RequestBody List<UsuarioRefactorizado> usuarios) {
+        log.debug("Solicitud para crear lote de {} usuarios", usuarios.size());
+
+        return usuarioService.crearLote(usuarios);
+    }
+
+    // El códec decodifica una línea por elemento; el lote se valida completo, igual que en la API servlet,
+    // y se deja de leer un usuario después del límite para que el servicio lo rechace sin acumular el resto
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResultadoLote> crearLoteNdjson(@RequestBody Flux<UsuarioRefactorizado> usuarios) {
+        return usuarios.take(UsuarioServiceRefactorizado.LIMITE_MAXIMO_LOTE + 1L)
+                .collectList()
+                .doOnNext(lote -> log.debug("Solicitud para crear lote NDJSON de {} usuarios", lote.size()))
+                .flatMap(usuarioService::crearLote);
+    }
+
+    @GetMapping
+    public Mono<PaginaUsuarios> obtenerPagina(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.debug("Solicitud para obtener usuarios después de ID: {}", after);
+
+        return usuarioService.obtenerPagina(after, cursor, limit);
+    }
+
+    @GetMapping("/search")
+    public Mono<PaginaUsuarios> buscar(
+            @RequestParam(required = false) String nombrePrefix,
+            @RequestParam(required = false) Integer edadMin,
+            @RequestParam(required = false) Integer edadMax,
+            @RequestParam(required = false) String telefono,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.debug("Solicitud de búsqueda de usuarios");
+
+        return usuarioService.buscar(nombrePrefix, edadMin, edadMax, telefono, cursor, limit);
+    }
+
+    @GetMapping("/search/fuzzy")
+    public Mono<List<CoincidenciaUsuario>> buscarAproximado(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.debug("Solicitud de búsqueda aproximada de usuarios");
+
+        return usuarioService.buscarAproximado(q, limit);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UsuarioRefactorizado> exportar() {
+        log.info("Solicitud para exportar todos los usuarios");
+
+        return usuarioService.recorrer(0L);
+    }
+
+    // Un evento por usuario con su ID como id del evento: al reconectar, Last-Event-ID retoma el recorrido donde quedó
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<UsuarioRefactorizado>> transmitir(
+            @RequestHeader(value = EventosCambio.ULTIMO_EVENTO, required = false) Long ultimoId) {
+        log.info("Solicitud para transmitir usuarios después de ID: {}", ultimoId);
+
+        return usuarioService.recorrer(ultimoId != null ? ultimoId : 0L)
+                .map(usuario -> ServerSentEvent.builder(usuario)
+                        .id(Long.toString(usuario.getId()))
+                        .event("usuario")
+                        .build());
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> cambios(
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = EventosCambio.ULTIMO_EVENTO, required = false) String ultimoEvento) {
+        log.info("Suscripción a cambios de usuarios desde el cursor: {}", since != null ? since : ultimoEvento);
+
+        return EventosCambio.comoSse(usuarioService.cambios(since != null ? since : ultimoEvento));
+    }
+
+    // Con un If-None-Match que coincide, WebFlux responde 304 sin cuerpo a partir del ETag
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> obtenerPorId(@PathVariable Long id) {
+        log.debug("Solicitud para obtener usuario con ID: {}", id);
+
+        return usuarioService.obtenerRespuestaPorId(id)
+                .map(respuesta -> ResponseEntity.ok()
+                        .eTag(respuesta.etag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(respuesta.json()));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<UsuarioRefactorizado>> actualizar(
+            @PathVariable Long id,
+            @Valid @RequestBody UsuarioRefactorizado usuario,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        log.debug("Solicitud para actualizar usuario con ID: {}", id);
+
+        return usuarioService.actualizar(id, usuario, EtagsUsuario.versionEsperada(ifMatch))
+                .map(actualizado -> ResponseEntity.ok().eTag(EtagsUsuario.etag(actualizado)).body(actualizado));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MEDIA_TYPE_MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<UsuarioRefactorizado>> aplicarCambios(
+            @PathVariable Long id,
+            @RequestBody CambiosUsuario cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        log.debug("Solicitud para modificar parcialmente el usuario con ID: {}", id);
+
+        return usuarioService.aplicarCambios(id, cambios, EtagsUsuario.versionEsperada(ifMatch))
+                .map(actualizado -> ResponseEntity.ok().eTag(EtagsUsuario.etag(actualizado)).body(actualizado));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> eliminar(@PathVariable Long id) {
+        log.debug("Solicitud para eliminar usuario con ID: {}", id);
+
+        return usuarioService.eliminar(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -1,69 +1,207 @@
 package pe.edu.vallegrande.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.CoincidenciaUsuario;
+import pe.edu.vallegrande.model.PaginaUsuarios;
+import pe.edu.vallegrande.model.ResultadoLote;
 import pe.edu.vallegrande.model.UsuarioRefactorizado;
 import pe.edu.vallegrande.service.UsuarioServiceRefactorizado;
+import pe.edu.vallegrande.service.cache.CacheRespuestasUsuario;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v2/usuarios")
 @RequiredArgsConstructor
 public class UsuarioControllerRefactorizado {
     
+    private static final String MEDIA_TYPE_MERGE_PATCH = "application/merge-patch+json";
+    
     private final UsuarioServiceRefactorizado usuarioService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
     public ResponseEntity<UsuarioRefactorizado> crear(@Valid @RequestBody UsuarioRefactorizado usuario) {
-        log.info("Solicitud para crear usuario con email: {}", usuario.getEmail());
+        log.debug("Solicitud para crear usuario con email: {}", usuario.getEmail());
         
         UsuarioRefactorizado usuarioCreado = usuarioService.crear(usuario);
         
         return new ResponseEntity<>(usuarioCreado, HttpStatus.CREATED);
     }
     
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoLote> crearLote(@RequestBody List<UsuarioRefactorizado> usuarios) {
+        log.debug("Solicitud para crear lote de {} usuarios", usuarios.size());
+        
+        return ResponseEntity.ok(usuarioService.crearLote(usuarios));
+    }
+    
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResultadoLote> crearLoteNdjson(InputStream entrada) throws IOException {
+        List<UsuarioRefactorizado> usuarios = new ArrayList<>();
+        try (MappingIterator<UsuarioRefactorizado> iterador =
+                     objectMapper.readerFor(UsuarioRefactorizado.class).readValues(entrada)) {
+            // Se lee hasta un usuario más que el límite: el servicio rechaza el lote sin leer el resto del cuerpo
+            while (usuarios.size() <= UsuarioServiceRefactorizado.LIMITE_MAXIMO_LOTE && iterador.hasNextValue()) {
+                usuarios.add(iterador.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("El cuerpo NDJSON no es válido: " + e.getOriginalMessage());
+        }
+        log.debug("Solicitud para crear lote NDJSON de {} usuarios", usuarios.size());
+        
+        return ResponseEntity.ok(usuarioService.crearLote(usuarios));
+    }
+    
     @GetMapping
-    public ResponseEntity<List<UsuarioRefactorizado>> obtenerTodos() {
-        log.debug("Solicitud para obtener todos los usuarios");
+    public ResponseEntity<PaginaUsuarios> obtenerPagina(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.debug("Solicitud para obtener usuarios después de ID: {}", after);
+        
+        PaginaUsuarios pagina = usuarioService.obtenerPagina(after, cursor, limit);
+        
+        return ResponseEntity.ok(pagina);
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<PaginaUsuarios> buscar(
+            @RequestParam(required = false) String nombrePrefix,
+            @RequestParam(required = false) Integer edadMin,
+            @RequestParam(required = false) Integer edadMax,
+            @RequestParam(required = false) String telefono,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.debug("Solicitud de búsqueda de usuarios");
+        
+        PaginaUsuarios pagina = usuarioService.buscar(nombrePrefix, edadMin, edadMax, telefono, cursor, limit);
+        
+        return ResponseEntity.ok(pagina);
+    }
+    
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<List<CoincidenciaUsuario>> buscarAproximado(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.debug("Solicitud de búsqueda aproximada de usuarios");
         
-        List<UsuarioRefactorizado> usuarios = usuarioService.obtenerTodos();
+        return ResponseEntity.ok(usuarioService.buscarAproximado(q, limit));
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        log.info("Solicitud para exportar todos los usuarios");
         
-        return ResponseEntity.ok(usuarios);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this::escribirNdjson);
     }
     
+    // Sin since ni Last-Event-ID solo llegan los cambios nuevos; un cursor de otro arranque o ya fuera del buffer responde 410
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> cambios(
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = EventosCambio.ULTIMO_EVENTO, required = false) String ultimoEvento) {
+        log.info("Suscripción a cambios de usuarios desde el cursor: {}", since != null ? since : ultimoEvento);
+        
+        return EventosCambio.comoSse(usuarioService.cambios(since != null ? since : ultimoEvento));
+    }
+    
+    // Sirve el JSON cacheado; con un If-None-Match que coincide, Spring responde 304 sin cuerpo a partir del ETag
     @GetMapping("/{id}")
-    public ResponseEntity<UsuarioRefactorizado> obtenerPorId(@PathVariable Long id) {
+    public ResponseEntity<byte[]> obtenerPorId(@PathVariable Long id) {
         log.debug("Solicitud para obtener usuario con ID: {}", id);
         
-        UsuarioRefactorizado usuario = usuarioService.obtenerPorId(id);
+        CacheRespuestasUsuario.Respuesta respuesta = usuarioService.obtenerRespuestaPorId(id);
         
-        return ResponseEntity.ok(usuario);
+        return ResponseEntity.ok()
+                .eTag(respuesta.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(respuesta.json());
     }
     
+    // Con If-Match la actualización solo se aplica si el ETag sigue siendo el vigente; si no, 412
     @PutMapping("/{id}")
     public ResponseEntity<UsuarioRefactorizado> actualizar(
             @PathVariable Long id, 
-            @Valid @RequestBody UsuarioRefactorizado usuario) {
+            @Valid @RequestBody UsuarioRefactorizado usuario,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        
+        log.debug("Solicitud para actualizar usuario con ID: {}", id);
         
-        log.info("Solicitud para actualizar usuario con ID: {}", id);
+        UsuarioRefactorizado usuarioActualizado = usuarioService.actualizar(id, usuario, EtagsUsuario.versionEsperada(ifMatch));
         
-        UsuarioRefactorizado usuarioActualizado = usuarioService.actualizar(id, usuario);
+        return ResponseEntity.ok()
+                .eTag(EtagsUsuario.etag(usuarioActualizado))
+                .body(usuarioActualizado);
+    }
+    
+    // JSON Merge Patch: solo viajan y se validan los campos que cambian; admite el mismo If-Match que PUT
+    @PatchMapping(value = "/{id}", consumes = {MEDIA_TYPE_MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<UsuarioRefactorizado> aplicarCambios(
+            @PathVariable Long id,
+            @RequestBody CambiosUsuario cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        
+        log.debug("Solicitud para modificar parcialmente el usuario con ID: {}", id);
+        
+        UsuarioRefactorizado usuarioActualizado = usuarioService.aplicarCambios(id, cambios, EtagsUsuario.versionEsperada(ifMatch));
         
-        return ResponseEntity.ok(usuarioActualizado);
+        return ResponseEntity.ok()
+                .eTag(EtagsUsuario.etag(usuarioActualizado))
+                .body(usuarioActualizado);
     }
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> eliminar(@PathVariable Long id) {
-        log.info("Solicitud para eliminar usuario con ID: {}", id);
+        log.debug("Solicitud para eliminar usuario con ID: {}", id);
         
         usuarioService.eliminar(id);
         
         return ResponseEntity.noContent().build();
     }
+    
+    // Un único JsonGenerator reutilizado para todo el recorrido: memoria constante sin importar el volumen
+    private void escribirNdjson(OutputStream salida) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(UsuarioRefactorizado.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida);
+             Stream<UsuarioRefactorizado> usuarios = usuarioService.exportar()) {
+            generador.setRootValueSeparator(null);
+            
+            Iterator<UsuarioRefactorizado> iterador = usuarios.iterator();
+            while (iterador.hasNext()) {
+                writer.writeValue(generador, iterador.next());
+                generador.writeRaw('\n');
+            }
+        }
+    }
 }
\ No newline at end of file
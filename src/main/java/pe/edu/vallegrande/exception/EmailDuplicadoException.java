@@ -1,6 +1,6 @@
 package pe.edu.vallegrande.exception;
 
-public class EmailDuplicadoException extends RuntimeException {
+public class EmailDuplicadoException extends ExcepcionDominio {
     public EmailDuplicadoException(String message) {
         super(message);
     }
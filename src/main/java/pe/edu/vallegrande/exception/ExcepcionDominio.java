@@ -0,0 +1,18 @@
+package pe.edu.vallegrande.exception;
+
+/**
+ * Base de los errores de dominio que terminan en una respuesta 4xx. Son resultados
+ * esperados del pedido (un ID inexistente, un email repetido), no fallos del programa: no
+ * capturan la pila al construirse, que es la mayor parte del coste de lanzarlos, y el
+ * mensaje basta para diagnosticarlos.
+ */
+public abstract class ExcepcionDominio extends RuntimeException {
+
+    protected ExcepcionDominio(String message) {
+        super(message, null, false, false);
+    }
+
+    protected ExcepcionDominio(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -1,39 +1,72 @@
 package pe.edu.vallegrande.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Clock;
 
+/**
+ * Errores como {@code application/problem+json} (RFC 7807). Los 404 y 409 son frecuentes
+ * (clientes que prueban IDs, importaciones que reintentan), así que cada respuesta sale de un
+ * cuerpo precodificado por estado más el detalle y la marca de tiempo del segundo en curso.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Problema NO_ENCONTRADO = new Problema(HttpStatus.NOT_FOUND);
+    private static final Problema CONFLICTO = new Problema(HttpStatus.CONFLICT);
+    private static final Problema PRECONDICION_FALLIDA = new Problema(HttpStatus.PRECONDITION_FAILED);
+    private static final Problema VENCIDO = new Problema(HttpStatus.GONE);
+    private static final Problema SOLICITUD_INVALIDA = new Problema(HttpStatus.BAD_REQUEST);
+
+    private final RelojSegundos reloj = new RelojSegundos(Clock.systemUTC());
+    private final Counter usuariosNoEncontrados;
+    private final Counter emailsDuplicados;
+
+    // Los tests de controlador no levantan métricas: sin registro se cuenta en uno local
+    public GlobalExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registro = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.usuariosNoEncontrados = registrarErrores(registro, "no_encontrado");
+        this.emailsDuplicados = registrarErrores(registro, "email_duplicado");
+    }
+
     @ExceptionHandler(UsuarioNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleUsuarioNotFound(UsuarioNotFoundException ex) {
-        return buildErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
+    public ResponseEntity<byte[]> handleUsuarioNotFound(UsuarioNotFoundException ex) {
+        usuariosNoEncontrados.increment();
+        return NO_ENCONTRADO.respuesta(ex.getMessage(), reloj.ahora());
     }
 
     @ExceptionHandler(EmailDuplicadoException.class)
-    public ResponseEntity<Map<String, Object>> handleEmailDuplicado(EmailDuplicadoException ex) {
-        return buildErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
+    public ResponseEntity<byte[]> handleEmailDuplicado(EmailDuplicadoException ex) {
+        emailsDuplicados.increment();
+        return CONFLICTO.respuesta(ex.getMessage(), reloj.ahora());
+    }
+
+    @ExceptionHandler(VersionConflictoException.class)
+    public ResponseEntity<byte[]> handleVersionConflicto(VersionConflictoException ex) {
+        return PRECONDICION_FALLIDA.respuesta(ex.getMessage(), reloj.ahora());
+    }
+
+    @ExceptionHandler(SecuenciaVencidaException.class)
+    public ResponseEntity<byte[]> handleSecuenciaVencida(SecuenciaVencidaException ex) {
+        return VENCIDO.respuesta(ex.getMessage(), reloj.ahora());
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
-        return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    public ResponseEntity<byte[]> handleIllegalArgument(IllegalArgumentException ex) {
+        return SOLICITUD_INVALIDA.respuesta(ex.getMessage(), reloj.ahora());
     }
 
-    private ResponseEntity<Map<String, Object>> buildErrorResponse(String message, HttpStatus status) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", status.value());
-        errorResponse.put("error", status.getReasonPhrase());
-        errorResponse.put("message", message);
-        
-        return new ResponseEntity<>(errorResponse, status);
+    private static Counter registrarErrores(MeterRegistry meterRegistry, String tipo) {
+        return Counter.builder("usuarios.errores")
+                .description("Errores de dominio devueltos por la API")
+                .tag("tipo", tipo)
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package pe.edu.vallegrande.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cuerpo RFC 7807 ({@code application/problem+json}) de un código de estado. La parte fija
+ * ({@code type}, {@code title}, {@code status}) se codifica una sola vez al construirse; por
+ * respuesta solo se escapa el detalle y se copian los bytes en un único arreglo del tamaño
+ * justo, sin mapa intermedio ni pasar por el {@code ObjectMapper}.
+ */
+final class Problema {
+
+    private static final byte[] DETALLE = bytes(",\"detail\":\"");
+    private static final byte[] MARCA_TIEMPO = bytes("\",\"timestamp\":\"");
+    private static final byte[] MARCA_TIEMPO_SIN_DETALLE = bytes(",\"timestamp\":\"");
+    private static final byte[] FIN = bytes("\"}");
+
+    private final HttpStatus status;
+    private final byte[] inicio;
+
+    Problema(HttpStatus status) {
+        this.status = status;
+        this.inicio = bytes("{\"type\":\"about:blank\",\"title\":\"" + status.getReasonPhrase()
+                + "\",\"status\":" + status.value());
+    }
+
+    ResponseEntity<byte[]> respuesta(String detalle, byte[] marcaTiempo) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(cuerpo(detalle, marcaTiempo));
+    }
+
+    byte[] cuerpo(String detalle, byte[] marcaTiempo) {
+        byte[] escapado = detalle != null ? JsonStringEncoder.getInstance().quoteAsUTF8(detalle) : null;
+        byte[] antesDeMarca = escapado != null ? MARCA_TIEMPO : MARCA_TIEMPO_SIN_DETALLE;
+        int largo = inicio.length + antesDeMarca.length + marcaTiempo.length + FIN.length
+                + (escapado != null ? DETALLE.length + escapado.length : 0);
+
+        byte[] cuerpo = new byte[largo];
+        int posicion = copiar(inicio, cuerpo, 0);
+        if (escapado != null) {
+            posicion = copiar(DETALLE, cuerpo, posicion);
+            posicion = copiar(escapado, cuerpo, posicion);
+        }
+        posicion = copiar(antesDeMarca, cuerpo, posicion);
+        posicion = copiar(marcaTiempo, cuerpo, posicion);
+        copiar(FIN, cuerpo, posicion);
+        return cuerpo;
+    }
+
+    private static int copiar(byte[] origen, byte[] destino, int posicion) {
+        System.arraycopy(origen, 0, destino, posicion, origen.length);
+        return posicion + origen.length;
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package pe.edu.vallegrande.exception;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Marca de tiempo ISO-8601 en UTC con resolución de segundos, ya codificada. Se formatea una
+ * vez por segundo y las respuestas de ese segundo reutilizan los mismos bytes; si dos hilos
+ * cambian de segundo a la vez, ambos formatean y cualquiera de los resultados sirve.
+ */
+final class RelojSegundos {
+
+    private final Clock clock;
+    private volatile Marca ultima = new Marca(Long.MIN_VALUE, null);
+
+    RelojSegundos(Clock clock) {
+        this.clock = clock;
+    }
+
+    byte[] ahora() {
+        long segundo = Math.floorDiv(clock.millis(), 1000L);
+        Marca marca = ultima;
+        if (marca.segundo() != segundo) {
+            String texto = DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochSecond(segundo));
+            marca = new Marca(segundo, texto.getBytes(StandardCharsets.US_ASCII));
+            ultima = marca;
+        }
+        return marca.bytes();
+    }
+
+    private record Marca(long segundo, byte[] bytes) {
+    }
+}
@@ -0,0 +1,7 @@
+package pe.edu.vallegrande.exception;
+
+public class SecuenciaVencidaException extends ExcepcionDominio {
+    public SecuenciaVencidaException(String message) {
+        super(message);
+    }
+}
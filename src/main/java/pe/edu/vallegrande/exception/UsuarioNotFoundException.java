@@ -1,6 +1,6 @@
 package pe.edu.vallegrande.exception;
 
-public class UsuarioNotFoundException extends RuntimeException {
+public class UsuarioNotFoundException extends ExcepcionDominio {
     public UsuarioNotFoundException(String message) {
         super(message);
     }
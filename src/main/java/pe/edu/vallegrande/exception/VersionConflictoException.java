@@ -0,0 +1,7 @@
+package pe.edu.vallegrande.exception;
+
+public class VersionConflictoException extends ExcepcionDominio {
+    public VersionConflictoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package pe.edu.vallegrande.logs;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * El muestreo depende de que el pedido se atienda de principio a fin en un mismo hilo, como en
+ * la API servlet (con hilos de plataforma o virtuales). En la reactiva los operadores saltan de
+ * hilo, así que sus logs DEBUG quedan siempre fuera.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(LogsProperties.class)
+public class LogsConfiguracion {
+
+    @Bean
+    public MuestreoLogsFilter muestreoLogsFilter(LogsProperties properties) {
+        return new MuestreoLogsFilter(properties.getMuestreoDebug());
+    }
+}
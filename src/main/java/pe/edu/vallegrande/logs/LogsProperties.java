@@ -0,0 +1,12 @@
+package pe.edu.vallegrande.logs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "usuarios.logs")
+public class LogsProperties {
+
+    // Fracción de pedidos que registran DEBUG: 0 ninguno, 1 todos
+    private double muestreoDebug = 0.01;
+}
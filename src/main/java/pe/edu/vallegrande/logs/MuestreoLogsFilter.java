@@ -0,0 +1,49 @@
+package pe.edu.vallegrande.logs;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decide al entrar cada pedido si registra sus logs DEBUG y lo marca en el MDC mientras se
+ * atiende: {@code muestreo=si} o {@code muestreo=no}. El {@code DynamicThresholdFilter} de
+ * {@code log4j2-spring.xml} deja pasar DEBUG solo con {@code si} y corta en INFO con
+ * {@code no}, antes de formatear el mensaje. Así un pedido muestreado se puede seguir
+ * completo, del controlador al repositorio, sin pagar el DEBUG de todos. Sin marca (hilos
+ * de fondo, arranque y toda la API reactiva, que no pasa por este filtro) rige el
+ * {@code defaultThreshold} del filtro, INFO: esos DEBUG no se registran.
+ */
+public class MuestreoLogsFilter extends OncePerRequestFilter {
+
+    static final String CLAVE = "muestreo";
+    static final String MUESTREADO = "si";
+    static final String NO_MUESTREADO = "no";
+
+    private final double fraccion;
+
+    public MuestreoLogsFilter(double fraccion) {
+        if (fraccion < 0 || fraccion > 1) {
+            throw new IllegalArgumentException("La fracción de muestreo debe estar entre 0 y 1: " + fraccion);
+        }
+        this.fraccion = fraccion;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // "no" corta en INFO igual que la ausencia de clave; se marca para que el JSON de cada log lo diga
+        boolean muestreado = fraccion > 0 && ThreadLocalRandom.current().nextDouble() < fraccion;
+        MDC.put(CLAVE, muestreado ? MUESTREADO : NO_MUESTREADO);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(CLAVE);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package pe.edu.vallegrande.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+
+/**
+ * Cuerpo de un {@code PATCH} con la semántica de JSON Merge Patch (RFC 7396): un campo
+ * ausente no cambia, uno presente reemplaza al actual y un {@code null} explícito lo borra.
+ * Jackson también llama al setter para los {@code null} explícitos, por eso cada setter
+ * marca su campo como presente.
+ *
+ * <p>El ID y la versión no se pueden modificar: si llegan en el cuerpo se ignoran.</p>
+ */
+@Getter
+@NoArgsConstructor
+public class CambiosUsuario {
+
+    private String nombre;
+    private String email;
+    private Integer edad;
+    private String telefono;
+
+    @Getter(AccessLevel.NONE)
+    private boolean conNombre;
+    @Getter(AccessLevel.NONE)
+    private boolean conEmail;
+    @Getter(AccessLevel.NONE)
+    private boolean conEdad;
+    @Getter(AccessLevel.NONE)
+    private boolean conTelefono;
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+        this.conNombre = true;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.conEmail = true;
+    }
+
+    public void setEdad(Integer edad) {
+        this.edad = edad;
+        this.conEdad = true;
+    }
+
+    public void setTelefono(String telefono) {
+        this.telefono = telefono;
+        this.conTelefono = true;
+    }
+
+    public boolean tieneNombre() {
+        return conNombre;
+    }
+
+    public boolean tieneEmail() {
+        return conEmail;
+    }
+
+    public boolean tieneEdad() {
+        return conEdad;
+    }
+
+    public boolean tieneTelefono() {
+        return conTelefono;
+    }
+
+    public boolean estaVacio() {
+        return !conNombre && !conEmail && !conEdad && !conTelefono;
+    }
+
+    // Misma normalización que UsuarioRefactorizado, solo sobre los campos presentes
+    public void normalizar() {
+        if (nombre != null) {
+            this.nombre = nombre.trim().toUpperCase();
+        }
+        if (email != null) {
+            this.email = email.toLowerCase().trim();
+        }
+    }
+
+    /**
+     * Copia de {@code actual} con los cambios aplicados, o el mismo objeto si ningún campo
+     * presente difiere del valor vigente. La versión se copia tal cual; la incrementa el
+     * repositorio al escribir.
+     */
+    public UsuarioRefactorizado aplicarA(UsuarioRefactorizado actual) {
+        String nuevoNombre = conNombre ? nombre : actual.getNombre();
+        String nuevoEmail = conEmail ? email : actual.getEmail();
+        Integer nuevaEdad = conEdad ? edad : actual.getEdad();
+        String nuevoTelefono = conTelefono ? telefono : actual.getTelefono();
+
+        if (Objects.equals(nuevoNombre, actual.getNombre())
+                && Objects.equals(nuevoEmail, actual.getEmail())
+                && Objects.equals(nuevaEdad, actual.getEdad())
+                && Objects.equals(nuevoTelefono, actual.getTelefono())) {
+            return actual;
+        }
+        return new UsuarioRefactorizado(actual.getId(), nuevoNombre, nuevoEmail, nuevaEdad, nuevoTelefono,
+                actual.getVersion());
+    }
+}
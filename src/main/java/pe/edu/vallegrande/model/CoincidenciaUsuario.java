@@ -0,0 +1,18 @@
+package pe.edu.vallegrande.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoincidenciaUsuario {
+
+    private UsuarioRefactorizado usuario;
+
+    // Coeficiente de Jaccard entre los trigramas de la consulta y los del nombre o el email, entre 0 y 1
+    private double similitud;
+}
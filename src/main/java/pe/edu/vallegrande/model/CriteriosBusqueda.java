@@ -0,0 +1,40 @@
+package pe.edu.vallegrande.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CriteriosBusqueda {
+
+    // Ya normalizado en mayúsculas, igual que los nombres guardados
+    private String nombrePrefijo;
+
+    private Integer edadMinima;
+
+    private Integer edadMaxima;
+
+    private String telefono;
+
+    public boolean filtraPorEdad() {
+        return edadMinima != null || edadMaxima != null;
+    }
+
+    // Los índices solo proponen candidatos; esta comprobación final es la que decide
+    public boolean coincide(UsuarioRefactorizado usuario) {
+        if (nombrePrefijo != null && (usuario.getNombre() == null || !usuario.getNombre().startsWith(nombrePrefijo))) {
+            return false;
+        }
+        if (edadMinima != null && (usuario.getEdad() == null || usuario.getEdad() < edadMinima)) {
+            return false;
+        }
+        if (edadMaxima != null && (usuario.getEdad() == null || usuario.getEdad() > edadMaxima)) {
+            return false;
+        }
+        return telefono == null || telefono.equals(usuario.getTelefono());
+    }
+}
@@ -0,0 +1,18 @@
+package pe.edu.vallegrande.model;
+
+/**
+ * Una mutación confirmada en el almacén. La secuencia es global y creciente dentro de una
+ * época (un arranque del servidor); para un mismo usuario sigue el orden en que se aplicaron
+ * sus cambios. En un {@link TipoCambio#ELIMINADO} el usuario es null.
+ */
+public record EventoCambio(long epoca, long secuencia, TipoCambio tipo, long id, UsuarioRefactorizado usuario) {
+
+    // La secuencia vuelve a empezar en cada arranque: solo junto con la época identifica un punto del flujo
+    public static String cursor(long epoca, long secuencia) {
+        return Long.toString(epoca, Character.MAX_RADIX) + '-' + secuencia;
+    }
+
+    public String cursor() {
+        return cursor(epoca, secuencia);
+    }
+}
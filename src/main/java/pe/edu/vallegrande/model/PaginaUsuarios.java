@@ -0,0 +1,20 @@
+package pe.edu.vallegrande.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaUsuarios {
+
+    private List<UsuarioRefactorizado> usuarios;
+
+    // Cursor opaco para pedir la siguiente página; null cuando no hay más resultados
+    private String siguienteCursor;
+}
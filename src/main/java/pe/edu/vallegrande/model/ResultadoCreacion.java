@@ -0,0 +1,28 @@
+package pe.edu.vallegrande.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoCreacion {
+
+    // Posición del usuario dentro del lote recibido
+    private int indice;
+
+    private Long id;
+
+    private String error;
+
+    public static ResultadoCreacion exitoso(int indice, Long id) {
+        return new ResultadoCreacion(indice, id, null);
+    }
+
+    public static ResultadoCreacion fallido(int indice, String error) {
+        return new ResultadoCreacion(indice, null, error);
+    }
+}
@@ -0,0 +1,21 @@
+package pe.edu.vallegrande.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoLote {
+
+    private int creados;
+
+    private int fallidos;
+
+    private List<ResultadoCreacion> resultados;
+}
@@ -0,0 +1,7 @@
+package pe.edu.vallegrande.model;
+
+public enum TipoCambio {
+    CREADO,
+    ACTUALIZADO,
+    ELIMINADO
+}
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import pe.edu.vallegrande.validation.EmailValido;
+import pe.edu.vallegrande.validation.TelefonoValido;
 
 import java.util.Objects;
 
@@ -21,16 +23,19 @@ public class UsuarioRefactorizado {
     private String nombre;
     
     @NotBlank(message = "El email es obligatorio")
-    @Email(message = "El formato del email no es válido")
+    @EmailValido
     private String email;
     
     @Min(value = 1, message = "La edad debe ser mayor a 0")
     @Max(value = 120, message = "La edad debe ser menor a 120")
     private Integer edad;
     
-    @Pattern(regexp = "^\\+?[0-9]{9,15}$", message = "El formato del teléfono no es válido")
+    @TelefonoValido
     private String telefono;
     
+    // La asigna el repositorio: 1 al crear y +1 en cada actualización; el ETag de la API la expone
+    private Long version;
+    
     // Método para normalizar datos
     public void normalizar() {
         if (nombre != null) {
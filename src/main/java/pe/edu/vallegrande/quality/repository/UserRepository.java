@@ -1,42 +1,158 @@
-
 package pe.edu.vallegrande.quality.repository;
 
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
 import pe.edu.vallegrande.quality.model.User;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Usuarios de la API original ({@code /listAll}, {@code /user/{id}}, ...), seguros para
+ * hilos. Los datos viven en un {@link AlmacenUsuarios}, como los de la API v2; como el
+ * almacén solo conoce IDs numéricos, cada {@code id} (UUID) recibe una clave numérica al
+ * darse de alta. Encima hay un índice ordenado por nombre sin distinguir mayúsculas, así que
+ * el listado sale ya ordenado sin ordenar en cada pedido. Cada alta o baja de un ID se hace
+ * dentro del cómputo atómico de ese ID en el mapa de claves, y el índice por nombre lo sigue
+ * dentro del cálculo del almacén.
+ *
+ * <p>Las claves numéricas viven en memoria: sirve cualquier motor en memoria (heap o fuera del
+ * heap), no uno durable, que recuperaría los registros sin saber de qué UUID son.</p>
+ *
+ * <p>El listado es una copia recorrida sobre el índice por nombre: no falla ni se corrompe con
+ * escrituras concurrentes. Un renombre mueve la entrada del usuario en el índice, y si la
+ * nueva queda atrás del recorrido mientras la anterior se borra por delante, el recorrido no
+ * encontraría a ese usuario; por eso los renombres se cuentan al empezar y al terminar, y si
+ * alguno se cruzó con el recorrido el listado se arma de nuevo desde las claves, que no se
+ * mueven al renombrar, y se ordena. Todo usuario presente durante el listado aparece una vez,
+ * con el nombre anterior o con el nuevo.</p>
+ */
 public class UserRepository {
-    // Lista en memoria sin sincronización ni persistencia real.
-    private static List<User> l = new ArrayList<>();
 
+    // Sin nombre primero, igual que el orden anterior; a igual nombre desempata el ID
+    private static final Comparator<ClaveNombre> ORDEN_NOMBRE = Comparator
+            .comparing(ClaveNombre::nombre, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(ClaveNombre::id);
+
+    private final AlmacenUsuarios almacen;
+    private final AtomicLong siguienteClave;
+    private final ConcurrentHashMap<String, Long> claves = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<ClaveNombre, Long> porNombre = new ConcurrentSkipListMap<>(ORDEN_NOMBRE);
+    // Iniciados antes de tocar el registro, terminados después de mover la entrada en el índice
+    private final AtomicLong renombresIniciados = new AtomicLong();
+    private final AtomicLong renombresTerminados = new AtomicLong();
+
+    public UserRepository() {
+        this(new AlmacenEnHeap());
+    }
+
+    public UserRepository(AlmacenUsuarios almacen) {
+        this.almacen = almacen;
+        this.siguienteClave = new AtomicLong(almacen.ultimoIdAsignado() + 1);
+    }
+
+    // Copia ordenada por nombre; modificarla no afecta al repositorio
     public List<User> getUsers(){
-        return l; // Exposición directa de la lista interna.
+        // Primero los terminados: si coinciden, todo renombre contado en iniciados ya movió su entrada
+        long terminados = renombresTerminados.get();
+        long iniciados = renombresIniciados.get();
+        if (iniciados == terminados) {
+            List<User> usuarios = recorrerPorNombre();
+            if (renombresIniciados.get() == iniciados) {
+                return usuarios;
+            }
+        }
+        return ordenarDesdeClaves();
+    }
+
+    // Camino habitual: el índice ya está ordenado
+    private List<User> recorrerPorNombre() {
+        List<User> usuarios = new ArrayList<>();
+        for (Map.Entry<ClaveNombre, Long> entrada : porNombre.entrySet()) {
+            UsuarioRefactorizado registro = almacen.obtener(entrada.getValue());
+            // Un registro renombrado después de leer la entrada sale en la posición de su nombre nuevo
+            if (registro != null && Objects.equals(registro.getNombre(), entrada.getKey().nombre())) {
+                usuarios.add(usuario(entrada.getKey().id(), registro));
+            }
+        }
+        return usuarios;
     }
 
+    // Con un renombre en curso: las claves no se mueven, así que nadie presente queda fuera
+    private List<User> ordenarDesdeClaves() {
+        TreeMap<ClaveNombre, User> ordenados = new TreeMap<>(ORDEN_NOMBRE);
+        for (Map.Entry<String, Long> entrada : claves.entrySet()) {
+            UsuarioRefactorizado registro = almacen.obtener(entrada.getValue());
+            if (registro != null) {
+                ordenados.put(new ClaveNombre(registro.getNombre(), entrada.getKey()), usuario(entrada.getKey(), registro));
+            }
+        }
+        return new ArrayList<>(ordenados.values());
+    }
+
+    // Con un ID existente reemplaza al usuario anterior en el almacén y en el índice
     public User save(User u){
-        // Reglas duplicadas, sin validación real.
-        l.add(u);
+        if(u.id == null){
+            throw new IllegalArgumentException("id required");
+        }
+        claves.compute(u.id, (id, clave) -> {
+            long numero = clave != null ? clave : siguienteClave.getAndIncrement();
+            UsuarioRefactorizado registro = UsuarioRefactorizado.builder()
+                    .id(numero).nombre(u.name).email(u.email).edad(u.age).build();
+            // El compute de la clave serializa las escrituras del ID: el nombre leído sigue vigente
+            UsuarioRefactorizado guardado = clave != null ? almacen.obtener(numero) : null;
+            boolean renombra = guardado != null && !Objects.equals(guardado.getNombre(), u.name);
+            if (renombra) {
+                renombresIniciados.incrementAndGet();
+            }
+            try {
+                almacen.calcular(numero, (n, anterior) -> registro, (n, anterior, nuevo) -> {
+                    if(anterior != null){
+                        porNombre.remove(new ClaveNombre(anterior.getNombre(), id));
+                    }
+                    porNombre.put(new ClaveNombre(nuevo.getNombre(), id), n);
+                });
+            } finally {
+                if (renombra) {
+                    renombresTerminados.incrementAndGet();
+                }
+            }
+            return numero;
+        });
         return u;
     }
 
     public Optional<User> findById(String id){
-        for(User u : l){
-            if(u.id != null && u.id.equals(id)){
-                return Optional.of(u);
-            }
-        }
-        return Optional.empty();
+        Long clave = id == null ? null : claves.get(id);
+        UsuarioRefactorizado registro = clave == null ? null : almacen.obtener(clave);
+        return registro == null ? Optional.empty() : Optional.of(usuario(id, registro));
     }
 
     public boolean delete(String id){
-        // Borrado ineficiente.
-        Iterator<User> it = l.iterator();
-        while(it.hasNext()){
-            User u = it.next();
-            if(u.id != null && u.id.equals(id)){
-                it.remove();
-                return true;
-            }
+        if(id == null){
+            return false;
         }
-        return false;
+        boolean[] borrado = new boolean[1];
+        claves.computeIfPresent(id, (uuid, clave) -> {
+            almacen.calcularSiPresente(clave, (n, anterior) -> null, (n, anterior, nuevo) -> {
+                porNombre.remove(new ClaveNombre(anterior.getNombre(), uuid));
+                borrado[0] = true;
+            });
+            return null;
+        });
+        return borrado[0];
+    }
+
+    // Cada lectura es una copia del registro: cambiar los campos públicos no altera lo guardado
+    private static User usuario(String id, UsuarioRefactorizado registro) {
+        return new User(id, registro.getNombre(), registro.getEmail(), registro.getEdad());
+    }
+
+    // El nombre se copia en la clave: el índice sigue al registro guardado, no al objeto del llamador
+    private record ClaveNombre(String nombre, String id) {
     }
 }
@@ -10,14 +10,9 @@ public class UserService {
     // Inyección por campo (mala práctica) y sin @Service.
     public UserRepository repo = new UserRepository();
 
+    // El repositorio ya devuelve una copia ordenada por nombre
     public List<User> getAll(){
-        List<User> data = repo.getUsers();
-        if(data == null){ // chequeo innecesario
-            return new ArrayList<>();
-        }
-        // Duplicación de lógica: ordenamiento manual aquí
-        Collections.sort(data, (a,b) -> a.name != null ? a.name.compareToIgnoreCase(b.name) : -1);
-        return data;
+        return repo.getUsers();
     }
 
     public User create(User u){
@@ -0,0 +1,97 @@
+package pe.edu.vallegrande.repository;
+
+import pe.edu.vallegrande.repository.almacen.AlmacenFragmentado;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * IDs nuevos por fragmento del almacén. Cada fragmento tiene su propio contador, que avanza
+ * dentro de un bloque de {@value AlmacenFragmentado#TAMANO_BLOQUE} IDs y al agotarlo salta al
+ * siguiente bloque del mismo fragmento; un hilo toma siempre del fragmento que le toca por su
+ * ID de hilo, así que los hilos de un pool no comparten contador ni, después, mapa.
+ *
+ * <p>El bloque es del fragmento y no del hilo: con hilos virtuales cada pedido es un hilo
+ * nuevo y un bloque por hilo dejaría casi todos sus IDs sin usar. Con un solo fragmento es
+ * el contador secuencial de siempre.</p>
+ */
+final class AsignadorIds {
+
+    // 128 bytes entre contadores: cada uno en su línea de caché, también con el prefetch de a pares
+    private static final int ESPACIADO = 16;
+
+    private final AlmacenUsuarios usuarios;
+    private final int fragmentos;
+    private final AtomicLongArray siguientes;
+
+    AsignadorIds(AlmacenUsuarios usuarios) {
+        this.usuarios = usuarios;
+        this.fragmentos = usuarios.fragmentos();
+        this.siguientes = new AtomicLongArray(fragmentos * ESPACIADO);
+    }
+
+    // Ningún ID entregado será menor que primerId
+    void iniciar(long primerId) {
+        for (int fragmento = 0; fragmento < fragmentos; fragmento++) {
+            siguientes.set(fragmento * ESPACIADO, primerId);
+        }
+    }
+
+    long siguiente() {
+        if (fragmentos == 1) {
+            return siguientes.getAndIncrement(0);
+        }
+        int fragmento = fragmentoDelHilo();
+        int posicion = fragmento * ESPACIADO;
+        while (true) {
+            long actual = siguientes.get(posicion);
+            long id = primeroPropio(actual, fragmento);
+            if (siguientes.compareAndSet(posicion, actual, id + 1)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Reserva {@code cantidad} IDs de una vez para un lote. Con un solo fragmento son
+     * consecutivos y salen de una única suma atómica; con varios, cada tramo ocupa lo que
+     * queda del bloque actual del fragmento y cuesta un solo CAS, en lugar de uno por ID.
+     */
+    long[] reservar(int cantidad) {
+        long[] reservados = new long[cantidad];
+        if (fragmentos == 1) {
+            long primero = siguientes.getAndAdd(0, cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                reservados[i] = primero + i;
+            }
+            return reservados;
+        }
+        int fragmento = fragmentoDelHilo();
+        int posicion = fragmento * ESPACIADO;
+        int llenos = 0;
+        while (llenos < cantidad) {
+            long actual = siguientes.get(posicion);
+            long id = primeroPropio(actual, fragmento);
+            long finBloque = ((id >>> AlmacenFragmentado.BITS_BLOQUE) + 1) << AlmacenFragmentado.BITS_BLOQUE;
+            int tramo = (int) Math.min(cantidad - llenos, finBloque - id);
+            if (siguientes.compareAndSet(posicion, actual, id + tramo)) {
+                for (int i = 0; i < tramo; i++) {
+                    reservados[llenos++] = id + i;
+                }
+            }
+        }
+        return reservados;
+    }
+
+    private int fragmentoDelHilo() {
+        return (int) Math.floorMod(Thread.currentThread().getId(), (long) fragmentos);
+    }
+
+    // Al salir de un bloque propio se avanza al siguiente bloque del fragmento
+    private long primeroPropio(long id, int fragmento) {
+        while (usuarios.fragmento(id) != fragmento) {
+            id = ((id >>> AlmacenFragmentado.BITS_BLOQUE) + 1) << AlmacenFragmentado.BITS_BLOQUE;
+        }
+        return id;
+    }
+}
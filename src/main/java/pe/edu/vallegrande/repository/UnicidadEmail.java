@@ -0,0 +1,142 @@
+package pe.edu.vallegrande.repository;
+
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+import pe.edu.vallegrande.repository.mapa.MapaCadenaLongConcurrente;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Quién decide el dueño de cada email. Por defecto un índice en memoria en el que el email
+ * se reserva antes de escribir, partido por hash del email en tantos mapas como fragmentos
+ * tenga el almacén; si el almacén hace cumplir un índice único (SQL), no hay reserva previa
+ * y la escritura con un email ajeno falla dentro del propio almacén.
+ */
+interface UnicidadEmail {
+
+    long AUSENTE = MapaCadenaLongConcurrente.AUSENTE;
+
+    static UnicidadEmail para(AlmacenUsuarios usuarios) {
+        return usuarios.garantizaEmailUnico() ? new EnAlmacen(usuarios) : new EnMemoria(usuarios);
+    }
+
+    // Reserva el email y asigna el ID en un solo paso; AUSENTE si el email ya tiene dueño
+    long reservar(String email, LongSupplier siguienteId);
+
+    // false si otro ID ya tiene el email
+    boolean reclamar(String email, long id);
+
+    void liberar(String email, long id);
+
+    // Reconstrucción al arrancar, de un solo hilo
+    void indexar(String email, long id);
+
+    UsuarioRefactorizado buscar(String email);
+
+    boolean contiene(String email);
+
+    int tamano();
+
+    final class EnMemoria implements UnicidadEmail {
+
+        private final MapaCadenaLongConcurrente[] emails;
+        private final AlmacenUsuarios usuarios;
+
+        EnMemoria(AlmacenUsuarios usuarios) {
+            this.usuarios = usuarios;
+            this.emails = new MapaCadenaLongConcurrente[usuarios.fragmentos()];
+            for (int i = 0; i < emails.length; i++) {
+                emails[i] = new MapaCadenaLongConcurrente();
+            }
+        }
+
+        @Override
+        public long reservar(String email, LongSupplier siguienteId) {
+            return mapa(email).insertarSiAusente(email, siguienteId);
+        }
+
+        @Override
+        public boolean reclamar(String email, long id) {
+            long propietario = mapa(email).ponerSiAusente(email, id);
+            return propietario == AUSENTE || propietario == id;
+        }
+
+        @Override
+        public void liberar(String email, long id) {
+            mapa(email).quitar(email, id);
+        }
+
+        @Override
+        public void indexar(String email, long id) {
+            mapa(email).poner(email, id);
+        }
+
+        @Override
+        public UsuarioRefactorizado buscar(String email) {
+            long id = mapa(email).obtener(email);
+            return id != AUSENTE ? usuarios.obtener(id) : null;
+        }
+
+        @Override
+        public boolean contiene(String email) {
+            return mapa(email).contiene(email);
+        }
+
+        @Override
+        public int tamano() {
+            int total = 0;
+            for (MapaCadenaLongConcurrente mapa : emails) {
+                total += mapa.tamano();
+            }
+            return total;
+        }
+
+        // El dueño de un email no depende de su ID: el mapa se elige por el hash del propio email
+        private MapaCadenaLongConcurrente mapa(String email) {
+            return emails.length == 1 ? emails[0] : emails[Math.floorMod(email.hashCode(), emails.length)];
+        }
+    }
+
+    final class EnAlmacen implements UnicidadEmail {
+
+        private final AlmacenUsuarios usuarios;
+
+        EnAlmacen(AlmacenUsuarios usuarios) {
+            this.usuarios = usuarios;
+        }
+
+        // Un email repetido consume el ID: el almacén lo rechaza recién al escribir
+        @Override
+        public long reservar(String email, LongSupplier siguienteId) {
+            return siguienteId.getAsLong();
+        }
+
+        @Override
+        public boolean reclamar(String email, long id) {
+            return true;
+        }
+
+        @Override
+        public void liberar(String email, long id) {
+        }
+
+        @Override
+        public void indexar(String email, long id) {
+        }
+
+        @Override
+        public UsuarioRefactorizado buscar(String email) {
+            return usuarios.obtenerPorEmail(email);
+        }
+
+        @Override
+        public boolean contiene(String email) {
+            return usuarios.obtenerPorEmail(email) != null;
+        }
+
+        @Override
+        public int tamano() {
+            return usuarios.tamano();
+        }
+    }
+}
@@ -2,45 +2,81 @@ package pe.edu.vallegrande.repository;
 
 import org.springframework.stereotype.Repository;
 import pe.edu.vallegrande.model.Usuario;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
 import java.util.*;
 
 @Repository
 public class UsuarioRepository {
     
-    // Simulación de base de datos en memoria con problemas
-    private Map<Long, Usuario> usuarios = new HashMap<>();
-    private Long contador = 1L;
+    // Los datos viven en un motor de AlmacenUsuarios propio, aparte del de la API v2; los problemas
+    // de la API original siguen aquí: contador sin atomicidad y email buscado recorriendo todo
+    private final AlmacenUsuarios usuarios;
+    private Long contador;
+    
+    public UsuarioRepository() {
+        this(new AlmacenEnHeap());
+    }
+    
+    public UsuarioRepository(AlmacenUsuarios usuarios) {
+        this.usuarios = usuarios;
+        this.contador = usuarios.ultimoIdAsignado() + 1;
+    }
     
     public Usuario guardar(Usuario usuario) {
         usuario.setId(contador++);
-        usuarios.put(usuario.getId(), usuario);
+        usuarios.poner(usuario.getId(), registro(usuario));
         return usuario;
     }
     
     public List<Usuario> obtenerTodos() {
-        return new ArrayList<>(usuarios.values());
+        List<Usuario> todos = new ArrayList<>(usuarios.tamano());
+        usuarios.recorrerDesde(0L).forEachRemaining(registro -> todos.add(usuario(registro)));
+        return todos;
     }
     
     public Usuario obtenerPorId(Long id) {
-        return usuarios.get(id);
+        UsuarioRefactorizado registro = usuarios.obtener(id);
+        return registro != null ? usuario(registro) : null;
     }
     
     public Usuario actualizar(Usuario usuario) {
-        usuarios.put(usuario.getId(), usuario);
+        usuarios.poner(usuario.getId(), registro(usuario));
         return usuario;
     }
     
     public void eliminar(Long id) {
-        usuarios.remove(id);
+        usuarios.quitar(id);
     }
     
     // Método ineficiente para verificar email
     public boolean existeEmail(String email) {
-        for (Usuario u : usuarios.values()) {
-            if (u.getEmail().equals(email)) {
+        Iterator<UsuarioRefactorizado> todos = usuarios.recorrerDesde(0L);
+        while (todos.hasNext()) {
+            if (todos.next().getEmail().equals(email)) {
                 return true;
             }
         }
         return false;
     }
-}
\ No newline at end of file
+    
+    // El almacén guarda su propio registro: modificar el Usuario devuelto no cambia lo guardado
+    private static UsuarioRefactorizado registro(Usuario usuario) {
+        return UsuarioRefactorizado.builder()
+                .id(usuario.getId())
+                .nombre(usuario.getNombre())
+                .email(usuario.getEmail())
+                .edad(usuario.getEdad())
+                .telefono(usuario.getTelefono())
+                .build();
+    }
+    
+    private static Usuario usuario(UsuarioRefactorizado registro) {
+        Usuario usuario = new Usuario(registro.getNombre(), registro.getEmail(),
+                registro.getEdad() != null ? registro.getEdad() : 0);
+        usuario.setId(registro.getId());
+        usuario.setTelefono(registro.getTelefono());
+        return usuario;
+    }
+}
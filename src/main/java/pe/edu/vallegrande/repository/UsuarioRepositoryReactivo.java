@@ -0,0 +1,49 @@
+package pe.edu.vallegrande.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Adaptador no bloqueante de {@link UsuarioRepositoryRefactorizado} para la API reactiva.
+ *
+ * <p>Con un motor en memoria las lecturas no esperan a nadie, así que corren en el hilo del
+ * suscriptor; con uno que lee de una base de datos se suscriben en
+ * {@link Schedulers#boundedElastic()}, igual que las escrituras. Los recorridos se entregan como {@link Flux} perezosos: el iterador del almacén
+ * avanza solo lo que pide el suscriptor con {@code request(n)}, de modo que un cliente lento
+ * frena el recorrido en lugar de acumular usuarios en memoria. Las escrituras esperan el fsync
+ * del WAL, por eso se suscriben en {@link Schedulers#boundedElastic()} y nunca bloquean el
+ * event loop.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class UsuarioRepositoryReactivo {
+
+    private static final Scheduler BLOQUEANTES = Schedulers.boundedElastic();
+
+    private final UsuarioRepositoryRefactorizado repository;
+
+    // En orden de ID a partir del primero mayor que despuesDeId; cada suscripción abre su propio recorrido
+    public Flux<UsuarioRefactorizado> recorrerDesde(long despuesDeId) {
+        Flux<UsuarioRefactorizado> recorrido = Flux.fromStream(() -> repository.recorrerDesde(despuesDeId));
+        // Cada request(n) también corre en el scheduler: ahí se leen las páginas siguientes
+        return repository.leeEnMemoria() ? recorrido : recorrido.subscribeOn(BLOQUEANTES);
+    }
+
+    // Toda consulta que llegue al repositorio, incluida la caché de respuestas del servicio
+    public <T> Mono<T> leer(Callable<T> lectura) {
+        Mono<T> mono = Mono.fromCallable(lectura);
+        return repository.leeEnMemoria() ? mono : mono.subscribeOn(BLOQUEANTES);
+    }
+
+    // Toda operación que termine escribiendo en el repositorio, incluida la validación y la caché del servicio
+    public <T> Mono<T> escribir(Callable<T> escritura) {
+        return Mono.fromCallable(escritura).subscribeOn(BLOQUEANTES);
+    }
+}
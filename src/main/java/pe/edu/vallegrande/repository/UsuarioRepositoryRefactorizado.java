@@ -1,72 +1,539 @@
 package pe.edu.vallegrande.repository;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import pe.edu.vallegrande.exception.EmailDuplicadoException;
+import pe.edu.vallegrande.exception.VersionConflictoException;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.CoincidenciaUsuario;
+import pe.edu.vallegrande.model.CriteriosBusqueda;
+import pe.edu.vallegrande.model.TipoCambio;
 import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+import pe.edu.vallegrande.repository.cambios.BufferCambios;
+import pe.edu.vallegrande.repository.indice.IndicesSecundarios;
+import pe.edu.vallegrande.repository.indice.MezclaIds;
+import pe.edu.vallegrande.repository.indice.Trigramas;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Repository
 public class UsuarioRepositoryRefactorizado {
     
-    private final Map<Long, UsuarioRefactorizado> usuarios = new ConcurrentHashMap<>();
-    private final Map<String, Long> emailIndex = new ConcurrentHashMap<>();
-    private final AtomicLong contador = new AtomicLong(1L);
+    private static final long VERSION_INICIAL = 1L;
     
+    private final AlmacenUsuarios usuarios;
+    private final UnicidadEmail emails;
+    // Un juego de índices por fragmento del almacén: cada escritura toca solo los de su ID
+    private final IndicesSecundarios[] indices;
+    private final AsignadorIds ids;
+    
+    // Eventos de cambio para los suscriptores; null cuando no se publican
+    private final BufferCambios cambios;
+    
+    // Un timer por operación, registrado una sola vez: medir cuesta dos nanoTime y un record, sin búsquedas ni tags
+    private final Timer[] tiempos;
+    
+    public UsuarioRepositoryRefactorizado() {
+        this(new AlmacenEnHeap());
+    }
+    
+    public UsuarioRepositoryRefactorizado(AlmacenUsuarios usuarios) {
+        this(usuarios, null);
+    }
+    
+    public UsuarioRepositoryRefactorizado(AlmacenUsuarios usuarios, BufferCambios cambios) {
+        this(usuarios, cambios, new SimpleMeterRegistry());
+    }
+    
+    // Lo que el almacén ya trae al arrancar no se publica: cada arranque es una época nueva del flujo de cambios
+    @Autowired
+    public UsuarioRepositoryRefactorizado(AlmacenUsuarios usuarios, BufferCambios cambios, MeterRegistry meterRegistry) {
+        this.usuarios = usuarios;
+        this.emails = UnicidadEmail.para(usuarios);
+        this.ids = new AsignadorIds(usuarios);
+        this.indices = new IndicesSecundarios[usuarios.fragmentos()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = new IndicesSecundarios();
+        }
+        this.cambios = cambios;
+        this.tiempos = registrarTiempos(meterRegistry);
+        Gauge.builder("usuarios.almacen.tamano", usuarios, AlmacenUsuarios::tamano)
+                .description("Usuarios en el almacén")
+                .register(meterRegistry);
+        Gauge.builder("usuarios.indice.email.tamano", emails, UnicidadEmail::tamano)
+                .description("Emails en el índice de unicidad")
+                .register(meterRegistry);
+        indexarExistentes();
+    }
+    
+    /**
+     * Inserta el usuario solo si su email está libre. Con el índice en memoria, la reserva
+     * del email y la asignación del ID ocurren en una única operación atómica, así que dos
+     * altas concurrentes con el mismo email nunca pasan ambas y no se consumen IDs en vano.
+     * Con un almacén que garantiza el email único, es el almacén quien rechaza la segunda.
+     */
     public UsuarioRefactorizado guardar(UsuarioRefactorizado usuario) {
-        Long id = contador.getAndIncrement();
-        usuario.setId(id);
+        long inicio = System.nanoTime();
+        try {
+            String email = usuario.getEmail();
+            long id = emails.reservar(email, ids::siguiente);
+            if (id == UnicidadEmail.AUSENTE) {
+                throw emailDuplicado(email);
+            }
         
-        usuarios.put(id, usuario);
-        emailIndex.put(usuario.getEmail(), id);
+            usuario.setId(id);
+            usuario.setVersion(VERSION_INICIAL);
+            try {
+                usuarios.calcular(id, (clave, actual) -> usuario, this::aplicado);
+            } catch (RuntimeException e) {
+                usuario.setId(null);
+                emails.liberar(email, id);
+                throw e;
+            }
+            usuarios.confirmar();
         
-        log.debug("Usuario guardado con ID: {}", id);
-        return usuario;
+            log.debug("Usuario guardado con ID: {}", id);
+            return usuario;
+        } finally {
+            medir(Operacion.GUARDAR, inicio);
+        }
+    }
+    
+    /**
+     * El lote reserva sus IDs al asignador de una vez, consecutivos salvo en los saltos de
+     * bloque entre fragmentos, y cada usuario reclama su email con {@code putIfAbsent}; los
+     * que pierden la carrera frente a un alta concurrente, o que el almacén rechaza, quedan
+     * con ID null y su ID no se reutiliza. El lote llega al almacén de una vez, para que un
+     * motor SQL lo escriba en batch.
+     */
+    public List<UsuarioRefactorizado> guardarLote(List<UsuarioRefactorizado> lote) {
+        long inicio = System.nanoTime();
+        try {
+            if (lote.isEmpty()) {
+                return lote;
+            }
+        
+            long[] reservados = ids.reservar(lote.size());
+            List<UsuarioRefactorizado> reclamados = new ArrayList<>(lote.size());
+            for (int i = 0; i < reservados.length; i++) {
+                UsuarioRefactorizado usuario = lote.get(i);
+                long id = reservados[i];
+                if (!emails.reclamar(usuario.getEmail(), id)) {
+                    usuario.setId(null);
+                    continue;
+                }
+                usuario.setId(id);
+                usuario.setVersion(VERSION_INICIAL);
+                reclamados.add(usuario);
+            }
+            
+            List<UsuarioRefactorizado> guardados = usuarios.ponerVarios(reclamados, this::aplicado);
+            if (guardados.size() < reclamados.size()) {
+                // Los escritos son una subsecuencia de los reclamados, en el mismo orden
+                int escrito = 0;
+                for (UsuarioRefactorizado usuario : reclamados) {
+                    if (escrito < guardados.size() && guardados.get(escrito) == usuario) {
+                        escrito++;
+                    } else {
+                        usuario.setId(null);
+                    }
+                }
+            }
+            usuarios.confirmar();
+        
+            log.debug("Lote de {} usuarios guardado", guardados.size());
+            return guardados;
+        } finally {
+            medir(Operacion.GUARDAR_LOTE, inicio);
+        }
     }
     
     public List<UsuarioRefactorizado> obtenerTodos() {
-        return new ArrayList<>(usuarios.values());
+        long inicio = System.nanoTime();
+        try {
+            List<UsuarioRefactorizado> todos = new ArrayList<>(usuarios.tamano());
+            usuarios.recorrerDesde(0L).forEachRemaining(todos::add);
+            return todos;
+        } finally {
+            medir(Operacion.OBTENER_TODOS, inicio);
+        }
+    }
+    
+    // Recorre el almacén en orden de ID desde el cursor: O(log n + límite), sin copiar el mapa completo
+    public List<UsuarioRefactorizado> obtenerPagina(Long despuesDeId, int limite) {
+        long inicio = System.nanoTime();
+        try {
+            Iterator<UsuarioRefactorizado> iterador = usuarios.recorrerDesde(despuesDeId != null ? despuesDeId : 0L);
+            List<UsuarioRefactorizado> pagina = new ArrayList<>(limite);
+            while (iterador.hasNext() && pagina.size() < limite) {
+                pagina.add(iterador.next());
+            }
+        
+            return pagina;
+        } finally {
+            medir(Operacion.OBTENER_PAGINA, inicio);
+        }
+    }
+    
+    // Recorrido perezoso en orden de ID sobre una vista débilmente consistente, sin copias intermedias
+    public Stream<UsuarioRefactorizado> recorrer() {
+        return recorrerDesde(0L);
+    }
+    
+    // Mismo recorrido a partir del primer ID mayor que despuesDeId
+    public Stream<UsuarioRefactorizado> recorrerDesde(long despuesDeId) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                usuarios.recorrerDesde(despuesDeId), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+    
+    // Si una lectura puede esperar E/S del motor; la API reactiva la saca entonces del event loop
+    public boolean leeEnMemoria() {
+        return usuarios.leeEnMemoria();
     }
     
     public Optional<UsuarioRefactorizado> obtenerPorId(Long id) {
-        return Optional.ofNullable(usuarios.get(id));
+        long inicio = System.nanoTime();
+        try {
+            return Optional.ofNullable(usuarios.obtener(id));
+        } finally {
+            medir(Operacion.OBTENER_POR_ID, inicio);
+        }
     }
     
-    public UsuarioRefactorizado actualizar(UsuarioRefactorizado usuario) {
-        Long id = usuario.getId();
-        UsuarioRefactorizado usuarioExistente = usuarios.get(id);
+    public Optional<UsuarioRefactorizado> actualizar(UsuarioRefactorizado usuario) {
+        return actualizar(usuario, null);
+    }
+    
+    /**
+     * Compara y reemplaza dentro del {@code computeIfPresent} del usuario: si se indica
+     * {@code versionEsperada} y no es la vigente, lanza {@link VersionConflictoException} sin
+     * cambiar nada; si coincide, el usuario queda con la versión siguiente. Ninguna escritura
+     * espera a otra más allá del cómputo atómico del ID, que también resuelve el cambio de
+     * email para que actualizaciones concurrentes no dejen entradas huérfanas en el índice.
+     * Vacío si el ID no existe, aunque el llamador lo haya leído antes: se pudo eliminar entre
+     * medio y entonces no se escribió nada.
+     */
+    public Optional<UsuarioRefactorizado> actualizar(UsuarioRefactorizado usuario, Long versionEsperada) {
+        long inicio = System.nanoTime();
+        try {
+            Long id = usuario.getId();
+            boolean[] actualizado = new boolean[1];
+            String[] reclamado = new String[1];
+            UsuarioRefactorizado resultado;
         
-        if (usuarioExistente != null) {
-            // Actualizar índice de email si cambió
-            if (!usuarioExistente.getEmail().equals(usuario.getEmail())) {
-                emailIndex.remove(usuarioExistente.getEmail());
-                emailIndex.put(usuario.getEmail(), id);
+            try {
+                resultado = usuarios.calcularSiPresente(id, (clave, actual) -> {
+                    verificarVersion(clave, actual, versionEsperada);
+                    actualizado[0] = true;
+                    return reemplazar(clave, actual, usuario, reclamado);
+                }, this::aplicado);
+            } catch (RuntimeException e) {
+                liberarReclamado(reclamado[0], id);
+                throw e;
             }
-            
-            usuarios.put(id, usuario);
-            log.debug("Usuario actualizado con ID: {}", id);
+        
+            if (actualizado[0]) {
+                usuarios.confirmar();
+                log.debug("Usuario actualizado con ID: {}", id);
+            }
+        
+            return Optional.ofNullable(resultado);
+        } finally {
+            medir(Operacion.ACTUALIZAR, inicio);
         }
+    }
+    
+    /**
+     * Variante parcial de {@link #actualizar(UsuarioRefactorizado, Long)} para {@code PATCH}:
+     * los cambios se aplican sobre la versión vigente dentro del mismo cómputo atómico, así
+     * que dos parches concurrentes sobre campos distintos no se pisan. Si ningún campo cambia
+     * de valor no se escribe en el log ni se incrementa la versión. Vacío si el ID no existe.
+     */
+    public Optional<UsuarioRefactorizado> aplicarCambios(Long id, CambiosUsuario cambios, Long versionEsperada) {
+        long inicio = System.nanoTime();
+        try {
+            boolean[] actualizado = new boolean[1];
+            String[] reclamado = new String[1];
+            UsuarioRefactorizado resultado;
+            try {
+                resultado = usuarios.calcularSiPresente(id, (clave, actual) -> {
+                    verificarVersion(clave, actual, versionEsperada);
+                    UsuarioRefactorizado usuario = cambios.aplicarA(actual);
+                    if (usuario == actual) {
+                        return actual;
+                    }
+                    actualizado[0] = true;
+                    return reemplazar(clave, actual, usuario, reclamado);
+                }, this::aplicado);
+            } catch (RuntimeException e) {
+                liberarReclamado(reclamado[0], id);
+                throw e;
+            }
+        
+            if (actualizado[0]) {
+                usuarios.confirmar();
+                log.debug("Cambios aplicados al usuario con ID: {}", id);
+            }
         
-        return usuario;
+            return Optional.ofNullable(resultado);
+        } finally {
+            medir(Operacion.APLICAR_CAMBIOS, inicio);
+        }
     }
     
     public void eliminar(Long id) {
-        UsuarioRefactorizado usuario = usuarios.remove(id);
-        if (usuario != null) {
-            emailIndex.remove(usuario.getEmail());
-            log.debug("Usuario eliminado con ID: {}", id);
+        long inicio = System.nanoTime();
+        try {
+            UsuarioRefactorizado[] eliminado = new UsuarioRefactorizado[1];
+            usuarios.calcularSiPresente(id, (clave, actual) -> {
+                eliminado[0] = actual;
+                return null;
+            }, this::aplicado);
+        
+            if (eliminado[0] != null) {
+                usuarios.confirmar();
+                log.debug("Usuario eliminado con ID: {}", id);
+            }
+        } finally {
+            medir(Operacion.ELIMINAR, inicio);
+        }
+    }
+    
+    /**
+     * Los candidatos del índice más selectivo llegan en orden de ID y se dejan de pedir al
+     * completar la página. Se leen del almacén en tandas de lo que falta para completarla, con
+     * {@code obtenerVarios}: un motor SQL responde cada tanda con una sola consulta.
+     */
+    public List<UsuarioRefactorizado> buscar(CriteriosBusqueda criterios, Long despuesDeId, int limite) {
+        long inicio = System.nanoTime();
+        try {
+            PrimitiveIterator.OfLong candidatos = candidatos(criterios, despuesDeId != null ? despuesDeId : 0L);
+            List<UsuarioRefactorizado> resultado = new ArrayList<>();
+            long[] tanda = new long[limite];
+            while (resultado.size() < limite && candidatos.hasNext()) {
+                int cantidad = 0;
+                while (cantidad < limite - resultado.size() && candidatos.hasNext()) {
+                    tanda[cantidad++] = candidatos.nextLong();
+                }
+                for (UsuarioRefactorizado usuario : usuarios.obtenerVarios(Arrays.copyOf(tanda, cantidad))) {
+                    if (usuario != null && criterios.coincide(usuario)) {
+                        resultado.add(usuario);
+                    }
+                }
+            }
+        
+            return resultado;
+        } finally {
+            medir(Operacion.BUSCAR, inicio);
+        }
+    }
+    
+    /**
+     * Búsqueda tolerante a errores de tipeo. El índice de trigramas propone los IDs que más
+     * trigramas comparten con la consulta y aquí se calcula la similitud real contra el
+     * nombre y contra el email, quedando la mayor. Se verifican varias veces más candidatos
+     * que el límite porque compartir trigramas no garantiza superar el umbral.
+     */
+    public List<CoincidenciaUsuario> buscarAproximado(String consulta, double umbral, int limite) {
+        long inicio = System.nanoTime();
+        try {
+            long[] trigramas = Trigramas.extraer(consulta);
+            // Para llegar al umbral contra un solo campo hay que compartir al menos umbral × |consulta| trigramas
+            int minimoComunes = (int) Math.ceil(umbral * trigramas.length);
+            long[] candidatos = candidatosAproximados(trigramas, minimoComunes, Math.max(limite * 10, 100));
+        
+            List<CoincidenciaUsuario> coincidencias = new ArrayList<>();
+            for (long id : candidatos) {
+                UsuarioRefactorizado usuario = usuarios.obtener(id);
+                if (usuario == null) {
+                    continue;
+                }
+                double similitud = Math.max(
+                        Trigramas.similitud(trigramas, Trigramas.extraer(usuario.getNombre())),
+                        Trigramas.similitud(trigramas, Trigramas.extraer(usuario.getEmail())));
+                if (similitud >= umbral) {
+                    coincidencias.add(new CoincidenciaUsuario(usuario, similitud));
+                }
+            }
+        
+            coincidencias.sort(Comparator.comparingDouble(CoincidenciaUsuario::getSimilitud).reversed()
+                    .thenComparing(coincidencia -> coincidencia.getUsuario().getId()));
+            return coincidencias.size() > limite ? coincidencias.subList(0, limite) : coincidencias;
+        } finally {
+            medir(Operacion.BUSCAR_APROXIMADO, inicio);
         }
     }
     
     public boolean existeEmail(String email) {
-        return emailIndex.containsKey(email);
+        long inicio = System.nanoTime();
+        try {
+            return emails.contiene(email);
+        } finally {
+            medir(Operacion.EXISTE_EMAIL, inicio);
+        }
     }
     
     public Optional<UsuarioRefactorizado> obtenerPorEmail(String email) {
-        Long id = emailIndex.get(email);
-        return id != null ? Optional.ofNullable(usuarios.get(id)) : Optional.empty();
+        long inicio = System.nanoTime();
+        try {
+            return Optional.ofNullable(emails.buscar(email));
+        } finally {
+            medir(Operacion.OBTENER_POR_EMAIL, inicio);
+        }
+    }
+    
+    // Con fragmentos, los recorridos de cada uno se mezclan por ID: ningún ID está en dos
+    private PrimitiveIterator.OfLong candidatos(CriteriosBusqueda criterios, long despuesDeId) {
+        List<PrimitiveIterator.OfLong> porFragmento = new ArrayList<>(indices.length);
+        for (IndicesSecundarios indice : indices) {
+            porFragmento.add(indice.candidatos(criterios, despuesDeId));
+        }
+        return MezclaIds.de(porFragmento);
+    }
+    
+    // Cada fragmento propone sus mejores candidatos; la similitud real decide después entre todos
+    private long[] candidatosAproximados(long[] trigramas, int minimoComunes, int maximo) {
+        if (indices.length == 1) {
+            return indices[0].candidatosAproximados(trigramas, minimoComunes, maximo);
+        }
+        long[][] porFragmento = new long[indices.length][];
+        for (int i = 0; i < indices.length; i++) {
+            porFragmento[i] = indices[i].candidatosAproximados(trigramas, minimoComunes, maximo);
+        }
+        return unir(porFragmento);
+    }
+    
+    private static long[] unir(long[][] partes) {
+        int total = 0;
+        for (long[] parte : partes) {
+            total += parte.length;
+        }
+        long[] unidos = new long[total];
+        int posicion = 0;
+        for (long[] parte : partes) {
+            System.arraycopy(parte, 0, unidos, posicion, parte.length);
+            posicion += parte.length;
+        }
+        return unidos;
+    }
+    
+    private static void verificarVersion(long id, UsuarioRefactorizado actual, Long versionEsperada) {
+        if (versionEsperada != null && !versionEsperada.equals(actual.getVersion())) {
+            throw versionConflicto(id, versionEsperada, actual.getVersion());
+        }
+    }
+    
+    /**
+     * Se invoca dentro del cálculo atómico del ID. El email nuevo se reclama antes de
+     * escribir y queda anotado en {@code reclamado} para devolverlo si el almacén rechaza la
+     * escritura; el anterior lo libera {@link #aplicado} cuando la escritura ya se aceptó.
+     * Sin cambio de email el índice no se toca.
+     */
+    private UsuarioRefactorizado reemplazar(long id, UsuarioRefactorizado actual, UsuarioRefactorizado usuario,
+                                            String[] reclamado) {
+        String email = usuario.getEmail();
+        if (!actual.getEmail().equals(email)) {
+            if (!emails.reclamar(email, id)) {
+                throw emailDuplicado(email);
+            }
+            reclamado[0] = email;
+        }
+        usuario.setVersion(actual.getVersion() + 1);
+        // Quien modificó en sitio el objeto almacenado lo devuelve tal cual; el almacén lo tomaría
+        // por "sin cambios", así que se guarda una copia
+        return usuario != actual ? usuario : new UsuarioRefactorizado(usuario.getId(), usuario.getNombre(),
+                usuario.getEmail(), usuario.getEdad(), usuario.getTelefono(), usuario.getVersion());
+    }
+    
+    private void liberarReclamado(String email, long id) {
+        if (email != null) {
+            emails.liberar(email, id);
+        }
+    }
+    
+    private static EmailDuplicadoException emailDuplicado(String email) {
+        return new EmailDuplicadoException("Ya existe un usuario con el email: " + email);
+    }
+    
+    private static VersionConflictoException versionConflicto(long id, long esperada, long vigente) {
+        return new VersionConflictoException(
+                "El usuario con ID " + id + " está en la versión " + vigente + ", no en la " + esperada);
+    }
+    
+    // Efecto de cada escritura que el almacén aceptó, dentro de su sección atómica: la liberación
+    // de emails, los índices y los eventos siguen el orden del almacén
+    private void aplicado(long id, UsuarioRefactorizado anterior, UsuarioRefactorizado nuevo) {
+        if (anterior != null && (nuevo == null || !anterior.getEmail().equals(nuevo.getEmail()))) {
+            emails.liberar(anterior.getEmail(), id);
+        }
+        indices[usuarios.fragmento(id)].reemplazar(id, anterior, nuevo);
+        if (cambios != null) {
+            TipoCambio tipo = anterior == null ? TipoCambio.CREADO : nuevo == null ? TipoCambio.ELIMINADO : TipoCambio.ACTUALIZADO;
+            cambios.publicar(tipo, id, nuevo);
+        }
+    }
+    
+    private static Timer[] registrarTiempos(MeterRegistry meterRegistry) {
+        Operacion[] operaciones = Operacion.values();
+        Timer[] tiempos = new Timer[operaciones.length];
+        for (Operacion operacion : operaciones) {
+            tiempos[operacion.ordinal()] = Timer.builder("usuarios.repositorio")
+                    .description("Duración de las operaciones del repositorio de usuarios")
+                    .tag("operacion", operacion.etiqueta)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        return tiempos;
+    }
+    
+    private void medir(Operacion operacion, long inicio) {
+        tiempos[operacion.ordinal()].record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+    
+    // Un almacén durable arranca con datos: se reconstruyen el índice de emails, los secundarios y el asignador de IDs
+    private void indexarExistentes() {
+        // Los IDs nunca se reutilizan, tampoco los de usuarios eliminados
+        ids.iniciar(usuarios.ultimoIdAsignado() + 1);
+        Iterator<UsuarioRefactorizado> existentes = usuarios.recorrerDesde(0L);
+        while (existentes.hasNext()) {
+            UsuarioRefactorizado usuario = existentes.next();
+            emails.indexar(usuario.getEmail(), usuario.getId());
+            indices[usuarios.fragmento(usuario.getId())].reemplazar(usuario.getId(), null, usuario);
+        }
+        if (usuarios.tamano() > 0) {
+            log.info("Repositorio indexado con {} usuarios", usuarios.tamano());
+        }
+    }
+    
+    private enum Operacion {
+        GUARDAR("guardar"),
+        GUARDAR_LOTE("guardarLote"),
+        OBTENER_TODOS("obtenerTodos"),
+        OBTENER_PAGINA("obtenerPagina"),
+        OBTENER_POR_ID("obtenerPorId"),
+        ACTUALIZAR("actualizar"),
+        APLICAR_CAMBIOS("aplicarCambios"),
+        ELIMINAR("eliminar"),
+        BUSCAR("buscar"),
+        BUSCAR_APROXIMADO("buscarAproximado"),
+        EXISTE_EMAIL("existeEmail"),
+        OBTENER_POR_EMAIL("obtenerPorEmail");
+        
+        private final String etiqueta;
+        
+        Operacion(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Motor volátil elegido por {@code usuarios.almacen.tipo}. Con la persistencia habilitada
+ * el motor lo define {@code PersistenciaConfiguracion}, que envuelve el mismo tipo con el log;
+ * con {@code tipo=jdbc}, {@code JdbcConfiguracion}.
+ */
+@Configuration
+@EnableConfigurationProperties(AlmacenProperties.class)
+public class AlmacenConfiguracion {
+
+    @Bean
+    @Conditional(CondicionAlmacenEnMemoria.class)
+    @ConditionalOnProperty(prefix = "usuarios.persistencia", name = "habilitada", havingValue = "false", matchIfMissing = true)
+    public AlmacenUsuarios almacenUsuarios(AlmacenProperties properties) {
+        return properties.crear();
+    }
+}
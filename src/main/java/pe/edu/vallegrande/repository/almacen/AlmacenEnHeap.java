@@ -0,0 +1,127 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.mapa.MapaLongConcurrente;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Almacén por defecto: los objetos viven en un {@link MapaLongConcurrente}. Como los IDs
+ * son densos, el recorrido por rango sondea el mapa ID a ID en lugar de mantener un índice
+ * ordenado aparte, y salta los bloques que {@link OcupacionBloques} marca vacíos: después
+ * de eliminaciones masivas una página no paga los huecos ID por ID.
+ */
+public class AlmacenEnHeap implements AlmacenUsuarios {
+
+    private final MapaLongConcurrente<UsuarioRefactorizado> usuarios = new MapaLongConcurrente<>();
+    private final AtomicLong idMaximo = new AtomicLong();
+    private final OcupacionBloques ocupacion = new OcupacionBloques();
+
+    @Override
+    public UsuarioRefactorizado obtener(long id) {
+        return usuarios.obtener(id);
+    }
+
+    @Override
+    public UsuarioRefactorizado calcular(long id, Calculo calculo, Efecto efecto) {
+        return usuarios.calcular(id, (clave, actual) -> aplicar(clave, actual, calculo.aplicar(clave, actual), efecto));
+    }
+
+    @Override
+    public UsuarioRefactorizado calcularSiPresente(long id, Calculo calculo, Efecto efecto) {
+        return usuarios.calcularSiPresente(id, (clave, actual) -> aplicar(clave, actual, calculo.aplicar(clave, actual), efecto));
+    }
+
+    // Por el cálculo del mapa, para que la ocupación del bloque cambie junto con el registro
+    @Override
+    public void poner(long id, UsuarioRefactorizado usuario) {
+        calcular(id, (clave, actual) -> usuario);
+    }
+
+    @Override
+    public UsuarioRefactorizado quitar(long id) {
+        UsuarioRefactorizado[] eliminado = new UsuarioRefactorizado[1];
+        calcularSiPresente(id, (clave, actual) -> {
+            eliminado[0] = actual;
+            return null;
+        });
+        return eliminado[0];
+    }
+
+    @Override
+    public int tamano() {
+        return usuarios.tamano();
+    }
+
+    @Override
+    public long ultimoIdAsignado() {
+        return idMaximo.get();
+    }
+
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerDesde(long despuesDeId) {
+        return recorrerRango(despuesDeId, Long.MAX_VALUE);
+    }
+
+    // El recorrido se detiene en hastaId aunque falten IDs: un fragmento solo tiene algunos bloques del rango
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerRango(long despuesDeId, long hastaId) {
+        return new Iterator<>() {
+            private long siguienteId = Math.max(despuesDeId, 0L) + 1;
+            private UsuarioRefactorizado siguiente = avanzar();
+
+            @Override
+            public boolean hasNext() {
+                return siguiente != null;
+            }
+
+            @Override
+            public UsuarioRefactorizado next() {
+                if (siguiente == null) {
+                    throw new NoSuchElementException();
+                }
+                UsuarioRefactorizado actual = siguiente;
+                siguiente = avanzar();
+                return actual;
+            }
+
+            private UsuarioRefactorizado avanzar() {
+                long limite = Math.min(hastaId, idMaximo.get());
+                while (siguienteId <= limite) {
+                    long ocupado = ocupacion.siguienteOcupado(siguienteId, limite);
+                    if (ocupado < 0) {
+                        return null;
+                    }
+                    long finBloque = Math.min(limite, OcupacionBloques.finDeBloque(ocupado));
+                    siguienteId = ocupado;
+                    while (siguienteId <= finBloque) {
+                        UsuarioRefactorizado usuario = usuarios.obtener(siguienteId++);
+                        if (usuario != null) {
+                            return usuario;
+                        }
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    // El mapa escribe al volver del cálculo y no puede rechazar la escritura: el efecto va antes
+    private UsuarioRefactorizado aplicar(long id, UsuarioRefactorizado actual, UsuarioRefactorizado nuevo, Efecto efecto) {
+        if (nuevo == actual) {
+            return actual;
+        }
+        if (nuevo != null) {
+            idMaximo.accumulateAndGet(id, Math::max);
+        }
+        if (id > 0 && actual == null) {
+            ocupacion.agregar(id);
+        } else if (id > 0 && nuevo == null) {
+            ocupacion.quitar(id);
+        }
+        efecto.aplicar(id, actual, nuevo);
+        return nuevo;
+    }
+}
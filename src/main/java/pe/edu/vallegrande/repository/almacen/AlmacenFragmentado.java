@@ -0,0 +1,156 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Reparte los registros entre varios motores independientes por bloques de
+ * {@value #TAMANO_BLOQUE} IDs: el bloque {@code b} vive en el fragmento {@code b mod n}. El
+ * repositorio asigna a cada hilo los IDs de un solo fragmento, así que escritores
+ * concurrentes no comparten mapa, contador ni índices secundarios.
+ *
+ * <p>El recorrido en orden de ID avanza bloque a bloque pidiendo a cada fragmento solo el
+ * rango de ese bloque, sin mezclar iteradores ni recorrer los huecos de los demás.</p>
+ */
+public class AlmacenFragmentado implements AlmacenUsuarios {
+
+    public static final int BITS_BLOQUE = 10;
+    public static final int TAMANO_BLOQUE = 1 << BITS_BLOQUE;
+
+    private final AlmacenUsuarios[] fragmentos;
+
+    public AlmacenFragmentado(int cantidad, Supplier<AlmacenUsuarios> motor) {
+        if (cantidad < 1) {
+            throw new IllegalArgumentException("La cantidad de fragmentos debe ser positiva: " + cantidad);
+        }
+        fragmentos = new AlmacenUsuarios[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            fragmentos[i] = motor.get();
+        }
+    }
+
+    // Fragmentos ya abiertos, en orden: el i-ésimo guarda los bloques b con b mod n == i
+    public AlmacenFragmentado(List<? extends AlmacenUsuarios> fragmentos) {
+        if (fragmentos.isEmpty()) {
+            throw new IllegalArgumentException("La cantidad de fragmentos debe ser positiva: 0");
+        }
+        this.fragmentos = fragmentos.toArray(new AlmacenUsuarios[0]);
+    }
+
+    // Mismo reparto sin un almacén armado, para quien guarda los fragmentos por separado
+    public static int fragmento(long id, int cantidad) {
+        return (int) ((id >>> BITS_BLOQUE) % cantidad);
+    }
+
+    @Override
+    public UsuarioRefactorizado obtener(long id) {
+        return de(id).obtener(id);
+    }
+
+    @Override
+    public UsuarioRefactorizado calcular(long id, Calculo calculo, Efecto efecto) {
+        return de(id).calcular(id, calculo, efecto);
+    }
+
+    @Override
+    public UsuarioRefactorizado calcularSiPresente(long id, Calculo calculo, Efecto efecto) {
+        return de(id).calcularSiPresente(id, calculo, efecto);
+    }
+
+    @Override
+    public void poner(long id, UsuarioRefactorizado usuario) {
+        de(id).poner(id, usuario);
+    }
+
+    @Override
+    public UsuarioRefactorizado quitar(long id) {
+        return de(id).quitar(id);
+    }
+
+    @Override
+    public int tamano() {
+        int total = 0;
+        for (AlmacenUsuarios fragmento : fragmentos) {
+            total += fragmento.tamano();
+        }
+        return total;
+    }
+
+    @Override
+    public long ultimoIdAsignado() {
+        long maximo = 0L;
+        for (AlmacenUsuarios fragmento : fragmentos) {
+            maximo = Math.max(maximo, fragmento.ultimoIdAsignado());
+        }
+        return maximo;
+    }
+
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerDesde(long despuesDeId) {
+        return recorrerRango(despuesDeId, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerRango(long despuesDeId, long hastaId) {
+        return new Iterator<>() {
+            private long desde = Math.max(despuesDeId, 0L);
+            private Iterator<UsuarioRefactorizado> bloque = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                // El límite se relee en cada bloque: el recorrido es débilmente consistente, como el del mapa
+                while (!bloque.hasNext() && desde < Math.min(hastaId, ultimoIdAsignado())) {
+                    long siguiente = desde + 1;
+                    long fin = Math.min(hastaId, (((siguiente >>> BITS_BLOQUE) + 1) << BITS_BLOQUE) - 1);
+                    bloque = de(siguiente).recorrerRango(desde, fin);
+                    desde = fin;
+                }
+                return bloque.hasNext();
+            }
+
+            @Override
+            public UsuarioRefactorizado next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return bloque.next();
+            }
+        };
+    }
+
+    @Override
+    public void confirmar() {
+        for (AlmacenUsuarios fragmento : fragmentos) {
+            fragmento.confirmar();
+        }
+    }
+
+    @Override
+    public boolean leeEnMemoria() {
+        for (AlmacenUsuarios fragmento : fragmentos) {
+            if (!fragmento.leeEnMemoria()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int fragmentos() {
+        return fragmentos.length;
+    }
+
+    @Override
+    public int fragmento(long id) {
+        return fragmento(id, fragmentos.length);
+    }
+
+    private AlmacenUsuarios de(long id) {
+        return fragmentos[fragmento(id)];
+    }
+}
@@ -0,0 +1,399 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Almacén columnar fuera del heap para despliegues con millones de usuarios.
+ *
+ * <p>Los IDs los asigna un contador, así que son densos y sirven directamente como número
+ * de fila: no hay mapa de ID a posición. Cada fila ocupa una entrada en tres columnas de
+ * buffers directos paginados, {@code edad} (int), {@code version} (long) y
+ * {@code referencia} (long), y las cadenas UTF-8 del usuario se guardan juntas en una
+ * arena de solo anexado: {@code ([longitud:u16][bytes])x3} para nombre, email y teléfono.
+ * Los objetos {@link UsuarioRefactorizado} solo se construyen al leer.</p>
+ *
+ * <p>Las escrituras toman el cerrojo de su franja de IDs y reutilizan el espacio del
+ * registro cuando el nuevo no es más largo; si no, el anterior queda como espacio muerto
+ * hasta el siguiente arranque. Las lecturas son optimistas y solo bloquean si coinciden
+ * con una escritura sobre la misma franja.</p>
+ *
+ * <p>La memoria directa cuenta contra {@code -XX:MaxDirectMemorySize}, que por defecto
+ * es igual al heap máximo.</p>
+ */
+public class AlmacenFueraDeHeap implements AlmacenUsuarios {
+
+    private static final int BITS_PAGINA = 16;
+    private static final int FILAS_POR_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA_FILA = FILAS_POR_PAGINA - 1;
+    private static final int FRANJAS = 256;
+    private static final int TAMANO_SEGMENTO_POR_DEFECTO = 64 << 20;
+
+    private static final int EDAD_NULA = Integer.MIN_VALUE;
+    private static final long VERSION_NULA = 0L;
+    private static final int CADENA_NULA = 0xFFFF;
+    private static final long SIN_REGISTRO = 0L;
+
+    private final int tamanoSegmento;
+    private final StampedLock[] cerrojos = new StampedLock[FRANJAS];
+
+    // Se reemplazan completos al crecer; nunca contienen huecos
+    private volatile ByteBuffer[] paginasEdad = new ByteBuffer[0];
+    private volatile ByteBuffer[] paginasVersion = new ByteBuffer[0];
+    private volatile ByteBuffer[] paginasReferencia = new ByteBuffer[0];
+    private volatile ByteBuffer[] segmentos = new ByteBuffer[0];
+
+    // La posición 0 queda reservada para que ninguna referencia válida valga SIN_REGISTRO
+    private final AtomicLong posicionArena = new AtomicLong(Long.BYTES);
+    private final AtomicLong idMaximo = new AtomicLong();
+    private final AtomicInteger cantidad = new AtomicInteger();
+    private final OcupacionBloques ocupacion = new OcupacionBloques();
+
+    public AlmacenFueraDeHeap() {
+        this(TAMANO_SEGMENTO_POR_DEFECTO);
+    }
+
+    public AlmacenFueraDeHeap(int tamanoSegmento) {
+        this.tamanoSegmento = tamanoSegmento;
+        for (int i = 0; i < FRANJAS; i++) {
+            cerrojos[i] = new StampedLock();
+        }
+    }
+
+    @Override
+    public UsuarioRefactorizado obtener(long id) {
+        StampedLock cerrojo = cerrojo(id);
+        long sello = cerrojo.tryOptimisticRead();
+        if (sello != 0L) {
+            try {
+                UsuarioRefactorizado usuario = leer(id);
+                if (cerrojo.validate(sello)) {
+                    return usuario;
+                }
+            } catch (RuntimeException e) {
+                // Lectura rota por una escritura concurrente: se repite con cerrojo
+            }
+        }
+
+        sello = cerrojo.readLock();
+        try {
+            return leer(id);
+        } finally {
+            cerrojo.unlockRead(sello);
+        }
+    }
+
+    @Override
+    public UsuarioRefactorizado calcular(long id, Calculo calculo, Efecto efecto) {
+        validarId(id);
+        StampedLock cerrojo = cerrojo(id);
+        long sello = cerrojo.writeLock();
+        try {
+            UsuarioRefactorizado actual = leer(id);
+            return aplicar(id, actual, calculo.aplicar(id, actual), efecto);
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+    }
+
+    @Override
+    public UsuarioRefactorizado calcularSiPresente(long id, Calculo calculo, Efecto efecto) {
+        if (id < 0) {
+            return null;
+        }
+        StampedLock cerrojo = cerrojo(id);
+        long sello = cerrojo.writeLock();
+        try {
+            UsuarioRefactorizado actual = leer(id);
+            return actual != null ? aplicar(id, actual, calculo.aplicar(id, actual), efecto) : null;
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+    }
+
+    @Override
+    public void poner(long id, UsuarioRefactorizado usuario) {
+        calcular(id, (clave, actual) -> usuario);
+    }
+
+    @Override
+    public UsuarioRefactorizado quitar(long id) {
+        UsuarioRefactorizado[] eliminado = new UsuarioRefactorizado[1];
+        calcularSiPresente(id, (clave, actual) -> {
+            eliminado[0] = actual;
+            return null;
+        });
+        return eliminado[0];
+    }
+
+    @Override
+    public int tamano() {
+        return cantidad.get();
+    }
+
+    @Override
+    public long ultimoIdAsignado() {
+        return idMaximo.get();
+    }
+
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerDesde(long despuesDeId) {
+        return new Iterator<>() {
+            private long siguienteId = Math.max(despuesDeId, 0L) + 1;
+            private UsuarioRefactorizado siguiente = avanzar();
+
+            @Override
+            public boolean hasNext() {
+                return siguiente != null;
+            }
+
+            @Override
+            public UsuarioRefactorizado next() {
+                if (siguiente == null) {
+                    throw new NoSuchElementException();
+                }
+                UsuarioRefactorizado actual = siguiente;
+                siguiente = avanzar();
+                return actual;
+            }
+
+            // Salta los bloques vacíos: tras eliminaciones masivas la página no sondea cada fila del hueco
+            private UsuarioRefactorizado avanzar() {
+                long limite = idMaximo.get();
+                while (siguienteId <= limite) {
+                    long ocupado = ocupacion.siguienteOcupado(siguienteId, limite);
+                    if (ocupado < 0) {
+                        return null;
+                    }
+                    long finBloque = Math.min(limite, OcupacionBloques.finDeBloque(ocupado));
+                    siguienteId = ocupado;
+                    while (siguienteId <= finBloque) {
+                        UsuarioRefactorizado usuario = obtener(siguienteId++);
+                        if (usuario != null) {
+                            return usuario;
+                        }
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private UsuarioRefactorizado aplicar(long id, UsuarioRefactorizado actual, UsuarioRefactorizado nuevo, Efecto efecto) {
+        if (nuevo == null) {
+            if (actual != null) {
+                paginasReferencia[pagina(id)].putLong(fila(id) * Long.BYTES, SIN_REGISTRO);
+                cantidad.decrementAndGet();
+                ocupacion.quitar(id);
+                efecto.aplicar(id, actual, null);
+            }
+            return null;
+        }
+        // El mismo objeto leído indica que el cálculo no cambió nada: la fila queda intacta
+        if (nuevo == actual) {
+            return actual;
+        }
+
+        escribir(id, actual, nuevo);
+        if (actual == null) {
+            cantidad.incrementAndGet();
+            ocupacion.agregar(id);
+            idMaximo.accumulateAndGet(id, Math::max);
+        }
+        efecto.aplicar(id, actual, nuevo);
+        return nuevo;
+    }
+
+    private UsuarioRefactorizado leer(long id) {
+        int pagina = pagina(id);
+        ByteBuffer[] referencias = paginasReferencia;
+        if (id < 0 || pagina >= referencias.length) {
+            return null;
+        }
+        long referencia = referencias[pagina].getLong(fila(id) * Long.BYTES);
+        if (referencia == SIN_REGISTRO) {
+            return null;
+        }
+        int edad = paginasEdad[pagina].getInt(fila(id) * Integer.BYTES);
+        long version = paginasVersion[pagina].getLong(fila(id) * Long.BYTES);
+
+        ByteBuffer segmento = segmentos[(int) (referencia / tamanoSegmento)];
+        int posicion = desplazamiento(referencia);
+        String[] cadenas = new String[3];
+        for (int i = 0; i < cadenas.length; i++) {
+            int longitud = Short.toUnsignedInt(segmento.getShort(posicion));
+            posicion += Short.BYTES;
+            if (longitud != CADENA_NULA) {
+                byte[] bytes = new byte[longitud];
+                segmento.get(posicion, bytes);
+                cadenas[i] = new String(bytes, StandardCharsets.UTF_8);
+                posicion += longitud;
+            }
+        }
+
+        return new UsuarioRefactorizado(id, cadenas[0], cadenas[1], edad != EDAD_NULA ? edad : null, cadenas[2],
+                version != VERSION_NULA ? version : null);
+    }
+
+    // Si las cadenas no cambiaron (un PATCH de la edad, por ejemplo) solo se tocan las columnas
+    private void escribir(long id, UsuarioRefactorizado actual, UsuarioRefactorizado usuario) {
+        asegurarPagina(pagina(id));
+        ByteBuffer referencias = paginasReferencia[pagina(id)];
+        long referencia = referencias.getLong(fila(id) * Long.BYTES);
+
+        if (actual == null || !mismasCadenas(actual, usuario)) {
+            byte[] nombre = utf8(usuario.getNombre());
+            byte[] email = utf8(usuario.getEmail());
+            byte[] telefono = utf8(usuario.getTelefono());
+            int tamano = tamanoCadena(nombre) + tamanoCadena(email) + tamanoCadena(telefono);
+            if (referencia == SIN_REGISTRO || tamanoRegistro(referencia) < tamano) {
+                referencia = reservar(tamano);
+            }
+
+            ByteBuffer segmento = segmentoDe(referencia);
+            int posicion = desplazamiento(referencia);
+            posicion = escribirCadena(segmento, posicion, nombre);
+            posicion = escribirCadena(segmento, posicion, email);
+            escribirCadena(segmento, posicion, telefono);
+        }
+
+        paginasEdad[pagina(id)].putInt(fila(id) * Integer.BYTES, usuario.getEdad() != null ? usuario.getEdad() : EDAD_NULA);
+        paginasVersion[pagina(id)].putLong(fila(id) * Long.BYTES, usuario.getVersion() != null ? usuario.getVersion() : VERSION_NULA);
+        referencias.putLong(fila(id) * Long.BYTES, referencia);
+    }
+
+    private static boolean mismasCadenas(UsuarioRefactorizado actual, UsuarioRefactorizado usuario) {
+        return Objects.equals(actual.getNombre(), usuario.getNombre())
+                && Objects.equals(actual.getEmail(), usuario.getEmail())
+                && Objects.equals(actual.getTelefono(), usuario.getTelefono());
+    }
+
+    // Reserva con CAS sobre la posición global; un registro nunca cruza el límite de un segmento
+    private long reservar(int bytes) {
+        if (bytes > tamanoSegmento) {
+            throw new IllegalArgumentException("El usuario no cabe en un segmento de la arena");
+        }
+        while (true) {
+            long inicio = posicionArena.get();
+            long desplazamiento = inicio % tamanoSegmento;
+            long posicion = desplazamiento + bytes > tamanoSegmento ? inicio - desplazamiento + tamanoSegmento : inicio;
+            if (posicionArena.compareAndSet(inicio, posicion + bytes)) {
+                asegurarSegmento((int) (posicion / tamanoSegmento));
+                return posicion;
+            }
+        }
+    }
+
+    private void asegurarPagina(int pagina) {
+        if (pagina < paginasReferencia.length) {
+            return;
+        }
+        synchronized (this) {
+            int actuales = paginasReferencia.length;
+            if (pagina < actuales) {
+                return;
+            }
+            ByteBuffer[] edades = Arrays.copyOf(paginasEdad, pagina + 1);
+            ByteBuffer[] versiones = Arrays.copyOf(paginasVersion, pagina + 1);
+            ByteBuffer[] referencias = Arrays.copyOf(paginasReferencia, pagina + 1);
+            for (int i = actuales; i <= pagina; i++) {
+                edades[i] = ByteBuffer.allocateDirect(FILAS_POR_PAGINA * Integer.BYTES);
+                versiones[i] = ByteBuffer.allocateDirect(FILAS_POR_PAGINA * Long.BYTES);
+                referencias[i] = ByteBuffer.allocateDirect(FILAS_POR_PAGINA * Long.BYTES);
+            }
+            // Primero las otras columnas: quien ve una página de referencias ya ve las demás
+            paginasEdad = edades;
+            paginasVersion = versiones;
+            paginasReferencia = referencias;
+        }
+    }
+
+    private void asegurarSegmento(int indice) {
+        if (indice < segmentos.length) {
+            return;
+        }
+        synchronized (this) {
+            int actuales = segmentos.length;
+            if (indice < actuales) {
+                return;
+            }
+            ByteBuffer[] nuevos = Arrays.copyOf(segmentos, indice + 1);
+            for (int i = actuales; i <= indice; i++) {
+                nuevos[i] = ByteBuffer.allocateDirect(tamanoSegmento);
+            }
+            segmentos = nuevos;
+        }
+    }
+
+    // El tamaño se deduce de las longitudes para no gastar una cabecera por registro
+    private int tamanoRegistro(long referencia) {
+        ByteBuffer segmento = segmentoDe(referencia);
+        int inicio = desplazamiento(referencia);
+        int posicion = inicio;
+        for (int i = 0; i < 3; i++) {
+            int longitud = Short.toUnsignedInt(segmento.getShort(posicion));
+            posicion += Short.BYTES + (longitud != CADENA_NULA ? longitud : 0);
+        }
+        return posicion - inicio;
+    }
+
+    private ByteBuffer segmentoDe(long referencia) {
+        return segmentos[(int) (referencia / tamanoSegmento)];
+    }
+
+    private int desplazamiento(long referencia) {
+        return (int) (referencia % tamanoSegmento);
+    }
+
+    private StampedLock cerrojo(long id) {
+        return cerrojos[(int) id & (FRANJAS - 1)];
+    }
+
+    private static int pagina(long id) {
+        return (int) (id >>> BITS_PAGINA);
+    }
+
+    private static int fila(long id) {
+        return (int) id & MASCARA_FILA;
+    }
+
+    private static void validarId(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("El almacén fuera del heap solo admite IDs positivos");
+        }
+    }
+
+    private static byte[] utf8(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= CADENA_NULA) {
+            throw new IllegalArgumentException("Campo demasiado largo para el almacén fuera del heap");
+        }
+        return bytes;
+    }
+
+    private static int tamanoCadena(byte[] valor) {
+        return Short.BYTES + (valor != null ? valor.length : 0);
+    }
+
+    private static int escribirCadena(ByteBuffer destino, int posicion, byte[] valor) {
+        if (valor == null) {
+            destino.putShort(posicion, (short) CADENA_NULA);
+            return posicion + Short.BYTES;
+        }
+        destino.putShort(posicion, (short) valor.length);
+        destino.put(posicion + Short.BYTES, valor);
+        return posicion + Short.BYTES + valor.length;
+    }
+}
@@ -0,0 +1,54 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.function.Supplier;
+
+@Data
+@ConfigurationProperties(prefix = "usuarios.almacen")
+public class AlmacenProperties {
+
+    // Dónde viven los registros; con la persistencia habilitada el log se monta encima
+    private Tipo tipo = Tipo.HEAP;
+
+    // Más de uno reparte los registros, los IDs y los índices para que las escrituras escalen con los núcleos
+    private int fragmentos = 1;
+
+    /**
+     * El motor configurado, fragmentado si corresponde. Solo el heap admite fragmentos: el
+     * motor fuera de heap usa el ID como número de fila y cada fragmento reservaría las
+     * páginas de todos los bloques.
+     */
+    public AlmacenUsuarios crear() {
+        return fragmentos <= 1 ? tipo.crear() : new AlmacenFragmentado(fragmentos, motorPorFragmento());
+    }
+
+    // El motor de cada fragmento, para quien arma los fragmentos por su cuenta (el log por fragmento)
+    public Supplier<AlmacenUsuarios> motorPorFragmento() {
+        if (fragmentos > 1 && tipo != Tipo.HEAP) {
+            throw new IllegalStateException("Solo el almacén heap admite fragmentos, no " + tipo);
+        }
+        return tipo::crear;
+    }
+
+    public enum Tipo {
+        HEAP(AlmacenEnHeap::new),
+        FUERA_DE_HEAP(AlmacenFueraDeHeap::new),
+        // Necesita el pool de conexiones: lo crea JdbcConfiguracion
+        JDBC(null);
+
+        private final Supplier<AlmacenUsuarios> fabrica;
+
+        Tipo(Supplier<AlmacenUsuarios> fabrica) {
+            this.fabrica = fabrica;
+        }
+
+        public AlmacenUsuarios crear() {
+            if (fabrica == null) {
+                throw new IllegalStateException("El almacén " + this + " no se crea sin configuración");
+            }
+            return fabrica.get();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Almacenamiento de los registros de usuario indexados por ID. El repositorio mantiene
+ * encima los índices, la unicidad de email y los eventos; el almacén solo decide dónde y
+ * cómo viven los datos y, si corresponde, cómo sobreviven a un reinicio.
+ *
+ * <p>Las operaciones de {@code calcular} son atómicas por ID, con la misma semántica que
+ * {@code ConcurrentHashMap.compute}: si la función lanza una excepción el registro no cambia.
+ * Las operaciones por defecto se construyen sobre ellas; un motor las sobrescribe cuando
+ * puede hacerlo mejor (una sola sentencia, un solo cerrojo).</p>
+ *
+ * <p>Todo motor debe pasar {@code ContratoAlmacenUsuariosTest} y entrar en
+ * {@code AlmacenesBenchmark}.</p>
+ */
+public interface AlmacenUsuarios {
+
+    UsuarioRefactorizado obtener(long id);
+
+    // Devuelve el valor nuevo; una función que devuelve null elimina el registro y una que
+    // devuelve el mismo objeto recibido lo deja como está
+    UsuarioRefactorizado calcular(long id, Calculo calculo, Efecto efecto);
+
+    // También es el compara-y-reemplaza del SPI: un cálculo que compara la versión de actual
+    // y lanza (o devuelve actual) si no es la esperada; ver UsuarioRepositoryRefactorizado.actualizar
+    UsuarioRefactorizado calcularSiPresente(long id, Calculo calculo, Efecto efecto);
+
+    default UsuarioRefactorizado calcular(long id, Calculo calculo) {
+        return calcular(id, calculo, Efecto.NINGUNO);
+    }
+
+    default UsuarioRefactorizado calcularSiPresente(long id, Calculo calculo) {
+        return calcularSiPresente(id, calculo, Efecto.NINGUNO);
+    }
+
+    // Escritura incondicional, sin pasar por el cálculo del registro anterior
+    void poner(long id, UsuarioRefactorizado usuario);
+
+    UsuarioRefactorizado quitar(long id);
+
+    int tamano();
+
+    // Recorrido en orden de ID, débilmente consistente, a partir del ID indicado (exclusivo)
+    Iterator<UsuarioRefactorizado> recorrerDesde(long despuesDeId);
+
+    // Mayor ID que llegó a escribirse, aunque después se haya eliminado: los IDs no se reutilizan
+    long ultimoIdAsignado();
+
+    // Posición a posición; null donde el ID no existe. Un motor remoto los lee en una sola consulta
+    default UsuarioRefactorizado[] obtenerVarios(long[] ids) {
+        UsuarioRefactorizado[] encontrados = new UsuarioRefactorizado[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            encontrados[i] = obtener(ids[i]);
+        }
+        return encontrados;
+    }
+
+    default List<UsuarioRefactorizado> ponerVarios(List<UsuarioRefactorizado> usuarios) {
+        return ponerVarios(usuarios, Efecto.NINGUNO);
+    }
+
+    /**
+     * Escribe cada usuario con su propio ID; la atomicidad es por registro, no por lote.
+     * Devuelve los escritos: los que el almacén rechaza (un email repetido en un motor que
+     * garantiza su unicidad) quedan fuera y no pasan por el efecto.
+     */
+    default List<UsuarioRefactorizado> ponerVarios(List<UsuarioRefactorizado> usuarios, Efecto efecto) {
+        List<UsuarioRefactorizado> escritos = new ArrayList<>(usuarios.size());
+        for (UsuarioRefactorizado usuario : usuarios) {
+            calcular(usuario.getId(), (clave, actual) -> usuario, efecto);
+            escritos.add(usuario);
+        }
+        return escritos;
+    }
+
+    // Recorrido de los IDs en (despuesDeId, hastaId]
+    default Iterator<UsuarioRefactorizado> recorrerRango(long despuesDeId, long hastaId) {
+        Iterator<UsuarioRefactorizado> desde = recorrerDesde(despuesDeId);
+        return new Iterator<>() {
+            private UsuarioRefactorizado siguiente = avanzar();
+
+            @Override
+            public boolean hasNext() {
+                return siguiente != null;
+            }
+
+            @Override
+            public UsuarioRefactorizado next() {
+                if (siguiente == null) {
+                    throw new NoSuchElementException();
+                }
+                UsuarioRefactorizado actual = siguiente;
+                siguiente = avanzar();
+                return actual;
+            }
+
+            private UsuarioRefactorizado avanzar() {
+                if (!desde.hasNext()) {
+                    return null;
+                }
+                UsuarioRefactorizado usuario = desde.next();
+                return usuario.getId() <= hastaId ? usuario : null;
+            }
+        };
+    }
+
+    /**
+     * Bloquea hasta que las escrituras que este hilo ya aplicó sobrevivan a un reinicio.
+     * El repositorio la invoca después de cada operación, fuera del cálculo atómico, para
+     * que un motor durable agrupe varias escrituras en una sola sincronización.
+     */
+    default void confirmar() {
+    }
+
+    /**
+     * Motores que hacen cumplir la unicidad del email por sí mismos (un índice único en SQL).
+     * El repositorio no mantiene entonces su índice en memoria: una escritura con un email
+     * ajeno lanza {@code EmailDuplicadoException} y las búsquedas por email van al almacén.
+     */
+    default boolean garantizaEmailUnico() {
+        return false;
+    }
+
+    /**
+     * Motores cuyas lecturas se resuelven en memoria sin esperar E/S. Con {@code false} (una
+     * base de datos), la API reactiva saca también las lecturas del event loop.
+     */
+    default boolean leeEnMemoria() {
+        return true;
+    }
+
+    // Null si nadie lo tiene; un motor sin índice de emails no encuentra ninguno y el repositorio usa el suyo
+    default UsuarioRefactorizado obtenerPorEmail(String email) {
+        return null;
+    }
+
+    // Particiones independientes del motor; el repositorio reparte sus índices y sus IDs igual
+    default int fragmentos() {
+        return 1;
+    }
+
+    // Partición que guarda el ID, en [0, fragmentos())
+    default int fragmento(long id) {
+        return 0;
+    }
+
+    @FunctionalInterface
+    interface Calculo {
+        UsuarioRefactorizado aplicar(long id, UsuarioRefactorizado actual);
+    }
+
+    // Se invoca dentro de la sección atómica del ID, solo si el registro cambió y después de que el almacén aceptó la escritura
+    @FunctionalInterface
+    interface Efecto {
+        Efecto NINGUNO = (id, anterior, nuevo) -> {
+        };
+
+        void aplicar(long id, UsuarioRefactorizado anterior, UsuarioRefactorizado nuevo);
+    }
+}
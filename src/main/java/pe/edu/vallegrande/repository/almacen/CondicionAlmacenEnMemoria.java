@@ -0,0 +1,16 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+
+// Cualquier tipo salvo jdbc: el motor SQL lo define JdbcConfiguracion y no lleva el log encima
+public class CondicionAlmacenEnMemoria extends NoneNestedConditions {
+
+    CondicionAlmacenEnMemoria() {
+        super(ConfigurationPhase.PARSE_CONFIGURATION);
+    }
+
+    @ConditionalOnProperty(prefix = "usuarios.almacen", name = "tipo", havingValue = "jdbc")
+    static class TipoJdbc {
+    }
+}
@@ -0,0 +1,98 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Cuántos registros hay en cada bloque de {@value AlmacenFragmentado#TAMANO_BLOQUE} IDs y en
+ * cada grupo de {@value #BLOQUES_POR_GRUPO} bloques. Los motores que recorren por ID sin un
+ * índice ordenado la usan para saltar los bloques vacíos: después de eliminar casi todo un
+ * rango, una página cuesta los bloques ocupados que toca más un salto por grupo vacío, no un
+ * sondeo por cada ID hasta el máximo asignado.
+ *
+ * <p>Los contadores se actualizan dentro de la sección atómica de cada ID, así que un registro
+ * que ya estaba antes de empezar el recorrido y sigue ahí nunca queda en un bloque con
+ * contador cero; lo que se agrega o elimina durante el recorrido puede verse o no, como en
+ * el resto del recorrido débilmente consistente.</p>
+ */
+final class OcupacionBloques {
+
+    private static final int BITS_GRUPO = 10;
+    static final int BLOQUES_POR_GRUPO = 1 << BITS_GRUPO;
+    private static final int BITS_ID_GRUPO = AlmacenFragmentado.BITS_BLOQUE + BITS_GRUPO;
+
+    // Se reemplaza completo al crecer; los grupos ya creados pasan al arreglo nuevo
+    private volatile Grupo[] grupos = new Grupo[0];
+
+    void agregar(long id) {
+        sumar(id, 1);
+    }
+
+    void quitar(long id) {
+        sumar(id, -1);
+    }
+
+    /**
+     * Primer ID entre {@code desde} y {@code hasta} cuyo bloque tiene registros, o -1 si no
+     * queda ninguno. El ID devuelto puede estar vacío: solo se sabe que su bloque no lo está.
+     */
+    long siguienteOcupado(long desde, long hasta) {
+        long id = desde;
+        while (id <= hasta) {
+            Grupo[] actuales = grupos;
+            long indice = id >>> BITS_ID_GRUPO;
+            if (indice >= actuales.length) {
+                return -1;
+            }
+            Grupo grupo = actuales[(int) indice];
+            if (grupo == null || grupo.total.get() == 0) {
+                id = (indice + 1) << BITS_ID_GRUPO;
+            } else if (grupo.porBloque.get(bloqueEnGrupo(id)) == 0) {
+                id = ((id >>> AlmacenFragmentado.BITS_BLOQUE) + 1) << AlmacenFragmentado.BITS_BLOQUE;
+            } else {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    // Último ID del bloque de id: hasta ahí el recorrido sondea sin volver a consultar los contadores
+    static long finDeBloque(long id) {
+        return (((id >>> AlmacenFragmentado.BITS_BLOQUE) + 1) << AlmacenFragmentado.BITS_BLOQUE) - 1;
+    }
+
+    private void sumar(long id, int delta) {
+        Grupo grupo = grupo((int) (id >>> BITS_ID_GRUPO));
+        grupo.porBloque.addAndGet(bloqueEnGrupo(id), delta);
+        grupo.total.addAndGet(delta);
+    }
+
+    private Grupo grupo(int indice) {
+        Grupo[] actuales = grupos;
+        if (indice < actuales.length && actuales[indice] != null) {
+            return actuales[indice];
+        }
+        synchronized (this) {
+            actuales = grupos;
+            if (indice < actuales.length && actuales[indice] != null) {
+                return actuales[indice];
+            }
+            Grupo[] ampliados = indice < actuales.length
+                    ? actuales.clone()
+                    : Arrays.copyOf(actuales, Math.max(indice + 1, actuales.length * 2));
+            ampliados[indice] = new Grupo();
+            grupos = ampliados;
+            return ampliados[indice];
+        }
+    }
+
+    private static int bloqueEnGrupo(long id) {
+        return (int) (id >>> AlmacenFragmentado.BITS_BLOQUE) & (BLOQUES_POR_GRUPO - 1);
+    }
+
+    private static final class Grupo {
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicIntegerArray porBloque = new AtomicIntegerArray(BLOQUES_POR_GRUPO);
+    }
+}
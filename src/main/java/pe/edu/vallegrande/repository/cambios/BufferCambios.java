@@ -0,0 +1,172 @@
+package pe.edu.vallegrande.repository.cambios;
+
+import pe.edu.vallegrande.exception.SecuenciaVencidaException;
+import pe.edu.vallegrande.model.EventoCambio;
+import pe.edu.vallegrande.model.TipoCambio;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffer circular de eventos de cambio al estilo del Disruptor, sin locks. Cada escritor
+ * reclama su número de secuencia con un incremento atómico y publica el evento en la
+ * posición {@code secuencia & mascara}; el evento lleva su propia secuencia, así que un
+ * lector distingue una posición todavía sin publicar de una ya sobrescrita por la vuelta
+ * siguiente.
+ *
+ * <p>A diferencia del Disruptor, los escritores nunca esperan a los lectores: el buffer
+ * conserva los últimos {@code capacidad} eventos y un lector que se queda más atrás recibe
+ * {@link SecuenciaVencidaException} y debe volver a leer el estado completo. Así una
+ * suscripción lenta nunca frena las escrituras del repositorio.</p>
+ *
+ * <p>La secuencia es una sola para todo el repositorio, también con el almacén fragmentado:
+ * los cursores de los suscriptores necesitan un orden total. Por eso cada escritura, de
+ * cualquier fragmento, pasa por el mismo incremento atómico y por el CAS de su posición; es
+ * el punto donde se serializan las escrituras que en lo demás no comparten nada.</p>
+ *
+ * <p>La secuencia vive en memoria y vuelve a 1 en cada arranque, así que los cursores que
+ * reciben los clientes ({@link EventoCambio#cursor()}) llevan también la época del buffer:
+ * un cursor de un arranque anterior se rechaza como vencido en lugar de retomar en una
+ * secuencia que ahora nombra otros eventos.</p>
+ */
+public class BufferCambios {
+
+    private final AtomicReferenceArray<EventoCambio> eventos;
+    private final int mascara;
+    private final AtomicLong secuencia = new AtomicLong();
+    private final long epoca;
+
+    // Hilo que espera en esperar(); los escritores solo lo despiertan si está dormido
+    private volatile Thread esperando;
+
+    public BufferCambios(int capacidad) {
+        this(capacidad, ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE));
+    }
+
+    public BufferCambios(int capacidad, long epoca) {
+        if (capacidad < 2 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad del buffer de cambios debe ser potencia de dos: " + capacidad);
+        }
+        this.eventos = new AtomicReferenceArray<>(capacidad);
+        this.mascara = capacidad - 1;
+        this.epoca = epoca;
+    }
+
+    /**
+     * Se invoca dentro del cálculo atómico del ID, por lo que los eventos de un mismo usuario
+     * quedan en el orden en que se aplicaron. Entre usuarios distintos la secuencia ordena
+     * por el momento de la reclamación.
+     */
+    public long publicar(TipoCambio tipo, long id, UsuarioRefactorizado usuario) {
+        long numero = secuencia.incrementAndGet();
+        EventoCambio evento = new EventoCambio(epoca, numero, tipo, id, usuario);
+        int posicion = (int) (numero & mascara);
+
+        // Un escritor rezagado no pisa un evento de una vuelta posterior
+        EventoCambio anterior = eventos.get(posicion);
+        while ((anterior == null || anterior.secuencia() < numero)
+                && !eventos.compareAndSet(posicion, anterior, evento)) {
+            anterior = eventos.get(posicion);
+        }
+
+        Thread hilo = esperando;
+        if (hilo != null) {
+            LockSupport.unpark(hilo);
+        }
+        return numero;
+    }
+
+    /**
+     * Evento con ese número de secuencia, o null si su escritor todavía no lo publicó.
+     * Lanza {@link SecuenciaVencidaException} si el buffer ya lo sobrescribió.
+     */
+    public EventoCambio leer(long numero) {
+        EventoCambio evento = eventos.get((int) (numero & mascara));
+        if (evento == null || evento.secuencia() < numero) {
+            return null;
+        }
+        if (evento.secuencia() > numero) {
+            throw vencida(numero);
+        }
+        return evento;
+    }
+
+    // Publicado o ya sobrescrito: en ambos casos no hay nada que esperar para ese número
+    public boolean alcanzado(long numero) {
+        EventoCambio evento = eventos.get((int) (numero & mascara));
+        return evento != null && evento.secuencia() >= numero;
+    }
+
+    /**
+     * Secuencia que nombra un cursor recibido del cliente. Lanza {@link SecuenciaVencidaException}
+     * si el cursor es de otra época, también si es solo un número sin época, e
+     * {@link IllegalArgumentException} si no tiene el formato de un cursor.
+     */
+    public long secuenciaDe(String cursor) {
+        int separador = cursor.indexOf('-');
+        long epocaCursor;
+        long numero;
+        try {
+            epocaCursor = separador > 0 ? Long.parseLong(cursor, 0, separador, Character.MAX_RADIX) : 0L;
+            numero = Long.parseLong(cursor, separador + 1, cursor.length(), 10);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El cursor de cambios no es válido: " + cursor);
+        }
+        if (epocaCursor != epoca) {
+            throw new SecuenciaVencidaException(String.format(
+                    "El cursor %s es de un arranque anterior del servidor; "
+                            + "vuelva a leer los usuarios y suscríbase sin 'since'", cursor));
+        }
+        return numero;
+    }
+
+    public String cursor(long numero) {
+        return EventoCambio.cursor(epoca, numero);
+    }
+
+    public long ultimaSecuencia() {
+        return secuencia.get();
+    }
+
+    // Primer número que todavía se puede leer
+    public long primeraDisponible() {
+        return Math.max(1L, secuencia.get() - eventos.length() + 1);
+    }
+
+    /**
+     * Verifica que una suscripción pueda retomar justo después de {@code ultimaRecibida}:
+     * que esa secuencia exista y que los eventos siguientes sigan en el buffer.
+     */
+    public void verificarContinuidad(long ultimaRecibida) {
+        if (ultimaRecibida < primeraDisponible() - 1 || ultimaRecibida > secuencia.get()) {
+            throw vencida(ultimaRecibida + 1);
+        }
+    }
+
+    /**
+     * Duerme hasta que se publique {@code numero} o pase el tiempo indicado. Admite un solo
+     * hilo en espera a la vez: el despachador de {@link DifusorCambios}.
+     */
+    public void esperar(long numero, long nanos) {
+        esperando = Thread.currentThread();
+        // Tras anunciarse vuelve a mirar: o el escritor ve al hilo dormido o aquí se ve su evento
+        if (!alcanzado(numero)) {
+            LockSupport.parkNanos(this, nanos);
+        }
+        esperando = null;
+    }
+
+    public int capacidad() {
+        return eventos.length();
+    }
+
+    private SecuenciaVencidaException vencida(long numero) {
+        return new SecuenciaVencidaException(String.format(
+                "Los cambios desde la secuencia %d ya no están disponibles (disponibles: %d a %d); "
+                        + "vuelva a leer los usuarios y suscríbase sin 'since'",
+                numero, primeraDisponible(), secuencia.get()));
+    }
+}
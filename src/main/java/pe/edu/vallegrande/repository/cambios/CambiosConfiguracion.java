@@ -0,0 +1,20 @@
+package pe.edu.vallegrande.repository.cambios;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CambiosProperties.class)
+public class CambiosConfiguracion {
+
+    @Bean
+    public BufferCambios bufferCambios(CambiosProperties properties) {
+        return new BufferCambios(properties.getCapacidad());
+    }
+
+    @Bean
+    public DifusorCambios difusorCambios(BufferCambios buffer) {
+        return new DifusorCambios(buffer);
+    }
+}
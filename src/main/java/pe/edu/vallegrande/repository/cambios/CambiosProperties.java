@@ -0,0 +1,12 @@
+package pe.edu.vallegrande.repository.cambios;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "usuarios.cambios")
+public class CambiosProperties {
+
+    // Eventos que se conservan para retomar una suscripción; potencia de dos
+    private int capacidad = 65_536;
+}
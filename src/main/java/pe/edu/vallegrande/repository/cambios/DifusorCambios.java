@@ -0,0 +1,125 @@
+package pe.edu.vallegrande.repository.cambios;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.vallegrande.exception.SecuenciaVencidaException;
+import pe.edu.vallegrande.model.EventoCambio;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entrega los eventos de {@link BufferCambios} a las suscripciones. Cada suscripción es un
+ * cursor propio sobre el buffer y solo avanza con la demanda de su suscriptor, así que no
+ * hay colas por suscriptor: los eventos se leen del buffer al momento de entregarlos.
+ *
+ * <p>Un único hilo despachador duerme hasta que se publica la secuencia siguiente y entonces
+ * drena todas las suscripciones; la demanda nueva de un suscriptor drena la suya en el hilo
+ * que la pide. Los escritores del repositorio nunca ejecutan código de los suscriptores.</p>
+ */
+@Slf4j
+public class DifusorCambios implements Closeable {
+
+    // Red de seguridad: aunque se pierda un aviso, el despachador revisa al menos con esta frecuencia
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final BufferCambios buffer;
+    private final Set<Suscripcion> suscripciones = ConcurrentHashMap.newKeySet();
+    private final Thread despachador;
+    private volatile boolean activo = true;
+
+    public DifusorCambios(BufferCambios buffer) {
+        this.buffer = buffer;
+        this.despachador = new Thread(this::despachar, "usuario-cambios-despachador");
+        this.despachador.setDaemon(true);
+        this.despachador.start();
+    }
+
+    /**
+     * Eventos posteriores al cursor {@code ultimoRecibido}, o solo los nuevos si es null. Si el
+     * cursor es de otro arranque o su secuencia ya salió del buffer lanza
+     * {@link SecuenciaVencidaException} de inmediato; si la suscripción se rezaga después, el
+     * flujo termina con el mismo error.
+     */
+    public Flux<EventoCambio> desde(String ultimoRecibido) {
+        long desde = ultimoRecibido != null ? buffer.secuenciaDe(ultimoRecibido) : buffer.ultimaSecuencia();
+        buffer.verificarContinuidad(desde);
+
+        return Flux.create(sink -> {
+            Suscripcion suscripcion = new Suscripcion(sink, desde + 1);
+            suscripciones.add(suscripcion);
+            sink.onDispose(() -> suscripciones.remove(suscripcion));
+            sink.onRequest(pedidos -> suscripcion.drenar());
+        });
+    }
+
+    public int suscripcionesActivas() {
+        return suscripciones.size();
+    }
+
+    private void despachar() {
+        long siguiente = buffer.ultimaSecuencia() + 1;
+        while (activo) {
+            buffer.esperar(siguiente, ESPERA_MAXIMA_NANOS);
+            siguiente = Math.max(siguiente, buffer.primeraDisponible());
+            while (buffer.alcanzado(siguiente)) {
+                siguiente++;
+            }
+            for (Suscripcion suscripcion : suscripciones) {
+                try {
+                    suscripcion.drenar();
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo entregar cambios a una suscripción", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        activo = false;
+        despachador.interrupt();
+        suscripciones.forEach(suscripcion -> suscripcion.sink.complete());
+    }
+
+    private final class Suscripcion {
+
+        private final FluxSink<EventoCambio> sink;
+        // Drenajes pedidos mientras otro hilo drenaba; solo uno drena a la vez
+        private final AtomicInteger pendientes = new AtomicInteger();
+        private long siguiente;
+
+        Suscripcion(FluxSink<EventoCambio> sink, long siguiente) {
+            this.sink = sink;
+            this.siguiente = siguiente;
+        }
+
+        void drenar() {
+            if (pendientes.getAndIncrement() != 0) {
+                return;
+            }
+            int pedidos = 1;
+            do {
+                try {
+                    while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                        EventoCambio evento = buffer.leer(siguiente);
+                        if (evento == null) {
+                            break;
+                        }
+                        siguiente++;
+                        sink.next(evento);
+                    }
+                } catch (SecuenciaVencidaException e) {
+                    suscripciones.remove(this);
+                    sink.error(e);
+                    return;
+                }
+                pedidos = pendientes.addAndGet(-pedidos);
+            } while (pedidos != 0);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package pe.edu.vallegrande.repository.indice;
+
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.mapa.MapaLongConcurrente;
+
+import java.util.Arrays;
+
+/**
+ * Índice invertido de trigramas sobre nombre y email para la búsqueda tolerante a errores
+ * de tipeo. Cada trigrama apunta a una {@link ListaPosteo} comprimida; el repositorio lo
+ * actualiza de forma incremental dentro de la operación atómica de cada ID, aplicando solo
+ * la diferencia entre los trigramas de la versión anterior y la nueva.
+ *
+ * <p>La consulta cuenta cuántos trigramas comparte cada ID recorriendo las listas en orden.
+ * Los trigramas muy frecuentes (los del dominio del email, por ejemplo) casi no
+ * discriminan y son los que más cuestan, así que se recorren las listas de la más rara a la
+ * más común hasta agotar {@link #PRESUPUESTO_POSTEOS}. El resultado es un conjunto de
+ * candidatos que el llamador verifica con la similitud real.</p>
+ */
+public class IndiceTrigramas {
+
+    private static final int PRESUPUESTO_POSTEOS = 200_000;
+    private static final int VENTANA = 1 << 14;
+    // Las cuentas por ID se guardan en un byte
+    private static final int MAXIMO_LISTAS = 255;
+    private static final long[] VACIO = new long[0];
+
+    // Los IDs caben en 40 bits; los 24 superiores guardan la cantidad de trigramas compartidos
+    private static final int BITS_ID = 40;
+    private static final long MASCARA_ID = (1L << BITS_ID) - 1;
+
+    private final MapaLongConcurrente<ListaPosteo> listas = new MapaLongConcurrente<>();
+
+    // Se invoca dentro del cálculo atómico del ID; cualquiera de los dos usuarios puede ser null
+    public void reemplazar(long id, UsuarioRefactorizado anterior, UsuarioRefactorizado nuevo) {
+        long[] antes = anterior != null ? Trigramas.extraer(anterior.getNombre(), anterior.getEmail()) : VACIO;
+        long[] despues = nuevo != null ? Trigramas.extraer(nuevo.getNombre(), nuevo.getEmail()) : VACIO;
+
+        int i = 0;
+        int j = 0;
+        while (i < antes.length || j < despues.length) {
+            if (j == despues.length || (i < antes.length && antes[i] < despues[j])) {
+                ListaPosteo lista = listas.obtener(antes[i++]);
+                if (lista != null) {
+                    lista.quitar(id);
+                }
+            } else if (i == antes.length || despues[j] < antes[i]) {
+                lista(despues[j++]).agregar(id);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Hasta {@code maximo} IDs que comparten al menos {@code minimoComunes} trigramas con la
+     * consulta, ordenados por cantidad de trigramas compartidos y por ID ante empates. Cada
+     * lista omitida por el presupuesto rebaja el mínimo en uno para no descartar candidatos
+     * válidos.
+     */
+    public long[] candidatos(long[] consulta, int minimoComunes, int maximo) {
+        ListaPosteo[] encontradas = new ListaPosteo[consulta.length];
+        int cantidad = 0;
+        for (long trigrama : consulta) {
+            ListaPosteo lista = listas.obtener(trigrama);
+            if (lista != null && lista.frecuencia() > 0) {
+                encontradas[cantidad++] = lista;
+            }
+        }
+        if (cantidad == 0 || maximo <= 0) {
+            return VACIO;
+        }
+
+        // Las frecuencias se leen una sola vez para que el orden no cambie mientras se ordena
+        long[] porFrecuencia = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            porFrecuencia[i] = ((long) encontradas[i].frecuencia() << 32) | i;
+        }
+        Arrays.sort(porFrecuencia);
+
+        ListaPosteo.Cursor[] cursores = new ListaPosteo.Cursor[cantidad];
+        int usadas = 0;
+        long posteos = 0;
+        for (long entrada : porFrecuencia) {
+            posteos += entrada >>> 32;
+            if (usadas > 0 && (posteos > PRESUPUESTO_POSTEOS || usadas == MAXIMO_LISTAS)) {
+                break;
+            }
+            cursores[usadas++] = encontradas[(int) entrada].cursor();
+        }
+
+        int minimo = Math.max(1, minimoComunes - (cantidad - usadas));
+        return mejores(cursores, usadas, minimo, maximo);
+    }
+
+    private ListaPosteo lista(long trigrama) {
+        ListaPosteo lista = listas.obtener(trigrama);
+        return lista != null ? lista : listas.calcular(trigrama, (clave, actual) -> actual != null ? actual : new ListaPosteo());
+    }
+
+    /**
+     * Conteo por ventanas de IDs: como los IDs son densos y cada cursor avanza en orden, se
+     * cuentan las apariciones en un arreglo pequeño que cubre {@value #VENTANA} IDs y solo
+     * los que alcanzan el mínimo entran al montículo acotado de los mejores.
+     */
+    private static long[] mejores(ListaPosteo.Cursor[] cursores, int usadas, int minimo, int maximo) {
+        long[] cabezas = new long[usadas];
+        for (int i = 0; i < usadas; i++) {
+            cabezas[i] = cursores[i].siguiente();
+        }
+        byte[] cuentas = new byte[VENTANA];
+        int[] tocados = new int[VENTANA];
+        long[] seleccion = new long[maximo];
+        int seleccionados = 0;
+
+        while (true) {
+            long base = Long.MAX_VALUE;
+            for (long cabeza : cabezas) {
+                if (cabeza != ListaPosteo.FIN && cabeza < base) {
+                    base = cabeza;
+                }
+            }
+            if (base == Long.MAX_VALUE) {
+                break;
+            }
+
+            long fin = base + VENTANA;
+            int cantidadTocados = 0;
+            for (int i = 0; i < usadas; i++) {
+                long id = cabezas[i];
+                while (id != ListaPosteo.FIN && id < fin) {
+                    int posicion = (int) (id - base);
+                    if (cuentas[posicion]++ == 0) {
+                        tocados[cantidadTocados++] = posicion;
+                    }
+                    id = cursores[i].siguiente();
+                }
+                cabezas[i] = id;
+            }
+
+            for (int t = 0; t < cantidadTocados; t++) {
+                int posicion = tocados[t];
+                int coincidencias = cuentas[posicion] & 0xFF;
+                cuentas[posicion] = 0;
+                if (coincidencias < minimo) {
+                    continue;
+                }
+                // Más coincidencias pesan más; ante empate gana el ID menor
+                long clave = ((long) coincidencias << BITS_ID) | (MASCARA_ID - (base + posicion));
+                if (seleccionados < maximo) {
+                    seleccion[seleccionados] = clave;
+                    subirClave(seleccion, seleccionados++);
+                } else if (clave > seleccion[0]) {
+                    seleccion[0] = clave;
+                    bajarClave(seleccion, seleccionados);
+                }
+            }
+        }
+
+        long[] ordenadas = Arrays.copyOf(seleccion, seleccionados);
+        Arrays.sort(ordenadas);
+        long[] ids = new long[seleccionados];
+        for (int i = 0; i < seleccionados; i++) {
+            ids[i] = MASCARA_ID - (ordenadas[seleccionados - 1 - i] & MASCARA_ID);
+        }
+        return ids;
+    }
+
+    private static void subirClave(long[] claves, int posicion) {
+        long clave = claves[posicion];
+        while (posicion > 0) {
+            int padre = (posicion - 1) >>> 1;
+            if (claves[padre] <= clave) {
+                break;
+            }
+            claves[posicion] = claves[padre];
+            posicion = padre;
+        }
+        claves[posicion] = clave;
+    }
+
+    private static void bajarClave(long[] claves, int tamano) {
+        long clave = claves[0];
+        int posicion = 0;
+        while (true) {
+            int hijo = 2 * posicion + 1;
+            if (hijo >= tamano) {
+                break;
+            }
+            if (hijo + 1 < tamano && claves[hijo + 1] < claves[hijo]) {
+                hijo++;
+            }
+            if (clave <= claves[hijo]) {
+                break;
+            }
+            claves[posicion] = claves[hijo];
+            posicion = hijo;
+        }
+        claves[posicion] = clave;
+    }
+}
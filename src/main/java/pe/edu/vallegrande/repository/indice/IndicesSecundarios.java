@@ -0,0 +1,215 @@
+package pe.edu.vallegrande.repository.indice;
+
+import pe.edu.vallegrande.model.CriteriosBusqueda;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.validation.ReglasUsuario;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Índices secundarios por prefijo de nombre, edad y teléfono. El repositorio los actualiza
+ * dentro de la misma operación atómica por ID que modifica el almacén, de modo que cada ID
+ * aparece en los índices con los valores de su última versión.
+ *
+ * <p>Todo recorrido entrega IDs ascendentes desde el cursor: cada conjunto está ordenado por
+ * ID y los que aportan a una búsqueda se mezclan con {@link MezclaIds}, así una página cuesta
+ * lo que la página y no lo que todas las coincidencias.</p>
+ *
+ * <ul>
+ *   <li>nombre: conjunto ordenado de pares (nombre, id) para recorrer un rango de prefijo; dentro
+ *       de cada nombre los IDs ya están en orden.</li>
+ *   <li>edad: un conjunto ordenado por edad válida, así un rango toca solo sus cubetas.</li>
+ *   <li>teléfono: conjunto ordenado de IDs por número exacto.</li>
+ *   <li>trigramas de nombre y email: ver {@link IndiceTrigramas}.</li>
+ * </ul>
+ */
+public class IndicesSecundarios {
+
+    private final NavigableSet<EntradaNombre> porNombre = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Long>[] porEdad;
+    // size() de un ConcurrentSkipListSet recorre el conjunto: el plan de búsqueda usa estos contadores
+    private final AtomicIntegerArray cantidadPorEdad = new AtomicIntegerArray(ReglasUsuario.EDAD_MAXIMA + 1);
+    private final Map<String, NavigableSet<Long>> porTelefono = new ConcurrentHashMap<>();
+    private final IndiceTrigramas porTrigramas = new IndiceTrigramas();
+
+    @SuppressWarnings("unchecked")
+    public IndicesSecundarios() {
+        porEdad = new NavigableSet[ReglasUsuario.EDAD_MAXIMA + 1];
+        for (int edad = ReglasUsuario.EDAD_MINIMA; edad <= ReglasUsuario.EDAD_MAXIMA; edad++) {
+            porEdad[edad] = new ConcurrentSkipListSet<>();
+        }
+    }
+
+    // Se invoca dentro del cálculo atómico del ID; cualquiera de los dos usuarios puede ser null
+    public void reemplazar(long id, UsuarioRefactorizado anterior, UsuarioRefactorizado nuevo) {
+        String nombreAnterior = anterior != null ? anterior.getNombre() : null;
+        String nombreNuevo = nuevo != null ? nuevo.getNombre() : null;
+        if (!Objects.equals(nombreAnterior, nombreNuevo)) {
+            if (nombreAnterior != null) {
+                porNombre.remove(new EntradaNombre(nombreAnterior, id));
+            }
+            if (nombreNuevo != null) {
+                porNombre.add(new EntradaNombre(nombreNuevo, id));
+            }
+        }
+
+        String emailAnterior = anterior != null ? anterior.getEmail() : null;
+        String emailNuevo = nuevo != null ? nuevo.getEmail() : null;
+        if (!Objects.equals(nombreAnterior, nombreNuevo) || !Objects.equals(emailAnterior, emailNuevo)) {
+            porTrigramas.reemplazar(id, anterior, nuevo);
+        }
+
+        Integer edadAnterior = anterior != null ? anterior.getEdad() : null;
+        Integer edadNueva = nuevo != null ? nuevo.getEdad() : null;
+        if (!Objects.equals(edadAnterior, edadNueva)) {
+            if (enRango(edadAnterior) && porEdad[edadAnterior].remove(id)) {
+                cantidadPorEdad.decrementAndGet(edadAnterior);
+            }
+            if (enRango(edadNueva) && porEdad[edadNueva].add(id)) {
+                cantidadPorEdad.incrementAndGet(edadNueva);
+            }
+        }
+
+        String telefonoAnterior = anterior != null ? anterior.getTelefono() : null;
+        String telefonoNuevo = nuevo != null ? nuevo.getTelefono() : null;
+        if (!Objects.equals(telefonoAnterior, telefonoNuevo)) {
+            if (telefonoAnterior != null) {
+                porTelefono.computeIfPresent(telefonoAnterior, (clave, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+            if (telefonoNuevo != null) {
+                porTelefono.compute(telefonoNuevo, (clave, ids) -> {
+                    NavigableSet<Long> destino = ids != null ? ids : new ConcurrentSkipListSet<>();
+                    destino.add(id);
+                    return destino;
+                });
+            }
+        }
+    }
+
+    /**
+     * IDs candidatos mayores que {@code despuesDeId}, en orden ascendente y sin materializar:
+     * quien pagina deja de avanzar al completar la página. Se recorre solo el índice más
+     * selectivo entre los criterios presentes; el llamador filtra el resto con
+     * {@link CriteriosBusqueda#coincide}.
+     */
+    public PrimitiveIterator.OfLong candidatos(CriteriosBusqueda criterios, long despuesDeId) {
+        if (criterios.getTelefono() != null) {
+            NavigableSet<Long> ids = porTelefono.get(criterios.getTelefono());
+            return ids != null ? MezclaIds.de(ids.tailSet(despuesDeId, false).iterator()) : MezclaIds.vacio();
+        }
+        if (criterios.getNombrePrefijo() != null && criterios.filtraPorEdad()) {
+            int porEdades = contarPorEdad(criterios);
+            return contarHasta(rangoNombre(criterios.getNombrePrefijo()), porEdades) <= porEdades
+                    ? idsPorNombre(criterios.getNombrePrefijo(), despuesDeId)
+                    : idsPorEdad(criterios, despuesDeId);
+        }
+        if (criterios.getNombrePrefijo() != null) {
+            return idsPorNombre(criterios.getNombrePrefijo(), despuesDeId);
+        }
+        return idsPorEdad(criterios, despuesDeId);
+    }
+
+    // IDs ordenados por trigramas compartidos con la consulta; el llamador calcula la similitud real
+    public long[] candidatosAproximados(long[] trigramas, int minimoComunes, int maximo) {
+        return porTrigramas.candidatos(trigramas, minimoComunes, maximo);
+    }
+
+    private NavigableSet<EntradaNombre> rangoNombre(String prefijo) {
+        return porNombre.subSet(
+                new EntradaNombre(prefijo, Long.MIN_VALUE), true,
+                new EntradaNombre(prefijo + Character.MAX_VALUE, Long.MIN_VALUE), false);
+    }
+
+    // Un recorrido por cada nombre distinto del rango, cada uno desde el cursor y ya en orden de ID
+    private PrimitiveIterator.OfLong idsPorNombre(String prefijo, long despuesDeId) {
+        List<PrimitiveIterator.OfLong> porNombres = new ArrayList<>();
+        EntradaNombre entrada = porNombre.ceiling(new EntradaNombre(prefijo, Long.MIN_VALUE));
+        while (entrada != null && entrada.nombre().startsWith(prefijo)) {
+            String nombre = entrada.nombre();
+            porNombres.add(idsDe(porNombre.subSet(
+                    new EntradaNombre(nombre, despuesDeId), false,
+                    new EntradaNombre(nombre, Long.MAX_VALUE), true)));
+            entrada = porNombre.higher(new EntradaNombre(nombre, Long.MAX_VALUE));
+        }
+        return MezclaIds.de(porNombres);
+    }
+
+    private static PrimitiveIterator.OfLong idsDe(Collection<EntradaNombre> entradas) {
+        Iterator<EntradaNombre> iterador = entradas.iterator();
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return iterador.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return iterador.next().id();
+            }
+        };
+    }
+
+    private PrimitiveIterator.OfLong idsPorEdad(CriteriosBusqueda criterios, long despuesDeId) {
+        List<PrimitiveIterator.OfLong> porEdades = new ArrayList<>();
+        for (int edad = edadMinima(criterios); edad <= edadMaxima(criterios); edad++) {
+            if (cantidadPorEdad.get(edad) > 0) {
+                porEdades.add(MezclaIds.de(porEdad[edad].tailSet(despuesDeId, false).iterator()));
+            }
+        }
+        return MezclaIds.de(porEdades);
+    }
+
+    private int contarPorEdad(CriteriosBusqueda criterios) {
+        int total = 0;
+        for (int edad = edadMinima(criterios); edad <= edadMaxima(criterios); edad++) {
+            total += cantidadPorEdad.get(edad);
+        }
+        return total;
+    }
+
+    private static int contarHasta(Collection<?> elementos, int limite) {
+        int total = 0;
+        Iterator<?> iterador = elementos.iterator();
+        while (iterador.hasNext() && total <= limite) {
+            iterador.next();
+            total++;
+        }
+        return total;
+    }
+
+    private static int edadMinima(CriteriosBusqueda criterios) {
+        return criterios.getEdadMinima() != null
+                ? Math.max(criterios.getEdadMinima(), ReglasUsuario.EDAD_MINIMA) : ReglasUsuario.EDAD_MINIMA;
+    }
+
+    private static int edadMaxima(CriteriosBusqueda criterios) {
+        return criterios.getEdadMaxima() != null
+                ? Math.min(criterios.getEdadMaxima(), ReglasUsuario.EDAD_MAXIMA) : ReglasUsuario.EDAD_MAXIMA;
+    }
+
+    private static boolean enRango(Integer edad) {
+        return edad != null && edad >= ReglasUsuario.EDAD_MINIMA && edad <= ReglasUsuario.EDAD_MAXIMA;
+    }
+
+    private record EntradaNombre(String nombre, long id) implements Comparable<EntradaNombre> {
+
+        @Override
+        public int compareTo(EntradaNombre otra) {
+            int comparacion = nombre.compareTo(otra.nombre);
+            return comparacion != 0 ? comparacion : Long.compare(id, otra.id);
+        }
+    }
+}
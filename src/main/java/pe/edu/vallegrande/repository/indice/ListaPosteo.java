@@ -0,0 +1,251 @@
+package pe.edu.vallegrande.repository.indice;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Lista ordenada de IDs de un trigrama, partida en bloques de hasta
+ * {@value #ENTRADAS_POR_BLOQUE} IDs codificados como deltas en varint. Como los IDs nuevos
+ * casi siempre son los mayores, el caso común anexa uno o dos bytes al último bloque; una
+ * alta fuera de orden o una baja solo recodifica el bloque que la contiene.
+ *
+ * <p>Los escritores se sincronizan sobre la lista. Los lectores no toman cerrojos: cada
+ * bloque es inmutable hasta su longitud publicada y se reemplaza con semántica release,
+ * así que un {@link Cursor} ve cada bloque entero en su versión anterior o en la nueva.</p>
+ */
+final class ListaPosteo {
+
+    static final long FIN = -1L;
+
+    private static final int ENTRADAS_POR_BLOQUE = 128;
+    private static final VarHandle BLOQUES = MethodHandles.arrayElementVarHandle(Bloque[].class);
+
+    // Solo cambia al crear, partir o eliminar bloques; los reemplazos de un bloque van en el arreglo
+    private volatile Tabla tabla = new Tabla(new Bloque[4], 0);
+    private volatile int frecuencia;
+
+    int frecuencia() {
+        return frecuencia;
+    }
+
+    Cursor cursor() {
+        return new Cursor(tabla);
+    }
+
+    synchronized void agregar(long id) {
+        Tabla actual = tabla;
+        if (actual.cantidad == 0) {
+            anexarBloque(actual, Bloque.codificar(new long[]{id}, 1));
+        } else {
+            int ultimo = actual.cantidad - 1;
+            Bloque cola = actual.bloque(ultimo);
+            if (id > cola.ultimo) {
+                if (cola.cantidad < ENTRADAS_POR_BLOQUE) {
+                    Bloque nuevo = cola.anexar(id);
+                    // Un bloque lleno ya no recibe anexos: se recorta la capacidad libre
+                    if (nuevo.cantidad == ENTRADAS_POR_BLOQUE) {
+                        nuevo = nuevo.ajustado();
+                    }
+                    BLOQUES.setRelease(actual.bloques, ultimo, nuevo);
+                } else {
+                    anexarBloque(actual, Bloque.codificar(new long[]{id}, 1));
+                }
+            } else if (!insertar(actual, ubicar(actual, id), id)) {
+                return;
+            }
+        }
+        frecuencia++;
+    }
+
+    synchronized void quitar(long id) {
+        Tabla actual = tabla;
+        if (actual.cantidad == 0) {
+            return;
+        }
+        int indice = ubicar(actual, id);
+        Bloque bloque = actual.bloque(indice);
+        long[] ids = bloque.decodificar();
+        int posicion = Arrays.binarySearch(ids, 0, bloque.cantidad, id);
+        if (posicion < 0) {
+            return;
+        }
+
+        if (bloque.cantidad == 1) {
+            Bloque[] bloques = new Bloque[Math.max(4, actual.bloques.length)];
+            System.arraycopy(actual.bloques, 0, bloques, 0, indice);
+            System.arraycopy(actual.bloques, indice + 1, bloques, indice, actual.cantidad - indice - 1);
+            tabla = new Tabla(bloques, actual.cantidad - 1);
+        } else {
+            System.arraycopy(ids, posicion + 1, ids, posicion, bloque.cantidad - posicion - 1);
+            BLOQUES.setRelease(actual.bloques, indice, Bloque.codificar(ids, bloque.cantidad - 1));
+        }
+        frecuencia--;
+    }
+
+    private boolean insertar(Tabla actual, int indice, long id) {
+        Bloque bloque = actual.bloque(indice);
+        long[] ids = Arrays.copyOf(bloque.decodificar(), bloque.cantidad + 1);
+        int posicion = Arrays.binarySearch(ids, 0, bloque.cantidad, id);
+        if (posicion >= 0) {
+            return false;
+        }
+        posicion = -posicion - 1;
+        System.arraycopy(ids, posicion, ids, posicion + 1, bloque.cantidad - posicion);
+        ids[posicion] = id;
+
+        if (ids.length <= ENTRADAS_POR_BLOQUE) {
+            BLOQUES.setRelease(actual.bloques, indice, Bloque.codificar(ids, ids.length));
+            return true;
+        }
+
+        // El bloque desborda: se parte en dos mitades y se publica una tabla nueva
+        int mitad = ids.length / 2;
+        Bloque[] bloques = new Bloque[Math.max(actual.bloques.length, actual.cantidad + 1)];
+        System.arraycopy(actual.bloques, 0, bloques, 0, indice);
+        bloques[indice] = Bloque.codificar(ids, mitad);
+        bloques[indice + 1] = Bloque.codificar(Arrays.copyOfRange(ids, mitad, ids.length), ids.length - mitad);
+        System.arraycopy(actual.bloques, indice + 1, bloques, indice + 2, actual.cantidad - indice - 1);
+        tabla = new Tabla(bloques, actual.cantidad + 1);
+        return true;
+    }
+
+    private void anexarBloque(Tabla actual, Bloque bloque) {
+        Bloque[] bloques = actual.bloques;
+        if (actual.cantidad == bloques.length) {
+            bloques = Arrays.copyOf(bloques, bloques.length * 2);
+        }
+        bloques[actual.cantidad] = bloque;
+        tabla = new Tabla(bloques, actual.cantidad + 1);
+    }
+
+    // Último bloque cuyo primer ID no supera al buscado, o el primero si todos lo superan
+    private static int ubicar(Tabla tabla, long id) {
+        int bajo = 0;
+        int alto = tabla.cantidad - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (tabla.bloque(medio).primero <= id) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo;
+    }
+
+    private record Tabla(Bloque[] bloques, int cantidad) {
+
+        Bloque bloque(int indice) {
+            return (Bloque) BLOQUES.getAcquire(bloques, indice);
+        }
+    }
+
+    // El primer ID se guarda como delta desde cero; los bytes más allá de la longitud son capacidad libre
+    private record Bloque(byte[] datos, int longitud, int cantidad, long primero, long ultimo) {
+
+        static Bloque codificar(long[] ids, int cantidad) {
+            byte[] datos = new byte[Math.max(16, cantidad * 2)];
+            int longitud = 0;
+            long anterior = 0L;
+            for (int i = 0; i < cantidad; i++) {
+                if (longitud + 10 > datos.length) {
+                    datos = Arrays.copyOf(datos, datos.length * 2);
+                }
+                longitud = escribirVarint(datos, longitud, ids[i] - anterior);
+                anterior = ids[i];
+            }
+            return new Bloque(datos, longitud, cantidad, ids[0], ids[cantidad - 1]);
+        }
+
+        // Escribe después de la longitud publicada, así que los lectores del bloque anterior no lo notan
+        Bloque anexar(long id) {
+            byte[] destino = datos;
+            if (longitud + 10 > destino.length) {
+                destino = Arrays.copyOf(destino, destino.length * 2);
+            }
+            int nuevaLongitud = escribirVarint(destino, longitud, id - ultimo);
+            return new Bloque(destino, nuevaLongitud, cantidad + 1, primero, id);
+        }
+
+        Bloque ajustado() {
+            return new Bloque(Arrays.copyOf(datos, longitud), longitud, cantidad, primero, ultimo);
+        }
+
+        long[] decodificar() {
+            long[] ids = new long[cantidad];
+            int posicion = 0;
+            long acumulado = 0L;
+            for (int i = 0; i < cantidad; i++) {
+                long delta = 0L;
+                int desplazamiento = 0;
+                byte b;
+                do {
+                    b = datos[posicion++];
+                    delta |= (long) (b & 0x7F) << desplazamiento;
+                    desplazamiento += 7;
+                } while (b < 0);
+                acumulado += delta;
+                ids[i] = acumulado;
+            }
+            return ids;
+        }
+
+        private static int escribirVarint(byte[] destino, int posicion, long valor) {
+            while ((valor & ~0x7FL) != 0) {
+                destino[posicion++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            destino[posicion++] = (byte) valor;
+            return posicion;
+        }
+    }
+
+    /**
+     * Recorre los IDs en orden ascendente sobre la tabla vigente al crearlo. Devuelve
+     * {@link #FIN} al terminar.
+     */
+    static final class Cursor {
+
+        private final Tabla tabla;
+        private int indiceBloque = -1;
+        private Bloque bloque;
+        private int posicion;
+        private int leidos;
+        private long acumulado;
+        // Un bloque reemplazado durante el recorrido no debe devolver IDs ya entregados
+        private long ultimoEntregado = Long.MIN_VALUE;
+
+        private Cursor(Tabla tabla) {
+            this.tabla = tabla;
+        }
+
+        long siguiente() {
+            while (true) {
+                if (bloque == null || leidos == bloque.cantidad) {
+                    if (++indiceBloque >= tabla.cantidad) {
+                        return FIN;
+                    }
+                    bloque = tabla.bloque(indiceBloque);
+                    posicion = 0;
+                    leidos = 0;
+                    acumulado = 0L;
+                }
+                long delta = 0L;
+                int desplazamiento = 0;
+                byte b;
+                do {
+                    b = bloque.datos[posicion++];
+                    delta |= (long) (b & 0x7F) << desplazamiento;
+                    desplazamiento += 7;
+                } while (b < 0);
+                leidos++;
+                acumulado += delta;
+                if (acumulado > ultimoEntregado) {
+                    ultimoEntregado = acumulado;
+                    return acumulado;
+                }
+            }
+        }
+    }
+}
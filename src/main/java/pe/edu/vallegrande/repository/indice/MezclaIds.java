@@ -0,0 +1,113 @@
+package pe.edu.vallegrande.repository.indice;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+
+/**
+ * Mezcla de k recorridos de IDs ascendentes en un único recorrido ascendente, avanzando cada
+ * uno solo cuando su cabeza es la menor. Quien pide una página consume apenas los elementos de
+ * esa página más uno por recorrido, sin materializar ni ordenar todos los candidatos.
+ *
+ * <p>Los índices se modifican mientras se recorren: un ID que cambia de cubeta a mitad de la
+ * mezcla puede salir de dos recorridos, así que se descarta todo ID no mayor que el último
+ * entregado.</p>
+ */
+public final class MezclaIds implements PrimitiveIterator.OfLong {
+
+    private static final PrimitiveIterator.OfLong VACIO = new PrimitiveIterator.OfLong() {
+        @Override
+        public boolean hasNext() {
+            return false;
+        }
+
+        @Override
+        public long nextLong() {
+            throw new NoSuchElementException();
+        }
+    };
+
+    private final PriorityQueue<Cabeza> cabezas;
+    private long ultimo = Long.MIN_VALUE;
+    private boolean hayUltimo;
+
+    private MezclaIds(List<? extends PrimitiveIterator.OfLong> recorridos) {
+        cabezas = new PriorityQueue<>(Math.max(recorridos.size(), 1));
+        for (PrimitiveIterator.OfLong recorrido : recorridos) {
+            if (recorrido.hasNext()) {
+                cabezas.add(new Cabeza(recorrido.nextLong(), recorrido));
+            }
+        }
+    }
+
+    public static PrimitiveIterator.OfLong de(List<? extends PrimitiveIterator.OfLong> recorridos) {
+        if (recorridos.isEmpty()) {
+            return VACIO;
+        }
+        return recorridos.size() == 1 ? recorridos.get(0) : new MezclaIds(recorridos);
+    }
+
+    public static PrimitiveIterator.OfLong vacio() {
+        return VACIO;
+    }
+
+    // Adapta el iterador de un conjunto ordenado de IDs
+    public static PrimitiveIterator.OfLong de(Iterator<Long> ids) {
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return ids.next();
+            }
+        };
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!cabezas.isEmpty() && hayUltimo && cabezas.peek().id <= ultimo) {
+            avanzar(cabezas.poll());
+        }
+        return !cabezas.isEmpty();
+    }
+
+    @Override
+    public long nextLong() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Cabeza menor = cabezas.poll();
+        ultimo = menor.id;
+        hayUltimo = true;
+        avanzar(menor);
+        return ultimo;
+    }
+
+    private void avanzar(Cabeza cabeza) {
+        if (cabeza.resto.hasNext()) {
+            cabeza.id = cabeza.resto.nextLong();
+            cabezas.add(cabeza);
+        }
+    }
+
+    private static final class Cabeza implements Comparable<Cabeza> {
+
+        private long id;
+        private final PrimitiveIterator.OfLong resto;
+
+        private Cabeza(long id, PrimitiveIterator.OfLong resto) {
+            this.id = id;
+            this.resto = resto;
+        }
+
+        @Override
+        public int compareTo(Cabeza otra) {
+            return Long.compare(id, otra.id);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package pe.edu.vallegrande.repository.indice;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Extracción de trigramas al estilo de pg_trgm: cada palabra se rellena con dos espacios
+ * delante y uno detrás, se pasa a minúsculas y se le quitan las tildes. Cada trigrama se
+ * empaqueta en un {@code long} (tres caracteres de 16 bits) y los conjuntos se devuelven
+ * ordenados y sin repetidos para compararlos por mezcla.
+ */
+public final class Trigramas {
+
+    private static final long[] VACIO = new long[0];
+
+    private Trigramas() {
+    }
+
+    public static long[] extraer(String... textos) {
+        long[] trigramas = new long[32];
+        int cantidad = 0;
+        for (String texto : textos) {
+            if (texto == null) {
+                continue;
+            }
+            String normalizado = normalizar(texto);
+            int inicioPalabra = -1;
+            for (int i = 0; i <= normalizado.length(); i++) {
+                boolean esParteDePalabra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+                if (esParteDePalabra && inicioPalabra < 0) {
+                    inicioPalabra = i;
+                } else if (!esParteDePalabra && inicioPalabra >= 0) {
+                    if (cantidad + (i - inicioPalabra) + 2 > trigramas.length) {
+                        trigramas = Arrays.copyOf(trigramas, Math.max(trigramas.length * 2, cantidad + i - inicioPalabra + 2));
+                    }
+                    cantidad = agregarPalabra(normalizado, inicioPalabra, i, trigramas, cantidad);
+                    inicioPalabra = -1;
+                }
+            }
+        }
+        return ordenarSinRepetidos(trigramas, cantidad);
+    }
+
+    // Coeficiente de Jaccard entre dos conjuntos ordenados
+    public static double similitud(long[] a, long[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return 0.0;
+        }
+        int comunes = comunes(a, b);
+        return (double) comunes / (a.length + b.length - comunes);
+    }
+
+    static int comunes(long[] a, long[] b) {
+        int i = 0;
+        int j = 0;
+        int comunes = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                comunes++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return comunes;
+    }
+
+    // Cada palabra de n caracteres aporta n + 1 trigramas: "  a", " ab", ..., "yz "
+    private static int agregarPalabra(String texto, int inicio, int fin, long[] destino, int cantidad) {
+        char primero = ' ';
+        char segundo = ' ';
+        for (int i = inicio; i <= fin; i++) {
+            char tercero = i < fin ? texto.charAt(i) : ' ';
+            destino[cantidad++] = ((long) primero << 32) | ((long) segundo << 16) | tercero;
+            primero = segundo;
+            segundo = tercero;
+        }
+        return cantidad;
+    }
+
+    private static String normalizar(String texto) {
+        String minusculas = texto.toLowerCase();
+        for (int i = 0; i < minusculas.length(); i++) {
+            if (minusculas.charAt(i) > 0x7F) {
+                return Normalizer.normalize(minusculas, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            }
+        }
+        return minusculas;
+    }
+
+    private static long[] ordenarSinRepetidos(long[] valores, int cantidad) {
+        if (cantidad == 0) {
+            return VACIO;
+        }
+        Arrays.sort(valores, 0, cantidad);
+        int unicos = 1;
+        for (int i = 1; i < cantidad; i++) {
+            if (valores[i] != valores[unicos - 1]) {
+                valores[unicos++] = valores[i];
+            }
+        }
+        return Arrays.copyOf(valores, unicos);
+    }
+}
@@ -0,0 +1,533 @@
+package pe.edu.vallegrande.repository.jdbc;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.vallegrande.exception.EmailDuplicadoException;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Motor SQL sobre H2 embebido. Cada {@code calcular} es una transacción que bloquea la fila
+ * con {@code SELECT ... FOR UPDATE}, aplica el cálculo y escribe; el efecto corre recién
+ * después del commit, así que una escritura revertida no deja rastro en los índices ni en el
+ * flujo de cambios. El índice único sobre {@code email} reemplaza al índice en memoria del
+ * repositorio.
+ *
+ * <p>Pasado el commit la fila ya no está bloqueada: para que los efectos de un mismo ID sigan
+ * el orden de la tabla, cada escritura toma además el cerrojo de la franja de su ID desde
+ * antes de la transacción hasta que termina el efecto. Los cerrojos son de este proceso; el
+ * motor supone que la base es solo suya, como con H2 embebido.</p>
+ *
+ * <p>Las lecturas por ID pasan por una caché cercana de Caffeine que se invalida después de
+ * cada commit. La carga corre dentro del cómputo de la clave, así que una invalidación que
+ * llega durante la lectura de una versión vieja espera y la descarta. La durabilidad es la
+ * de H2: con {@code WRITE_DELAY} el commit llega al disco en segundo plano.</p>
+ */
+@Slf4j
+public class AlmacenJdbc implements AlmacenUsuarios {
+
+    public static final String NOMBRE_CACHE = "usuarios.almacen.jdbc";
+
+    // H2 guarda los nombres sin comillas en mayúsculas y los incluye en el mensaje de la violación
+    private static final String INDICE_EMAIL = "USUARIOS_EMAIL";
+    private static final String VIOLACION_UNICIDAD = "23505";
+    private static final int TAMANO_PAGINA = 256;
+    private static final int FRANJAS = 256;
+
+    private static final String[] ESQUEMA = {
+            "CREATE TABLE IF NOT EXISTS usuarios ("
+                    + "id BIGINT PRIMARY KEY, nombre VARCHAR(100) NOT NULL, email VARCHAR(255) NOT NULL, "
+                    + "edad INT, telefono VARCHAR(32), version BIGINT)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS " + INDICE_EMAIL + " ON usuarios (email)",
+            // Una sola fila: el mayor ID eliminado, para que los IDs no se reutilicen tras un reinicio
+            "CREATE TABLE IF NOT EXISTS usuarios_ids (clave INT PRIMARY KEY, ultimo BIGINT NOT NULL)",
+            "MERGE INTO usuarios_ids (clave, ultimo) KEY (clave) "
+                    + "SELECT 1, COALESCE(MAX(ultimo), 0) FROM usuarios_ids WHERE clave = 1"
+    };
+
+    private static final String COLUMNAS = "SELECT id, nombre, email, edad, telefono, version FROM usuarios";
+    private static final String SELECCIONAR = COLUMNAS + " WHERE id = ?";
+    private static final String SELECCIONAR_PARA_ACTUALIZAR = SELECCIONAR + " FOR UPDATE";
+    private static final String SELECCIONAR_VARIOS = COLUMNAS + " WHERE id = ANY(?)";
+    private static final String SELECCIONAR_POR_EMAIL = COLUMNAS + " WHERE email = ?";
+    private static final String SELECCIONAR_PAGINA = COLUMNAS + " WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+    private static final String INSERTAR =
+            "INSERT INTO usuarios (nombre, email, edad, telefono, version, id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String ACTUALIZAR =
+            "UPDATE usuarios SET nombre = ?, email = ?, edad = ?, telefono = ?, version = ? WHERE id = ?";
+    private static final String ELIMINAR = "DELETE FROM usuarios WHERE id = ?";
+    private static final String REGISTRAR_ELIMINADO = "UPDATE usuarios_ids SET ultimo = GREATEST(ultimo, ?) WHERE clave = 1";
+    private static final String CONTAR = "SELECT COUNT(*) FROM usuarios";
+    private static final String ULTIMO_ID =
+            "SELECT GREATEST(COALESCE((SELECT MAX(id) FROM usuarios), 0), (SELECT ultimo FROM usuarios_ids WHERE clave = 1))";
+
+    private final DataSource dataSource;
+    private final Cache<Long, UsuarioRefactorizado> cercana;
+    private final AtomicInteger cantidad;
+    private final ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+
+    public AlmacenJdbc(DataSource dataSource, long tamanoCache, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.cercana = Caffeine.newBuilder()
+                .maximumSize(tamanoCache)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cercana, NOMBRE_CACHE);
+        this.cantidad = new AtomicInteger(enTransaccion(conexion -> {
+            try (Statement sentencia = conexion.createStatement()) {
+                for (String ddl : ESQUEMA) {
+                    sentencia.execute(ddl);
+                }
+            }
+            return (int) consultarLong(conexion, CONTAR);
+        }));
+        log.info("Almacén JDBC abierto con {} usuarios", cantidad.get());
+    }
+
+    @Override
+    public UsuarioRefactorizado obtener(long id) {
+        return cercana.get(id, clave -> enTransaccion(conexion -> leer(conexion, SELECCIONAR, clave)));
+    }
+
+    @Override
+    public UsuarioRefactorizado calcular(long id, Calculo calculo, Efecto efecto) {
+        return escribir(id, calculo, efecto, false);
+    }
+
+    @Override
+    public UsuarioRefactorizado calcularSiPresente(long id, Calculo calculo, Efecto efecto) {
+        return escribir(id, calculo, efecto, true);
+    }
+
+    @Override
+    public void poner(long id, UsuarioRefactorizado usuario) {
+        calcular(id, (clave, actual) -> usuario);
+    }
+
+    @Override
+    public UsuarioRefactorizado quitar(long id) {
+        UsuarioRefactorizado[] eliminado = new UsuarioRefactorizado[1];
+        calcularSiPresente(id, (clave, actual) -> {
+            eliminado[0] = actual;
+            return null;
+        });
+        return eliminado[0];
+    }
+
+    @Override
+    public int tamano() {
+        return cantidad.get();
+    }
+
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerDesde(long despuesDeId) {
+        return new Paginas(despuesDeId, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerRango(long despuesDeId, long hastaId) {
+        return new Paginas(despuesDeId, hastaId);
+    }
+
+    @Override
+    public long ultimoIdAsignado() {
+        return enTransaccion(conexion -> consultarLong(conexion, ULTIMO_ID));
+    }
+
+    @Override
+    public UsuarioRefactorizado[] obtenerVarios(long[] ids) {
+        UsuarioRefactorizado[] encontrados = new UsuarioRefactorizado[ids.length];
+        List<Long> faltantes = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            encontrados[i] = cercana.getIfPresent(ids[i]);
+            if (encontrados[i] == null) {
+                faltantes.add(ids[i]);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return encontrados;
+        }
+
+        // Lo que se lee de una vez no entra en la caché: la carga en bloque no corre dentro del
+        // cómputo de cada clave y podría dejar una versión vieja después de una invalidación
+        Map<Long, UsuarioRefactorizado> leidos = enTransaccion(conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement(SELECCIONAR_VARIOS)) {
+                sentencia.setObject(1, faltantes.toArray(new Long[0]));
+                Map<Long, UsuarioRefactorizado> porId = new HashMap<>();
+                try (ResultSet filas = sentencia.executeQuery()) {
+                    while (filas.next()) {
+                        UsuarioRefactorizado usuario = mapear(filas);
+                        porId.put(usuario.getId(), usuario);
+                    }
+                }
+                return porId;
+            }
+        });
+        for (int i = 0; i < ids.length; i++) {
+            if (encontrados[i] == null) {
+                encontrados[i] = leidos.get(ids[i]);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * Inserta el lote con una sola sentencia preparada y {@code executeBatch} en una
+     * transacción. H2 sigue con el resto del lote cuando una fila falla y marca esa posición
+     * con {@code EXECUTE_FAILED}: un email repetido la deja fuera y un ID que ya existía se
+     * reescribe después con {@link #calcular}, como en el resto de los motores. Los efectos de
+     * las filas insertadas corren después del commit, con las franjas del lote tomadas.
+     */
+    @Override
+    public List<UsuarioRefactorizado> ponerVarios(List<UsuarioRefactorizado> usuarios, Efecto efecto) {
+        if (usuarios.isEmpty()) {
+            return List.of();
+        }
+        // En orden ascendente de franja, para no cruzarse con otro lote que tome las mismas
+        boolean[] tomadas = new boolean[FRANJAS];
+        for (UsuarioRefactorizado usuario : usuarios) {
+            tomadas[franja(usuario.getId())] = true;
+        }
+        int bloqueadas = 0;
+        try {
+            for (; bloqueadas < FRANJAS; bloqueadas++) {
+                if (tomadas[bloqueadas]) {
+                    franjas[bloqueadas].lock();
+                }
+            }
+            return insertarVarios(usuarios, efecto);
+        } finally {
+            for (int i = bloqueadas - 1; i >= 0; i--) {
+                if (tomadas[i]) {
+                    franjas[i].unlock();
+                }
+            }
+        }
+    }
+
+    private List<UsuarioRefactorizado> insertarVarios(List<UsuarioRefactorizado> usuarios, Efecto efecto) {
+        List<UsuarioRefactorizado> existentes = new ArrayList<>();
+        List<UsuarioRefactorizado> escritos = enTransaccion(conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement(INSERTAR)) {
+                for (UsuarioRefactorizado usuario : usuarios) {
+                    asignar(sentencia, usuario.getId(), usuario);
+                    sentencia.addBatch();
+                }
+                int[] resultados;
+                SQLException fallo = null;
+                try {
+                    resultados = sentencia.executeBatch();
+                } catch (BatchUpdateException e) {
+                    resultados = e.getUpdateCounts();
+                    if (resultados.length != usuarios.size()) {
+                        throw e;
+                    }
+                    fallo = e.getNextException();
+                }
+
+                List<UsuarioRefactorizado> insertados = new ArrayList<>(usuarios.size());
+                for (int i = 0; i < resultados.length; i++) {
+                    UsuarioRefactorizado usuario = usuarios.get(i);
+                    if (resultados[i] != Statement.EXECUTE_FAILED) {
+                        insertados.add(usuario);
+                        continue;
+                    }
+                    // Una excepción encadenada por cada fila fallida, en el orden del lote
+                    if (fallo == null) {
+                        throw new IllegalStateException("Lote de usuarios sin la causa de una fila fallida");
+                    }
+                    if (!esViolacionDeEmail(fallo)) {
+                        if (!VIOLACION_UNICIDAD.equals(fallo.getSQLState())) {
+                            throw fallo;
+                        }
+                        existentes.add(usuario);
+                    }
+                    fallo = fallo.getNextException();
+                }
+                return insertados;
+            }
+        });
+        cantidad.addAndGet(escritos.size());
+        for (UsuarioRefactorizado usuario : escritos) {
+            efecto.aplicar(usuario.getId(), null, usuario);
+        }
+
+        for (UsuarioRefactorizado usuario : existentes) {
+            try {
+                calcular(usuario.getId(), (clave, actual) -> usuario, efecto);
+                escritos.add(usuario);
+            } catch (EmailDuplicadoException e) {
+                log.debug("Usuario {} del lote rechazado por email repetido", usuario.getId());
+            }
+        }
+        return escritos;
+    }
+
+    @Override
+    public boolean garantizaEmailUnico() {
+        return true;
+    }
+
+    // Cada lectura que no está en la caché cercana es una consulta a H2
+    @Override
+    public boolean leeEnMemoria() {
+        return false;
+    }
+
+    @Override
+    public UsuarioRefactorizado obtenerPorEmail(String email) {
+        return enTransaccion(conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement(SELECCIONAR_POR_EMAIL)) {
+                sentencia.setString(1, email);
+                try (ResultSet filas = sentencia.executeQuery()) {
+                    return filas.next() ? mapear(filas) : null;
+                }
+            }
+        });
+    }
+
+    private UsuarioRefactorizado escribir(long id, Calculo calculo, Efecto efecto, boolean soloSiPresente) {
+        ReentrantLock cerrojo = franjas[franja(id)];
+        cerrojo.lock();
+        try {
+            return escribirBloqueado(id, calculo, efecto, soloSiPresente);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private UsuarioRefactorizado escribirBloqueado(long id, Calculo calculo, Efecto efecto, boolean soloSiPresente) {
+        while (true) {
+            // [0] el registro anterior, [1] el escrito; quedan en null si nada cambió
+            UsuarioRefactorizado[] cambio = new UsuarioRefactorizado[2];
+            boolean[] cambiado = new boolean[1];
+            UsuarioRefactorizado resultado;
+            try {
+                resultado = enTransaccion(conexion -> {
+                    UsuarioRefactorizado actual = leer(conexion, SELECCIONAR_PARA_ACTUALIZAR, id);
+                    if (actual == null && soloSiPresente) {
+                        return null;
+                    }
+                    UsuarioRefactorizado nuevo = calculo.aplicar(id, actual);
+                    if (nuevo == actual) {
+                        return actual;
+                    }
+                    if (nuevo == null) {
+                        eliminar(conexion, id);
+                    } else {
+                        try (PreparedStatement sentencia = conexion.prepareStatement(actual == null ? INSERTAR : ACTUALIZAR)) {
+                            asignar(sentencia, id, nuevo);
+                            ejecutar(sentencia, nuevo);
+                        }
+                    }
+                    cambio[0] = actual;
+                    cambio[1] = nuevo;
+                    cambiado[0] = true;
+                    return nuevo;
+                });
+            } catch (IdOcupado e) {
+                // Otra transacción insertó el mismo ID entre la lectura y el INSERT: se vuelve a
+                // calcular sobre la fila que ahora existe, así que el cálculo puede repetirse
+                continue;
+            }
+            if (cambiado[0]) {
+                cercana.invalidate(id);
+                if (cambio[0] == null) {
+                    cantidad.incrementAndGet();
+                } else if (cambio[1] == null) {
+                    cantidad.decrementAndGet();
+                }
+                efecto.aplicar(id, cambio[0], cambio[1]);
+            }
+            return resultado;
+        }
+    }
+
+    private static int franja(long id) {
+        return (int) Math.floorMod(id, (long) FRANJAS);
+    }
+
+    private void eliminar(Connection conexion, long id) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(ELIMINAR)) {
+            sentencia.setLong(1, id);
+            sentencia.executeUpdate();
+        }
+        try (PreparedStatement sentencia = conexion.prepareStatement(REGISTRAR_ELIMINADO)) {
+            sentencia.setLong(1, id);
+            sentencia.executeUpdate();
+        }
+    }
+
+    // Traduce las violaciones de unicidad: el email a la excepción de dominio y el ID a un reintento
+    private int ejecutar(PreparedStatement sentencia, UsuarioRefactorizado usuario) throws SQLException {
+        try {
+            return sentencia.executeUpdate();
+        } catch (SQLException e) {
+            if (esViolacionDeEmail(e)) {
+                throw new EmailDuplicadoException("Ya existe un usuario con el email: " + usuario.getEmail());
+            }
+            if (VIOLACION_UNICIDAD.equals(e.getSQLState())) {
+                throw IdOcupado.INSTANCIA;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean esViolacionDeEmail(SQLException e) {
+        return VIOLACION_UNICIDAD.equals(e.getSQLState()) && e.getMessage() != null && e.getMessage().contains(INDICE_EMAIL);
+    }
+
+    // Mismo orden de parámetros en INSERTAR y ACTUALIZAR: los datos primero y el ID en el sexto
+    private static void asignar(PreparedStatement sentencia, long id, UsuarioRefactorizado usuario) throws SQLException {
+        sentencia.setString(1, usuario.getNombre());
+        sentencia.setString(2, usuario.getEmail());
+        if (usuario.getEdad() != null) {
+            sentencia.setInt(3, usuario.getEdad());
+        } else {
+            sentencia.setNull(3, Types.INTEGER);
+        }
+        sentencia.setString(4, usuario.getTelefono());
+        if (usuario.getVersion() != null) {
+            sentencia.setLong(5, usuario.getVersion());
+        } else {
+            sentencia.setNull(5, Types.BIGINT);
+        }
+        sentencia.setLong(6, id);
+    }
+
+    private static UsuarioRefactorizado leer(Connection conexion, String sql, long id) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            sentencia.setLong(1, id);
+            try (ResultSet filas = sentencia.executeQuery()) {
+                return filas.next() ? mapear(filas) : null;
+            }
+        }
+    }
+
+    private static UsuarioRefactorizado mapear(ResultSet filas) throws SQLException {
+        return new UsuarioRefactorizado(
+                filas.getLong(1),
+                filas.getString(2),
+                filas.getString(3),
+                filas.getObject(4, Integer.class),
+                filas.getString(5),
+                filas.getObject(6, Long.class));
+    }
+
+    private static long consultarLong(Connection conexion, String sql) throws SQLException {
+        try (Statement sentencia = conexion.createStatement(); ResultSet filas = sentencia.executeQuery(sql)) {
+            filas.next();
+            return filas.getLong(1);
+        }
+    }
+
+    /**
+     * Corre el trabajo en una conexión del pool y confirma al terminar; cualquier excepción
+     * revierte. Los errores de SQL que no tienen traducción de dominio salen como
+     * {@link IllegalStateException}.
+     */
+    private <T> T enTransaccion(Transaccion<T> trabajo) {
+        try (Connection conexion = dataSource.getConnection()) {
+            try {
+                T resultado = trabajo.ejecutar(conexion);
+                conexion.commit();
+                return resultado;
+            } catch (SQLException | RuntimeException e) {
+                conexion.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falló el almacén JDBC de usuarios", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Transaccion<T> {
+        T ejecutar(Connection conexion) throws SQLException;
+    }
+
+    // Sin traza: es control de flujo entre el INSERT y el reintento de escribir()
+    private static final class IdOcupado extends RuntimeException {
+        private static final IdOcupado INSTANCIA = new IdOcupado();
+
+        private IdOcupado() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Recorrido por páginas de keyset: cada página es una consulta corta, sin cursor abierto entre llamadas
+    private final class Paginas implements Iterator<UsuarioRefactorizado> {
+
+        private final long hastaId;
+        private final ArrayDeque<UsuarioRefactorizado> pagina = new ArrayDeque<>();
+        private long ultimoId;
+        private boolean agotado;
+
+        private Paginas(long despuesDeId, long hastaId) {
+            this.ultimoId = Math.max(despuesDeId, 0L);
+            this.hastaId = hastaId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pagina.isEmpty() && !agotado) {
+                cargar();
+            }
+            return !pagina.isEmpty();
+        }
+
+        @Override
+        public UsuarioRefactorizado next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pagina.poll();
+        }
+
+        private void cargar() {
+            List<UsuarioRefactorizado> leidos = enTransaccion(conexion -> {
+                try (PreparedStatement sentencia = conexion.prepareStatement(SELECCIONAR_PAGINA)) {
+                    sentencia.setLong(1, ultimoId);
+                    sentencia.setLong(2, hastaId);
+                    sentencia.setInt(3, TAMANO_PAGINA);
+                    List<UsuarioRefactorizado> filasLeidas = new ArrayList<>(TAMANO_PAGINA);
+                    try (ResultSet filas = sentencia.executeQuery()) {
+                        while (filas.next()) {
+                            filasLeidas.add(mapear(filas));
+                        }
+                    }
+                    return filasLeidas;
+                }
+            });
+            pagina.addAll(leidos);
+            agotado = leidos.size() < TAMANO_PAGINA;
+            if (!leidos.isEmpty()) {
+                ultimoId = leidos.get(leidos.size() - 1).getId();
+            }
+        }
+    }
+}
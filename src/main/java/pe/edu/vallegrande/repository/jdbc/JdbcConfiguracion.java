@@ -0,0 +1,40 @@
+package pe.edu.vallegrande.repository.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Motor SQL elegido con {@code usuarios.almacen.tipo=jdbc}. No se monta sobre el log de
+ * {@code PersistenciaConfiguracion}: la durabilidad la da H2. El pool trabaja sin
+ * autocommit porque cada operación del almacén confirma su propia transacción.
+ */
+@Configuration
+@EnableConfigurationProperties(JdbcProperties.class)
+@ConditionalOnProperty(prefix = "usuarios.almacen", name = "tipo", havingValue = "jdbc")
+public class JdbcConfiguracion {
+
+    @Bean
+    public HikariDataSource usuariosDataSource(JdbcProperties properties, MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("usuarios-h2");
+        config.setJdbcUrl(properties.getUrl());
+        config.setUsername(properties.getUsuario());
+        config.setPassword(properties.getContrasena());
+        config.setMaximumPoolSize(properties.getTamanoPool());
+        config.setAutoCommit(false);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    public AlmacenJdbc almacenJdbc(HikariDataSource usuariosDataSource, JdbcProperties properties,
+                                   MeterRegistry meterRegistry) {
+        return new AlmacenJdbc(usuariosDataSource, properties.getTamanoCache(), meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package pe.edu.vallegrande.repository.jdbc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "usuarios.jdbc")
+public class JdbcProperties {
+
+    // QUERY_CACHE_SIZE: sentencias ya compiladas que H2 reutiliza por sesión, y las sesiones las conserva el pool
+    private String url = "jdbc:h2:file:./data/usuarios-h2;QUERY_CACHE_SIZE=64";
+
+    private String usuario = "sa";
+
+    private String contrasena = "";
+
+    private int tamanoPool = 16;
+
+    // Entradas de la caché cercana de lecturas por ID
+    private long tamanoCache = 100_000;
+}
@@ -0,0 +1,252 @@
+package pe.edu.vallegrande.repository.mapa;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Mapa concurrente de {@code String} a {@code long} primitivo, con la misma estructura que
+ * {@link MapaLongConcurrente}: segmentos con cerrojo para escribir, lecturas sin bloqueo y
+ * lápidas al eliminar. Los valores nunca se encajonan; {@link #AUSENTE} indica que la clave
+ * no tiene valor y por eso no puede guardarse.
+ */
+public class MapaCadenaLongConcurrente {
+
+    public static final long AUSENTE = Long.MIN_VALUE;
+
+    private static final VarHandle CLAVES = MethodHandles.arrayElementVarHandle(String[].class);
+    private static final VarHandle VALORES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int BITS_SEGMENTOS = 6;
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private final Segmento[] segmentos = new Segmento[1 << BITS_SEGMENTOS];
+
+    public MapaCadenaLongConcurrente() {
+        for (int i = 0; i < segmentos.length; i++) {
+            segmentos[i] = new Segmento();
+        }
+    }
+
+    public long obtener(String clave) {
+        int hash = mezclar(clave);
+        return segmento(hash).obtener(clave, hash);
+    }
+
+    public boolean contiene(String clave) {
+        return obtener(clave) != AUSENTE;
+    }
+
+    public long poner(String clave, long valor) {
+        validar(valor);
+        int hash = mezclar(clave);
+        return segmento(hash).poner(clave, hash, valor, false);
+    }
+
+    // Devuelve el valor que ya tenía la clave, o AUSENTE si se insertó
+    public long ponerSiAusente(String clave, long valor) {
+        validar(valor);
+        int hash = mezclar(clave);
+        return segmento(hash).poner(clave, hash, valor, true);
+    }
+
+    /**
+     * Inserta el valor que produce el generador solo si la clave está libre, de forma atómica.
+     * Devuelve el valor generado, o {@link #AUSENTE} si la clave ya existía; en ese caso el
+     * generador no se invoca.
+     */
+    public long insertarSiAusente(String clave, LongSupplier generador) {
+        int hash = mezclar(clave);
+        return segmento(hash).insertarSiAusente(clave, hash, generador);
+    }
+
+    public long quitar(String clave) {
+        int hash = mezclar(clave);
+        return segmento(hash).quitar(clave, hash, AUSENTE);
+    }
+
+    // Elimina solo si la clave sigue asociada al valor esperado
+    public boolean quitar(String clave, long esperado) {
+        validar(esperado);
+        int hash = mezclar(clave);
+        return segmento(hash).quitar(clave, hash, esperado) != AUSENTE;
+    }
+
+    public int tamano() {
+        int total = 0;
+        for (Segmento segmento : segmentos) {
+            total += segmento.tamano;
+        }
+        return total;
+    }
+
+    private Segmento segmento(int hash) {
+        return segmentos[hash >>> (Integer.SIZE - BITS_SEGMENTOS)];
+    }
+
+    private static void validar(long valor) {
+        if (valor == AUSENTE) {
+            throw new IllegalArgumentException("El valor Long.MIN_VALUE está reservado");
+        }
+    }
+
+    static int mezclar(String clave) {
+        int h = clave.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Tabla {
+        final String[] claves;
+        final long[] valores;
+
+        Tabla(int capacidad) {
+            claves = new String[capacidad];
+            valores = new long[capacidad];
+        }
+    }
+
+    private static final class Segmento extends ReentrantLock {
+
+        private volatile Tabla tabla = new Tabla(CAPACIDAD_INICIAL);
+        private volatile int tamano;
+        // Celdas con clave, vivas o lápidas; solo se modifica con el cerrojo tomado
+        private int ocupadas;
+
+        long obtener(String clave, int hash) {
+            Tabla actual = tabla;
+            int mascara = actual.claves.length - 1;
+            for (int i = hash & mascara; ; i = (i + 1) & mascara) {
+                String encontrada = (String) CLAVES.getAcquire(actual.claves, i);
+                if (encontrada == null) {
+                    return AUSENTE;
+                }
+                if (encontrada.equals(clave)) {
+                    return (long) VALORES.getAcquire(actual.valores, i);
+                }
+            }
+        }
+
+        long poner(String clave, int hash, long valor, boolean soloSiAusente) {
+            lock();
+            try {
+                Tabla actual = tabla;
+                int indice = buscar(actual, clave, hash);
+                long anterior = indice >= 0 ? actual.valores[indice] : AUSENTE;
+                if (anterior != AUSENTE && soloSiAusente) {
+                    return anterior;
+                }
+                escribir(actual, indice, clave, hash, valor, anterior);
+                return anterior;
+            } finally {
+                unlock();
+            }
+        }
+
+        long insertarSiAusente(String clave, int hash, LongSupplier generador) {
+            lock();
+            try {
+                Tabla actual = tabla;
+                int indice = buscar(actual, clave, hash);
+                if (indice >= 0 && actual.valores[indice] != AUSENTE) {
+                    return AUSENTE;
+                }
+                long valor = generador.getAsLong();
+                validar(valor);
+                escribir(actual, indice, clave, hash, valor, AUSENTE);
+                return valor;
+            } finally {
+                unlock();
+            }
+        }
+
+        long quitar(String clave, int hash, long esperado) {
+            lock();
+            try {
+                Tabla actual = tabla;
+                int indice = buscar(actual, clave, hash);
+                if (indice < 0) {
+                    return AUSENTE;
+                }
+                long anterior = actual.valores[indice];
+                if (anterior == AUSENTE || (esperado != AUSENTE && anterior != esperado)) {
+                    return AUSENTE;
+                }
+                VALORES.setRelease(actual.valores, indice, AUSENTE);
+                tamano = tamano - 1;
+                return anterior;
+            } finally {
+                unlock();
+            }
+        }
+
+        private void escribir(Tabla actual, int indice, String clave, int hash, long valor, long anterior) {
+            if (indice >= 0) {
+                VALORES.setRelease(actual.valores, indice, valor);
+            } else {
+                insertar(clave, hash, valor);
+            }
+            if (anterior == AUSENTE) {
+                tamano = tamano + 1;
+            }
+        }
+
+        private int buscar(Tabla actual, String clave, int hash) {
+            int mascara = actual.claves.length - 1;
+            for (int i = hash & mascara; ; i = (i + 1) & mascara) {
+                String encontrada = actual.claves[i];
+                if (encontrada == null) {
+                    return -1;
+                }
+                if (encontrada.equals(clave)) {
+                    return i;
+                }
+            }
+        }
+
+        private void insertar(String clave, int hash, long valor) {
+            if ((ocupadas + 1) * 2 > tabla.claves.length) {
+                redimensionar();
+            }
+            Tabla actual = tabla;
+            int mascara = actual.claves.length - 1;
+            int i = hash & mascara;
+            while (actual.claves[i] != null) {
+                i = (i + 1) & mascara;
+            }
+            // El valor se publica antes que la clave para que un lector nunca vea una clave a medias
+            VALORES.setRelease(actual.valores, i, valor);
+            CLAVES.setRelease(actual.claves, i, clave);
+            ocupadas++;
+        }
+
+        // Reconstruye la tabla sin lápidas; solo crece si las entradas vivas lo justifican
+        private void redimensionar() {
+            Tabla anterior = tabla;
+            int capacidad = CAPACIDAD_INICIAL;
+            while (capacidad < (tamano + 1) * 4) {
+                capacidad <<= 1;
+            }
+
+            Tabla nueva = new Tabla(capacidad);
+            int mascara = capacidad - 1;
+            int vivas = 0;
+            for (int j = 0; j < anterior.claves.length; j++) {
+                String clave = anterior.claves[j];
+                long valor = anterior.valores[j];
+                if (clave == null || valor == AUSENTE) {
+                    continue;
+                }
+                int i = mezclar(clave) & mascara;
+                while (nueva.claves[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                nueva.claves[i] = clave;
+                nueva.valores[i] = valor;
+                vivas++;
+            }
+            ocupadas = vivas;
+            tabla = nueva;
+        }
+    }
+}
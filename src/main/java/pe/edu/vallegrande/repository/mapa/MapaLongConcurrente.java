@@ -0,0 +1,234 @@
+package pe.edu.vallegrande.repository.mapa;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mapa concurrente de direccionamiento abierto con claves {@code long} primitivas, para no
+ * crear un {@code Long} por cada búsqueda o inserción.
+ *
+ * <p>Está dividido en segmentos, cada uno con su propio cerrojo para las escrituras. Las
+ * lecturas no bloquean: recorren la tabla vigente del segmento con lecturas de adquisición,
+ * y las escrituras publican el valor antes que la clave. Las eliminaciones dejan la clave
+ * como lápida (valor null) hasta el siguiente redimensionado. {@link Long#MIN_VALUE} está
+ * reservado como marca de celda vacía.</p>
+ */
+public class MapaLongConcurrente<V> {
+
+    private static final VarHandle CLAVES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALORES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private static final long VACIA = Long.MIN_VALUE;
+    private static final int BITS_SEGMENTOS = 6;
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    @FunctionalInterface
+    public interface Calculo<V> {
+        V aplicar(long clave, V actual);
+    }
+
+    private final Segmento<V>[] segmentos;
+
+    @SuppressWarnings("unchecked")
+    public MapaLongConcurrente() {
+        segmentos = new Segmento[1 << BITS_SEGMENTOS];
+        for (int i = 0; i < segmentos.length; i++) {
+            segmentos[i] = new Segmento<>();
+        }
+    }
+
+    public V obtener(long clave) {
+        long hash = mezclar(clave);
+        return segmento(hash).obtener(clave, hash);
+    }
+
+    public V poner(long clave, V valor) {
+        V[] anterior = nuevoContenedor();
+        calcular(clave, (c, actual) -> {
+            anterior[0] = actual;
+            return valor;
+        });
+        return anterior[0];
+    }
+
+    public V quitar(long clave) {
+        V[] anterior = nuevoContenedor();
+        calcularSiPresente(clave, (c, actual) -> {
+            anterior[0] = actual;
+            return null;
+        });
+        return anterior[0];
+    }
+
+    // Misma semántica que ConcurrentHashMap.compute: null elimina y una excepción no cambia nada
+    public V calcular(long clave, Calculo<V> calculo) {
+        validar(clave);
+        long hash = mezclar(clave);
+        return segmento(hash).calcular(clave, hash, calculo, false);
+    }
+
+    public V calcularSiPresente(long clave, Calculo<V> calculo) {
+        validar(clave);
+        long hash = mezclar(clave);
+        return segmento(hash).calcular(clave, hash, calculo, true);
+    }
+
+    public int tamano() {
+        int total = 0;
+        for (Segmento<V> segmento : segmentos) {
+            total += segmento.tamano;
+        }
+        return total;
+    }
+
+    private Segmento<V> segmento(long hash) {
+        return segmentos[(int) (hash >>> (Long.SIZE - BITS_SEGMENTOS))];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V[] nuevoContenedor() {
+        return (V[]) new Object[1];
+    }
+
+    private static void validar(long clave) {
+        if (clave == VACIA) {
+            throw new IllegalArgumentException("La clave Long.MIN_VALUE está reservada");
+        }
+    }
+
+    // Finalizador de MurmurHash3: los IDs consecutivos se reparten por toda la tabla
+    static long mezclar(long clave) {
+        long h = clave;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static final class Tabla {
+        final long[] claves;
+        final Object[] valores;
+
+        Tabla(int capacidad) {
+            claves = new long[capacidad];
+            valores = new Object[capacidad];
+            Arrays.fill(claves, VACIA);
+        }
+    }
+
+    private static final class Segmento<V> extends ReentrantLock {
+
+        private volatile Tabla tabla = new Tabla(CAPACIDAD_INICIAL);
+        private volatile int tamano;
+        // Celdas con clave, vivas o lápidas; solo se modifica con el cerrojo tomado
+        private int ocupadas;
+
+        @SuppressWarnings("unchecked")
+        V obtener(long clave, long hash) {
+            Tabla actual = tabla;
+            int mascara = actual.claves.length - 1;
+            for (int i = (int) hash & mascara; ; i = (i + 1) & mascara) {
+                long encontrada = (long) CLAVES.getAcquire(actual.claves, i);
+                if (encontrada == clave) {
+                    return (V) VALORES.getAcquire(actual.valores, i);
+                }
+                if (encontrada == VACIA) {
+                    return null;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V calcular(long clave, long hash, Calculo<V> calculo, boolean soloSiPresente) {
+            lock();
+            try {
+                Tabla actual = tabla;
+                int indice = buscar(actual, clave, hash);
+                V anterior = indice >= 0 ? (V) actual.valores[indice] : null;
+                if (anterior == null && soloSiPresente) {
+                    return null;
+                }
+
+                V nuevo = calculo.aplicar(clave, anterior);
+                if (nuevo == null) {
+                    if (anterior != null) {
+                        VALORES.setRelease(actual.valores, indice, null);
+                        tamano = tamano - 1;
+                    }
+                    return null;
+                }
+
+                if (indice >= 0) {
+                    VALORES.setRelease(actual.valores, indice, nuevo);
+                } else {
+                    insertar(clave, hash, nuevo);
+                }
+                if (anterior == null) {
+                    tamano = tamano + 1;
+                }
+                return nuevo;
+            } finally {
+                unlock();
+            }
+        }
+
+        private int buscar(Tabla actual, long clave, long hash) {
+            int mascara = actual.claves.length - 1;
+            for (int i = (int) hash & mascara; ; i = (i + 1) & mascara) {
+                long encontrada = actual.claves[i];
+                if (encontrada == clave) {
+                    return i;
+                }
+                if (encontrada == VACIA) {
+                    return -1;
+                }
+            }
+        }
+
+        private void insertar(long clave, long hash, V valor) {
+            if ((ocupadas + 1) * 2 > tabla.claves.length) {
+                redimensionar();
+            }
+            Tabla actual = tabla;
+            int mascara = actual.claves.length - 1;
+            int i = (int) hash & mascara;
+            while (actual.claves[i] != VACIA) {
+                i = (i + 1) & mascara;
+            }
+            // El valor se publica antes que la clave para que un lector nunca vea una clave a medias
+            VALORES.setRelease(actual.valores, i, valor);
+            CLAVES.setRelease(actual.claves, i, clave);
+            ocupadas++;
+        }
+
+        // Reconstruye la tabla sin lápidas; solo crece si las entradas vivas lo justifican
+        private void redimensionar() {
+            Tabla anterior = tabla;
+            int capacidad = CAPACIDAD_INICIAL;
+            while (capacidad < (tamano + 1) * 4) {
+                capacidad <<= 1;
+            }
+
+            Tabla nueva = new Tabla(capacidad);
+            int mascara = capacidad - 1;
+            int vivas = 0;
+            for (int j = 0; j < anterior.claves.length; j++) {
+                long clave = anterior.claves[j];
+                Object valor = anterior.valores[j];
+                if (clave == VACIA || valor == null) {
+                    continue;
+                }
+                int i = (int) mezclar(clave) & mascara;
+                while (nueva.claves[i] != VACIA) {
+                    i = (i + 1) & mascara;
+                }
+                nueva.claves[i] = clave;
+                nueva.valores[i] = valor;
+                vivas++;
+            }
+            ocupadas = vivas;
+            tabla = nueva;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * Motor durable: envuelve otro {@link AlmacenUsuarios} (en heap o fuera de heap) y anexa
+ * cada mutación al {@link UsuarioWal} dentro del mismo cálculo atómico que la aplica, así
+ * que el orden del log es el del almacén. Al construirse carga el último snapshot y
+ * reproduce el log sobre el almacén envuelto; {@link #confirmar()} espera el group commit.
+ */
+@Slf4j
+public class AlmacenConWal implements AlmacenUsuarios {
+
+    private final AlmacenUsuarios almacen;
+    private final UsuarioWal wal;
+    private final BarreraMutaciones barrera = new BarreraMutaciones();
+
+    // Contador guardado en el snapshot: cubre los IDs eliminados antes de tomarlo
+    private final long ultimoIdSnapshot;
+
+    public AlmacenConWal(AlmacenUsuarios almacen, UsuarioWal wal) {
+        this.almacen = almacen;
+        this.wal = wal;
+        try {
+            this.ultimoIdSnapshot = wal.reproducir(this::aplicarRegistro) - 1;
+            wal.iniciar();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo recuperar el log de usuarios", e);
+        }
+        log.info("Almacén recuperado con {} usuarios", almacen.tamano());
+    }
+
+    @Override
+    public UsuarioRefactorizado obtener(long id) {
+        return almacen.obtener(id);
+    }
+
+    @Override
+    public UsuarioRefactorizado calcular(long id, Calculo calculo, Efecto efecto) {
+        int epoca = barrera.entrar();
+        try {
+            return almacen.calcular(id, (clave, actual) -> anexar(clave, actual, calculo.aplicar(clave, actual)), efecto);
+        } finally {
+            barrera.salir(epoca);
+        }
+    }
+
+    @Override
+    public UsuarioRefactorizado calcularSiPresente(long id, Calculo calculo, Efecto efecto) {
+        int epoca = barrera.entrar();
+        try {
+            return almacen.calcularSiPresente(id, (clave, actual) -> anexar(clave, actual, calculo.aplicar(clave, actual)), efecto);
+        } finally {
+            barrera.salir(epoca);
+        }
+    }
+
+    @Override
+    public void poner(long id, UsuarioRefactorizado usuario) {
+        calcular(id, (clave, actual) -> usuario);
+    }
+
+    @Override
+    public UsuarioRefactorizado quitar(long id) {
+        UsuarioRefactorizado[] eliminado = new UsuarioRefactorizado[1];
+        calcularSiPresente(id, (clave, actual) -> {
+            eliminado[0] = actual;
+            return null;
+        });
+        return eliminado[0];
+    }
+
+    @Override
+    public int tamano() {
+        return almacen.tamano();
+    }
+
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerDesde(long despuesDeId) {
+        return almacen.recorrerDesde(despuesDeId);
+    }
+
+    @Override
+    public Iterator<UsuarioRefactorizado> recorrerRango(long despuesDeId, long hastaId) {
+        return almacen.recorrerRango(despuesDeId, hastaId);
+    }
+
+    @Override
+    public long ultimoIdAsignado() {
+        return Math.max(almacen.ultimoIdAsignado(), ultimoIdSnapshot);
+    }
+
+    @Override
+    public void confirmar() {
+        wal.sincronizar();
+    }
+
+    @Override
+    public boolean leeEnMemoria() {
+        return almacen.leeEnMemoria();
+    }
+
+    @Override
+    public int fragmentos() {
+        return almacen.fragmentos();
+    }
+
+    @Override
+    public int fragmento(long id) {
+        return almacen.fragmento(id);
+    }
+
+    /**
+     * Toma un snapshot sin bloquear a los escritores: rota el log, espera solo a las
+     * mutaciones que ya estaban en curso y recorre la vista débilmente consistente del
+     * almacén. Los segmentos anteriores a la rotación se borran al terminar.
+     */
+    public synchronized long tomarSnapshot() throws IOException {
+        long generacion = wal.rotar();
+        barrera.esperarMutacionesEnCurso();
+
+        long cantidad = UsuarioSnapshot.escribir(
+                wal.archivoSnapshot(generacion), ultimoIdAsignado() + 1, almacen.recorrerDesde(0L));
+        wal.eliminarAnteriores(generacion);
+
+        log.info("Snapshot {} tomado con {} usuarios", generacion, cantidad);
+        return cantidad;
+    }
+
+    // Tamaño del segmento actual del log, para decidir cuándo vale la pena un snapshot
+    public long tamanoLog() throws IOException {
+        return wal.tamano();
+    }
+
+    private UsuarioRefactorizado anexar(long id, UsuarioRefactorizado actual, UsuarioRefactorizado nuevo) {
+        if (nuevo == actual) {
+            return actual;
+        }
+        byte tipo = nuevo == null ? UsuarioWal.ELIMINAR : actual == null ? UsuarioWal.GUARDAR : UsuarioWal.ACTUALIZAR;
+        wal.anexar(tipo, id, nuevo);
+        return nuevo;
+    }
+
+    private void aplicarRegistro(byte tipo, long id, UsuarioRefactorizado usuario) {
+        if (tipo == UsuarioWal.ELIMINAR) {
+            almacen.quitar(id);
+        } else {
+            almacen.poner(id, usuario);
+        }
+    }
+}
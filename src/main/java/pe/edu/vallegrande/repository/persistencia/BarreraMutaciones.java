@@ -0,0 +1,32 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Barrera por épocas para tomar snapshots sin bloquear a los escritores. Cada mutación
+ * se registra en la época vigente; {@link #esperarMutacionesEnCurso()} abre una época
+ * nueva y espera solo a que terminen las mutaciones de la anterior.
+ */
+public class BarreraMutaciones {
+
+    private final LongAdder[] enCurso = {new LongAdder(), new LongAdder()};
+    private volatile int epoca;
+
+    public int entrar() {
+        int actual = epoca;
+        enCurso[actual & 1].increment();
+        return actual;
+    }
+
+    public void salir(int epocaEntrada) {
+        enCurso[epocaEntrada & 1].decrement();
+    }
+
+    public void esperarMutacionesEnCurso() {
+        int anterior = epoca;
+        epoca = anterior + 1;
+        while (enCurso[anterior & 1].sum() != 0) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificación binaria compacta de los campos de un usuario (sin el ID),
+ * compartida por el log de escritura anticipada y los snapshots.
+ *
+ * <p>La versión va al final: los registros escritos antes de que existiera terminan tras
+ * el teléfono y se leen como versión {@value #VERSION_INICIAL}.</p>
+ */
+public final class CodecUsuario {
+
+    private static final int NULO = -1;
+    private static final int EDAD_NULA = Integer.MIN_VALUE;
+    private static final long VERSION_INICIAL = 1L;
+
+    private CodecUsuario() {
+    }
+
+    public static byte[] codificar(UsuarioRefactorizado usuario) {
+        byte[] nombre = utf8(usuario.getNombre());
+        byte[] email = utf8(usuario.getEmail());
+        byte[] telefono = utf8(usuario.getTelefono());
+
+        ByteBuffer destino = ByteBuffer.allocate(
+                4 * Integer.BYTES + longitud(nombre) + longitud(email) + longitud(telefono) + Long.BYTES);
+        escribirCadena(destino, nombre);
+        escribirCadena(destino, email);
+        destino.putInt(usuario.getEdad() != null ? usuario.getEdad() : EDAD_NULA);
+        escribirCadena(destino, telefono);
+        destino.putLong(usuario.getVersion() != null ? usuario.getVersion() : VERSION_INICIAL);
+        return destino.array();
+    }
+
+    // El registro termina en la posición fin; por ahí se distingue si trae versión
+    public static UsuarioRefactorizado leer(ByteBuffer origen, long id, int fin) {
+        String nombre = leerCadena(origen);
+        String email = leerCadena(origen);
+        int edad = origen.getInt();
+        String telefono = leerCadena(origen);
+        long version = fin - origen.position() >= Long.BYTES ? origen.getLong() : VERSION_INICIAL;
+        return new UsuarioRefactorizado(id, nombre, email, edad != EDAD_NULA ? edad : null, telefono, version);
+    }
+
+    private static byte[] utf8(String valor) {
+        return valor != null ? valor.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int longitud(byte[] valor) {
+        return valor != null ? valor.length : 0;
+    }
+
+    private static void escribirCadena(ByteBuffer destino, byte[] valor) {
+        if (valor == null) {
+            destino.putInt(NULO);
+            return;
+        }
+        destino.putInt(valor.length);
+        destino.put(valor);
+    }
+
+    private static String leerCadena(ByteBuffer origen) {
+        int longitud = origen.getInt();
+        if (longitud == NULO) {
+            return null;
+        }
+        String valor;
+        if (origen.hasArray()) {
+            valor = new String(origen.array(), origen.arrayOffset() + origen.position(), longitud, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[longitud];
+            origen.get(origen.position(), bytes);
+            valor = new String(bytes, StandardCharsets.UTF_8);
+        }
+        origen.position(origen.position() + longitud);
+        return valor;
+    }
+}
@@ -0,0 +1,37 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import pe.edu.vallegrande.repository.almacen.AlmacenProperties;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+import pe.edu.vallegrande.repository.almacen.CondicionAlmacenEnMemoria;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@EnableConfigurationProperties(PersistenciaProperties.class)
+@ConditionalOnProperty(prefix = "usuarios.persistencia", name = "habilitada", havingValue = "true")
+@Conditional(CondicionAlmacenEnMemoria.class)
+public class PersistenciaConfiguracion {
+
+    // Un log por fragmento del almacén, o el log de siempre con un solo fragmento
+    @Bean
+    public WalFragmentado walFragmentado(PersistenciaProperties properties, AlmacenProperties almacen) throws IOException {
+        return new WalFragmentado(Path.of(properties.getDirectorio()), almacen.getFragmentos(), almacen.motorPorFragmento());
+    }
+
+    @Bean
+    public AlmacenUsuarios almacenConWal(WalFragmentado wal) {
+        return wal.almacen();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "usuarios.persistencia.snapshot", name = "habilitado", matchIfMissing = true)
+    public ProgramadorSnapshots programadorSnapshots(WalFragmentado wal, PersistenciaProperties properties) {
+        return new ProgramadorSnapshots(wal.fragmentos(), properties.getSnapshot());
+    }
+}
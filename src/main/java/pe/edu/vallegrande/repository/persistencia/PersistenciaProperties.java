@@ -0,0 +1,31 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "usuarios.persistencia")
+public class PersistenciaProperties {
+
+    private boolean habilitada = false;
+
+    // Directorio donde se guardan los segmentos del log y los snapshots
+    private String directorio = "data";
+
+    private Snapshot snapshot = new Snapshot();
+
+    @Data
+    public static class Snapshot {
+
+        private boolean habilitado = true;
+
+        // Cada cuánto se revisa si corresponde tomar un snapshot
+        private Duration intervalo = Duration.ofMinutes(5);
+
+        // Tamaño mínimo del segmento actual del log para que valga la pena tomar un snapshot
+        private DataSize tamanoMinimoLog = DataSize.ofMegabytes(64);
+    }
+}
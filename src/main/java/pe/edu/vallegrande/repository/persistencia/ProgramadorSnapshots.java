@@ -0,0 +1,56 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Toma snapshots en segundo plano cuando el segmento actual del log supera el umbral
+ * configurado, de modo que el arranque no tenga que reproducir un log cada vez más largo.
+ * Con un log por fragmento cada uno se revisa y se compacta por separado.
+ */
+@Slf4j
+public class ProgramadorSnapshots implements Closeable {
+
+    private final List<AlmacenConWal> almacenes;
+    private final long tamanoMinimoLog;
+    private final ScheduledExecutorService ejecutor;
+
+    public ProgramadorSnapshots(List<AlmacenConWal> almacenes, PersistenciaProperties.Snapshot configuracion) {
+        this.almacenes = almacenes;
+        this.tamanoMinimoLog = configuracion.getTamanoMinimoLog().toBytes();
+        this.ejecutor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "usuario-snapshot");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        long intervalo = configuracion.getIntervalo().toMillis();
+        ejecutor.scheduleWithFixedDelay(this::tomarSiCorresponde, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    void tomarSiCorresponde() {
+        for (AlmacenConWal almacen : almacenes) {
+            try {
+                long tamano = almacen.tamanoLog();
+                if (tamano < tamanoMinimoLog) {
+                    log.debug("Log de {} bytes por debajo del umbral de snapshot", tamano);
+                    continue;
+                }
+                almacen.tomarSnapshot();
+            } catch (Exception e) {
+                // Un fallo no debe cancelar las ejecuciones siguientes ni los demás fragmentos
+                log.error("No se pudo tomar el snapshot de usuarios", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        ejecutor.shutdownNow();
+    }
+}
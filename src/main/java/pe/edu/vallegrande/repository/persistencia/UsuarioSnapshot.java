@@ -0,0 +1,117 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Snapshot binario compacto del estado del repositorio:
+ * {@code [magia:int][version:int][contador:long][cantidad:long]} seguido de
+ * {@code [id:long][longitud:int][usuario]} por cada usuario.
+ *
+ * <p>Se escribe en un archivo temporal que se renombra atómicamente al terminar, y se
+ * lee mediante {@link MappedByteBuffer} por ventanas para no copiar el archivo al heap.</p>
+ */
+@Slf4j
+public final class UsuarioSnapshot {
+
+    private static final int MAGIA = 0x5553524E;
+    private static final int VERSION = 1;
+    private static final int CABECERA = 2 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int CABECERA_REGISTRO = Long.BYTES + Integer.BYTES;
+    private static final int POSICION_CANTIDAD = 2 * Integer.BYTES + Long.BYTES;
+    private static final int TAMANO_BUFFER_ESCRITURA = 1 << 20;
+    private static final long TAMANO_VENTANA = 256L << 20;
+
+    private UsuarioSnapshot() {
+    }
+
+    public static long escribir(Path destino, long contador, Iterator<UsuarioRefactorizado> usuarios) throws IOException {
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        long cantidad = 0;
+
+        try (FileChannel canal = FileChannel.open(temporal,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER_ESCRITURA);
+            buffer.putInt(MAGIA).putInt(VERSION).putLong(contador).putLong(0L);
+
+            while (usuarios.hasNext()) {
+                UsuarioRefactorizado usuario = usuarios.next();
+                byte[] datos = CodecUsuario.codificar(usuario);
+                if (buffer.remaining() < CABECERA_REGISTRO + datos.length) {
+                    vaciar(canal, buffer);
+                }
+                buffer.putLong(usuario.getId()).putInt(datos.length).put(datos);
+                cantidad++;
+            }
+            vaciar(canal, buffer);
+
+            canal.write(ByteBuffer.allocate(Long.BYTES).putLong(0, cantidad), POSICION_CANTIDAD);
+            canal.force(true);
+        }
+
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return cantidad;
+    }
+
+    /**
+     * Aplica cada usuario del snapshot como un registro {@link UsuarioWal#GUARDAR}.
+     *
+     * @return el contador de IDs vigente al tomar el snapshot
+     */
+    public static long cargar(Path origen, UsuarioWal.ConsumidorRegistro consumidor) throws IOException {
+        try (FileChannel canal = FileChannel.open(origen, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            long inicioVentana = 0;
+            MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(tamano, TAMANO_VENTANA));
+
+            if (tamano < CABECERA || ventana.getInt() != MAGIA || ventana.getInt() != VERSION) {
+                throw new IOException("El snapshot " + origen + " no es válido");
+            }
+            long contador = ventana.getLong();
+            long cantidad = ventana.getLong();
+
+            for (long leidos = 0; leidos < cantidad; leidos++) {
+                if (!registroCompleto(ventana)) {
+                    inicioVentana += ventana.position();
+                    ventana = canal.map(FileChannel.MapMode.READ_ONLY, inicioVentana,
+                            Math.min(tamano - inicioVentana, TAMANO_VENTANA));
+                    if (!registroCompleto(ventana)) {
+                        throw new IOException("El snapshot " + origen + " está truncado");
+                    }
+                }
+
+                long id = ventana.getLong();
+                int longitud = ventana.getInt();
+                int fin = ventana.position() + longitud;
+                consumidor.aplicar(UsuarioWal.GUARDAR, id, CodecUsuario.leer(ventana, id, fin));
+                ventana.position(fin);
+            }
+
+            log.info("Snapshot {} cargado con {} usuarios", origen, cantidad);
+            return contador;
+        }
+    }
+
+    private static boolean registroCompleto(ByteBuffer ventana) {
+        return ventana.remaining() >= CABECERA_REGISTRO
+                && ventana.remaining() >= CABECERA_REGISTRO + ventana.getInt(ventana.position() + Long.BYTES);
+    }
+
+    private static void vaciar(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
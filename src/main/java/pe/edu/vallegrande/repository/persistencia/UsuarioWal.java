@@ -0,0 +1,465 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log de escritura anticipada (append-only) de las mutaciones de usuarios.
+ *
+ * <p>Cada registro es {@code [longitud:int][crc32:int][tipo:byte][id:long][usuario]}.
+ * Los hilos que escriben solo copian su registro a un buffer en memoria; un único
+ * hilo escritor vuelca todo lo acumulado con un {@code write} y un {@code fsync}
+ * (group commit), y despierta a quienes esperan en {@link #sincronizar()}.</p>
+ *
+ * <p>El log se divide en generaciones ({@code usuarios-N.wal}). Un snapshot
+ * {@code usuarios-N.snapshot} contiene todo lo escrito en generaciones anteriores a N,
+ * por lo que al arrancar se carga el último snapshot y solo se reproducen los
+ * segmentos desde su generación.</p>
+ *
+ * <p>El log de una sola pieza de versiones anteriores ({@value #ARCHIVO_LEGADO}) usa el mismo
+ * formato de registro: si es lo único que hay en el directorio se adopta como la generación 1.</p>
+ */
+@Slf4j
+public class UsuarioWal implements Closeable {
+
+    public static final byte GUARDAR = 1;
+    public static final byte ACTUALIZAR = 2;
+    public static final byte ELIMINAR = 3;
+
+    private static final int CABECERA = 2 * Integer.BYTES;
+    private static final int TAMANO_MAXIMO_REGISTRO = 1 << 20;
+    private static final int TAMANO_BUFFER_LECTURA = 4 << 20;
+    private static final int CAPACIDAD_INICIAL = 64 * 1024;
+    private static final String ARCHIVO_LEGADO = "usuarios.wal";
+    private static final Pattern ARCHIVO_GENERACION = Pattern.compile("usuarios-(\\d+)\\.(wal|snapshot)");
+
+    @FunctionalInterface
+    public interface ConsumidorRegistro {
+        void aplicar(byte tipo, long id, UsuarioRefactorizado usuario);
+    }
+
+    // Corte pedido por rotar(): los bytes pendientes antes de 'corte' van al segmento anterior
+    private record Rotacion(long generacion, int corte, CompletableFuture<Void> lista) {
+    }
+
+    private final Path directorio;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayPendientes = lock.newCondition();
+    private final Condition persistido = lock.newCondition();
+    private final ThreadLocal<long[]> ultimaSecuenciaDelHilo = ThreadLocal.withInitial(() -> new long[1]);
+    private final Thread escritor;
+
+    private volatile FileChannel canal;
+    private ByteBuffer pendiente = ByteBuffer.allocate(CAPACIDAD_INICIAL);
+    private Rotacion rotacion;
+    private long generacion;
+    private long secuenciaAnexada;
+    private volatile long secuenciaPersistida;
+    private IOException error;
+    private boolean cerrado;
+
+    public UsuarioWal(Path directorio) throws IOException {
+        this.directorio = directorio;
+        Files.createDirectories(directorio);
+        this.escritor = new Thread(this::escribirEnGrupo, "usuario-wal-escritor");
+        this.escritor.setDaemon(true);
+    }
+
+    /**
+     * Carga el último snapshot, reproduce los segmentos posteriores sobre el consumidor
+     * y deja abierto el segmento más reciente para anexar. Un registro final incompleto
+     * o corrupto (escritura interrumpida) se descarta.
+     *
+     * @return el contador de IDs guardado en el snapshot, o 0 si no hay snapshot
+     */
+    public long reproducir(ConsumidorRegistro consumidor) throws IOException {
+        migrarLogLegado();
+        List<Long> snapshots = generaciones("snapshot");
+        long generacionSnapshot = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        long contador = 0;
+        if (generacionSnapshot > 0) {
+            contador = UsuarioSnapshot.cargar(archivoSnapshot(generacionSnapshot), consumidor);
+        }
+
+        List<Long> segmentos = generaciones("wal").stream()
+                .filter(segmento -> segmento >= generacionSnapshot)
+                .collect(Collectors.toList());
+        long registros = 0;
+        for (long segmento : segmentos) {
+            registros += reproducirSegmento(archivoLog(segmento), consumidor);
+        }
+
+        generacion = segmentos.isEmpty() ? Math.max(generacionSnapshot, 1) : segmentos.get(segmentos.size() - 1);
+        canal = FileChannel.open(archivoLog(generacion), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.position(canal.size());
+
+        log.info("Log de usuarios reproducido: snapshot {} y {} registros en {} segmentos",
+                generacionSnapshot, registros, segmentos.size());
+        return contador;
+    }
+
+    public void iniciar() {
+        escritor.start();
+    }
+
+    /**
+     * Anexa un registro al buffer pendiente. Debe invocarse dentro de la sección que
+     * aplica la mutación en memoria para que el orden del log coincida con el del mapa.
+     */
+    public void anexar(byte tipo, long id, UsuarioRefactorizado usuario) {
+        byte[] registro = codificar(tipo, id, usuario);
+
+        lock.lock();
+        try {
+            verificarEstado();
+            if (pendiente.remaining() < registro.length) {
+                pendiente = ampliar(pendiente, registro.length);
+            }
+            pendiente.put(registro);
+            ultimaSecuenciaDelHilo.get()[0] = ++secuenciaAnexada;
+            hayPendientes.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bloquea hasta que el último registro anexado por este hilo esté en disco.
+     */
+    public void sincronizar() {
+        long objetivo = ultimaSecuenciaDelHilo.get()[0];
+        if (secuenciaPersistida >= objetivo) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            while (secuenciaPersistida < objetivo) {
+                if (error != null) {
+                    throw new UncheckedIOException("El log de usuarios no está disponible", error);
+                }
+                persistido.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras se esperaba la persistencia del log", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra el segmento actual y abre uno nuevo. Todo registro anexado antes de la
+     * llamada queda en segmentos anteriores a la generación devuelta.
+     */
+    public long rotar() throws IOException {
+        CompletableFuture<Void> lista = new CompletableFuture<>();
+        long nueva;
+
+        lock.lock();
+        try {
+            verificarEstado();
+            if (rotacion != null) {
+                throw new IllegalStateException("Ya hay una rotación del log en curso");
+            }
+            nueva = generacion + 1;
+            generacion = nueva;
+            rotacion = new Rotacion(nueva, pendiente.position(), lista);
+            hayPendientes.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            lista.join();
+        } catch (CompletionException e) {
+            throw new IOException("No se pudo rotar el log de usuarios", e.getCause());
+        }
+        return nueva;
+    }
+
+    /**
+     * Borra los segmentos y snapshots que quedaron cubiertos por el snapshot de la generación indicada.
+     */
+    public void eliminarAnteriores(long generacionSnapshot) throws IOException {
+        for (String extension : List.of("wal", "snapshot")) {
+            for (long anterior : generaciones(extension)) {
+                if (anterior < generacionSnapshot) {
+                    Files.deleteIfExists(archivo(anterior, extension));
+                }
+            }
+        }
+    }
+
+    public Path archivoSnapshot(long generacionSnapshot) {
+        return archivo(generacionSnapshot, "snapshot");
+    }
+
+    // Snapshot de esa generación en un directorio de log que no está abierto
+    public static Path archivoSnapshot(Path directorio, long generacionSnapshot) {
+        return archivo(directorio, generacionSnapshot, "snapshot");
+    }
+
+    // Si el directorio tiene algo que reproducir: segmentos, snapshots o el log anterior de una pieza
+    public static boolean hayLog(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return false;
+        }
+        return Files.exists(directorio.resolve(ARCHIVO_LEGADO))
+                || !generaciones(directorio, "wal").isEmpty() || !generaciones(directorio, "snapshot").isEmpty();
+    }
+
+    // Tamaño del segmento actual: crece hasta el próximo snapshot
+    public long tamano() throws IOException {
+        return canal.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            cerrado = true;
+            hayPendientes.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            if (escritor.isAlive()) {
+                escritor.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (canal != null) {
+            canal.close();
+        }
+    }
+
+    private long reproducirSegmento(Path archivo, ConsumidorRegistro consumidor) throws IOException {
+        try (FileChannel lectura = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(TAMANO_BUFFER_LECTURA);
+            CRC32 crc = new CRC32();
+            long offsetLectura = 0;
+            long finValido = 0;
+            long registros = 0;
+            boolean corrupto = false;
+
+            while (!corrupto) {
+                int leidos = lectura.read(buffer, offsetLectura);
+                if (leidos > 0) {
+                    offsetLectura += leidos;
+                }
+                buffer.flip();
+
+                while (buffer.remaining() >= CABECERA) {
+                    int inicio = buffer.position();
+                    int longitud = buffer.getInt(inicio);
+                    if (longitud <= 0 || longitud > TAMANO_MAXIMO_REGISTRO) {
+                        corrupto = true;
+                        break;
+                    }
+                    if (buffer.remaining() < CABECERA + longitud) {
+                        break;
+                    }
+
+                    crc.reset();
+                    crc.update(buffer.array(), inicio + CABECERA, longitud);
+                    if ((int) crc.getValue() != buffer.getInt(inicio + Integer.BYTES)) {
+                        corrupto = true;
+                        break;
+                    }
+
+                    buffer.position(inicio + CABECERA);
+                    byte tipo = buffer.get();
+                    long id = buffer.getLong();
+                    UsuarioRefactorizado usuario = tipo != ELIMINAR ? CodecUsuario.leer(buffer, id, inicio + CABECERA + longitud) : null;
+                    consumidor.aplicar(tipo, id, usuario);
+
+                    buffer.position(inicio + CABECERA + longitud);
+                    finValido += CABECERA + longitud;
+                    registros++;
+                }
+
+                buffer.compact();
+                if (leidos <= 0) {
+                    break;
+                }
+            }
+
+            if (finValido < lectura.size()) {
+                log.warn("Se descartan {} bytes incompletos o corruptos al final de {}", lectura.size() - finValido, archivo);
+                lectura.truncate(finValido);
+            }
+            return registros;
+        }
+    }
+
+    private void escribirEnGrupo() {
+        ByteBuffer lote = ByteBuffer.allocate(CAPACIDAD_INICIAL);
+        while (true) {
+            long hasta;
+            Rotacion rotacionPedida;
+            lock.lock();
+            try {
+                while (pendiente.position() == 0 && rotacion == null && !cerrado) {
+                    hayPendientes.awaitUninterruptibly();
+                }
+                if (pendiente.position() == 0 && rotacion == null) {
+                    return;
+                }
+                ByteBuffer llenos = pendiente;
+                pendiente = lote;
+                lote = llenos;
+                hasta = secuenciaAnexada;
+                rotacionPedida = rotacion;
+                rotacion = null;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                lote.flip();
+                if (rotacionPedida != null) {
+                    escribirHasta(lote, rotacionPedida.corte());
+                    FileChannel anterior = canal;
+                    canal = FileChannel.open(archivoLog(rotacionPedida.generacion()),
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    anterior.close();
+                }
+                escribirHasta(lote, lote.limit());
+                lote.clear();
+            } catch (IOException e) {
+                log.error("Error escribiendo el log de usuarios en {}", directorio, e);
+                lock.lock();
+                try {
+                    error = e;
+                    persistido.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                if (rotacionPedida != null) {
+                    rotacionPedida.lista().completeExceptionally(e);
+                }
+                return;
+            }
+
+            if (rotacionPedida != null) {
+                rotacionPedida.lista().complete(null);
+            }
+            lock.lock();
+            try {
+                secuenciaPersistida = hasta;
+                persistido.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void escribirHasta(ByteBuffer lote, int fin) throws IOException {
+        int limite = lote.limit();
+        lote.limit(fin);
+        while (lote.hasRemaining()) {
+            canal.write(lote);
+        }
+        canal.force(false);
+        lote.limit(limite);
+    }
+
+    private void verificarEstado() {
+        if (error != null) {
+            throw new UncheckedIOException("El log de usuarios no está disponible", error);
+        }
+        if (cerrado) {
+            throw new IllegalStateException("El log de usuarios está cerrado");
+        }
+    }
+
+    // El log legado contiene toda la historia anterior a las generaciones, así que pasa a ser la primera
+    private void migrarLogLegado() throws IOException {
+        Path legado = directorio.resolve(ARCHIVO_LEGADO);
+        if (!Files.exists(legado)) {
+            return;
+        }
+        if (!generaciones("wal").isEmpty() || !generaciones("snapshot").isEmpty()) {
+            // Sus IDs se solaparían con los asignados después: no hay un orden correcto para combinarlos
+            throw new IllegalStateException(String.format(
+                    "%s tiene el log anterior %s junto a segmentos por generación; debe resolverse a mano",
+                    directorio, ARCHIVO_LEGADO));
+        }
+        Files.move(legado, archivoLog(1), StandardCopyOption.ATOMIC_MOVE);
+        log.info("Log anterior {} migrado a {}", legado, archivoLog(1).getFileName());
+    }
+
+    private List<Long> generaciones(String extension) throws IOException {
+        return generaciones(directorio, extension);
+    }
+
+    private static List<Long> generaciones(Path directorio, String extension) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .map(archivo -> ARCHIVO_GENERACION.matcher(archivo.getFileName().toString()))
+                    .filter(coincidencia -> coincidencia.matches() && coincidencia.group(2).equals(extension))
+                    .map(coincidencia -> Long.parseLong(coincidencia.group(1)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path archivoLog(long generacionLog) {
+        return archivo(generacionLog, "wal");
+    }
+
+    private Path archivo(long generacionArchivo, String extension) {
+        return archivo(directorio, generacionArchivo, extension);
+    }
+
+    private static Path archivo(Path directorio, long generacionArchivo, String extension) {
+        return directorio.resolve(String.format("usuarios-%012d.%s", generacionArchivo, extension));
+    }
+
+    private static byte[] codificar(byte tipo, long id, UsuarioRefactorizado usuario) {
+        byte[] datos = usuario != null ? CodecUsuario.codificar(usuario) : new byte[0];
+        int longitud = Byte.BYTES + Long.BYTES + datos.length;
+
+        ByteBuffer registro = ByteBuffer.allocate(CABECERA + longitud);
+        registro.putInt(longitud);
+        registro.putInt(0);
+        registro.put(tipo);
+        registro.putLong(id);
+        registro.put(datos);
+
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), CABECERA, longitud);
+        registro.putInt(Integer.BYTES, (int) crc.getValue());
+        return registro.array();
+    }
+
+    private static ByteBuffer ampliar(ByteBuffer actual, int adicional) {
+        int capacidad = Math.max(actual.capacity() * 2, actual.position() + adicional);
+        ByteBuffer ampliado = ByteBuffer.allocate(capacidad);
+        actual.flip();
+        ampliado.put(actual);
+        return ampliado;
+    }
+}
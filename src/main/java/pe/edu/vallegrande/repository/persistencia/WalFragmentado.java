@@ -0,0 +1,170 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenFragmentado;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * El log de un almacén fragmentado: cada fragmento es un {@link AlmacenConWal} con su propio
+ * {@link UsuarioWal} en {@code <directorio>/fragmentos-N/<i>}, así que los escritores de
+ * fragmentos distintos no comparten el lock del log, el hilo del group commit ni la barrera
+ * de los snapshots, y cada fragmento toma sus snapshots por su cuenta. Con un solo fragmento
+ * es el log de siempre, directo en {@code <directorio>}.
+ *
+ * <p>Cada log se reproduce solo sobre su fragmento, así que depende de la cantidad de
+ * fragmentos. Si al abrir se encuentra el de otra cantidad se reparte: se carga en memoria,
+ * se escribe un snapshot por fragmento nuevo (con el contador de IDs del anterior, para no
+ * reutilizar IDs eliminados) y recién después se borra el anterior. Si conviven el log de la
+ * cantidad pedida y el de otra, el arranque falla: no hay forma segura de elegir.</p>
+ */
+@Slf4j
+public class WalFragmentado implements Closeable {
+
+    private static final Pattern DIRECTORIO_FRAGMENTOS = Pattern.compile("fragmentos-(\\d+)");
+    private static final String SUFIJO_TEMPORAL = ".tmp";
+
+    private final List<UsuarioWal> wals = new ArrayList<>();
+    private final List<AlmacenConWal> fragmentos = new ArrayList<>();
+    private final AlmacenUsuarios almacen;
+
+    public WalFragmentado(Path directorio, int cantidad, Supplier<AlmacenUsuarios> motor) throws IOException {
+        int n = Math.max(cantidad, 1);
+        Path destino = n == 1 ? directorio : directorio.resolve("fragmentos-" + n);
+        Files.createDirectories(directorio);
+        repartirAnterior(directorio, destino, n);
+        try {
+            for (int i = 0; i < n; i++) {
+                UsuarioWal wal = new UsuarioWal(n == 1 ? destino : destino.resolve(String.valueOf(i)));
+                wals.add(wal);
+                fragmentos.add(new AlmacenConWal(motor.get(), wal));
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        this.almacen = n == 1 ? fragmentos.get(0) : new AlmacenFragmentado(fragmentos);
+    }
+
+    // El almacén para el repositorio: el único AlmacenConWal, o los de cada fragmento repartidos por bloque
+    public AlmacenUsuarios almacen() {
+        return almacen;
+    }
+
+    public List<AlmacenConWal> fragmentos() {
+        return fragmentos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (UsuarioWal wal : wals) {
+            wal.close();
+        }
+    }
+
+    private static void repartirAnterior(Path directorio, Path destino, int cantidad) throws IOException {
+        List<Path> anteriores = new ArrayList<>();
+        if (cantidad != 1 && UsuarioWal.hayLog(directorio)) {
+            anteriores.add(directorio);
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(archivo -> !archivo.equals(destino) && cantidadDe(archivo) > 0)
+                    .sorted()
+                    .forEach(anteriores::add);
+        }
+        if (anteriores.isEmpty()) {
+            return;
+        }
+        boolean hayDestino = cantidad == 1 ? UsuarioWal.hayLog(directorio) : Files.isDirectory(destino);
+        if (hayDestino || anteriores.size() > 1) {
+            throw new IllegalStateException(String.format(
+                    "%s tiene logs de distintas cantidades de fragmentos (%s); debe resolverse a mano",
+                    directorio, anteriores));
+        }
+
+        Path anterior = anteriores.get(0);
+        AlmacenUsuarios[] repartidos = new AlmacenUsuarios[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            repartidos[i] = new AlmacenEnHeap();
+        }
+        long contador = 0;
+        List<Path> logsAnteriores = anterior.equals(directorio) ? List.of(directorio) : subdirectorios(anterior);
+        for (Path logAnterior : logsAnteriores) {
+            contador = Math.max(contador, cargar(logAnterior, repartidos));
+        }
+        for (AlmacenUsuarios fragmento : repartidos) {
+            contador = Math.max(contador, fragmento.ultimoIdAsignado() + 1);
+        }
+
+        // Con varios fragmentos los snapshots aparecen todos juntos al renombrar el directorio
+        Path escritura = cantidad == 1 ? directorio : directorio.resolve(destino.getFileName() + SUFIJO_TEMPORAL);
+        if (cantidad != 1) {
+            borrar(escritura);
+        }
+        for (int i = 0; i < cantidad; i++) {
+            Path fragmento = cantidad == 1 ? escritura : Files.createDirectories(escritura.resolve(String.valueOf(i)));
+            UsuarioSnapshot.escribir(UsuarioWal.archivoSnapshot(fragmento, 1), contador, repartidos[i].recorrerDesde(0L));
+        }
+        if (cantidad != 1) {
+            Files.move(escritura, destino, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        if (anterior.equals(directorio)) {
+            try (UsuarioWal wal = new UsuarioWal(directorio)) {
+                wal.eliminarAnteriores(Long.MAX_VALUE);
+            }
+        } else {
+            borrar(anterior);
+        }
+        log.info("Log de {} repartido en {} fragmentos en {}", anterior, cantidad, destino);
+    }
+
+    // Reproduce un log ya cerrado sobre los fragmentos nuevos; devuelve el contador de su snapshot
+    private static long cargar(Path directorio, AlmacenUsuarios[] repartidos) throws IOException {
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            return wal.reproducir((tipo, id, usuario) -> {
+                AlmacenUsuarios fragmento = repartidos[AlmacenFragmentado.fragmento(id, repartidos.length)];
+                if (tipo == UsuarioWal.ELIMINAR) {
+                    fragmento.quitar(id);
+                } else {
+                    fragmento.poner(id, usuario);
+                }
+            });
+        }
+    }
+
+    private static int cantidadDe(Path archivo) {
+        Matcher coincidencia = DIRECTORIO_FRAGMENTOS.matcher(archivo.getFileName().toString());
+        return coincidencia.matches() && Files.isDirectory(archivo) ? Integer.parseInt(coincidencia.group(1)) : 0;
+    }
+
+    private static List<Path> subdirectorios(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(Files::isDirectory).sorted().toList();
+        }
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        if (!Files.exists(directorio)) {
+            return;
+        }
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(archivo);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package pe.edu.vallegrande.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.CoincidenciaUsuario;
+import pe.edu.vallegrande.model.EventoCambio;
+import pe.edu.vallegrande.model.PaginaUsuarios;
+import pe.edu.vallegrande.model.ResultadoLote;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryReactivo;
+import pe.edu.vallegrande.service.cache.CacheRespuestasUsuario;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Misma lógica que {@link UsuarioServiceRefactorizado} (validaciones, normalización, caché de
+ * respuestas), expuesta como {@link Mono}/{@link Flux} para la API reactiva. Lecturas y
+ * escrituras pasan por el adaptador reactivo: las escrituras salen siempre del event loop
+ * mientras esperan el WAL, y las lecturas solo cuando el motor no las resuelve en memoria.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UsuarioServiceReactivo {
+
+    private final UsuarioServiceRefactorizado usuarioService;
+    private final UsuarioRepositoryReactivo usuarioRepository;
+
+    public Mono<UsuarioRefactorizado> crear(UsuarioRefactorizado usuario) {
+        return usuarioRepository.escribir(() -> usuarioService.crear(usuario));
+    }
+
+    public Mono<ResultadoLote> crearLote(List<UsuarioRefactorizado> usuarios) {
+        return usuarioRepository.escribir(() -> usuarioService.crearLote(usuarios));
+    }
+
+    public Mono<PaginaUsuarios> obtenerPagina(Long despuesDeId, String cursor, int limite) {
+        return usuarioRepository.leer(() -> usuarioService.obtenerPagina(despuesDeId, cursor, limite));
+    }
+
+    public Mono<PaginaUsuarios> buscar(String nombrePrefijo, Integer edadMinima, Integer edadMaxima,
+                                       String telefono, String cursor, int limite) {
+        return usuarioRepository.leer(() ->
+                usuarioService.buscar(nombrePrefijo, edadMinima, edadMaxima, telefono, cursor, limite));
+    }
+
+    public Mono<List<CoincidenciaUsuario>> buscarAproximado(String consulta, int limite) {
+        return usuarioRepository.leer(() -> usuarioService.buscarAproximado(consulta, limite));
+    }
+
+    // Con backpressure: el recorrido avanza al ritmo en que el cliente consume
+    public Flux<UsuarioRefactorizado> recorrer(long despuesDeId) {
+        log.debug("Recorriendo usuarios después de ID: {}", despuesDeId);
+        return usuarioRepository.recorrerDesde(despuesDeId);
+    }
+
+    public Flux<EventoCambio> cambios(String ultimoCursor) {
+        return usuarioService.cambios(ultimoCursor);
+    }
+
+    public Mono<CacheRespuestasUsuario.Respuesta> obtenerRespuestaPorId(Long id) {
+        return usuarioRepository.leer(() -> usuarioService.obtenerRespuestaPorId(id));
+    }
+
+    public Mono<UsuarioRefactorizado> actualizar(Long id, UsuarioRefactorizado usuario, Long versionEsperada) {
+        return usuarioRepository.escribir(() -> usuarioService.actualizar(id, usuario, versionEsperada));
+    }
+
+    public Mono<UsuarioRefactorizado> aplicarCambios(Long id, CambiosUsuario cambios, Long versionEsperada) {
+        return usuarioRepository.escribir(() -> usuarioService.aplicarCambios(id, cambios, versionEsperada));
+    }
+
+    public Mono<Void> eliminar(Long id) {
+        return usuarioRepository.escribir(() -> {
+            usuarioService.eliminar(id);
+            return null;
+        }).then();
+    }
+}
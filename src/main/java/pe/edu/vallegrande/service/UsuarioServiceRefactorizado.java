@@ -5,21 +5,47 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import pe.edu.vallegrande.exception.EmailDuplicadoException;
 import pe.edu.vallegrande.exception.UsuarioNotFoundException;
+import pe.edu.vallegrande.exception.VersionConflictoException;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.CoincidenciaUsuario;
+import pe.edu.vallegrande.model.CriteriosBusqueda;
+import pe.edu.vallegrande.model.EventoCambio;
+import pe.edu.vallegrande.model.PaginaUsuarios;
+import pe.edu.vallegrande.model.ResultadoCreacion;
+import pe.edu.vallegrande.model.ResultadoLote;
 import pe.edu.vallegrande.model.UsuarioRefactorizado;
 import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.repository.cambios.DifusorCambios;
+import pe.edu.vallegrande.service.cache.CacheRespuestasUsuario;
+import reactor.core.publisher.Flux;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UsuarioServiceRefactorizado {
     
+    private static final int LIMITE_MAXIMO_PAGINA = 1000;
+    public static final int LIMITE_MAXIMO_LOTE = 100_000;
+    private static final int LIMITE_MAXIMO_APROXIMADO = 100;
+    private static final int LONGITUD_MINIMA_CONSULTA = 2;
+    // Mismo umbral por defecto que pg_trgm
+    private static final double UMBRAL_SIMILITUD = 0.3;
+    
     private final UsuarioRepositoryRefactorizado usuarioRepository;
     private final UsuarioValidationService validationService;
+    private final CacheRespuestasUsuario respuestasCache;
+    private final DifusorCambios difusorCambios;
     
     public UsuarioRefactorizado crear(UsuarioRefactorizado usuario) {
-        log.info("Creando usuario con email: {}", usuario.getEmail());
+        log.debug("Creando usuario con email: {}", usuario.getEmail());
         
         validationService.validarUsuarioParaCreacion(usuario);
         usuario.normalizar();
@@ -30,39 +56,233 @@ public class UsuarioServiceRefactorizado {
         return usuarioGuardado;
     }
     
+    public ResultadoLote crearLote(List<UsuarioRefactorizado> usuarios) {
+        log.debug("Creando lote de {} usuarios", usuarios.size());
+        
+        if (usuarios.size() > LIMITE_MAXIMO_LOTE) {
+            throw new IllegalArgumentException(
+                String.format("El lote no puede superar los %d usuarios", LIMITE_MAXIMO_LOTE));
+        }
+        
+        // Una sola pasada: validación, normalización y unicidad de email (en el lote y en el almacén)
+        String[] errores = new String[usuarios.size()];
+        List<UsuarioRefactorizado> aceptados = new ArrayList<>(usuarios.size());
+        Set<String> emailsDelLote = new HashSet<>(usuarios.size() * 2);
+        
+        for (int i = 0; i < usuarios.size(); i++) {
+            UsuarioRefactorizado usuario = usuarios.get(i);
+            errores[i] = validarItemDeLote(usuario, emailsDelLote);
+            if (errores[i] == null) {
+                aceptados.add(usuario);
+            }
+        }
+        
+        int creados = usuarioRepository.guardarLote(aceptados).size();
+        
+        // Los que el repositorio dejó sin ID perdieron el email frente a un alta concurrente
+        List<ResultadoCreacion> resultados = new ArrayList<>(usuarios.size());
+        for (int i = 0; i < usuarios.size(); i++) {
+            if (errores[i] == null && usuarios.get(i).getId() == null) {
+                errores[i] = "Ya existe un usuario con el email: " + usuarios.get(i).getEmail();
+            }
+            resultados.add(errores[i] == null
+                    ? ResultadoCreacion.exitoso(i, usuarios.get(i).getId())
+                    : ResultadoCreacion.fallido(i, errores[i]));
+        }
+        
+        log.info("Lote procesado: {} creados, {} fallidos", creados, usuarios.size() - creados);
+        return new ResultadoLote(creados, usuarios.size() - creados, resultados);
+    }
+    
     public List<UsuarioRefactorizado> obtenerTodos() {
         log.debug("Obteniendo todos los usuarios");
         return usuarioRepository.obtenerTodos();
     }
     
+    public PaginaUsuarios obtenerPagina(Long despuesDeId, String cursor, int limite) {
+        log.debug("Obteniendo página de usuarios (limite: {})", limite);
+        
+        validarLimite(limite);
+        Long inicio = cursor != null ? decodificarCursor(cursor) : despuesDeId;
+        
+        // Se pide un elemento extra para saber si existe una página siguiente
+        return armarPagina(usuarioRepository.obtenerPagina(inicio, limite + 1), limite);
+    }
+    
+    public PaginaUsuarios buscar(String nombrePrefijo, Integer edadMinima, Integer edadMaxima,
+                                 String telefono, String cursor, int limite) {
+        log.debug("Buscando usuarios (nombre: {}, edad: {}-{}, telefono: {})", nombrePrefijo, edadMinima, edadMaxima, telefono);
+        
+        validarLimite(limite);
+        CriteriosBusqueda criterios = CriteriosBusqueda.builder()
+                .nombrePrefijo(textoONulo(nombrePrefijo) != null ? nombrePrefijo.trim().toUpperCase() : null)
+                .edadMinima(edadMinima)
+                .edadMaxima(edadMaxima)
+                .telefono(textoONulo(telefono))
+                .build();
+        validarCriterios(criterios);
+        Long inicio = cursor != null ? decodificarCursor(cursor) : null;
+        
+        return armarPagina(usuarioRepository.buscar(criterios, inicio, limite + 1), limite);
+    }
+    
+    public List<CoincidenciaUsuario> buscarAproximado(String consulta, int limite) {
+        log.debug("Búsqueda aproximada de usuarios: {}", consulta);
+        
+        if (consulta == null || consulta.trim().length() < LONGITUD_MINIMA_CONSULTA) {
+            throw new IllegalArgumentException(
+                String.format("La consulta debe tener al menos %d caracteres", LONGITUD_MINIMA_CONSULTA));
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO_APROXIMADO) {
+            throw new IllegalArgumentException(
+                String.format("El límite debe estar entre 1 y %d", LIMITE_MAXIMO_APROXIMADO));
+        }
+        
+        return usuarioRepository.buscarAproximado(consulta.trim(), UMBRAL_SIMILITUD, limite);
+    }
+    
+    public Stream<UsuarioRefactorizado> exportar() {
+        log.debug("Exportando todos los usuarios");
+        return usuarioRepository.recorrer();
+    }
+    
+    // Reemplaza el sondeo de la lista completa: solo viajan las mutaciones posteriores al cursor dado
+    public Flux<EventoCambio> cambios(String ultimoCursor) {
+        log.debug("Suscripción a cambios después del cursor: {}", ultimoCursor);
+        return difusorCambios.desde(ultimoCursor);
+    }
+    
     public UsuarioRefactorizado obtenerPorId(Long id) {
         log.debug("Obteniendo usuario por ID: {}", id);
         return usuarioRepository.obtenerPorId(id)
-                .orElseThrow(() -> new UsuarioNotFoundException(
-                    String.format("Usuario con ID %d no encontrado", id)));
+                .orElseThrow(() -> usuarioNoEncontrado(id));
+    }
+    
+    // JSON ya serializado con su ETag; se invalida en actualizar y eliminar
+    public CacheRespuestasUsuario.Respuesta obtenerRespuestaPorId(Long id) {
+        return respuestasCache.obtener(id, this::obtenerPorId);
     }
     
     public UsuarioRefactorizado actualizar(Long id, UsuarioRefactorizado usuario) {
-        log.info("Actualizando usuario con ID: {}", id);
+        return actualizar(id, usuario, null);
+    }
+    
+    // Con versionEsperada la escritura es condicional: el repositorio la compara de forma atómica
+    public UsuarioRefactorizado actualizar(Long id, UsuarioRefactorizado usuario, Long versionEsperada) {
+        log.debug("Actualizando usuario con ID: {}", id);
         
         UsuarioRefactorizado usuarioExistente = obtenerPorId(id);
+        // Descarta temprano una versión ya vencida sin pasar por la validación
+        if (versionEsperada != null && !versionEsperada.equals(usuarioExistente.getVersion())) {
+            throw new VersionConflictoException("El usuario con ID " + id + " está en la versión "
+                + usuarioExistente.getVersion() + ", no en la " + versionEsperada);
+        }
         validationService.validarUsuarioParaActualizacion(usuario, usuarioExistente);
         
         usuario.setId(id);
         usuario.normalizar();
         
-        UsuarioRefactorizado usuarioActualizado = usuarioRepository.actualizar(usuario);
-        log.info("Usuario actualizado exitosamente");
+        // Si se eliminó después de leerlo no se escribió nada: 404, no un ETag de una versión inexistente
+        UsuarioRefactorizado usuarioActualizado = usuarioRepository.actualizar(usuario, versionEsperada)
+                .orElseThrow(() -> usuarioNoEncontrado(id));
+        respuestasCache.invalidar(id);
+        log.info("Usuario actualizado exitosamente con ID: {}", id);
+        
+        return usuarioActualizado;
+    }
+    
+    // PATCH: sin lectura previa; la existencia, la versión y el email se resuelven en el repositorio
+    public UsuarioRefactorizado aplicarCambios(Long id, CambiosUsuario cambios, Long versionEsperada) {
+        log.debug("Aplicando cambios parciales al usuario con ID: {}", id);
+        
+        validationService.validarCambios(cambios);
+        cambios.normalizar();
+        
+        UsuarioRefactorizado usuarioActualizado = usuarioRepository.aplicarCambios(id, cambios, versionEsperada)
+                .orElseThrow(() -> usuarioNoEncontrado(id));
+        respuestasCache.invalidar(id);
         
+        log.info("Cambios parciales aplicados al usuario con ID: {}", id);
         return usuarioActualizado;
     }
     
     public void eliminar(Long id) {
-        log.info("Eliminando usuario con ID: {}", id);
+        log.debug("Eliminando usuario con ID: {}", id);
         
         obtenerPorId(id); // Verificar que existe
         usuarioRepository.eliminar(id);
+        respuestasCache.invalidar(id);
+        
+        log.info("Usuario eliminado exitosamente con ID: {}", id);
+    }
+    
+    private void validarLimite(int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException(
+                String.format("El límite debe estar entre 1 y %d", LIMITE_MAXIMO_PAGINA));
+        }
+    }
+    
+    private void validarCriterios(CriteriosBusqueda criterios) {
+        if (criterios.getNombrePrefijo() == null && !criterios.filtraPorEdad() && criterios.getTelefono() == null) {
+            throw new IllegalArgumentException("Debe indicar al menos un criterio de búsqueda");
+        }
+        if (criterios.getEdadMinima() != null && criterios.getEdadMaxima() != null
+                && criterios.getEdadMinima() > criterios.getEdadMaxima()) {
+            throw new IllegalArgumentException("La edad mínima no puede ser mayor que la edad máxima");
+        }
+    }
+    
+    // La página llega con un elemento extra cuando existe una siguiente
+    private PaginaUsuarios armarPagina(List<UsuarioRefactorizado> usuarios, int limite) {
+        String siguienteCursor = null;
+        if (usuarios.size() > limite) {
+            usuarios = usuarios.subList(0, limite);
+            siguienteCursor = codificarCursor(usuarios.get(limite - 1).getId());
+        }
         
-        log.info("Usuario eliminado exitosamente");
+        return new PaginaUsuarios(usuarios, siguienteCursor);
+    }
+    
+    private static UsuarioNotFoundException usuarioNoEncontrado(Long id) {
+        return new UsuarioNotFoundException("Usuario con ID " + id + " no encontrado");
+    }
+    
+    private static String textoONulo(String valor) {
+        return valor != null && !valor.isBlank() ? valor.trim() : null;
+    }
+    
+    private String validarItemDeLote(UsuarioRefactorizado usuario, Set<String> emailsDelLote) {
+        if (usuario == null) {
+            return "El usuario es obligatorio";
+        }
+        
+        String error = validationService.buscarErrorDatosBasicos(usuario).orElse(null);
+        if (error != null) {
+            return error;
+        }
+        
+        usuario.normalizar();
+        if (!emailsDelLote.add(usuario.getEmail())) {
+            return "El email está repetido dentro del lote: " + usuario.getEmail();
+        }
+        if (usuarioRepository.existeEmail(usuario.getEmail())) {
+            return "Ya existe un usuario con el email: " + usuario.getEmail();
+        }
+        return null;
+    }
+    
+    private String codificarCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    private Long decodificarCursor(String cursor) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            return Long.valueOf(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("El cursor de paginación no es válido");
+        }
     }
 }
\ No newline at end of file
@@ -1,65 +1,112 @@
 package pe.edu.vallegrande.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import pe.edu.vallegrande.exception.EmailDuplicadoException;
+import pe.edu.vallegrande.model.CambiosUsuario;
 import pe.edu.vallegrande.model.UsuarioRefactorizado;
 import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.validation.ReglasUsuario;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 public class UsuarioValidationService {
     
     private final UsuarioRepositoryRefactorizado usuarioRepository;
     
-    public void validarUsuarioParaCreacion(UsuarioRefactorizado usuario) {
-        validarDatosBasicos(usuario);
-        validarEmailUnico(usuario.getEmail());
+    // Timers resueltos al construir: cada validación solo suma dos nanoTime y un record
+    private final Timer tiempoCreacion;
+    private final Timer tiempoActualizacion;
+    private final Timer tiempoCambios;
+    private final Timer tiempoLote;
+    
+    public UsuarioValidationService(UsuarioRepositoryRefactorizado usuarioRepository) {
+        this(usuarioRepository, new SimpleMeterRegistry());
     }
     
-    public void validarUsuarioParaActualizacion(UsuarioRefactorizado usuario, UsuarioRefactorizado usuarioExistente) {
-        validarDatosBasicos(usuario);
-        
-        // Solo validar email único si cambió
-        if (!usuario.getEmail().equals(usuarioExistente.getEmail())) {
+    @Autowired
+    public UsuarioValidationService(UsuarioRepositoryRefactorizado usuarioRepository, MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.tiempoCreacion = registrarTiempo(meterRegistry, "creacion");
+        this.tiempoActualizacion = registrarTiempo(meterRegistry, "actualizacion");
+        this.tiempoCambios = registrarTiempo(meterRegistry, "cambios");
+        this.tiempoLote = registrarTiempo(meterRegistry, "lote");
+    }
+    
+    public void validarUsuarioParaCreacion(UsuarioRefactorizado usuario) {
+        long inicio = System.nanoTime();
+        try {
+            validarDatosBasicos(usuario);
             validarEmailUnico(usuario.getEmail());
+        } finally {
+            medir(tiempoCreacion, inicio);
         }
     }
     
-    private void validarDatosBasicos(UsuarioRefactorizado usuario) {
-        if (usuario.getNombre() == null || usuario.getNombre().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre es obligatorio");
-        }
-        
-        if (usuario.getNombre().trim().length() < 2) {
-            throw new IllegalArgumentException("El nombre debe tener al menos 2 caracteres");
-        }
-        
-        if (usuario.getEmail() == null || usuario.getEmail().trim().isEmpty()) {
-            throw new IllegalArgumentException("El email es obligatorio");
+    public void validarUsuarioParaActualizacion(UsuarioRefactorizado usuario, UsuarioRefactorizado usuarioExistente) {
+        long inicio = System.nanoTime();
+        try {
+            validarDatosBasicos(usuario);
+            
+            // Solo validar email único si cambió
+            if (!usuario.getEmail().equals(usuarioExistente.getEmail())) {
+                validarEmailUnico(usuario.getEmail());
+            }
+        } finally {
+            medir(tiempoActualizacion, inicio);
         }
-        
-        if (!isValidEmail(usuario.getEmail())) {
-            throw new IllegalArgumentException("El formato del email no es válido");
+    }
+    
+    // La unicidad de un email nuevo la resuelve el repositorio dentro de la misma escritura
+    public void validarCambios(CambiosUsuario cambios) {
+        long inicio = System.nanoTime();
+        try {
+            String error = ReglasUsuario.buscarError(cambios);
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+        } finally {
+            medir(tiempoCambios, inicio);
         }
-        
-        if (usuario.getEdad() == null || usuario.getEdad() <= 0) {
-            throw new IllegalArgumentException("La edad debe ser mayor a 0");
+    }
+    
+    // Variante para lotes: devuelve el primer error sin lanzar excepciones
+    public Optional<String> buscarErrorDatosBasicos(UsuarioRefactorizado usuario) {
+        long inicio = System.nanoTime();
+        try {
+            return Optional.ofNullable(ReglasUsuario.buscarError(usuario));
+        } finally {
+            medir(tiempoLote, inicio);
         }
-        
-        if (usuario.getEdad() > 120) {
-            throw new IllegalArgumentException("La edad debe ser menor a 120 años");
+    }
+    
+    private void validarDatosBasicos(UsuarioRefactorizado usuario) {
+        String error = ReglasUsuario.buscarError(usuario);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
         }
     }
     
+    private static Timer registrarTiempo(MeterRegistry meterRegistry, String operacion) {
+        return Timer.builder("usuarios.validacion")
+                .description("Duración de la validación de usuarios")
+                .tag("operacion", operacion)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    private static void medir(Timer tiempo, long inicio) {
+        tiempo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+    
     private void validarEmailUnico(String email) {
         if (usuarioRepository.existeEmail(email)) {
-            throw new EmailDuplicadoException(
-                String.format("Ya existe un usuario con el email: %s", email));
+            throw new EmailDuplicadoException("Ya existe un usuario con el email: " + email);
         }
     }
-    
-    private boolean isValidEmail(String email) {
-        return email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package pe.edu.vallegrande.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CacheRespuestasProperties.class)
+public class CacheRespuestasConfiguracion {
+
+    @Bean
+    public CacheRespuestasUsuario cacheRespuestasUsuario(ObjectMapper objectMapper, CacheRespuestasProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new CacheRespuestasUsuario(objectMapper, properties.getTamanoMaximo().toBytes(), meterRegistry);
+    }
+}
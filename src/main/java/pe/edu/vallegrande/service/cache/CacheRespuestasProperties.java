@@ -0,0 +1,13 @@
+package pe.edu.vallegrande.service.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "usuarios.cache")
+public class CacheRespuestasProperties {
+
+    // Suma máxima de los JSON guardados; con 0 la caché no retiene nada
+    private DataSize tamanoMaximo = DataSize.ofMegabytes(64);
+}
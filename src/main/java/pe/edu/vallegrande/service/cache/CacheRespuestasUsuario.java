@@ -0,0 +1,64 @@
+package pe.edu.vallegrande.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.io.UncheckedIOException;
+import java.util.function.LongFunction;
+
+/**
+ * Respuestas de {@code GET /api/v2/usuarios/{id}} ya serializadas, con su ETag fuerte: la
+ * versión del usuario, que el repositorio incrementa en cada actualización. La expulsión
+ * es W-TinyLFU de Caffeine y el límite se mide en bytes de JSON.
+ *
+ * <p>La carga corre dentro del cómputo atómico de la clave, así que un {@link #invalidar}
+ * que llega mientras se serializa una versión vieja espera a que termine y la descarta. Por
+ * eso el servicio invalida después de escribir en el repositorio, nunca antes.</p>
+ */
+public class CacheRespuestasUsuario {
+
+    public static final String NOMBRE = "usuarios.respuestas";
+
+    // Cabecera aproximada de la entrada, el arreglo y el ETag, para que el peso no sea solo el JSON
+    private static final int SOBRECARGA_ENTRADA = 160;
+
+    private final Cache<Long, Respuesta> cache;
+    private final ObjectWriter writer;
+
+    public CacheRespuestasUsuario(ObjectMapper objectMapper, long tamanoMaximo, MeterRegistry meterRegistry) {
+        this.writer = objectMapper.writerFor(UsuarioRefactorizado.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(tamanoMaximo)
+                .<Long, Respuesta>weigher((id, respuesta) -> respuesta.json().length + SOBRECARGA_ENTRADA)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE);
+    }
+
+    public Respuesta obtener(long id, LongFunction<UsuarioRefactorizado> cargador) {
+        return cache.get(id, clave -> serializar(cargador.apply(clave)));
+    }
+
+    public void invalidar(long id) {
+        cache.invalidate(id);
+    }
+
+    private Respuesta serializar(UsuarioRefactorizado usuario) {
+        try {
+            byte[] json = writer.writeValueAsBytes(usuario);
+            return new Respuesta(json, "\"" + usuario.getVersion() + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // El ETag ya va entre comillas, listo para la cabecera
+    public record Respuesta(byte[] json, String etag) {
+    }
+}
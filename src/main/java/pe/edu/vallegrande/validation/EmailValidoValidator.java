@@ -0,0 +1,13 @@
+package pe.edu.vallegrande.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class EmailValidoValidator implements ConstraintValidator<EmailValido, String> {
+
+    @Override
+    public boolean isValid(String email, ConstraintValidatorContext context) {
+        // La obligatoriedad la cubre @NotBlank
+        return email == null || ReglasUsuario.esEmailValido(email);
+    }
+}
@@ -0,0 +1,179 @@
+package pe.edu.vallegrande.validation;
+
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+/**
+ * Motor único de reglas de usuario. Se evalúa en una sola pasada, sin expresiones
+ * regulares ni excepciones: devuelve el primer error encontrado o {@code null}.
+ * Las anotaciones de Bean Validation y {@code UsuarioValidationService} delegan aquí.
+ */
+public final class ReglasUsuario {
+
+    public static final int NOMBRE_LONGITUD_MINIMA = 2;
+    public static final int NOMBRE_LONGITUD_MAXIMA = 100;
+    public static final int EDAD_MINIMA = 1;
+    public static final int EDAD_MAXIMA = 120;
+    public static final int TELEFONO_DIGITOS_MINIMOS = 9;
+    public static final int TELEFONO_DIGITOS_MAXIMOS = 15;
+
+    private static final int TLD_LONGITUD_MINIMA = 2;
+
+    private ReglasUsuario() {
+    }
+
+    public static String buscarError(UsuarioRefactorizado usuario) {
+        String error = buscarErrorNombre(usuario.getNombre());
+        if (error == null) {
+            error = buscarErrorEmail(usuario.getEmail());
+        }
+        if (error == null) {
+            error = buscarErrorEdad(usuario.getEdad());
+        }
+        if (error == null && !esTelefonoValido(usuario.getTelefono())) {
+            error = "El formato del teléfono no es válido";
+        }
+        return error;
+    }
+
+    // Para PATCH: solo los campos presentes; un null explícito en un campo obligatorio es un error
+    public static String buscarError(CambiosUsuario cambios) {
+        String error = null;
+        if (cambios.tieneNombre()) {
+            error = buscarErrorNombre(cambios.getNombre());
+        }
+        if (error == null && cambios.tieneEmail()) {
+            error = buscarErrorEmail(cambios.getEmail());
+        }
+        if (error == null && cambios.tieneEdad()) {
+            error = buscarErrorEdad(cambios.getEdad());
+        }
+        if (error == null && cambios.tieneTelefono() && !esTelefonoValido(cambios.getTelefono())) {
+            error = "El formato del teléfono no es válido";
+        }
+        return error;
+    }
+
+    public static String buscarErrorNombre(String nombre) {
+        int longitud = nombre == null ? 0 : longitudSinEspacios(nombre);
+        if (longitud == 0) {
+            return "El nombre es obligatorio";
+        }
+        if (longitud < NOMBRE_LONGITUD_MINIMA) {
+            return "El nombre debe tener al menos 2 caracteres";
+        }
+        if (nombre.length() > NOMBRE_LONGITUD_MAXIMA) {
+            return "El nombre debe tener como máximo 100 caracteres";
+        }
+        return null;
+    }
+
+    public static String buscarErrorEmail(String email) {
+        if (email == null || longitudSinEspacios(email) == 0) {
+            return "El email es obligatorio";
+        }
+        if (!esEmailValido(email)) {
+            return "El formato del email no es válido";
+        }
+        return null;
+    }
+
+    public static String buscarErrorEdad(Integer edad) {
+        if (edad == null || edad < EDAD_MINIMA) {
+            return "La edad debe ser mayor a 0";
+        }
+        if (edad > EDAD_MAXIMA) {
+            return "La edad debe ser menor a 120 años";
+        }
+        return null;
+    }
+
+    /**
+     * Equivalente a {@code ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$} recorriendo
+     * la cadena una sola vez.
+     */
+    public static boolean esEmailValido(CharSequence email) {
+        if (email == null) {
+            return false;
+        }
+
+        int longitud = email.length();
+        int arroba = -1;
+        int ultimoPunto = -1;
+        for (int i = 0; i < longitud; i++) {
+            char c = email.charAt(i);
+            if (arroba < 0) {
+                if (c == '@') {
+                    arroba = i;
+                } else if (!esCaracterLocal(c)) {
+                    return false;
+                }
+            } else if (c == '.') {
+                ultimoPunto = i;
+            } else if (!esLetraODigito(c) && c != '-') {
+                return false;
+            }
+        }
+
+        // Parte local no vacía, al menos un carácter de dominio antes del último punto
+        if (arroba < 1 || ultimoPunto < arroba + 2 || longitud - ultimoPunto - 1 < TLD_LONGITUD_MINIMA) {
+            return false;
+        }
+        for (int i = ultimoPunto + 1; i < longitud; i++) {
+            if (!esLetra(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Equivalente a {@code ^\+?[0-9]{9,15}$}; el teléfono es opcional.
+     */
+    public static boolean esTelefonoValido(CharSequence telefono) {
+        if (telefono == null) {
+            return true;
+        }
+
+        int inicio = telefono.length() > 0 && telefono.charAt(0) == '+' ? 1 : 0;
+        int digitos = telefono.length() - inicio;
+        if (digitos < TELEFONO_DIGITOS_MINIMOS || digitos > TELEFONO_DIGITOS_MAXIMOS) {
+            return false;
+        }
+        for (int i = inicio; i < telefono.length(); i++) {
+            if (!esDigito(telefono.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Longitud equivalente a trim().length() sin crear una nueva cadena
+    private static int longitudSinEspacios(String valor) {
+        int inicio = 0;
+        int fin = valor.length();
+        while (inicio < fin && valor.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && valor.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        return fin - inicio;
+    }
+
+    private static boolean esCaracterLocal(char c) {
+        return esLetraODigito(c) || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    private static boolean esLetraODigito(char c) {
+        return esLetra(c) || esDigito(c);
+    }
+
+    private static boolean esLetra(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean esDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
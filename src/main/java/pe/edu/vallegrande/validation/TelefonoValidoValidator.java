@@ -0,0 +1,12 @@
+package pe.edu.vallegrande.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class TelefonoValidoValidator implements ConstraintValidator<TelefonoValido, String> {
+
+    @Override
+    public boolean isValid(String telefono, ConstraintValidatorContext context) {
+        return ReglasUsuario.esTelefonoValido(telefono);
+    }
+}
@@ -0,0 +1,123 @@
+package pe.edu.vallegrande.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import pe.edu.vallegrande.exception.UsuarioNotFoundException;
+import pe.edu.vallegrande.exception.VersionConflictoException;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.service.UsuarioServiceReactivo;
+import pe.edu.vallegrande.service.cache.CacheRespuestasUsuario;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(UsuarioControllerReactivo.class)
+class UsuarioControllerReactivoTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private UsuarioServiceReactivo usuarioService;
+
+    @Test
+    void testObtenerPorIdDevuelveEtagY304SiNoCambio() {
+        byte[] json = "{\"id\":1,\"nombre\":\"ANA\"}".getBytes(StandardCharsets.UTF_8);
+        when(usuarioService.obtenerRespuestaPorId(1L))
+                .thenReturn(Mono.just(new CacheRespuestasUsuario.Respuesta(json, "\"abc\"")));
+
+        webTestClient.get().uri("/api/v2/usuarios/1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"abc\"")
+                .expectBody().jsonPath("$.nombre").isEqualTo("ANA");
+
+        webTestClient.get().uri("/api/v2/usuarios/1").header(HttpHeaders.IF_NONE_MATCH, "\"abc\"").exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void testAplicarCambiosConIfMatchDevuelveNuevoEtagO412() {
+        UsuarioRefactorizado actualizado = UsuarioRefactorizado.builder()
+                .id(1L).nombre("ANA").email("ana@email.com").edad(31).version(5L).build();
+        when(usuarioService.aplicarCambios(eq(1L), any(CambiosUsuario.class), eq(4L))).thenReturn(Mono.just(actualizado));
+        when(usuarioService.aplicarCambios(eq(1L), any(CambiosUsuario.class), eq(3L)))
+                .thenReturn(Mono.error(new VersionConflictoException("Version vencida")));
+
+        webTestClient.patch().uri("/api/v2/usuarios/1").header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.parseMediaType("application/merge-patch+json"))
+                .bodyValue("{\"edad\":31}").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"5\"")
+                .expectBody().jsonPath("$.edad").isEqualTo(31);
+
+        webTestClient.patch().uri("/api/v2/usuarios/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"edad\":31}").exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.patch().uri("/api/v2/usuarios/1").header(HttpHeaders.IF_MATCH, "W/\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"edad\":31}").exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void testTransmitirEmiteUnEventoPorUsuarioYRetomaDesdeLastEventId() {
+        when(usuarioService.recorrer(7L)).thenReturn(Flux.just(usuario(8L), usuario(9L)));
+
+        List<ServerSentEvent<UsuarioRefactorizado>> eventos = webTestClient.get().uri("/api/v2/usuarios/stream")
+                .header("Last-Event-ID", "7")
+                .accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<UsuarioRefactorizado>>() { })
+                .getResponseBody().collectList().block();
+
+        assertNotNull(eventos);
+        assertEquals(List.of("8", "9"), eventos.stream().map(ServerSentEvent::id).toList());
+        assertEquals("usuario", eventos.get(0).event());
+        assertEquals("user9@email.com", eventos.get(1).data().getEmail());
+    }
+
+    @Test
+    void testExportarEscribeNdjson() {
+        when(usuarioService.recorrer(0L)).thenReturn(Flux.just(usuario(1L), usuario(2L)));
+
+        String cuerpo = webTestClient.get().uri("/api/v2/usuarios/export").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertNotNull(cuerpo);
+        assertEquals(2, cuerpo.lines().count());
+        assertTrue(cuerpo.lines().allMatch(linea -> linea.startsWith("{\"id\":")));
+    }
+
+    @Test
+    void testEliminarInexistenteDevuelve404() {
+        when(usuarioService.eliminar(9L)).thenReturn(Mono.error(new UsuarioNotFoundException("Usuario con ID 9 no encontrado")));
+
+        webTestClient.delete().uri("/api/v2/usuarios/9").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static UsuarioRefactorizado usuario(long id) {
+        return UsuarioRefactorizado.builder()
+                .id(id).nombre("USER " + id).email("user" + id + "@email.com").edad(30).version(1L).build();
+    }
+}
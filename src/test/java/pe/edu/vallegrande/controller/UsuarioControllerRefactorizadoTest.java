@@ -0,0 +1,227 @@
+package pe.edu.vallegrande.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pe.edu.vallegrande.exception.SecuenciaVencidaException;
+import pe.edu.vallegrande.exception.UsuarioNotFoundException;
+import pe.edu.vallegrande.exception.VersionConflictoException;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.EventoCambio;
+import pe.edu.vallegrande.model.TipoCambio;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.repository.jdbc.AlmacenJdbc;
+import pe.edu.vallegrande.service.UsuarioServiceRefactorizado;
+import pe.edu.vallegrande.service.cache.CacheRespuestasUsuario;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UsuarioControllerRefactorizado.class)
+class UsuarioControllerRefactorizadoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UsuarioServiceRefactorizado usuarioService;
+
+    @Test
+    void testObtenerPorIdDevuelveEtagY304SiNoCambio() throws Exception {
+        byte[] json = "{\"id\":1,\"nombre\":\"ANA\"}".getBytes(StandardCharsets.UTF_8);
+        when(usuarioService.obtenerRespuestaPorId(1L)).thenReturn(new CacheRespuestasUsuario.Respuesta(json, "\"abc\""));
+
+        mockMvc.perform(get("/api/v2/usuarios/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(jsonPath("$.nombre").value("ANA"));
+
+        mockMvc.perform(get("/api/v2/usuarios/1").header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get("/api/v2/usuarios/1").header(HttpHeaders.IF_NONE_MATCH, "\"otro\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testActualizarConIfMatchDevuelveNuevoEtagO412() throws Exception {
+        String cuerpo = "{\"nombre\":\"ANA\",\"email\":\"ana@email.com\",\"edad\":30}";
+        UsuarioRefactorizado actualizado = UsuarioRefactorizado.builder()
+                .id(1L).nombre("ANA").email("ana@email.com").edad(30).version(4L).build();
+        when(usuarioService.actualizar(eq(1L), any(UsuarioRefactorizado.class), eq(3L))).thenReturn(actualizado);
+        when(usuarioService.actualizar(eq(1L), any(UsuarioRefactorizado.class), eq(2L)))
+                .thenThrow(new VersionConflictoException("Version vencida"));
+
+        mockMvc.perform(put("/api/v2/usuarios/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+
+        mockMvc.perform(put("/api/v2/usuarios/1").header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isPreconditionFailed());
+
+        // Un ETag débil nunca satisface If-Match: se rechaza sin llegar al servicio
+        mockMvc.perform(put("/api/v2/usuarios/1").header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isPreconditionFailed());
+        verify(usuarioService, never()).actualizar(eq(1L), any(UsuarioRefactorizado.class), isNull());
+    }
+
+    @Test
+    void testAplicarCambiosDistingueCamposAusentesDeNulos() throws Exception {
+        UsuarioRefactorizado actualizado = UsuarioRefactorizado.builder()
+                .id(1L).nombre("ANA").email("ana@email.com").edad(31).version(5L).build();
+        ArgumentCaptor<CambiosUsuario> cambios = ArgumentCaptor.forClass(CambiosUsuario.class);
+        when(usuarioService.aplicarCambios(eq(1L), cambios.capture(), eq(4L))).thenReturn(actualizado);
+
+        mockMvc.perform(patch("/api/v2/usuarios/1").header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType("application/merge-patch+json").content("{\"edad\":31,\"telefono\":null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(jsonPath("$.edad").value(31));
+
+        assertTrue(cambios.getValue().tieneEdad());
+        assertTrue(cambios.getValue().tieneTelefono());
+        assertNull(cambios.getValue().getTelefono());
+        assertFalse(cambios.getValue().tieneNombre());
+        assertFalse(cambios.getValue().tieneEmail());
+    }
+
+    @Test
+    void testCambiosEmiteEventosSseConElCursorComoId() throws Exception {
+        UsuarioRefactorizado usuario = UsuarioRefactorizado.builder()
+                .id(1L).nombre("ANA").email("ana@email.com").edad(30).version(2L).build();
+        when(usuarioService.cambios("a-4")).thenReturn(Flux.just(
+                new EventoCambio(10L, 5L, TipoCambio.ACTUALIZADO, 1L, usuario),
+                new EventoCambio(10L, 6L, TipoCambio.ELIMINADO, 1L, null)));
+
+        // Last-Event-ID cuenta igual que since: es lo que envía un EventSource al reconectar
+        MvcResult resultado = mockMvc.perform(get("/api/v2/usuarios/changes").header("Last-Event-ID", "a-4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(cuerpo.contains("id:a-5\nevent:actualizado\ndata:{\"epoca\":10,\"secuencia\":5,\"tipo\":\"ACTUALIZADO\",\"id\":1,"));
+        assertTrue(cuerpo.contains("id:a-6\nevent:eliminado\n"));
+    }
+
+    @Test
+    void testCambiosDesdeUnaSecuenciaVencidaDevuelve410() throws Exception {
+        when(usuarioService.cambios("a-3")).thenThrow(new SecuenciaVencidaException("Secuencia vencida"));
+
+        mockMvc.perform(get("/api/v2/usuarios/changes").param("since", "a-3"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void testObtenerPorIdInexistenteDevuelve404ComoProblemaJson() throws Exception {
+        when(usuarioService.obtenerRespuestaPorId(9L)).thenThrow(new UsuarioNotFoundException("Usuario con ID 9 no encontrado"));
+
+        mockMvc.perform(get("/api/v2/usuarios/9"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("about:blank"))
+                .andExpect(jsonPath("$.title").value("Not Found"))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("Usuario con ID 9 no encontrado"))
+                .andExpect(jsonPath("$.timestamp").exists());
+    }
+
+    @Test
+    void testDetalleDelProblemaSeEscapaComoJson() throws Exception {
+        when(usuarioService.obtenerRespuestaPorId(9L))
+                .thenThrow(new IllegalArgumentException("Valor \"invalido\"\n\\ en linea"));
+
+        mockMvc.perform(get("/api/v2/usuarios/9"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Valor \"invalido\"\n\\ en linea"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoteNdjsonDejaDeLeerAlSuperarElLimite() throws Exception {
+        String linea = "{\"nombre\":\"Ana\"}\n";
+        String cuerpo = linea.repeat(UsuarioServiceRefactorizado.LIMITE_MAXIMO_LOTE + 50);
+        ArgumentCaptor<List<UsuarioRefactorizado>> lote = ArgumentCaptor.forClass(List.class);
+        when(usuarioService.crearLote(lote.capture())).thenThrow(new IllegalArgumentException("El lote es muy grande"));
+
+        mockMvc.perform(post("/api/v2/usuarios/batch").contentType(MediaType.APPLICATION_NDJSON).content(cuerpo))
+                .andExpect(status().isBadRequest());
+
+        // Basta un usuario de más para que el servicio lo rechace; el resto del cuerpo no se lee
+        assertEquals(UsuarioServiceRefactorizado.LIMITE_MAXIMO_LOTE + 1, lote.getValue().size());
+    }
+
+    @Test
+    void testExportarEscribeUnaLineaPorUsuarioAtravesandoLasPaginasDelMotor() throws Exception {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID());
+        config.setAutoCommit(false);
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            // AlmacenJdbc lee de a 256 filas y sigue desde el último ID: 600 usuarios son tres páginas
+            UsuarioRepositoryRefactorizado repository =
+                    new UsuarioRepositoryRefactorizado(new AlmacenJdbc(dataSource, 1_000, new SimpleMeterRegistry()));
+            int total = 600;
+            List<UsuarioRefactorizado> lote = new ArrayList<>();
+            for (int i = 1; i <= total; i++) {
+                lote.add(UsuarioRefactorizado.builder()
+                        .nombre("USUARIO " + i).email("u" + i + "@email.com").edad(30).telefono("987654321").build());
+            }
+            repository.guardarLote(lote);
+            when(usuarioService.exportar()).thenAnswer(invocacion -> repository.recorrer());
+
+            MvcResult resultado = mockMvc.perform(get("/api/v2/usuarios/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            assertTrue(cuerpo.endsWith("\n"));
+            String[] lineas = cuerpo.split("\n");
+            assertEquals(total, lineas.length);
+            ObjectMapper objectMapper = new ObjectMapper();
+            for (int i = 0; i < total; i++) {
+                JsonNode usuario = objectMapper.readTree(lineas[i]);
+                assertEquals(i + 1, usuario.get("id").asLong());
+                assertEquals("u" + (i + 1) + "@email.com", usuario.get("email").asText());
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package pe.edu.vallegrande.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RespuestasProblemaTest {
+
+    @Test
+    void testReutilizaLaMarcaDentroDelMismoSegundo() {
+        AtomicLong milis = new AtomicLong(Instant.parse("2024-06-10T12:00:00.100Z").toEpochMilli());
+        RelojSegundos reloj = new RelojSegundos(new RelojFijo(milis));
+
+        byte[] primera = reloj.ahora();
+        milis.addAndGet(800);
+        assertSame(primera, reloj.ahora());
+        assertEquals("2024-06-10T12:00:00Z", new String(primera, StandardCharsets.US_ASCII));
+
+        milis.addAndGet(200);
+        assertEquals("2024-06-10T12:00:01Z", new String(reloj.ahora(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testProblemaOmiteElDetalleNulo() {
+        byte[] cuerpo = new Problema(HttpStatus.BAD_REQUEST)
+                .cuerpo(null, "2024-06-10T12:00:00Z".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals("{\"type\":\"about:blank\",\"title\":\"Bad Request\",\"status\":400,"
+                + "\"timestamp\":\"2024-06-10T12:00:00Z\"}", new String(cuerpo, StandardCharsets.UTF_8));
+    }
+
+    private static final class RelojFijo extends Clock {
+
+        private final AtomicLong milis;
+
+        RelojFijo(AtomicLong milis) {
+            this.milis = milis;
+        }
+
+        @Override
+        public long millis() {
+            return milis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(milis.get());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package pe.edu.vallegrande.logs;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MuestreoLogsFilterTest {
+
+    @Test
+    void testPedidoMuestreadoLlevaLaMarcaSoloMientrasSeAtiende() throws Exception {
+        AtomicReference<String> durante = new AtomicReference<>();
+
+        new MuestreoLogsFilter(1.0).doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (request, response) -> durante.set(MDC.get(MuestreoLogsFilter.CLAVE)));
+
+        assertEquals(MuestreoLogsFilter.MUESTREADO, durante.get());
+        assertNull(MDC.get(MuestreoLogsFilter.CLAVE));
+    }
+
+    @Test
+    void testSinMuestreoMarcaTodosLosPedidosComoNoMuestreados() throws Exception {
+        MuestreoLogsFilter filtro = new MuestreoLogsFilter(0.0);
+        for (int i = 0; i < 100; i++) {
+            filtro.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                    (request, response) -> assertEquals(MuestreoLogsFilter.NO_MUESTREADO, MDC.get(MuestreoLogsFilter.CLAVE)));
+        }
+        assertNull(MDC.get(MuestreoLogsFilter.CLAVE));
+    }
+
+    @Test
+    void testRechazaFraccionFueraDeRango() {
+        assertThrows(IllegalArgumentException.class, () -> new MuestreoLogsFilter(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new MuestreoLogsFilter(-0.1));
+    }
+}
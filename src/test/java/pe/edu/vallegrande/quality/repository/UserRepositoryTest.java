@@ -0,0 +1,152 @@
+package pe.edu.vallegrande.quality.repository;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.quality.model.User;
+import pe.edu.vallegrande.quality.service.UserService;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserRepositoryTest {
+
+    private static final int ESCRITORES = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int LECTORES = 4;
+
+    @Test
+    void testAltasBajasYListadosConcurrentesMantienenOrdenYConteo() throws Exception {
+        UserRepository repository = new UserRepository();
+        int porEscritor = 2_000;
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(ESCRITORES + LECTORES);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<?>> escritores = new ArrayList<>();
+            for (int h = 0; h < ESCRITORES; h++) {
+                int hilo = h;
+                escritores.add(executor.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < porEscritor; i++) {
+                        String id = hilo + "-" + i;
+                        repository.save(new User(id, nombre(hilo, i), id + "@email.com", 30));
+                        // Se borra uno de cada cuatro y se renombra otro, para mover claves en el índice ordenado
+                        if (i % 4 == 0) {
+                            assertTrue(repository.delete(id));
+                        } else if (i % 4 == 1) {
+                            repository.save(new User(id, "z" + nombre(hilo, i), id + "@email.com", 31));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> lectores = new ArrayList<>();
+            for (int l = 0; l < LECTORES; l++) {
+                lectores.add(executor.submit(() -> {
+                    salida.await();
+                    while (escribiendo.get()) {
+                        verificarOrdenado(repository.getUsers());
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> escritor : escritores) {
+                escritor.get();
+            }
+            escribiendo.set(false);
+            for (Future<?> lector : lectores) {
+                lector.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<User> todos = repository.getUsers();
+        verificarOrdenado(todos);
+        assertEquals(ESCRITORES * porEscritor * 3 / 4, todos.size());
+        Set<String> ids = new HashSet<>();
+        for (User user : todos) {
+            assertTrue(ids.add(user.id), "ID repetido en el listado: " + user.id);
+            // El almacén devuelve copias: se compara lo guardado, no la identidad del objeto
+            User guardado = repository.findById(user.id).orElseThrow();
+            assertEquals(user.name, guardado.name);
+            assertEquals(user.email, guardado.email);
+        }
+        assertTrue(repository.findById("0-0").isEmpty());
+        assertTrue(repository.findById("0-1").orElseThrow().name.startsWith("z"));
+    }
+
+    @Test
+    void testBorraAunqueElNombreDelUsuarioGuardadoHayaCambiado() {
+        UserRepository repository = new UserRepository();
+        User ana = repository.save(new User("1", "Ana", "ana@email.com", 30));
+        repository.save(new User("2", "beto", "beto@email.com", 30));
+
+        ana.name = "Zoila";
+        assertTrue(repository.delete("1"));
+
+        assertEquals(List.of("beto"), repository.getUsers().stream().map(u -> u.name).toList());
+        assertFalse(repository.delete("1"));
+    }
+
+    @Test
+    void testUnRenombreQueSaltaAtrasDelRecorridoNoSacaAlUsuarioDelListado() {
+        AtomicReference<Runnable> alLeer = new AtomicReference<>();
+        UserRepository repository = new UserRepository(new AlmacenEnHeap() {
+            @Override
+            public UsuarioRefactorizado obtener(long id) {
+                Runnable accion = alLeer.getAndSet(null);
+                if (accion != null) {
+                    accion.run();
+                }
+                return super.obtener(id);
+            }
+        });
+        repository.save(new User("1", "beto", "beto@email.com", 30));
+        repository.save(new User("2", "mario", "mario@email.com", 30));
+        repository.save(new User("3", "zoe", "zoe@email.com", 30));
+
+        // Con el recorrido en "beto", zoe pasa a "ana": la entrada nueva queda atrás y la vieja se borra adelante
+        alLeer.set(() -> repository.save(new User("3", "ana", "zoe@email.com", 30)));
+
+        assertEquals(List.of("ana", "beto", "mario"), repository.getUsers().stream().map(u -> u.name).toList());
+        assertEquals(List.of("ana", "beto", "mario"), repository.getUsers().stream().map(u -> u.name).toList());
+    }
+
+    @Test
+    void testListadoDelServicioSaleOrdenadoYEsUnaCopia() {
+        UserService service = new UserService();
+        service.create(new User(null, "carla", "carla@email.com", 20));
+        service.create(new User(null, "Ana", "ana@email.com", 21));
+        service.create(new User(null, "beto", "beto@email.com", 22));
+
+        List<User> listado = service.getAll();
+        assertEquals(List.of("Ana", "beto", "carla"), listado.stream().map(u -> u.name).toList());
+
+        listado.clear();
+        assertEquals(3, service.getAll().size());
+    }
+
+    private static String nombre(int hilo, int i) {
+        // Mayúsculas y minúsculas alternadas: el orden no debe distinguirlas
+        return (i % 2 == 0 ? "Usuario " : "usuario ") + (i * 31 + hilo) % 1000;
+    }
+
+    private static void verificarOrdenado(List<User> usuarios) {
+        for (int i = 1; i < usuarios.size(); i++) {
+            assertTrue(String.CASE_INSENSITIVE_ORDER.compare(usuarios.get(i - 1).name, usuarios.get(i).name) <= 0,
+                    "Listado desordenado en la posicion " + i);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package pe.edu.vallegrande.repository;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenFragmentado;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsignadorIdsTest {
+
+    @Test
+    void testConUnFragmentoElLoteReservaIdsConsecutivos() {
+        AsignadorIds ids = new AsignadorIds(new AlmacenEnHeap());
+        ids.iniciar(5);
+
+        assertEquals(5, ids.siguiente());
+        assertArrayEquals(new long[] {6, 7, 8, 9}, ids.reservar(4));
+        assertEquals(10, ids.siguiente());
+    }
+
+    @Test
+    void testConFragmentosElLoteSaltaSoloEntreBloquesDelFragmentoDelHilo() {
+        AlmacenFragmentado almacen = new AlmacenFragmentado(3, AlmacenEnHeap::new);
+        AsignadorIds ids = new AsignadorIds(almacen);
+        ids.iniciar(1);
+
+        long[] reservados = ids.reservar(AlmacenFragmentado.TAMANO_BLOQUE + 10);
+        int fragmento = almacen.fragmento(reservados[0]);
+        int saltos = 0;
+        for (int i = 0; i < reservados.length; i++) {
+            assertEquals(fragmento, almacen.fragmento(reservados[i]));
+            if (i > 0 && reservados[i] != reservados[i - 1] + 1) {
+                assertEquals(0, reservados[i] % AlmacenFragmentado.TAMANO_BLOQUE);
+                saltos++;
+            }
+        }
+        assertTrue(saltos <= 1, "saltos: " + saltos);
+        assertEquals(reservados[reservados.length - 1] + 1, ids.siguiente());
+    }
+}
@@ -0,0 +1,97 @@
+package pe.edu.vallegrande.repository;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsuarioRepositoryReactivoTest {
+
+    private final UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+    private final UsuarioRepositoryReactivo reactivo = new UsuarioRepositoryReactivo(repository);
+
+    @Test
+    void testRecorrerEntregaSoloLoQuePideElSuscriptor() {
+        for (int i = 0; i < 10; i++) {
+            repository.guardar(usuario(i));
+        }
+
+        StepVerifier.create(reactivo.recorrerDesde(0L), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(2)
+                .assertNext(usuario -> assertEquals(1L, usuario.getId()))
+                .assertNext(usuario -> assertEquals(2L, usuario.getId()))
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testRecorrerDesdeEmpiezaDespuesDelIdIndicado() {
+        for (int i = 0; i < 5; i++) {
+            repository.guardar(usuario(i));
+        }
+
+        StepVerifier.create(reactivo.recorrerDesde(3L))
+                .assertNext(usuario -> assertEquals(4L, usuario.getId()))
+                .assertNext(usuario -> assertEquals(5L, usuario.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testEscribirNoCorreEnElHiloQueSeSuscribe() {
+        String[] hilo = new String[1];
+
+        StepVerifier.create(reactivo.escribir(() -> {
+                    hilo[0] = Thread.currentThread().getName();
+                    return repository.guardar(usuario(0));
+                }))
+                .assertNext(usuario -> assertEquals(1L, usuario.getId()))
+                .verifyComplete();
+
+        assertTrue(hilo[0].startsWith("boundedElastic"), hilo[0]);
+    }
+
+    @Test
+    void testConUnMotorQueNoLeeEnMemoriaLasLecturasSalenDelHiloQueSeSuscribe() {
+        UsuarioRepositoryRefactorizado sobreBase = new UsuarioRepositoryRefactorizado(new AlmacenEnHeap() {
+            @Override
+            public boolean leeEnMemoria() {
+                return false;
+            }
+        });
+        UsuarioRepositoryReactivo bloqueante = new UsuarioRepositoryReactivo(sobreBase);
+        sobreBase.guardar(usuario(0));
+        String[] hilos = new String[2];
+
+        StepVerifier.create(bloqueante.leer(() -> {
+                    hilos[0] = Thread.currentThread().getName();
+                    return sobreBase.obtenerPorId(1L).orElseThrow();
+                }))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(bloqueante.recorrerDesde(0L).doOnNext(usuario -> hilos[1] = Thread.currentThread().getName()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertTrue(hilos[0].startsWith("boundedElastic"), hilos[0]);
+        assertTrue(hilos[1].startsWith("boundedElastic"), hilos[1]);
+        // Con el motor en memoria la lectura sigue en el hilo del suscriptor
+        String suscriptor = Thread.currentThread().getName();
+        StepVerifier.create(reactivo.leer(() -> Thread.currentThread().getName()))
+                .expectNext(suscriptor)
+                .verifyComplete();
+    }
+
+    private static UsuarioRefactorizado usuario(int i) {
+        return UsuarioRefactorizado.builder()
+                .nombre("USUARIO " + i).email("usuario" + i + "@email.com").edad(30).build();
+    }
+}
@@ -0,0 +1,407 @@
+package pe.edu.vallegrande.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.exception.EmailDuplicadoException;
+import pe.edu.vallegrande.exception.VersionConflictoException;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.CriteriosBusqueda;
+import pe.edu.vallegrande.model.CoincidenciaUsuario;
+import pe.edu.vallegrande.model.EventoCambio;
+import pe.edu.vallegrande.model.TipoCambio;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenFragmentado;
+import pe.edu.vallegrande.repository.cambios.BufferCambios;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsuarioRepositoryRefactorizadoTest {
+
+    // Al menos el doble de hilos que núcleos para mantener la CPU saturada
+    private static final int HILOS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    @Test
+    void testAltasConcurrentesConMismoEmailNoGeneranDuplicados() throws Exception {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        int emails = 500;
+        AtomicInteger rechazados = new AtomicInteger();
+
+        ejecutarConcurrentemente(hilo -> {
+            for (int i = 0; i < emails; i++) {
+                try {
+                    repository.guardar(usuario("Usuario " + hilo, "u" + i + "@email.com"));
+                } catch (EmailDuplicadoException e) {
+                    rechazados.incrementAndGet();
+                }
+            }
+        });
+
+        List<UsuarioRefactorizado> todos = repository.obtenerTodos();
+        assertEquals(emails, todos.size());
+        assertEquals(emails * (HILOS - 1), rechazados.get());
+        assertEquals(emails, todos.stream().map(UsuarioRefactorizado::getEmail).distinct().count());
+        // Los rechazos no consumen IDs: el rango asignado queda sin huecos
+        assertEquals(emails, todos.stream().mapToLong(UsuarioRefactorizado::getId).max().orElseThrow());
+    }
+
+    @Test
+    void testActualizacionesConcurrentesMantienenEmailsUnicos() throws Exception {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        List<Long> ids = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            ids.add(repository.guardar(usuario("Usuario", "original" + h + "@email.com")).getId());
+        }
+        int rondas = 200;
+
+        ejecutarConcurrentemente(hilo -> {
+            Long id = ids.get(hilo);
+            for (int r = 0; r < rondas; r++) {
+                UsuarioRefactorizado cambio = usuario("Usuario", "disputado" + r + "@email.com");
+                cambio.setId(id);
+                try {
+                    repository.actualizar(cambio);
+                } catch (EmailDuplicadoException e) {
+                    // Otro hilo reclamó este email primero
+                }
+            }
+        });
+
+        // Cada email tiene un único dueño y el índice no conserva emails abandonados
+        Set<String> emails = new HashSet<>();
+        for (Long id : ids) {
+            UsuarioRefactorizado actual = repository.obtenerPorId(id).orElseThrow();
+            assertTrue(emails.add(actual.getEmail()));
+            assertEquals(id, repository.obtenerPorEmail(actual.getEmail()).orElseThrow().getId());
+        }
+        for (int r = 0; r < rondas; r++) {
+            String email = "disputado" + r + "@email.com";
+            repository.obtenerPorEmail(email).ifPresent(propietario -> assertEquals(email, propietario.getEmail()));
+            assertEquals(emails.contains(email), repository.existeEmail(email));
+        }
+        for (int h = 0; h < HILOS; h++) {
+            assertFalse(repository.existeEmail("original" + h + "@email.com"));
+        }
+    }
+
+    @Test
+    void testActualizacionesCondicionalesConcurrentesNoPierdenCambios() throws Exception {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        Long id = repository.guardar(usuario("Contador", "contador@email.com")).getId();
+        int intentos = 300;
+        AtomicInteger exitos = new AtomicInteger();
+
+        // Cada hilo lee, incrementa la edad y escribe solo si nadie cambió el usuario entretanto
+        ejecutarConcurrentemente(hilo -> {
+            for (int i = 0; i < intentos; i++) {
+                UsuarioRefactorizado leido = repository.obtenerPorId(id).orElseThrow();
+                UsuarioRefactorizado cambio = usuario("Contador", "contador@email.com", leido.getEdad() + 1, null);
+                cambio.setId(id);
+                try {
+                    repository.actualizar(cambio, leido.getVersion());
+                    exitos.incrementAndGet();
+                } catch (VersionConflictoException e) {
+                    // Otro hilo escribió primero; el incremento se descarta entero
+                }
+            }
+        });
+
+        UsuarioRefactorizado finalizado = repository.obtenerPorId(id).orElseThrow();
+        assertTrue(exitos.get() > 0);
+        assertEquals(1L + exitos.get(), finalizado.getVersion());
+        assertEquals(30 + exitos.get(), finalizado.getEdad());
+
+        UsuarioRefactorizado vencido = usuario("Contador", "otro@email.com");
+        vencido.setId(id);
+        assertThrows(VersionConflictoException.class, () -> repository.actualizar(vencido, 1L));
+        assertFalse(repository.existeEmail("otro@email.com"));
+        assertEquals(finalizado.getVersion(), repository.obtenerPorId(id).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testCambiosParcialesConcurrentesSobreCamposDistintosNoSePisan() throws Exception {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        Long id = repository.guardar(usuario("Parcial", "parcial@email.com", 30, "900000000")).getId();
+        int rondas = 500;
+
+        // Los hilos pares cambian la edad y los impares el telefono; ninguno reenvia el resto
+        ejecutarConcurrentemente(hilo -> {
+            for (int r = 0; r < rondas; r++) {
+                CambiosUsuario cambios = new CambiosUsuario();
+                if (hilo % 2 == 0) {
+                    cambios.setEdad(r % 100 + 1);
+                } else {
+                    cambios.setTelefono("9" + String.format("%08d", r));
+                }
+                repository.aplicarCambios(id, cambios, null).orElseThrow();
+            }
+        });
+
+        UsuarioRefactorizado finalizado = repository.obtenerPorId(id).orElseThrow();
+        assertEquals("Parcial", finalizado.getNombre());
+        assertEquals("parcial@email.com", finalizado.getEmail());
+        // La ultima ronda de cada tipo deja el mismo valor, sea cual sea el hilo que escribio al final
+        assertEquals((rondas - 1) % 100 + 1, finalizado.getEdad());
+        assertEquals("9" + String.format("%08d", rondas - 1), finalizado.getTelefono());
+        assertEquals(id, repository.obtenerPorEmail("parcial@email.com").orElseThrow().getId());
+    }
+
+    @Test
+    void testCambiosParcialesSinEfectoYCambioDeEmail() {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        Long id = repository.guardar(usuario("Ana", "ana@email.com")).getId();
+        repository.guardar(usuario("Otra", "otra@email.com"));
+
+        CambiosUsuario mismaEdad = new CambiosUsuario();
+        mismaEdad.setEdad(30);
+        assertEquals(1L, repository.aplicarCambios(id, mismaEdad, 1L).orElseThrow().getVersion());
+        assertThrows(VersionConflictoException.class, () -> repository.aplicarCambios(id, mismaEdad, 7L));
+
+        CambiosUsuario emailOcupado = new CambiosUsuario();
+        emailOcupado.setEmail("otra@email.com");
+        assertThrows(EmailDuplicadoException.class, () -> repository.aplicarCambios(id, emailOcupado, null));
+
+        CambiosUsuario emailNuevo = new CambiosUsuario();
+        emailNuevo.setEmail("ana.nueva@email.com");
+        UsuarioRefactorizado cambiado = repository.aplicarCambios(id, emailNuevo, 1L).orElseThrow();
+        assertEquals(2L, cambiado.getVersion());
+        assertEquals("Ana", cambiado.getNombre());
+        assertFalse(repository.existeEmail("ana@email.com"));
+        assertEquals(id, repository.obtenerPorEmail("ana.nueva@email.com").orElseThrow().getId());
+
+        assertTrue(repository.aplicarCambios(99L, emailNuevo, null).isEmpty());
+    }
+
+    @Test
+    void testLoteYAltasIndividualesConcurrentesRespetanUnicidad() throws Exception {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        int emails = 300;
+
+        ejecutarConcurrentemente(hilo -> {
+            if (hilo % 2 == 0) {
+                List<UsuarioRefactorizado> lote = new ArrayList<>();
+                for (int i = 0; i < emails; i++) {
+                    lote.add(usuario("Lote " + hilo, "u" + i + "@email.com"));
+                }
+                repository.guardarLote(lote);
+            } else {
+                for (int i = 0; i < emails; i++) {
+                    try {
+                        repository.guardar(usuario("Individual " + hilo, "u" + i + "@email.com"));
+                    } catch (EmailDuplicadoException e) {
+                        // Esperado cuando otro hilo llegó antes
+                    }
+                }
+            }
+        });
+
+        List<UsuarioRefactorizado> todos = repository.obtenerTodos();
+        assertEquals(emails, todos.size());
+        assertEquals(emails, todos.stream().map(UsuarioRefactorizado::getEmail).distinct().count());
+    }
+
+    @Test
+    void testBuscarSigueLosCambiosDeActualizarYEliminar() {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        UsuarioRefactorizado ana = repository.guardar(usuario("ANA TORRES", "ana@email.com", 25, "987654321"));
+        UsuarioRefactorizado andres = repository.guardar(usuario("ANDRES PAZ", "andres@email.com", 40, "987654321"));
+        repository.guardar(usuario("BETO RUIZ", "beto@email.com", 25, null));
+
+        assertEquals(List.of(ana, andres), buscar(repository, "AN", null, null, null));
+        assertEquals(List.of(ana), buscar(repository, "AN", 20, 30, null));
+        assertEquals(List.of(ana, andres), buscar(repository, null, null, null, "987654321"));
+        assertEquals(2, buscar(repository, null, 25, 25, null).size());
+
+        UsuarioRefactorizado cambio = usuario("CARLA TORRES", "ana@email.com", 50, "911111111");
+        cambio.setId(ana.getId());
+        repository.actualizar(cambio);
+        repository.eliminar(andres.getId());
+
+        assertTrue(buscar(repository, "AN", null, null, null).isEmpty());
+        assertTrue(buscar(repository, null, null, null, "987654321").isEmpty());
+        assertEquals(List.of(ana.getId()), buscar(repository, "CAR", 45, 120, "911111111").stream()
+                .map(UsuarioRefactorizado::getId).toList());
+        assertEquals(1, buscar(repository, null, 25, 25, null).size());
+    }
+
+    @Test
+    void testCadaMutacionPublicaUnEventoEnElOrdenDelAlmacen() throws Exception {
+        BufferCambios cambios = new BufferCambios(1 << 16);
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado(new AlmacenEnHeap(), cambios);
+        List<Long> ids = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            ids.add(repository.guardar(usuario("Usuario", "cambios" + h + "@email.com")).getId());
+        }
+        int rondas = 200;
+
+        // Todos los hilos modifican los mismos usuarios; sin versión esperada ninguna escritura falla
+        ejecutarConcurrentemente(hilo -> {
+            for (int r = 0; r < rondas; r++) {
+                CambiosUsuario cambio = new CambiosUsuario();
+                cambio.setEdad(18 + (hilo * rondas + r) % 80);
+                repository.aplicarCambios(ids.get(r % ids.size()), cambio, null);
+            }
+        });
+        repository.eliminar(ids.get(0));
+
+        long[] ultimaVersion = new long[HILOS + 1];
+        long total = cambios.ultimaSecuencia();
+        for (long numero = 1; numero <= total; numero++) {
+            EventoCambio evento = cambios.leer(numero);
+            int indice = (int) (evento.id() - ids.get(0));
+            if (evento.tipo() == TipoCambio.ELIMINADO) {
+                assertEquals(total, numero, "La baja es la última mutación");
+                continue;
+            }
+            // Para cada usuario los eventos llegan con la versión creciendo de a uno
+            assertEquals(ultimaVersion[indice] + 1, evento.usuario().getVersion());
+            ultimaVersion[indice] = evento.usuario().getVersion();
+        }
+        assertEquals(TipoCambio.CREADO, cambios.leer(1L).tipo());
+        assertEquals(repository.obtenerPorId(ids.get(1)).orElseThrow().getVersion(), ultimaVersion[1]);
+    }
+
+    private static List<UsuarioRefactorizado> buscar(UsuarioRepositoryRefactorizado repository, String nombrePrefijo,
+                                                     Integer edadMinima, Integer edadMaxima, String telefono) {
+        return repository.buscar(new CriteriosBusqueda(nombrePrefijo, edadMinima, edadMaxima, telefono), null, 100);
+    }
+
+    private void ejecutarConcurrentemente(TareaHilo tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                int hilo = h;
+                futuros.add(executor.submit(() -> {
+                    salida.await();
+                    tarea.ejecutar(hilo);
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> futuro : futuros) {
+                futuro.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBuscarAproximadoOrdenaPorSimilitudYRespetaElUmbral() {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        UsuarioRefactorizado juan = repository.guardar(usuario("JUAN PEREZ", "jperez@email.com"));
+        UsuarioRefactorizado juana = repository.guardar(usuario("JUANA PAREDES", "jparedes@email.com"));
+        repository.guardar(usuario("MARIA LOPEZ", "mlopez@email.com"));
+
+        List<CoincidenciaUsuario> coincidencias = repository.buscarAproximado("jaun perez", 0.3, 10);
+        assertEquals(juan.getId(), coincidencias.get(0).getUsuario().getId());
+        assertTrue(coincidencias.stream().allMatch(c -> c.getSimilitud() >= 0.3));
+        assertTrue(coincidencias.stream().noneMatch(c -> c.getUsuario().getNombre().startsWith("MARIA")));
+
+        // El índice sigue las actualizaciones y las bajas
+        UsuarioRefactorizado cambio = usuario("JUANA PAREDES", "maria.paredes@email.com");
+        cambio.setId(juana.getId());
+        repository.actualizar(cambio);
+        assertEquals(juana.getId(), repository.buscarAproximado("maria paredes", 0.3, 1).get(0).getUsuario().getId());
+        repository.eliminar(juan.getId());
+        assertTrue(repository.buscarAproximado("juan perez", 0.3, 10).stream()
+                .noneMatch(c -> c.getUsuario().getId().equals(juan.getId())));
+    }
+
+    @Test
+    void testConFragmentosLasAltasConcurrentesNoRepitenIdsNiEmails() throws Exception {
+        UsuarioRepositoryRefactorizado repository =
+                new UsuarioRepositoryRefactorizado(new AlmacenFragmentado(4, AlmacenEnHeap::new));
+        int porHilo = 3_000;
+        AtomicInteger rechazados = new AtomicInteger();
+
+        ejecutarConcurrentemente(hilo -> {
+            for (int i = 0; i < porHilo; i++) {
+                repository.guardar(usuario("Usuario " + hilo, "h" + hilo + "-" + i + "@email.com"));
+                try {
+                    repository.guardar(usuario("Copia", "compartido" + i + "@email.com"));
+                } catch (EmailDuplicadoException e) {
+                    rechazados.incrementAndGet();
+                }
+            }
+        });
+
+        List<UsuarioRefactorizado> todos = repository.obtenerTodos();
+        assertEquals(HILOS * porHilo + porHilo, todos.size());
+        assertEquals(porHilo * (HILOS - 1), rechazados.get());
+        assertEquals(todos.size(), todos.stream().mapToLong(UsuarioRefactorizado::getId).distinct().count());
+        // El recorrido intercala los bloques de todos los fragmentos en orden de ID
+        for (int i = 1; i < todos.size(); i++) {
+            assertTrue(todos.get(i - 1).getId() < todos.get(i).getId());
+        }
+        assertTrue(repository.existeEmail("compartido0@email.com"));
+    }
+
+    @Test
+    void testConFragmentosLasBusquedasReunenLosIndicesDeTodos() throws Exception {
+        AlmacenFragmentado almacen = new AlmacenFragmentado(4, AlmacenEnHeap::new);
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado(almacen);
+        List<Long> carlos = Collections.synchronizedList(new ArrayList<>());
+
+        // Cada hilo del pool toma sus IDs de su propio fragmento
+        ejecutarConcurrentemente(hilo -> {
+            for (int i = 0; i < 100; i++) {
+                repository.guardar(usuario("RELLENO " + i, "relleno" + hilo + "-" + i + "@email.com", 20, null));
+            }
+            carlos.add(repository.guardar(usuario("CARLOS RUIZ", "carlos" + hilo + "@email.com", 50, null)).getId());
+        });
+
+        assertTrue(carlos.stream().map(almacen::fragmento).distinct().count() > 1);
+        List<UsuarioRefactorizado> encontrados = buscar(repository, "CARLOS", 45, 120, null);
+        assertEquals(carlos.stream().sorted().toList(), encontrados.stream().map(UsuarioRefactorizado::getId).toList());
+        assertEquals(HILOS, repository.buscarAproximado("karlos ruis", 0.3, 100).size());
+    }
+
+    @Test
+    void testRegistraTiemposPorOperacionYTamanos() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        UsuarioRepositoryRefactorizado repository =
+                new UsuarioRepositoryRefactorizado(new AlmacenEnHeap(), null, registro);
+        UsuarioRefactorizado guardado = repository.guardar(usuario("ANA", "ana@email.com"));
+        repository.guardar(usuario("LUIS", "luis@email.com"));
+        repository.obtenerPorId(guardado.getId());
+        assertThrows(EmailDuplicadoException.class, () -> repository.guardar(usuario("ANA", "ana@email.com")));
+
+        assertEquals(3, registro.get("usuarios.repositorio").tag("operacion", "guardar").timer().count(),
+                "Las operaciones fallidas tambien se miden");
+        assertEquals(1, registro.get("usuarios.repositorio").tag("operacion", "obtenerPorId").timer().count());
+        assertEquals(0, registro.get("usuarios.repositorio").tag("operacion", "eliminar").timer().count());
+        assertEquals(2.0, registro.get("usuarios.almacen.tamano").gauge().value());
+        assertEquals(2.0, registro.get("usuarios.indice.email.tamano").gauge().value());
+
+        repository.eliminar(guardado.getId());
+        assertEquals(1.0, registro.get("usuarios.almacen.tamano").gauge().value());
+        assertEquals(1.0, registro.get("usuarios.indice.email.tamano").gauge().value());
+    }
+
+    private static UsuarioRefactorizado usuario(String nombre, String email) {
+        return UsuarioRefactorizado.builder().nombre(nombre).email(email).edad(30).build();
+    }
+
+    private static UsuarioRefactorizado usuario(String nombre, String email, int edad, String telefono) {
+        return UsuarioRefactorizado.builder().nombre(nombre).email(email).edad(edad).telefono(telefono).build();
+    }
+
+    @FunctionalInterface
+    private interface TareaHilo {
+        void ejecutar(int hilo);
+    }
+}
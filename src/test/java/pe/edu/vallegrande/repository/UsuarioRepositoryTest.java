@@ -0,0 +1,31 @@
+package pe.edu.vallegrande.repository;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.Usuario;
+import pe.edu.vallegrande.repository.almacen.AlmacenFueraDeHeap;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsuarioRepositoryTest {
+
+    @Test
+    void testLaApiOriginalFuncionaSobreCualquierMotor() {
+        UsuarioRepository repository = new UsuarioRepository(new AlmacenFueraDeHeap());
+        Usuario ana = repository.guardar(new Usuario("Ana", "ana@email.com", 30));
+        repository.guardar(new Usuario("Luis", "luis@email.com", 40));
+
+        ana.setNombre("Ana Maria");
+        assertEquals("Ana", repository.obtenerPorId(1L).getNombre(), "Lo guardado no cambia sin actualizar");
+        repository.actualizar(ana);
+        assertEquals("Ana Maria", repository.obtenerPorId(1L).getNombre());
+
+        repository.eliminar(2L);
+        assertNull(repository.obtenerPorId(2L));
+        assertTrue(repository.existeEmail("ana@email.com"));
+        assertFalse(repository.existeEmail("luis@email.com"));
+        assertEquals(List.of(1L), repository.obtenerTodos().stream().map(Usuario::getId).toList());
+        assertEquals(3L, repository.guardar(new Usuario("Eva", "eva@email.com", 25)).getId());
+    }
+}
@@ -0,0 +1,33 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlmacenEnHeapTest extends ContratoAlmacenUsuariosTest {
+
+    @Override
+    protected AlmacenUsuarios crear() {
+        return new AlmacenEnHeap();
+    }
+
+    @Test
+    void testLaPaginaNoSondeaLosBloquesVacios() {
+        AlmacenEnHeap almacen = new AlmacenEnHeap();
+        long lejano = (1L << 32) + 5;
+        for (long id = 1; id <= 10_000; id++) {
+            almacen.poner(id, registro(id, "USUARIO " + id, 1L));
+        }
+        almacen.poner(lejano, registro(lejano, "LEJANO", 1L));
+        for (long id = 2; id <= 10_000; id++) {
+            almacen.quitar(id);
+        }
+
+        // Sin saltar bloques serían cuatro mil millones de sondeos entre el ID 1 y el lejano
+        assertEquals(lejano, assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> almacen.recorrerDesde(1L).next().getId()));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertFalse(almacen.recorrerRango(1L, lejano - 1).hasNext()));
+    }
+}
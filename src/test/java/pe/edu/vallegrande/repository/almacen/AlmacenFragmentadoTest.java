@@ -0,0 +1,53 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlmacenFragmentadoTest extends ContratoAlmacenUsuariosTest {
+
+    @Override
+    protected AlmacenUsuarios crear() {
+        return new AlmacenFragmentado(4, AlmacenEnHeap::new);
+    }
+
+    @Test
+    void testCadaBloqueViveEnUnFragmentoYElRecorridoLosIntercalaEnOrden() {
+        AlmacenUsuarios almacen = crear();
+        long bloque = AlmacenFragmentado.TAMANO_BLOQUE;
+        long[] ids = {1L, bloque - 1, bloque, 2 * bloque + 5, 5 * bloque, 9 * bloque + 1};
+        for (long id : ids) {
+            almacen.poner(id, registro(id, "USUARIO " + id, 1L));
+        }
+
+        assertEquals(0, almacen.fragmento(bloque - 1));
+        assertEquals(1, almacen.fragmento(bloque));
+        assertEquals(1, almacen.fragmento(5 * bloque));
+        assertEquals(6, almacen.tamano());
+        assertEquals(9 * bloque + 1, almacen.ultimoIdAsignado());
+
+        assertEquals(List.of(ids[0], ids[1], ids[2], ids[3], ids[4], ids[5]), recorrer(almacen, 0L, Long.MAX_VALUE));
+        assertEquals(List.of(ids[2], ids[3]), recorrer(almacen, bloque - 1, 5 * bloque - 1));
+        assertEquals(List.of(ids[5]), recorrer(almacen, 5 * bloque, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testSoloElHeapAdmiteFragmentos() {
+        AlmacenProperties properties = new AlmacenProperties();
+        properties.setFragmentos(8);
+        assertEquals(8, properties.crear().fragmentos());
+
+        properties.setTipo(AlmacenProperties.Tipo.FUERA_DE_HEAP);
+        assertThrows(IllegalStateException.class, properties::crear);
+    }
+
+    private static List<Long> recorrer(AlmacenUsuarios almacen, long despuesDeId, long hastaId) {
+        List<Long> ids = new ArrayList<>();
+        almacen.recorrerRango(despuesDeId, hastaId).forEachRemaining((UsuarioRefactorizado usuario) -> ids.add(usuario.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,135 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlmacenFueraDeHeapTest extends ContratoAlmacenUsuariosTest {
+
+    @Override
+    protected AlmacenUsuarios crear() {
+        return new AlmacenFueraDeHeap();
+    }
+
+    @Test
+    void testGuardaYLeeCamposNulosYUtf8() {
+        AlmacenFueraDeHeap almacen = new AlmacenFueraDeHeap();
+        almacen.poner(1L, new UsuarioRefactorizado(1L, "JOSÉ ÑUÑEZ", "jose@email.com", 40, "987654321", 3L));
+        almacen.poner(2L, new UsuarioRefactorizado(2L, "ANA", "ana@email.com", null, null, null));
+
+        UsuarioRefactorizado jose = almacen.obtener(1L);
+        assertEquals("JOSÉ ÑUÑEZ", jose.getNombre());
+        assertEquals("jose@email.com", jose.getEmail());
+        assertEquals(40, jose.getEdad());
+        assertEquals("987654321", jose.getTelefono());
+        assertEquals(3L, jose.getVersion());
+
+        UsuarioRefactorizado ana = almacen.obtener(2L);
+        assertNull(ana.getEdad());
+        assertNull(ana.getTelefono());
+        assertNull(almacen.obtener(3L));
+        assertNull(almacen.obtener(-1L));
+        assertEquals(2, almacen.tamano());
+    }
+
+    @Test
+    void testActualizaEnSitioOReubicaSegunElTamano() {
+        AlmacenFueraDeHeap almacen = new AlmacenFueraDeHeap(1024);
+        almacen.poner(1L, usuario(1L, "NOMBRE LARGO ORIGINAL", 20));
+
+        almacen.calcularSiPresente(1L, (id, actual) -> usuario(id, "CORTO", 21));
+        assertEquals("CORTO", almacen.obtener(1L).getNombre());
+
+        almacen.calcularSiPresente(1L, (id, actual) -> usuario(id, "UN NOMBRE BASTANTE MÁS LARGO QUE EL ORIGINAL", 22));
+        assertEquals("UN NOMBRE BASTANTE MÁS LARGO QUE EL ORIGINAL", almacen.obtener(1L).getNombre());
+        assertEquals(22, almacen.obtener(1L).getEdad());
+
+        // Con las mismas cadenas solo se reescriben las columnas; el mismo objeto no escribe nada
+        almacen.calcularSiPresente(1L, (id, actual) -> new UsuarioRefactorizado(id, actual.getNombre(),
+                actual.getEmail(), 23, actual.getTelefono(), 2L));
+        assertEquals(23, almacen.obtener(1L).getEdad());
+        assertEquals(2L, almacen.obtener(1L).getVersion());
+        assertEquals("u1@email.com", almacen.obtener(1L).getEmail());
+        almacen.calcularSiPresente(1L, (id, actual) -> actual);
+        assertEquals(23, almacen.obtener(1L).getEdad());
+
+        assertNull(almacen.calcularSiPresente(2L, (id, actual) -> usuario(id, "NUNCA", 30)));
+        assertNull(almacen.obtener(2L));
+    }
+
+    @Test
+    void testEliminaYRecorreEnOrdenEntrePaginasYSegmentos() {
+        // Segmentos pequeños para forzar muchos cambios de segmento en la arena
+        AlmacenFueraDeHeap almacen = new AlmacenFueraDeHeap(4096);
+        int total = 70_000;
+        for (long id = 1; id <= total; id++) {
+            almacen.poner(id, usuario(id, "USUARIO " + id, (int) (id % 120) + 1));
+        }
+        for (long id = 2; id <= total; id += 2) {
+            assertNotNull(almacen.quitar(id));
+        }
+        assertNull(almacen.quitar(2L));
+        assertEquals(total / 2, almacen.tamano());
+
+        Iterator<UsuarioRefactorizado> iterador = almacen.recorrerDesde(65_530L);
+        long esperado = 65_531L;
+        while (iterador.hasNext()) {
+            UsuarioRefactorizado usuario = iterador.next();
+            assertEquals(esperado, usuario.getId());
+            assertEquals("USUARIO " + esperado, usuario.getNombre());
+            esperado += 2;
+        }
+        assertEquals(total + 1, esperado);
+    }
+
+    @Test
+    void testLecturasConcurrentesNuncaVenRegistrosMezclados() throws Exception {
+        AlmacenFueraDeHeap almacen = new AlmacenFueraDeHeap();
+        int ids = 64;
+        for (long id = 1; id <= ids; id++) {
+            almacen.poner(id, usuario(id, "A", 1));
+        }
+        AtomicBoolean activo = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            tareas.add(executor.submit(() -> {
+                for (int ronda = 0; ronda < 20_000; ronda++) {
+                    long id = ronda % ids + 1;
+                    // Nombre y edad cambian juntos: un lector nunca debe ver uno sin el otro
+                    int largo = ronda % 40 + 1;
+                    almacen.calcular(id, (clave, actual) -> usuario(clave, "A".repeat(largo), largo));
+                }
+                activo.set(false);
+            }));
+            for (int lector = 0; lector < 3; lector++) {
+                tareas.add(executor.submit(() -> {
+                    while (activo.get()) {
+                        for (long id = 1; id <= ids; id++) {
+                            UsuarioRefactorizado usuario = almacen.obtener(id);
+                            assertEquals(usuario.getNombre().length(), usuario.getEdad());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static UsuarioRefactorizado usuario(long id, String nombre, int edad) {
+        return new UsuarioRefactorizado(id, nombre, "u" + id + "@email.com", edad, null, 1L);
+    }
+}
@@ -0,0 +1,161 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contrato de {@link AlmacenUsuarios}: cada motor lo extiende indicando cómo crear un
+ * almacén vacío, y suma aparte las pruebas propias de su implementación.
+ */
+public abstract class ContratoAlmacenUsuariosTest {
+
+    protected abstract AlmacenUsuarios crear();
+
+    @Test
+    public void testPonerObtenerYQuitar() {
+        AlmacenUsuarios almacen = crear();
+        almacen.poner(1L, registro(1L, "ANA", 1L));
+        almacen.poner(2L, registro(2L, "LUIS", 1L));
+        almacen.poner(2L, registro(2L, "LUIS ALBERTO", 2L));
+
+        assertEquals("ANA", almacen.obtener(1L).getNombre());
+        assertEquals("LUIS ALBERTO", almacen.obtener(2L).getNombre());
+        assertNull(almacen.obtener(3L));
+        assertNull(almacen.obtenerPorEmail("nadie@email.com"));
+        assertEquals(2, almacen.tamano());
+
+        assertEquals("ANA", almacen.quitar(1L).getNombre());
+        assertNull(almacen.quitar(1L));
+        assertNull(almacen.obtener(1L));
+        assertEquals(1, almacen.tamano());
+    }
+
+    @Test
+    public void testCalcularCreaReemplazaEliminaYRevierteAnteExcepciones() {
+        AlmacenUsuarios almacen = crear();
+
+        assertEquals("ANA", almacen.calcular(1L, (id, actual) -> {
+            assertNull(actual);
+            return registro(id, "ANA", 1L);
+        }).getNombre());
+        almacen.calcular(1L, (id, actual) -> registro(id, actual.getNombre() + " MARIA", actual.getVersion() + 1));
+        assertEquals("ANA MARIA", almacen.obtener(1L).getNombre());
+        assertEquals(2L, almacen.obtener(1L).getVersion());
+
+        // El mismo objeto recibido no cambia nada
+        almacen.calcular(1L, (id, actual) -> actual);
+        assertEquals("ANA MARIA", almacen.obtener(1L).getNombre());
+
+        assertThrows(IllegalStateException.class, () -> almacen.calcular(1L, (id, actual) -> {
+            throw new IllegalStateException("falla");
+        }));
+        assertEquals(2L, almacen.obtener(1L).getVersion());
+
+        assertNull(almacen.calcularSiPresente(2L, (id, actual) -> fail("No existe el ID 2")));
+        assertNull(almacen.calcularSiPresente(1L, (id, actual) -> null));
+        assertNull(almacen.obtener(1L));
+        assertEquals(0, almacen.tamano());
+    }
+
+    @Test
+    public void testLotesYRecorridoPorRango() {
+        AlmacenUsuarios almacen = crear();
+        List<UsuarioRefactorizado> lote = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            lote.add(registro(id, "USUARIO " + id, 1L));
+        }
+        almacen.ponerVarios(lote);
+        for (long id = 2; id <= 50; id += 2) {
+            almacen.quitar(id);
+        }
+
+        UsuarioRefactorizado[] encontrados = almacen.obtenerVarios(new long[] {1L, 2L, 3L, 999L});
+        assertEquals("USUARIO 1", encontrados[0].getNombre());
+        assertNull(encontrados[1]);
+        assertEquals("USUARIO 3", encontrados[2].getNombre());
+        assertNull(encontrados[3]);
+        assertEquals(25, almacen.tamano());
+
+        assertEquals(List.of(11L, 13L, 15L, 17L, 19L), ids(almacen.recorrerRango(10L, 20L)));
+        assertEquals(List.of(47L, 49L), ids(almacen.recorrerDesde(45L)));
+        assertEquals(List.of(), ids(almacen.recorrerRango(49L, 100L)));
+    }
+
+    @Test
+    public void testRecorridoTrasEliminarCasiTodoUnRango() {
+        AlmacenUsuarios almacen = crear();
+        List<UsuarioRefactorizado> lote = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            lote.add(registro(id, "USUARIO " + id, 1L));
+        }
+        almacen.ponerVarios(lote);
+        for (long id = 1; id <= 5_000; id++) {
+            if (id != 3 && id != 2_500 && id != 4_999) {
+                almacen.quitar(id);
+            }
+        }
+
+        assertEquals(List.of(3L, 2_500L, 4_999L), ids(almacen.recorrerDesde(0L)));
+        assertEquals(List.of(2_500L), ids(almacen.recorrerRango(3L, 4_000L)));
+        assertEquals(List.of(), ids(almacen.recorrerDesde(4_999L)));
+    }
+
+    @Test
+    public void testUltimoIdAsignadoNoRetrocedeAlEliminar() {
+        AlmacenUsuarios almacen = crear();
+        assertEquals(0L, almacen.ultimoIdAsignado());
+
+        almacen.poner(7L, registro(7L, "ANA", 1L));
+        almacen.poner(3L, registro(3L, "LUIS", 1L));
+        almacen.quitar(7L);
+
+        assertEquals(7L, almacen.ultimoIdAsignado());
+    }
+
+    @Test
+    public void testCalculosConcurrentesSobreUnMismoIdNoSePierden() throws Exception {
+        AlmacenUsuarios almacen = crear();
+        almacen.poner(1L, registro(1L, "ANA", 1L));
+        int hilos = 4;
+        int porHilo = 2_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(executor.submit(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        almacen.calcularSiPresente(1L, (id, actual) -> registro(id, "ANA", actual.getVersion() + 1));
+                        almacen.confirmar();
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1L + hilos * porHilo, almacen.obtener(1L).getVersion());
+    }
+
+    protected static UsuarioRefactorizado registro(long id, String nombre, long version) {
+        return new UsuarioRefactorizado(id, nombre, "u" + id + "@email.com", 30, "987654321", version);
+    }
+
+    private static List<Long> ids(Iterator<UsuarioRefactorizado> iterador) {
+        List<Long> ids = new ArrayList<>();
+        iterador.forEachRemaining(usuario -> ids.add(usuario.getId()));
+        return ids;
+    }
+}
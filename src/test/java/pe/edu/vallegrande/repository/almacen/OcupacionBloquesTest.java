@@ -0,0 +1,40 @@
+package pe.edu.vallegrande.repository.almacen;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcupacionBloquesTest {
+
+    private static final long BLOQUE = AlmacenFragmentado.TAMANO_BLOQUE;
+    private static final long GRUPO = BLOQUE * OcupacionBloques.BLOQUES_POR_GRUPO;
+
+    @Test
+    void testSaltaBloquesYGruposVacios() {
+        OcupacionBloques ocupacion = new OcupacionBloques();
+        ocupacion.agregar(5);
+        ocupacion.agregar(3 * BLOQUE + 7);
+        ocupacion.agregar(2 * GRUPO + 1);
+
+        assertEquals(1, ocupacion.siguienteOcupado(1, Long.MAX_VALUE));
+        // Dentro de un bloque ocupado no hay información por ID: se devuelve el mismo punto de partida
+        assertEquals(6, ocupacion.siguienteOcupado(6, Long.MAX_VALUE));
+        assertEquals(3 * BLOQUE, ocupacion.siguienteOcupado(BLOQUE, Long.MAX_VALUE));
+        assertEquals(2 * GRUPO, ocupacion.siguienteOcupado(4 * BLOQUE, Long.MAX_VALUE));
+        assertEquals(-1, ocupacion.siguienteOcupado(4 * BLOQUE, 2 * GRUPO - 1));
+        assertEquals(-1, ocupacion.siguienteOcupado(3 * GRUPO, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testUnBloqueVaciadoDejaDeContar() {
+        OcupacionBloques ocupacion = new OcupacionBloques();
+        ocupacion.agregar(BLOQUE + 1);
+        ocupacion.agregar(BLOQUE + 2);
+        ocupacion.quitar(BLOQUE + 1);
+        assertEquals(BLOQUE, ocupacion.siguienteOcupado(1, Long.MAX_VALUE));
+
+        ocupacion.quitar(BLOQUE + 2);
+        assertEquals(-1, ocupacion.siguienteOcupado(1, Long.MAX_VALUE));
+        assertEquals(2 * BLOQUE - 1, OcupacionBloques.finDeBloque(BLOQUE + 2));
+    }
+}
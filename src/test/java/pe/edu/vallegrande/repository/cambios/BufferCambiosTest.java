@@ -0,0 +1,107 @@
+package pe.edu.vallegrande.repository.cambios;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.exception.SecuenciaVencidaException;
+import pe.edu.vallegrande.model.EventoCambio;
+import pe.edu.vallegrande.model.TipoCambio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferCambiosTest {
+
+    @Test
+    void testPublicaConSecuenciaConsecutivaYLeePorNumero() {
+        BufferCambios buffer = new BufferCambios(8);
+
+        assertEquals(1L, buffer.publicar(TipoCambio.CREADO, 10L, null));
+        assertEquals(2L, buffer.publicar(TipoCambio.ELIMINADO, 10L, null));
+
+        EventoCambio segundo = buffer.leer(2L);
+        assertEquals(TipoCambio.ELIMINADO, segundo.tipo());
+        assertEquals(10L, segundo.id());
+        assertNull(buffer.leer(3L), "Todavia no publicado");
+        assertEquals(2L, buffer.ultimaSecuencia());
+    }
+
+    @Test
+    void testUnaVueltaCompletaVenceLosEventosSobrescritos() {
+        BufferCambios buffer = new BufferCambios(4);
+        for (long id = 1; id <= 6; id++) {
+            buffer.publicar(TipoCambio.CREADO, id, null);
+        }
+
+        assertEquals(3L, buffer.primeraDisponible());
+        assertThrows(SecuenciaVencidaException.class, () -> buffer.leer(2L));
+        assertEquals(3L, buffer.leer(3L).id());
+
+        buffer.verificarContinuidad(2L);
+        buffer.verificarContinuidad(6L);
+        assertThrows(SecuenciaVencidaException.class, () -> buffer.verificarContinuidad(1L));
+        // Una secuencia futura viene de un arranque anterior: tampoco se puede retomar
+        assertThrows(SecuenciaVencidaException.class, () -> buffer.verificarContinuidad(7L));
+    }
+
+    @Test
+    void testEscritoresConcurrentesNoPierdenNiRepitenSecuencias() throws InterruptedException {
+        int hilos = 8;
+        int porHilo = 5_000;
+        BufferCambios buffer = new BufferCambios(1 << 16);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Thread> escritores = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            long id = h;
+            Thread escritor = new Thread(() -> {
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < porHilo; i++) {
+                    buffer.publicar(TipoCambio.ACTUALIZADO, id, null);
+                }
+            });
+            escritor.start();
+            escritores.add(escritor);
+        }
+        inicio.countDown();
+        for (Thread escritor : escritores) {
+            escritor.join();
+        }
+
+        int[] porId = new int[hilos];
+        for (long numero = 1; numero <= (long) hilos * porHilo; numero++) {
+            EventoCambio evento = buffer.leer(numero);
+            assertEquals(numero, evento.secuencia());
+            porId[(int) evento.id()]++;
+        }
+        for (int cantidad : porId) {
+            assertEquals(porHilo, cantidad);
+        }
+    }
+
+    @Test
+    void testEsperarVuelveAlPublicarse() throws InterruptedException {
+        BufferCambios buffer = new BufferCambios(8);
+        Thread escritor = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            buffer.publicar(TipoCambio.CREADO, 1L, null);
+        });
+        escritor.start();
+
+        long inicio = System.nanoTime();
+        while (!buffer.alcanzado(1L)) {
+            buffer.esperar(1L, 10_000_000_000L);
+        }
+        escritor.join();
+
+        assertTrue(System.nanoTime() - inicio < 5_000_000_000L, "Debio despertar con la publicacion");
+    }
+}
@@ -0,0 +1,110 @@
+package pe.edu.vallegrande.repository.cambios;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.exception.SecuenciaVencidaException;
+import pe.edu.vallegrande.model.TipoCambio;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DifusorCambiosTest {
+
+    private static final Duration ESPERA = Duration.ofSeconds(5);
+
+    private final BufferCambios buffer = new BufferCambios(8);
+    private final DifusorCambios difusor = new DifusorCambios(buffer);
+
+    @AfterEach
+    void cerrar() {
+        difusor.close();
+    }
+
+    @Test
+    void testRetomaDespuesDeLaSecuenciaYRecibeLosNuevos() {
+        buffer.publicar(TipoCambio.CREADO, 1L, null);
+        buffer.publicar(TipoCambio.CREADO, 2L, null);
+
+        StepVerifier.create(difusor.desde(buffer.cursor(1L)))
+                .assertNext(evento -> assertEquals(2L, evento.secuencia()))
+                .then(() -> buffer.publicar(TipoCambio.ELIMINADO, 1L, null))
+                .assertNext(evento -> {
+                    assertEquals(3L, evento.secuencia());
+                    assertEquals(TipoCambio.ELIMINADO, evento.tipo());
+                })
+                .thenCancel()
+                .verify(ESPERA);
+
+        assertEquals(0, difusor.suscripcionesActivas());
+    }
+
+    @Test
+    void testSinSecuenciaSoloEntregaLosCambiosNuevos() {
+        buffer.publicar(TipoCambio.CREADO, 1L, null);
+
+        StepVerifier.create(difusor.desde(null))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> buffer.publicar(TipoCambio.CREADO, 2L, null))
+                .assertNext(evento -> assertEquals(2L, evento.id()))
+                .thenCancel()
+                .verify(ESPERA);
+    }
+
+    @Test
+    void testEntregaSoloLoPedidoYTerminaSiSeRezagaMasQueElBuffer() {
+        StepVerifier.create(difusor.desde(buffer.cursor(0L)), 1)
+                .then(() -> {
+                    for (long id = 1; id <= 3; id++) {
+                        buffer.publicar(TipoCambio.CREADO, id, null);
+                    }
+                })
+                .assertNext(evento -> assertEquals(1L, evento.secuencia()))
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> {
+                    // Sin demanda, la suscripción queda más de una vuelta atrás
+                    for (long id = 4; id <= 20; id++) {
+                        buffer.publicar(TipoCambio.CREADO, id, null);
+                    }
+                })
+                .thenRequest(5)
+                .expectError(SecuenciaVencidaException.class)
+                .verify(ESPERA);
+    }
+
+    @Test
+    void testSecuenciaFueraDelBufferFallaAlSuscribirse() {
+        for (long id = 1; id <= 20; id++) {
+            buffer.publicar(TipoCambio.CREADO, id, null);
+        }
+
+        assertThrows(SecuenciaVencidaException.class, () -> difusor.desde(buffer.cursor(3L)));
+    }
+
+    @Test
+    void testUnCursorDeUnArranqueAnteriorFallaAunqueSuSecuenciaExista() {
+        for (long id = 1; id <= 3; id++) {
+            buffer.publicar(TipoCambio.CREADO, id, null);
+        }
+        String cursorAnterior = buffer.cursor(2L);
+
+        // Reinicio: buffer nuevo, la secuencia vuelve a empezar y pasa de largo la del cursor
+        BufferCambios reiniciado = new BufferCambios(8);
+        try (DifusorCambios difusorReiniciado = new DifusorCambios(reiniciado)) {
+            for (long id = 1; id <= 5; id++) {
+                reiniciado.publicar(TipoCambio.CREADO, id, null);
+            }
+
+            assertThrows(SecuenciaVencidaException.class, () -> difusorReiniciado.desde(cursorAnterior));
+            // Un número solo, sin época, tampoco dice de qué arranque es
+            assertThrows(SecuenciaVencidaException.class, () -> difusorReiniciado.desde("2"));
+            assertThrows(IllegalArgumentException.class, () -> difusorReiniciado.desde("x-y"));
+            StepVerifier.create(difusorReiniciado.desde(reiniciado.cursor(4L)))
+                    .assertNext(evento -> assertEquals(reiniciado.cursor(5L), evento.cursor()))
+                    .thenCancel()
+                    .verify(ESPERA);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package pe.edu.vallegrande.repository.indice;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceTrigramasTest {
+
+    @Test
+    void testTrigramasIgnoranMayusculasYTildes() {
+        assertArrayEquals(Trigramas.extraer("Jos\u00e9 P\u00e9rez"), Trigramas.extraer("JOSE PEREZ"));
+        // "  a", " ab", "abc", "bc " para una sola palabra de tres letras
+        assertEquals(4, Trigramas.extraer("abc").length);
+        assertEquals(0, Trigramas.extraer("  ", null).length);
+        assertEquals(1.0, Trigramas.similitud(Trigramas.extraer("juan"), Trigramas.extraer("JUAN")));
+        assertEquals(0.0, Trigramas.similitud(Trigramas.extraer("juan"), Trigramas.extraer("xyz")));
+    }
+
+    @Test
+    void testListaPosteoConAltasFueraDeOrdenBajasYParticiones() {
+        ListaPosteo lista = new ListaPosteo();
+        TreeSet<Long> esperado = new TreeSet<>();
+        Random aleatorio = new Random(42);
+        for (long id = 1; id <= 5_000; id++) {
+            lista.agregar(id * 3);
+            esperado.add(id * 3);
+        }
+        // Altas en medio de bloques llenos obligan a partirlos; las bajas pueden vaciarlos
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + aleatorio.nextInt(20_000);
+            if (aleatorio.nextBoolean()) {
+                lista.agregar(id);
+                esperado.add(id);
+            } else {
+                lista.quitar(id);
+                esperado.remove(id);
+            }
+        }
+
+        assertEquals(esperado.size(), lista.frecuencia());
+        assertEquals(new ArrayList<>(esperado), recorrer(lista));
+    }
+
+    @Test
+    void testRankingToleraErroresDeTipeoYSeActualizaIncrementalmente() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.reemplazar(1L, null, usuario("JUAN PEREZ", "juan.perez@vallegrande.edu.pe"));
+        indice.reemplazar(2L, null, usuario("MARIA LOPEZ", "maria.lopez@vallegrande.edu.pe"));
+        indice.reemplazar(3L, null, usuario("JUANA PAREDES", "juana.paredes@vallegrande.edu.pe"));
+
+        long[] candidatos = indice.candidatos(Trigramas.extraer("jaun peres"), 1, 10);
+        assertEquals(1L, candidatos[0]);
+
+        // Cambiar el nombre quita los trigramas viejos y agrega los nuevos
+        UsuarioRefactorizado anterior = usuario("MARIA LOPEZ", "maria.lopez@vallegrande.edu.pe");
+        indice.reemplazar(2L, anterior, usuario("JUAN PERES", "maria.lopez@vallegrande.edu.pe"));
+        candidatos = indice.candidatos(Trigramas.extraer("juan peres"), 1, 1);
+        assertArrayEquals(new long[]{2L}, candidatos);
+
+        indice.reemplazar(1L, usuario("JUAN PEREZ", "juan.perez@vallegrande.edu.pe"), null);
+        assertFalse(contiene(indice.candidatos(Trigramas.extraer("juan perez"), 1, 10), 1L));
+    }
+
+    private static List<Long> recorrer(ListaPosteo lista) {
+        List<Long> ids = new ArrayList<>();
+        ListaPosteo.Cursor cursor = lista.cursor();
+        for (long id = cursor.siguiente(); id != ListaPosteo.FIN; id = cursor.siguiente()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static boolean contiene(long[] ids, long buscado) {
+        for (long id : ids) {
+            if (id == buscado) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static UsuarioRefactorizado usuario(String nombre, String email) {
+        return UsuarioRefactorizado.builder().nombre(nombre).email(email).edad(30).build();
+    }
+}
@@ -0,0 +1,90 @@
+package pe.edu.vallegrande.repository.indice;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.CriteriosBusqueda;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndicesSecundariosTest {
+
+    private static final String[] NOMBRES = {"ANA", "ANDRES", "ANTONIO", "BEATRIZ"};
+
+    @Test
+    void testCandidatosEnOrdenDeIdDesdeElCursor() {
+        IndicesSecundarios indices = new IndicesSecundarios();
+        List<UsuarioRefactorizado> usuarios = new ArrayList<>();
+        Random aleatorio = new Random(7);
+        // Altas en orden inverso: ningún recorrido puede apoyarse en el orden de inserción
+        for (long id = 3_000; id >= 1; id--) {
+            UsuarioRefactorizado usuario = usuario(id, NOMBRES[aleatorio.nextInt(NOMBRES.length)],
+                    18 + aleatorio.nextInt(60), "9" + aleatorio.nextInt(3));
+            indices.reemplazar(id, null, usuario);
+            usuarios.add(usuario);
+        }
+
+        List<CriteriosBusqueda> consultas = List.of(
+                CriteriosBusqueda.builder().nombrePrefijo("AN").build(),
+                CriteriosBusqueda.builder().edadMinima(30).edadMaxima(45).build(),
+                CriteriosBusqueda.builder().nombrePrefijo("AN").edadMinima(70).build(),
+                CriteriosBusqueda.builder().telefono("91").build());
+        for (CriteriosBusqueda criterios : consultas) {
+            List<Long> esperado = usuarios.stream()
+                    .filter(criterios::coincide)
+                    .map(UsuarioRefactorizado::getId)
+                    .filter(id -> id > 1_000)
+                    .sorted()
+                    .toList();
+            List<Long> obtenido = new ArrayList<>();
+            PrimitiveIterator.OfLong candidatos = indices.candidatos(criterios, 1_000);
+            while (candidatos.hasNext()) {
+                long id = candidatos.nextLong();
+                if (criterios.coincide(usuarios.get((int) (3_000 - id)))) {
+                    obtenido.add(id);
+                }
+            }
+            assertEquals(esperado, obtenido, criterios.toString());
+        }
+    }
+
+    @Test
+    void testUnCambioDeEdadNoDuplicaNiDejaElIdEnLaCubetaAnterior() {
+        IndicesSecundarios indices = new IndicesSecundarios();
+        UsuarioRefactorizado joven = usuario(1, "ANA", 20, "900");
+        UsuarioRefactorizado mayor = usuario(1, "ANA", 60, "900");
+        indices.reemplazar(1, null, joven);
+        indices.reemplazar(2, null, usuario(2, "ANA", 60, "900"));
+        indices.reemplazar(1, joven, mayor);
+
+        assertArrayEquals(new long[] {1, 2},
+                ids(indices.candidatos(CriteriosBusqueda.builder().edadMinima(18).build(), 0)));
+        assertArrayEquals(new long[0],
+                ids(indices.candidatos(CriteriosBusqueda.builder().edadMaxima(30).build(), 0)));
+    }
+
+    @Test
+    void testMezclaDescartaRepetidosEntreRecorridos() {
+        PrimitiveIterator.OfLong mezcla = MezclaIds.de(List.of(
+                MezclaIds.de(List.of(1L, 4L, 9L).iterator()),
+                MezclaIds.de(List.of(2L, 4L, 5L).iterator()),
+                MezclaIds.de(List.<Long>of().iterator())));
+
+        assertArrayEquals(new long[] {1, 2, 4, 5, 9}, ids(mezcla));
+    }
+
+    private static long[] ids(PrimitiveIterator.OfLong recorrido) {
+        List<Long> ids = new ArrayList<>();
+        recorrido.forEachRemaining((long id) -> ids.add(id));
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static UsuarioRefactorizado usuario(long id, String nombre, int edad, String telefono) {
+        return UsuarioRefactorizado.builder().id(id).nombre(nombre).email(id + "@email.com")
+                .edad(edad).telefono(telefono).build();
+    }
+}
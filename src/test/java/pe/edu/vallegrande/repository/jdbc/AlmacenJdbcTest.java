@@ -0,0 +1,134 @@
+package pe.edu.vallegrande.repository.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.exception.EmailDuplicadoException;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+import pe.edu.vallegrande.repository.almacen.ContratoAlmacenUsuariosTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlmacenJdbcTest extends ContratoAlmacenUsuariosTest {
+
+    private final List<HikariDataSource> abiertos = new ArrayList<>();
+
+    @Override
+    protected AlmacenUsuarios crear() {
+        return new AlmacenJdbc(abrir(), 1_000, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void cerrar() {
+        abiertos.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void testElIndiceUnicoRechazaUnEmailAjenoSinTocarElRegistro() {
+        AlmacenUsuarios almacen = crear();
+        almacen.poner(1L, registro(1L, "ANA", 1L));
+        almacen.poner(2L, registro(2L, "LUIS", 1L));
+
+        UsuarioRefactorizado conEmailAjeno = registro(2L, "LUIS", 2L);
+        conEmailAjeno.setEmail("u1@email.com");
+        assertThrows(EmailDuplicadoException.class, () -> almacen.poner(2L, conEmailAjeno));
+        assertThrows(EmailDuplicadoException.class, () -> almacen.poner(3L, conEmailAjeno));
+
+        assertEquals("u2@email.com", almacen.obtener(2L).getEmail());
+        assertEquals(1L, almacen.obtenerPorEmail("u1@email.com").getId());
+        assertNull(almacen.obtenerPorEmail("nadie@email.com"));
+        assertEquals(2, almacen.tamano());
+    }
+
+    @Test
+    void testElEfectoCorreDespuesDelCommitYNoCorreSiSeRevierte() {
+        AlmacenUsuarios almacen = crear();
+        List<String> vistos = new ArrayList<>();
+        // obtenerPorEmail usa otra conexión: solo ve la fila si la transacción ya se confirmó
+        AlmacenUsuarios.Efecto efecto = (id, anterior, nuevo) ->
+                vistos.add(id + ":" + (almacen.obtenerPorEmail(nuevo.getEmail()) != null));
+
+        almacen.calcular(1L, (id, actual) -> registro(1L, "ANA", 1L), efecto);
+        almacen.ponerVarios(List.of(registro(2L, "LUIS", 1L), registro(3L, "CARLOS", 1L)), efecto);
+        assertEquals(List.of("1:true", "2:true", "3:true"), vistos);
+
+        UsuarioRefactorizado conEmailAjeno = registro(4L, "OTRA ANA", 1L);
+        conEmailAjeno.setEmail("u1@email.com");
+        assertThrows(EmailDuplicadoException.class, () -> almacen.calcular(4L, (id, actual) -> conEmailAjeno, efecto));
+        assertEquals(3, vistos.size());
+    }
+
+    @Test
+    void testLaCacheCercanaSeInvalidaAlEscribir() {
+        AlmacenUsuarios almacen = crear();
+        almacen.poner(1L, registro(1L, "ANA", 1L));
+
+        assertSame(almacen.obtener(1L), almacen.obtener(1L));
+        almacen.calcularSiPresente(1L, (id, actual) -> registro(1L, "ANA MARIA", 2L));
+        assertEquals("ANA MARIA", almacen.obtener(1L).getNombre());
+        almacen.quitar(1L);
+        assertNull(almacen.obtener(1L));
+    }
+
+    @Test
+    void testElLoteDejaFueraLosEmailsRepetidosYReescribeLosIdsExistentes() {
+        AlmacenUsuarios almacen = crear();
+        almacen.poner(1L, registro(1L, "ANA", 1L));
+
+        UsuarioRefactorizado repetido = registro(3L, "OTRA ANA", 1L);
+        repetido.setEmail("u1@email.com");
+        List<UsuarioRefactorizado> lote = List.of(registro(1L, "ANA MARIA", 2L), registro(2L, "LUIS", 1L), repetido);
+        List<UsuarioRefactorizado> escritos = almacen.ponerVarios(lote);
+
+        assertEquals(List.of(2L, 1L), escritos.stream().map(UsuarioRefactorizado::getId).toList());
+        assertEquals("ANA MARIA", almacen.obtener(1L).getNombre());
+        assertNull(almacen.obtener(3L));
+        assertEquals(2, almacen.tamano());
+    }
+
+    @Test
+    void testElRepositorioDelegaLaUnicidadDelEmailEnElIndice() {
+        HikariDataSource dataSource = abrir();
+        UsuarioRepositoryRefactorizado repository =
+                new UsuarioRepositoryRefactorizado(new AlmacenJdbc(dataSource, 1_000, new SimpleMeterRegistry()));
+
+        UsuarioRefactorizado ana = repository.guardar(usuario("ANA", "ana@email.com"));
+        assertThrows(EmailDuplicadoException.class, () -> repository.guardar(usuario("OTRA ANA", "ana@email.com")));
+
+        List<UsuarioRefactorizado> lote = List.of(usuario("LUIS", "luis@email.com"), usuario("ANA BIS", "ana@email.com"));
+        assertEquals(1, repository.guardarLote(lote).size());
+        assertNotNull(lote.get(0).getId());
+        assertNull(lote.get(1).getId());
+
+        assertTrue(repository.existeEmail("ana@email.com"));
+        assertEquals(ana.getId(), repository.obtenerPorEmail("ana@email.com").orElseThrow().getId());
+
+        // Al reabrir sobre la misma base, los IDs siguen después del mayor asignado
+        UsuarioRepositoryRefactorizado reabierto =
+                new UsuarioRepositoryRefactorizado(new AlmacenJdbc(dataSource, 1_000, new SimpleMeterRegistry()));
+        assertEquals(2, reabierto.obtenerTodos().size());
+        assertTrue(reabierto.guardar(usuario("CARLOS", "carlos@email.com")).getId() > lote.get(0).getId());
+    }
+
+    private HikariDataSource abrir() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID());
+        config.setMaximumPoolSize(8);
+        config.setAutoCommit(false);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        abiertos.add(dataSource);
+        return dataSource;
+    }
+
+    private static UsuarioRefactorizado usuario(String nombre, String email) {
+        return UsuarioRefactorizado.builder().nombre(nombre).email(email).edad(30).telefono("987654321").build();
+    }
+}
@@ -0,0 +1,80 @@
+package pe.edu.vallegrande.repository.mapa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pe.edu.vallegrande.repository.mapa.MapaCadenaLongConcurrente.AUSENTE;
+
+class MapaCadenaLongConcurrenteTest {
+
+    @Test
+    void testOperacionesBasicasConLapidas() {
+        MapaCadenaLongConcurrente mapa = new MapaCadenaLongConcurrente();
+        int total = 50_000;
+        for (int i = 0; i < total; i++) {
+            assertEquals(AUSENTE, mapa.poner("u" + i + "@email.com", i));
+        }
+        assertEquals(7L, mapa.ponerSiAusente("u7@email.com", 99L));
+        assertEquals(7L, mapa.obtener("u7@email.com"));
+
+        assertFalse(mapa.quitar("u7@email.com", 8L));
+        assertTrue(mapa.quitar("u7@email.com", 7L));
+        assertFalse(mapa.contiene("u7@email.com"));
+        assertEquals(AUSENTE, mapa.quitar("u7@email.com"));
+        assertEquals(total - 1, mapa.tamano());
+
+        assertEquals(AUSENTE, mapa.ponerSiAusente("u7@email.com", 70L));
+        assertEquals(70L, mapa.obtener("u7@email.com"));
+        assertEquals(total, mapa.tamano());
+        assertThrows(IllegalArgumentException.class, () -> mapa.poner("reservado", AUSENTE));
+    }
+
+    @Test
+    void testInsertarSiAusenteSoloInvocaAlGeneradorSiLaClaveEstaLibre() {
+        MapaCadenaLongConcurrente mapa = new MapaCadenaLongConcurrente();
+        AtomicInteger llamadas = new AtomicInteger();
+
+        assertEquals(1L, mapa.insertarSiAusente("ana@email.com", () -> llamadas.incrementAndGet()));
+        assertEquals(AUSENTE, mapa.insertarSiAusente("ana@email.com", () -> llamadas.incrementAndGet()));
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void testReclamosConcurrentesTienenUnUnicoGanadorPorClave() throws Exception {
+        MapaCadenaLongConcurrente mapa = new MapaCadenaLongConcurrente();
+        int hilos = 8;
+        int claves = 5_000;
+        AtomicLong generador = new AtomicLong(1);
+        AtomicInteger ganados = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(executor.submit(() -> {
+                    for (int i = 0; i < claves; i++) {
+                        if (mapa.insertarSiAusente("c" + i, generador::getAndIncrement) != AUSENTE) {
+                            ganados.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(claves, ganados.get());
+        assertEquals(claves, mapa.tamano());
+        assertEquals(claves + 1L, generador.get());
+    }
+}
@@ -0,0 +1,85 @@
+package pe.edu.vallegrande.repository.mapa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaLongConcurrenteTest {
+
+    @Test
+    void testPonerObtenerQuitarConRedimensionadoYLapidas() {
+        MapaLongConcurrente<String> mapa = new MapaLongConcurrente<>();
+        int total = 100_000;
+        for (long clave = 0; clave < total; clave++) {
+            assertNull(mapa.poner(clave, "v" + clave));
+        }
+        for (long clave = 0; clave < total; clave += 2) {
+            assertEquals("v" + clave, mapa.quitar(clave));
+        }
+        assertNull(mapa.quitar(0L));
+        assertEquals(total / 2, mapa.tamano());
+
+        // Reinsertar sobre lápidas y forzar nuevos redimensionados
+        for (long clave = 0; clave < total; clave += 2) {
+            assertNull(mapa.poner(clave, "w" + clave));
+        }
+        for (long clave = 0; clave < total; clave++) {
+            assertEquals((clave % 2 == 0 ? "w" : "v") + clave, mapa.obtener(clave));
+        }
+        assertNull(mapa.obtener(-5L));
+        assertEquals(total, mapa.tamano());
+    }
+
+    @Test
+    void testCalcularEsAtomicoYUnaExcepcionNoCambiaNada() {
+        MapaLongConcurrente<String> mapa = new MapaLongConcurrente<>();
+        mapa.poner(7L, "original");
+
+        assertThrows(IllegalStateException.class, () -> mapa.calcular(7L, (clave, actual) -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals("original", mapa.obtener(7L));
+
+        assertNull(mapa.calcularSiPresente(8L, (clave, actual) -> "nunca"));
+        assertNull(mapa.obtener(8L));
+        assertThrows(IllegalArgumentException.class, () -> mapa.poner(Long.MIN_VALUE, "reservada"));
+    }
+
+    @Test
+    void testIncrementosConcurrentesNoSePierden() throws Exception {
+        MapaLongConcurrente<Integer> mapa = new MapaLongConcurrente<>();
+        int hilos = 8;
+        int claves = 1_000;
+        int rondas = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(executor.submit(() -> {
+                    for (int r = 0; r < rondas; r++) {
+                        for (long clave = 1; clave <= claves; clave++) {
+                            mapa.calcular(clave, (c, actual) -> actual == null ? 1 : actual + 1);
+                            assertNotNull(mapa.obtener(clave));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(claves, mapa.tamano());
+        for (long clave = 1; clave <= claves; clave++) {
+            assertEquals(hilos * rondas, mapa.obtener(clave));
+        }
+    }
+}
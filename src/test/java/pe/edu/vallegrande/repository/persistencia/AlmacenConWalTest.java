@@ -0,0 +1,83 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenFueraDeHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+import pe.edu.vallegrande.repository.almacen.ContratoAlmacenUsuariosTest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlmacenConWalTest extends ContratoAlmacenUsuariosTest {
+
+    @TempDir
+    Path directorio;
+
+    private final List<UsuarioWal> abiertos = new ArrayList<>();
+
+    @Override
+    protected AlmacenUsuarios crear() {
+        return abrir(new AlmacenEnHeap());
+    }
+
+    @AfterEach
+    void cerrar() throws IOException {
+        for (UsuarioWal wal : abiertos) {
+            wal.close();
+        }
+    }
+
+    @Test
+    void testRecuperaLasMutacionesSobreOtroMotor() throws IOException {
+        AlmacenConWal almacen = abrir(new AlmacenEnHeap());
+        for (long id = 1; id <= 5; id++) {
+            almacen.poner(id, registro(id, "USUARIO " + id, 1L));
+        }
+        almacen.calcularSiPresente(2L, (id, actual) -> registro(2L, "CAMBIADO", 2L));
+        almacen.quitar(5L);
+        almacen.confirmar();
+        cerrar();
+
+        // El log no depende del motor: lo escrito desde el heap se recupera fuera del heap
+        AlmacenConWal recuperado = abrir(new AlmacenFueraDeHeap());
+        assertEquals(4, recuperado.tamano());
+        assertEquals("CAMBIADO", recuperado.obtener(2L).getNombre());
+        assertEquals(2L, recuperado.obtener(2L).getVersion());
+        assertNull(recuperado.obtener(5L));
+        assertEquals(5L, recuperado.ultimoIdAsignado());
+    }
+
+    @Test
+    void testElSnapshotConservaElUltimoIdDeLosEliminados() throws IOException {
+        AlmacenConWal almacen = abrir(new AlmacenEnHeap());
+        almacen.poner(1L, registro(1L, "ANA", 1L));
+        almacen.poner(9L, registro(9L, "LUIS", 1L));
+        almacen.quitar(9L);
+        almacen.confirmar();
+        assertEquals(1L, almacen.tomarSnapshot());
+        cerrar();
+
+        AlmacenConWal recuperado = abrir(new AlmacenEnHeap());
+        assertEquals(1, recuperado.tamano());
+        assertEquals(9L, recuperado.ultimoIdAsignado());
+    }
+
+    private AlmacenConWal abrir(AlmacenUsuarios motor) {
+        abiertos.clear();
+        try {
+            UsuarioWal wal = new UsuarioWal(directorio);
+            abiertos.add(wal);
+            return new AlmacenConWal(motor, wal);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
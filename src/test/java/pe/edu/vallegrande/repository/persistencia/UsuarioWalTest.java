@@ -0,0 +1,192 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsuarioWalTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testRecuperaGuardarActualizarYEliminar() throws IOException {
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            UsuarioRepositoryRefactorizado repository = repositorio(wal);
+            repository.guardar(usuario("Juan", "juan@email.com"));
+            UsuarioRefactorizado maria = repository.guardar(usuario("Maria", "maria@email.com"));
+            repository.guardar(usuario("Pedro", "pedro@email.com"));
+
+            maria.setEmail("maria.nueva@email.com");
+            repository.actualizar(maria);
+            repository.eliminar(3L);
+        }
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            UsuarioRepositoryRefactorizado recuperado = repositorio(wal);
+
+            assertEquals(2, recuperado.obtenerTodos().size());
+            assertTrue(recuperado.existeEmail("maria.nueva@email.com"));
+            assertFalse(recuperado.existeEmail("maria@email.com"));
+            assertEquals(1L, recuperado.obtenerPorId(1L).orElseThrow().getVersion());
+            assertEquals(2L, recuperado.obtenerPorId(2L).orElseThrow().getVersion());
+            assertFalse(recuperado.obtenerPorId(3L).isPresent());
+            assertEquals(4L, recuperado.guardar(usuario("Ana", "ana@email.com")).getId());
+        }
+    }
+
+    @Test
+    void testDescartaRegistroFinalIncompleto() throws IOException {
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            UsuarioRepositoryRefactorizado repository = repositorio(wal);
+            repository.guardar(usuario("Juan", "juan@email.com"));
+        }
+        try (FileChannel canal = FileChannel.open(directorio.resolve("usuarios-000000000001.wal"), StandardOpenOption.APPEND)) {
+            canal.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2}));
+        }
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            UsuarioRepositoryRefactorizado recuperado = repositorio(wal);
+            recuperado.guardar(usuario("Maria", "maria@email.com"));
+        }
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            assertEquals(2, repositorio(wal).obtenerTodos().size());
+        }
+    }
+
+    @Test
+    void testMigraElLogLegadoDeUnaSolaPieza() throws IOException {
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            UsuarioRepositoryRefactorizado repository = repositorio(wal);
+            repository.guardar(usuario("Juan", "juan@email.com"));
+            repository.guardar(usuario("Maria", "maria@email.com"));
+            repository.eliminar(1L);
+        }
+        // Mismo formato de registro con el nombre de archivo que usaba el log antes de las generaciones
+        Files.move(directorio.resolve("usuarios-000000000001.wal"), directorio.resolve("usuarios.wal"));
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            UsuarioRepositoryRefactorizado recuperado = repositorio(wal);
+
+            assertEquals(1, recuperado.obtenerTodos().size());
+            assertTrue(recuperado.existeEmail("maria@email.com"));
+            assertEquals(3L, recuperado.guardar(usuario("Ana", "ana@email.com")).getId());
+        }
+        assertFalse(Files.exists(directorio.resolve("usuarios.wal")));
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            assertEquals(2, repositorio(wal).obtenerTodos().size());
+        }
+    }
+
+    @Test
+    void testNoCombinaElLogLegadoConSegmentosPorGeneracion() throws IOException {
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            repositorio(wal).guardar(usuario("Juan", "juan@email.com"));
+        }
+        Files.copy(directorio.resolve("usuarios-000000000001.wal"), directorio.resolve("usuarios.wal"));
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            assertThrows(IllegalStateException.class, () -> repositorio(wal));
+        }
+    }
+
+    @Test
+    void testEscriturasConcurrentesSeAgrupan() throws Exception {
+        int hilos = 8;
+        int porHilo = 200;
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            UsuarioRepositoryRefactorizado repository = repositorio(wal);
+            ExecutorService executor = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                tareas.add(executor.submit(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        repository.guardar(usuario("Usuario", "u" + hilo + "-" + i + "@email.com"));
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            executor.shutdown();
+        }
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            assertEquals(hilos * porHilo, repositorio(wal).obtenerTodos().size());
+        }
+    }
+
+    @Test
+    void testSnapshotConEscriturasConcurrentesYRecuperacion() throws Exception {
+        int hilos = 4;
+        int porHilo = 500;
+
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            AlmacenConWal almacen = new AlmacenConWal(new AlmacenEnHeap(), wal);
+            UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado(almacen);
+            ExecutorService executor = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                tareas.add(executor.submit(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        UsuarioRefactorizado usuario = repository.guardar(usuario("Usuario", "u" + hilo + "-" + i + "@email.com"));
+                        if (i % 10 == 0) {
+                            repository.eliminar(usuario.getId());
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                almacen.tomarSnapshot();
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            executor.shutdown();
+            almacen.tomarSnapshot();
+            repository.guardar(usuario("Final", "final@email.com"));
+        }
+
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertEquals(2, archivos.count(), "Solo deben quedar el último snapshot y su segmento");
+        }
+        try (UsuarioWal wal = new UsuarioWal(directorio)) {
+            UsuarioRepositoryRefactorizado recuperado = repositorio(wal);
+
+            assertEquals(hilos * porHilo * 9 / 10 + 1, recuperado.obtenerTodos().size());
+            assertTrue(recuperado.existeEmail("final@email.com"));
+            assertFalse(recuperado.existeEmail("u0-0@email.com"));
+            assertEquals(hilos * porHilo + 2L, recuperado.guardar(usuario("Otro", "otro@email.com")).getId());
+        }
+    }
+
+    private static UsuarioRepositoryRefactorizado repositorio(UsuarioWal wal) {
+        return new UsuarioRepositoryRefactorizado(new AlmacenConWal(new AlmacenEnHeap(), wal));
+    }
+
+    private static UsuarioRefactorizado usuario(String nombre, String email) {
+        return UsuarioRefactorizado.builder().nombre(nombre).email(email).edad(30).telefono("987654321").build();
+    }
+}
@@ -0,0 +1,113 @@
+package pe.edu.vallegrande.repository.persistencia;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+import pe.edu.vallegrande.repository.almacen.AlmacenEnHeap;
+import pe.edu.vallegrande.repository.almacen.AlmacenFragmentado;
+import pe.edu.vallegrande.repository.almacen.AlmacenUsuarios;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalFragmentadoTest {
+
+    private static final long BLOQUE = AlmacenFragmentado.TAMANO_BLOQUE;
+
+    @TempDir
+    Path directorio;
+
+    private WalFragmentado abierto;
+
+    @AfterEach
+    void cerrar() throws IOException {
+        if (abierto != null) {
+            abierto.close();
+            abierto = null;
+        }
+    }
+
+    @Test
+    void testCadaFragmentoAnexaASuPropioLog() throws IOException {
+        AlmacenUsuarios almacen = abrir(3);
+        for (long bloque = 0; bloque < 3; bloque++) {
+            almacen.poner(bloque * BLOQUE + 1, usuario(bloque * BLOQUE + 1));
+        }
+        almacen.confirmar();
+
+        for (AlmacenConWal fragmento : abierto.fragmentos()) {
+            assertEquals(1, fragmento.tamano());
+            assertTrue(fragmento.tamanoLog() > 0);
+        }
+        cerrar();
+
+        AlmacenUsuarios recuperado = abrir(3);
+        assertEquals(3, recuperado.tamano());
+        assertEquals("USUARIO " + (BLOQUE + 1), recuperado.obtener(BLOQUE + 1).getNombre());
+    }
+
+    @Test
+    void testAlCambiarLaCantidadDeFragmentosSeReparteElLog() throws IOException {
+        AlmacenUsuarios almacen = abrir(1);
+        almacen.poner(1L, usuario(1L));
+        almacen.poner(BLOQUE + 1, usuario(BLOQUE + 1));
+        abierto.fragmentos().get(0).tomarSnapshot();
+        almacen.poner(2 * BLOQUE + 1, usuario(2 * BLOQUE + 1));
+        almacen.poner(3 * BLOQUE + 1, usuario(3 * BLOQUE + 1));
+        almacen.quitar(3 * BLOQUE + 1);
+        almacen.confirmar();
+        cerrar();
+
+        AlmacenUsuarios repartido = abrir(3);
+        assertEquals(3, repartido.tamano());
+        assertEquals(3 * BLOQUE + 1, repartido.ultimoIdAsignado());
+        assertEquals(0, archivosDeLog(directorio));
+        repartido.poner(4 * BLOQUE + 1, usuario(4 * BLOQUE + 1));
+        repartido.confirmar();
+        cerrar();
+
+        AlmacenUsuarios enDos = abrir(2);
+        assertEquals(4, enDos.tamano());
+        assertFalse(Files.exists(directorio.resolve("fragmentos-3")));
+        cerrar();
+
+        AlmacenUsuarios enUno = abrir(1);
+        assertEquals(4, enUno.tamano());
+        assertEquals("USUARIO " + (4 * BLOQUE + 1), enUno.obtener(4 * BLOQUE + 1).getNombre());
+        assertEquals(4 * BLOQUE + 1, enUno.ultimoIdAsignado());
+        assertFalse(Files.exists(directorio.resolve("fragmentos-2")));
+    }
+
+    @Test
+    void testConLogsDeDosCantidadesDeFragmentosNoArranca() throws IOException {
+        abrir(2).poner(1L, usuario(1L));
+        cerrar();
+        abrir(1).poner(1L, usuario(1L));
+        cerrar();
+        // Ahora conviven el log de un fragmento y el de dos: ninguno es más nuevo con certeza
+        Files.createDirectories(directorio.resolve("fragmentos-2").resolve("0"));
+        Files.writeString(directorio.resolve("fragmentos-2").resolve("0").resolve("usuarios-000000000001.wal"), "");
+
+        assertThrows(IllegalStateException.class, () -> abrir(1));
+    }
+
+    private AlmacenUsuarios abrir(int fragmentos) throws IOException {
+        abierto = new WalFragmentado(directorio, fragmentos, AlmacenEnHeap::new);
+        return abierto.almacen();
+    }
+
+    private static long archivosDeLog(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(archivo -> archivo.getFileName().toString().startsWith("usuarios-")).count();
+        }
+    }
+
+    private static UsuarioRefactorizado usuario(long id) {
+        return UsuarioRefactorizado.builder().id(id).nombre("USUARIO " + id).email(id + "@email.com").edad(30).version(1L).build();
+    }
+}
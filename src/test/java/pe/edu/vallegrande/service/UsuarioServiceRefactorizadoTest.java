@@ -6,8 +6,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import pe.edu.vallegrande.exception.UsuarioNotFoundException;
+import pe.edu.vallegrande.exception.VersionConflictoException;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.CriteriosBusqueda;
+import pe.edu.vallegrande.model.PaginaUsuarios;
+import pe.edu.vallegrande.model.ResultadoLote;
 import pe.edu.vallegrande.model.UsuarioRefactorizado;
 import pe.edu.vallegrande.repository.UsuarioRepositoryRefactorizado;
+import pe.edu.vallegrande.service.cache.CacheRespuestasUsuario;
 
 import java.util.Arrays;
 import java.util.List;
@@ -24,6 +30,9 @@ class UsuarioServiceRefactorizadoTest {
     @Mock
     private UsuarioValidationService validationService;
 
+    @Mock
+    private CacheRespuestasUsuario respuestasCache;
+
     @InjectMocks
     private UsuarioServiceRefactorizado usuarioService;
 
@@ -49,6 +58,30 @@ class UsuarioServiceRefactorizadoTest {
         verify(usuarioRepository).guardar(usuario);
     }
 
+    @Test
+    void testCrearLoteDetectaEmailsDuplicados() {
+        List<UsuarioRefactorizado> lote = Arrays.asList(
+            UsuarioRefactorizado.builder().nombre("Juan").email("juan@email.com").edad(25).build(),
+            UsuarioRefactorizado.builder().nombre("Juan Bis").email("JUAN@email.com").edad(26).build(),
+            UsuarioRefactorizado.builder().nombre("Maria").email("maria@email.com").edad(30).build()
+        );
+        when(usuarioRepository.existeEmail("maria@email.com")).thenReturn(true);
+        when(usuarioRepository.guardarLote(anyList())).thenAnswer(invocacion -> {
+            List<UsuarioRefactorizado> aceptados = invocacion.getArgument(0);
+            aceptados.forEach(usuario -> usuario.setId(1L));
+            return aceptados;
+        });
+
+        ResultadoLote resultado = usuarioService.crearLote(lote);
+
+        assertEquals(1, resultado.getCreados());
+        assertEquals(2, resultado.getFallidos());
+        assertNull(resultado.getResultados().get(0).getError());
+        assertNotNull(resultado.getResultados().get(1).getError());
+        assertNotNull(resultado.getResultados().get(2).getError());
+        verify(usuarioRepository).guardarLote(List.of(lote.get(0)));
+    }
+
     @Test
     void testObtenerTodos() {
         List<UsuarioRefactorizado> usuarios = Arrays.asList(
@@ -63,6 +96,61 @@ class UsuarioServiceRefactorizadoTest {
         verify(usuarioRepository).obtenerTodos();
     }
 
+    @Test
+    void testObtenerPaginaConSiguienteCursor() {
+        List<UsuarioRefactorizado> usuarios = Arrays.asList(
+            UsuarioRefactorizado.builder().id(1L).nombre("Juan").email("juan@email.com").edad(25).build(),
+            UsuarioRefactorizado.builder().id(2L).nombre("Maria").email("maria@email.com").edad(30).build(),
+            UsuarioRefactorizado.builder().id(3L).nombre("Pedro").email("pedro@email.com").edad(40).build()
+        );
+        when(usuarioRepository.obtenerPagina(null, 3)).thenReturn(usuarios);
+        when(usuarioRepository.obtenerPagina(2L, 3)).thenReturn(usuarios.subList(2, 3));
+
+        PaginaUsuarios primera = usuarioService.obtenerPagina(null, null, 2);
+        PaginaUsuarios segunda = usuarioService.obtenerPagina(null, primera.getSiguienteCursor(), 2);
+
+        assertEquals(2, primera.getUsuarios().size());
+        assertNotNull(primera.getSiguienteCursor());
+        assertEquals(1, segunda.getUsuarios().size());
+        assertNull(segunda.getSiguienteCursor());
+    }
+
+    @Test
+    void testObtenerPaginaLimiteInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.obtenerPagina(null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.obtenerPagina(null, "no-es-cursor", 10));
+    }
+
+    @Test
+    void testBuscarNormalizaElPrefijoDelNombre() {
+        when(usuarioRepository.buscar(any(CriteriosBusqueda.class), isNull(), eq(11))).thenReturn(List.of());
+
+        PaginaUsuarios pagina = usuarioService.buscar("  jua ", 18, 30, " ", null, 10);
+
+        assertTrue(pagina.getUsuarios().isEmpty());
+        verify(usuarioRepository).buscar(new CriteriosBusqueda("JUA", 18, 30, null), null, 11);
+    }
+
+    @Test
+    void testBuscarSinCriteriosORangoInvertido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> usuarioService.buscar(null, null, null, null, null, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> usuarioService.buscar(null, 40, 20, null, null, 10));
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void testBuscarAproximadoValidaConsultaYLimite() {
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.buscarAproximado(" a ", 10));
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.buscarAproximado("juan", 0));
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.buscarAproximado("juan", 101));
+        verifyNoInteractions(usuarioRepository);
+
+        when(usuarioRepository.buscarAproximado("jaun", 0.3, 5)).thenReturn(List.of());
+        assertTrue(usuarioService.buscarAproximado("  jaun ", 5).isEmpty());
+    }
+
     @Test
     void testObtenerPorId() {
         UsuarioRefactorizado usuario = UsuarioRefactorizado.builder()
@@ -104,13 +192,88 @@ class UsuarioServiceRefactorizadoTest {
                 .build();
 
         when(usuarioRepository.obtenerPorId(1L)).thenReturn(Optional.of(usuarioExistente));
-        when(usuarioRepository.actualizar(any(UsuarioRefactorizado.class))).thenReturn(usuarioActualizado);
+        when(usuarioRepository.actualizar(any(UsuarioRefactorizado.class), isNull())).thenReturn(Optional.of(usuarioActualizado));
 
         UsuarioRefactorizado resultado = usuarioService.actualizar(1L, usuarioActualizado);
 
         assertNotNull(resultado);
         verify(validationService).validarUsuarioParaActualizacion(usuarioActualizado, usuarioExistente);
-        verify(usuarioRepository).actualizar(usuarioActualizado);
+        verify(usuarioRepository).actualizar(usuarioActualizado, null);
+        verify(respuestasCache).invalidar(1L);
+    }
+
+    @Test
+    void testActualizarUnUsuarioEliminadoDespuesDeLeerloResponde404() {
+        UsuarioRepositoryRefactorizado repository = new UsuarioRepositoryRefactorizado();
+        UsuarioRefactorizado existente = repository.guardar(UsuarioRefactorizado.builder()
+                .nombre("Juan").email("juan@email.com").edad(25).build());
+        Long id = existente.getId();
+        // La validación corre entre la lectura y la escritura: ahí se elimina el usuario
+        doAnswer(invocacion -> {
+            repository.eliminar(id);
+            return null;
+        }).when(validationService).validarUsuarioParaActualizacion(any(), any());
+        UsuarioServiceRefactorizado service =
+                new UsuarioServiceRefactorizado(repository, validationService, respuestasCache, null);
+        UsuarioRefactorizado cambio = UsuarioRefactorizado.builder()
+                .nombre("Juan Carlos").email("juan.carlos@email.com").edad(26).build();
+
+        assertThrows(UsuarioNotFoundException.class, () -> service.actualizar(id, cambio));
+        assertTrue(repository.obtenerPorId(id).isEmpty());
+        assertFalse(repository.existeEmail("juan.carlos@email.com"));
+    }
+
+    @Test
+    void testActualizarConVersionVencida() {
+        UsuarioRefactorizado usuarioExistente = UsuarioRefactorizado.builder()
+                .id(1L)
+                .nombre("Juan")
+                .email("juan@email.com")
+                .edad(25)
+                .version(3L)
+                .build();
+        UsuarioRefactorizado cambio = UsuarioRefactorizado.builder()
+                .nombre("Juan Carlos")
+                .email("juan@email.com")
+                .edad(26)
+                .build();
+
+        when(usuarioRepository.obtenerPorId(1L)).thenReturn(Optional.of(usuarioExistente));
+
+        assertThrows(VersionConflictoException.class, () -> usuarioService.actualizar(1L, cambio, 2L));
+        verify(usuarioRepository, never()).actualizar(any(UsuarioRefactorizado.class), any());
+        verify(respuestasCache, never()).invalidar(anyLong());
+    }
+
+    @Test
+    void testAplicarCambiosNormalizaEInvalidaSinLeerAntes() {
+        CambiosUsuario cambios = new CambiosUsuario();
+        cambios.setEmail(" Juan.Nuevo@Email.com ");
+        UsuarioRefactorizado actualizado = UsuarioRefactorizado.builder()
+                .id(1L)
+                .nombre("JUAN")
+                .email("juan.nuevo@email.com")
+                .edad(25)
+                .version(2L)
+                .build();
+
+        when(usuarioRepository.aplicarCambios(1L, cambios, null)).thenReturn(Optional.of(actualizado));
+
+        assertSame(actualizado, usuarioService.aplicarCambios(1L, cambios, null));
+        assertEquals("juan.nuevo@email.com", cambios.getEmail());
+        verify(validationService).validarCambios(cambios);
+        verify(usuarioRepository, never()).obtenerPorId(anyLong());
+        verify(respuestasCache).invalidar(1L);
+    }
+
+    @Test
+    void testAplicarCambiosUsuarioNoExiste() {
+        CambiosUsuario cambios = new CambiosUsuario();
+        cambios.setEdad(30);
+        when(usuarioRepository.aplicarCambios(9L, cambios, null)).thenReturn(Optional.empty());
+
+        assertThrows(UsuarioNotFoundException.class, () -> usuarioService.aplicarCambios(9L, cambios, null));
+        verify(respuestasCache, never()).invalidar(anyLong());
     }
 
     @Test
@@ -128,5 +291,6 @@ class UsuarioServiceRefactorizadoTest {
 
         verify(usuarioRepository).obtenerPorId(1L);
         verify(usuarioRepository).eliminar(1L);
+        verify(respuestasCache).invalidar(1L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package pe.edu.vallegrande.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRespuestasUsuarioTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheRespuestasUsuario cache =
+            new CacheRespuestasUsuario(new ObjectMapper(), 1L << 20, meterRegistry);
+
+    @Test
+    void testSerializaUnaVezYRegistraAciertosYFallos() {
+        AtomicInteger cargas = new AtomicInteger();
+        UsuarioRefactorizado usuario = usuario("ANA", "ana@email.com", 1L);
+
+        CacheRespuestasUsuario.Respuesta primera = cache.obtener(1L, id -> {
+            cargas.incrementAndGet();
+            return usuario;
+        });
+        CacheRespuestasUsuario.Respuesta segunda = cache.obtener(1L, id -> {
+            cargas.incrementAndGet();
+            return usuario;
+        });
+
+        assertEquals(1, cargas.get());
+        assertSame(primera, segunda);
+        assertTrue(new String(primera.json(), StandardCharsets.UTF_8).contains("\"email\":\"ana@email.com\""));
+        assertEquals("\"1\"", primera.etag());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", CacheRespuestasUsuario.NOMBRE)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", CacheRespuestasUsuario.NOMBRE)
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testInvalidarCambiaElEtagCuandoCambiaElUsuario() {
+        String etagAnterior = cache.obtener(1L, id -> usuario("ANA", "ana@email.com", 1L)).etag();
+        assertEquals(etagAnterior, cache.obtener(1L, id -> usuario("OTRA", "otra@email.com", 2L)).etag());
+
+        cache.invalidar(1L);
+        CacheRespuestasUsuario.Respuesta nueva = cache.obtener(1L, id -> usuario("ANA MARIA", "ana@email.com", 2L));
+
+        assertEquals("\"2\"", nueva.etag());
+        assertTrue(new String(nueva.json(), StandardCharsets.UTF_8).contains("ANA MARIA"));
+    }
+
+    private static UsuarioRefactorizado usuario(String nombre, String email, long version) {
+        return UsuarioRefactorizado.builder().id(1L).nombre(nombre).email(email).edad(30).version(version).build();
+    }
+}
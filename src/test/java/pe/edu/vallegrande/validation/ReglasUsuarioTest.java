@@ -0,0 +1,73 @@
+package pe.edu.vallegrande.validation;
+
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.model.CambiosUsuario;
+import pe.edu.vallegrande.model.UsuarioRefactorizado;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReglasUsuarioTest {
+
+    private static final Pattern EMAIL_REGEX = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern TELEFONO_REGEX = Pattern.compile("^\\+?[0-9]{9,15}$");
+
+    @Test
+    void testEmailEquivalenteALaExpresionRegular() {
+        List<String> casos = List.of(
+            "juan@email.com", "j.p+tag@sub.dominio.pe", "a@b.co", "a@b.c", "@b.com", "a@.com",
+            "a@b..com", "a@@b.com", "a b@c.com", "a@b.c0m", "a@b-c.org", "a@bcom", "a@b.com.",
+            "a@b.com1", "ñ@b.com", "a@b.COM", "", "a@", ".@a.bc", "a@-.bc");
+
+        for (String email : casos) {
+            assertEquals(EMAIL_REGEX.matcher(email).matches(), ReglasUsuario.esEmailValido(email), email);
+        }
+        assertFalse(ReglasUsuario.esEmailValido(null));
+    }
+
+    @Test
+    void testCambiosSoloValidanLosCamposPresentes() {
+        CambiosUsuario soloTelefono = new CambiosUsuario();
+        soloTelefono.setTelefono(null);
+        assertNull(ReglasUsuario.buscarError(soloTelefono));
+
+        CambiosUsuario edadInvalida = new CambiosUsuario();
+        edadInvalida.setEdad(0);
+        assertEquals("La edad debe ser mayor a 0", ReglasUsuario.buscarError(edadInvalida));
+
+        // Un null explicito borra el campo, y nombre y email son obligatorios
+        CambiosUsuario sinEmail = new CambiosUsuario();
+        sinEmail.setEmail(null);
+        assertEquals("El email es obligatorio", ReglasUsuario.buscarError(sinEmail));
+
+        assertNull(ReglasUsuario.buscarError(new CambiosUsuario()));
+    }
+
+    @Test
+    void testTelefonoEquivalenteALaExpresionRegular() {
+        List<String> casos = List.of(
+            "987654321", "+51987654321", "12345678", "+12345678", "1234567890123456",
+            "123456789012345", "98765432a", "++987654321", "+", "");
+
+        for (String telefono : casos) {
+            assertEquals(TELEFONO_REGEX.matcher(telefono).matches(), ReglasUsuario.esTelefonoValido(telefono), telefono);
+        }
+        assertTrue(ReglasUsuario.esTelefonoValido(null));
+    }
+
+    @Test
+    void testBuscarErrorDevuelveElPrimerError() {
+        UsuarioRefactorizado valido = UsuarioRefactorizado.builder()
+                .nombre("Juan").email("juan@email.com").edad(25).telefono("987654321").build();
+        UsuarioRefactorizado sinNombre = UsuarioRefactorizado.builder()
+                .nombre("  ").email("no-es-email").edad(0).build();
+        UsuarioRefactorizado edadInvalida = UsuarioRefactorizado.builder()
+                .nombre("Juan").email("juan@email.com").edad(121).build();
+
+        assertNull(ReglasUsuario.buscarError(valido));
+        assertEquals("El nombre es obligatorio", ReglasUsuario.buscarError(sinNombre));
+        assertNotNull(ReglasUsuario.buscarError(edadInvalida));
+    }
+}